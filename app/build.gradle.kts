@@ -1,7 +1,15 @@
+import ies.carrillo.impostor.build.CompileWordPacksTask
+
 plugins {
     alias(libs.plugins.android.application)
 }
 
+// Paquetes predefinidos: CSV en src/main/packs -> assets/packs/*.pack (formato binario mapeable)
+val compileWordPacks = tasks.register<CompileWordPacksTask>("compileWordPacks") {
+    sourceDir.set(layout.projectDirectory.dir("src/main/packs"))
+    outputDir.set(layout.buildDirectory.dir("generated/wordPacks"))
+}
+
 android {
     namespace = "ies.carrillo.impostor"
     compileSdk = 35
@@ -26,13 +34,33 @@ android {
         }
     }
 
+    sourceSets {
+        // WordPackCompiler (buildSrc) para probar que un paquete compilado se lee igual que el CSV
+        getByName("test").java.srcDir("$rootDir/buildSrc/src/shared/java")
+    }
+
+    androidResources {
+        // Los .pack se mapean en memoria directamente desde el APK: deben ir sin comprimir.
+        noCompress += "pack"
+    }
+
     compileOptions {
         sourceCompatibility = JavaVersion.VERSION_1_8
         targetCompatibility = JavaVersion.VERSION_1_8
     }
 }
 
+androidComponents {
+    onVariants { variant ->
+        variant.sources.assets?.addGeneratedSourceDirectory(
+            compileWordPacks,
+            CompileWordPacksTask::getOutputDir
+        )
+    }
+}
+
 dependencies {
+    implementation(project(":engine"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
@@ -0,0 +1,66 @@
+package ies.carrillo.impostor;
+
+import android.app.Application;
+import android.content.ComponentCallbacks2;
+import android.content.pm.ApplicationInfo;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.Settings;
+
+import ies.carrillo.impostor.dataBase.DataBase;
+import ies.carrillo.impostor.metrics.ActivityMetrics;
+import ies.carrillo.impostor.metrics.Metrics;
+import ies.carrillo.impostor.metrics.StallLog;
+import ies.carrillo.impostor.metrics.StallWatchdog;
+import ies.carrillo.impostor.metrics.TraceRecorder;
+import ies.carrillo.impostor.session.GameSessionRegistry;
+import ies.carrillo.impostor.utils.AvatarCache;
+
+/**
+ * Punto de entrada del proceso. Registra el contexto de aplicación, dónde se
+ * guarda la partida en curso y la instrumentación: en compilaciones depurables
+ * arranca el {@link StallWatchdog} (antes que nada más) y activa
+ * {@link Metrics}, {@link TraceRecorder} y las mediciones de
+ * {@link ActivityMetrics}.
+ * <p>
+ * No carga datos: la carga de la {@link DataBase} la lanza
+ * {@code StartupPipeline} desde la pantalla de inicio (o, si no, el primer uso).
+ */
+public class ImpostorApplication extends Application {
+
+    // Un atasco es el hilo principal sin atender su cola durante más de esto
+    private static final long STALL_THRESHOLD_MS = 250;
+    private static final long STALL_SAMPLE_MS = 20;
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // Histogramas, panel de métricas, línea temporal y vigilante solo en compilaciones depurables
+        boolean debuggable = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        if (debuggable) {
+            // Antes de nada más: el propio arranque también puede atascar el hilo principal
+            Handler main = new Handler(Looper.getMainLooper());
+            new StallWatchdog(Looper.getMainLooper().getThread(), main::post, STALL_THRESHOLD_MS, STALL_SAMPLE_MS,
+                    getPackageName(), StallLog.in(getFilesDir())).start();
+        }
+        Metrics.setEnabled(debuggable);
+        TraceRecorder.setEnabled(debuggable);
+        registerActivityLifecycleCallbacks(new ActivityMetrics(debuggable));
+
+        DataBase.init(this);
+        // Antes que cualquier actividad: una recreada tras morir el proceso retoma su partida
+        GameSessionRegistry.init(getFilesDir(),
+                Settings.Global.getInt(getContentResolver(), Settings.Global.BOOT_COUNT, -1));
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // En segundo plano o con poca memoria se vacía; si no, se reduce a la mitad.
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_BACKGROUND) {
+            AvatarCache.get().trim(true);
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            AvatarCache.get().trim(false);
+        }
+    }
+}
@@ -5,7 +5,6 @@ import android.graphics.Color;
 import android.net.Uri;
 import android.os.Bundle;
 import android.text.TextUtils;
-import android.util.Log;
 import android.view.View;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -36,6 +35,7 @@ import ies.carrillo.impostor.adapters.ProfileImageAdapter;
 import ies.carrillo.impostor.dataBase.DataBase;
 import ies.carrillo.impostor.model.Jugador;
 import ies.carrillo.impostor.utils.ProfileImageSelectionListener;
+import ies.carrillo.impostor.utils.ProfilePhotoImporter;
 
 // IMPLEMENTACIÓN DE LA INTERFAZ DE SELECCIÓN DE IMAGEN
 public class AddPlayersActivity extends AppCompatActivity implements PlayersAdapter.OnPlayerActionListener, ProfileImageSelectionListener {
@@ -47,7 +47,7 @@ public class AddPlayersActivity extends AppCompatActivity implements PlayersAdap
     private TextView tvListHeader;
 
     private PlayersAdapter adapter;
-    private List<Jugador> playersList = new ArrayList<>();
+    private final List<Jugador> playersList = new ArrayList<>();
 
     private final int MIN_PLAYERS = 3;
     private final int MAX_PLAYERS = 20;
@@ -55,6 +55,7 @@ public class AddPlayersActivity extends AppCompatActivity implements PlayersAdap
     // --- VARIABLES DE FOTO DE PERFIL ---
     private int playerToEditPosition = RecyclerView.NO_POSITION;
     private ActivityResultLauncher<Intent> imagePickerLauncher; // NECESARIO
+    private ProfilePhotoImporter photoImporter;
 
     // Lista de IDs de recursos predefinidos
     private final List<Integer> predefinedImageIds = Arrays.asList(
@@ -92,14 +93,14 @@ public class AddPlayersActivity extends AppCompatActivity implements PlayersAdap
             return insets;
         });
 
-        loadExistingPlayers();
-
         inicializarVistas();
         configurarRecyclerView();
         configurarListeners();
         setupImagePickerLauncher(); // 💥 Descomentado: Inicializa el launcher para la Galería
+        photoImporter = new ProfilePhotoImporter(this);
 
         onPlayerCountChanged(playersList.size());
+        loadExistingPlayers();
     }
 
     // Método auxiliar para convertir ID de recurso a String URI
@@ -118,23 +119,7 @@ public class AddPlayersActivity extends AppCompatActivity implements PlayersAdap
                         if (playerToEditPosition != RecyclerView.NO_POSITION) {
                             Uri imageUri = result.getData().getData();
                             if (imageUri != null) {
-
-                                // 💥 Persistir el permiso URI (CRÍTICO para URIs de Galería)
-                                final int takeFlags = Intent.FLAG_GRANT_READ_URI_PERMISSION;
-
-                                try {
-                                    getContentResolver().takePersistableUriPermission(imageUri, takeFlags);
-                                } catch (SecurityException e) {
-                                    Log.e("AddPlayersActivity", "Error al tomar permiso persistente de URI: " + e.getMessage());
-                                }
-
-                                // Guardar la URI como String en el modelo
-                                String uriString = imageUri.toString();
-                                Jugador jugador = playersList.get(playerToEditPosition);
-                                jugador.setProfileImageUri(uriString);
-
-                                adapter.notifyItemChanged(playerToEditPosition);
-                                Toast.makeText(this, "Foto de " + jugador.getName() + " actualizada.", Toast.LENGTH_SHORT).show();
+                                importarFoto(playersList.get(playerToEditPosition), imageUri);
                             }
                         }
                     }
@@ -143,6 +128,33 @@ public class AddPlayersActivity extends AppCompatActivity implements PlayersAdap
         );
     }
 
+    /**
+     * Convierte la foto elegida en una miniatura propia (en segundo plano) y
+     * se la asigna al jugador. La foto original no se vuelve a leer, así que
+     * no hace falta conservar el permiso sobre su URI.
+     */
+    private void importarFoto(Jugador jugador, Uri imageUri) {
+        photoImporter.importPhoto(imageUri, new ProfilePhotoImporter.Callback() {
+            @Override
+            public void onImported(String uri) {
+                if (isDestroyed()) return;
+                // La posición puede haber cambiado mientras se procesaba.
+                int position = playersList.indexOf(jugador);
+                if (position == -1) return;
+
+                jugador.setProfileImageUri(uri);
+                adapter.notifyItemChanged(position, PlayersAdapter.PAYLOAD_AVATAR);
+                Toast.makeText(AddPlayersActivity.this, "Foto de " + jugador.getName() + " actualizada.", Toast.LENGTH_SHORT).show();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                if (isDestroyed()) return;
+                Toast.makeText(AddPlayersActivity.this, "No se pudo cargar la foto.", Toast.LENGTH_SHORT).show();
+            }
+        });
+    }
+
     /**
      * Abre el selector de imágenes de la galería del dispositivo.
      */
@@ -150,8 +162,7 @@ public class AddPlayersActivity extends AppCompatActivity implements PlayersAdap
         Intent intent = new Intent(Intent.ACTION_OPEN_DOCUMENT);
         intent.addCategory(Intent.CATEGORY_OPENABLE);
         intent.setType("image/*");
-        // Añadir flags de persistencia para mantener el acceso
-        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION | Intent.FLAG_GRANT_PERSISTABLE_URI_PERMISSION);
+        intent.addFlags(Intent.FLAG_GRANT_READ_URI_PERMISSION);
         imagePickerLauncher.launch(intent);
     }
     /* ----------------------------------------------------------------- */
@@ -197,8 +208,8 @@ public class AddPlayersActivity extends AppCompatActivity implements PlayersAdap
             Jugador jugador = playersList.get(playerToEditPosition);
             jugador.setProfileImageUri(profileUri);
 
-            // 3. Notificar al adaptador y limpiar
-            adapter.notifyItemChanged(playerToEditPosition);
+            // 3. Notificar al adaptador (solo se repinta el avatar) y limpiar
+            adapter.notifyItemChanged(playerToEditPosition, PlayersAdapter.PAYLOAD_AVATAR);
             Toast.makeText(this, "Avatar de " + jugador.getName() + " actualizado.", Toast.LENGTH_SHORT).show();
         }
         playerToEditPosition = RecyclerView.NO_POSITION; // Resetear posición
@@ -207,11 +218,19 @@ public class AddPlayersActivity extends AppCompatActivity implements PlayersAdap
     // --- FIN LÓGICA DE SELECCIÓN DE IMAGEN PREDEFINIDA ---
 
 
+    /**
+     * Vuelca la plantilla guardada en la lista. Hasta que se aplica no se
+     * pueden añadir jugadores, para no mezclar filas nuevas con el diff.
+     */
     private void loadExistingPlayers() {
         DataBase db = DataBase.getInstance();
-        if (!db.getJugadores().isEmpty()) {
-            this.playersList = new ArrayList<>(db.getJugadores());
-        }
+        if (db.getJugadores().isEmpty()) return;
+
+        btnAddPlayer.setEnabled(false);
+        adapter.submitList(db.getJugadores(), () -> {
+            btnAddPlayer.setEnabled(true);
+            onPlayerCountChanged(playersList.size());
+        });
     }
 
     private void inicializarVistas() {
@@ -293,6 +312,11 @@ public class AddPlayersActivity extends AppCompatActivity implements PlayersAdap
         DataBase db = DataBase.getInstance();
         db.setJugadores(new ArrayList<>(playersList));
 
+        // Las fotos importadas que ya no usa nadie se borran.
+        List<String> avatares = new ArrayList<>();
+        for (Jugador jugador : playersList) avatares.add(jugador.getProfileImageUri());
+        photoImporter.prune(avatares);
+
         Toast.makeText(this, "Jugadores guardados: " + playersList.size(), Toast.LENGTH_SHORT).show();
         finish();
     }
@@ -368,12 +392,12 @@ public class AddPlayersActivity extends AppCompatActivity implements PlayersAdap
 
             if (colorAlreadyUsed) {
                 Toast.makeText(this, "Ese color ya está en uso.", Toast.LENGTH_SHORT).show();
-                adapter.notifyItemChanged(position);
+                adapter.notifyItemChanged(position, PlayersAdapter.PAYLOAD_COLOR);
                 return;
             }
 
             jugador.setColorHex(newColorHex);
-            adapter.notifyItemChanged(position);
+            adapter.notifyItemChanged(position, PlayersAdapter.PAYLOAD_COLOR);
         }
     }
 
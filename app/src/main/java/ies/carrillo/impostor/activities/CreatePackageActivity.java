@@ -2,13 +2,24 @@ package ies.carrillo.impostor.activities;
 
 import android.app.Activity;
 import android.content.Intent;
+import android.database.Cursor;
+import android.net.Uri;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.provider.OpenableColumns;
+import android.text.Editable;
 import android.text.TextUtils;
+import android.text.TextWatcher;
+import android.util.Log;
 import android.view.View;
+import android.widget.ProgressBar;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
+import androidx.activity.result.ActivityResultLauncher;
+import androidx.activity.result.contract.ActivityResultContracts;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
@@ -19,36 +30,71 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textfield.TextInputEditText;
 
-import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import ies.carrillo.impostor.R;
 import ies.carrillo.impostor.adapters.WordPairAdapter; // Importar el nuevo adaptador
 import ies.carrillo.impostor.dataBase.DataBase;
 import ies.carrillo.impostor.model.Categoria;
+import ies.carrillo.impostor.model.SortedWordList;
+import ies.carrillo.impostor.model.WordIndex;
+import ies.carrillo.impostor.model.WordPackCodec;
+import ies.carrillo.impostor.model.WordStore;
 
 public class CreatePackageActivity extends AppCompatActivity
         implements WordPairAdapter.OnPairActionListener { // Implementar interfaz para borrar pares
 
+    private static final String TAG = "CreatePackageActivity";
+    // Tipos que ofrece el selector de ficheros al importar.
+    private static final String[] IMPORT_MIME_TYPES = {
+            "text/csv", "text/comma-separated-values", "text/plain",
+            "application/json", "application/x-ndjson", "application/octet-stream"
+    };
+
     private TextInputEditText etPackageName;
     private TextInputEditText etSecretWord;
     private TextInputEditText etImpostorClue;
+    private TextInputEditText etSearchWords;
     private MaterialButton btnSavePackage;
     private MaterialButton btnAddWord;
+    private MaterialButton btnImportWords;
+    private MaterialButton btnExportWords;
+    private ProgressBar pbImport;
     private RecyclerView rvWordPairs;
+    private View tilSearchWords;
     private TextView tvTitle;
     private TextView tvEmptyList;
 
     private WordPairAdapter wordPairAdapter;
 
     private Categoria categoryToEdit = null;
-    // categoryWords es el HashMap de Palabras/Pistas que se guarda en el objeto Categoria.
-    private HashMap<String, String> categoryWords;
-
+    // categoryWords es el almacén de Palabras/Pistas que se guarda en el objeto Categoria.
+    // Al editar es una copia: los cambios no se aplican hasta guardar.
+    private WordStore categoryWords;
+    // Claves normalizadas (WordIndex.normalize) de categoryWords: "Árbol" y "arbol" son la misma.
+    private final HashSet<String> clavesPaquete = new HashSet<>();
+    // Orden alfabético de categoryWords para la lista; lo mantiene el adaptador.
+    private SortedWordList palabrasOrdenadas;
+
+    // Importación/exportación en segundo plano. Mientras dura, categoryWords
+    // solo lo toca ese hilo y la lista se muestra vacía.
+    private final ExecutorService ioExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private boolean busy = false;
+    private ActivityResultLauncher<String[]> importLauncher;
+    private ActivityResultLauncher<String> exportCsvLauncher;
+
+    // Se pasan nombres y no objetos: un paquete de miles de pares no cabe en un Intent.
     public static final String CATEGORY_TO_EDIT_KEY = "CATEGORY_TO_EDIT";
     public static final String CATEGORY_RETURNED_KEY = "CATEGORY_RETURNED";
 
@@ -68,9 +114,20 @@ public class CreatePackageActivity extends AppCompatActivity
         loadPackageForEditing();
         configurarRecyclerView();
         configurarListeners();
+        configurarFicheros();
 
         // Actualizar el estado inicial de la lista
         updateWordListUI();
+
+        // El índice global se construye la primera vez que se pide: mejor aquí, antes de escribir.
+        ioExecutor.execute(() -> DataBase.getInstance().getWordIndex());
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Interrumpe una importación en curso: lo ya leído se descarta con la actividad.
+        ioExecutor.shutdownNow();
     }
 
     private void inicializarVistas() {
@@ -78,17 +135,19 @@ public class CreatePackageActivity extends AppCompatActivity
         etPackageName = findViewById(R.id.et_package_name);
         etSecretWord = findViewById(R.id.et_secret_word);
         etImpostorClue = findViewById(R.id.et_impostor_clue);
+        etSearchWords = findViewById(R.id.et_search_words);
+        tilSearchWords = findViewById(R.id.til_search_words);
         btnSavePackage = findViewById(R.id.btn_save_package);
         btnAddWord = findViewById(R.id.btn_add_word); // Nuevo botón
+        btnImportWords = findViewById(R.id.btn_import_words);
+        btnExportWords = findViewById(R.id.btn_export_words);
+        pbImport = findViewById(R.id.pb_import);
         rvWordPairs = findViewById(R.id.rv_word_pairs); // Nuevo RecyclerView
         tvEmptyList = findViewById(R.id.tv_empty_list); // Texto de lista vacía
     }
 
     private void configurarRecyclerView() {
-        // Convertir el HashMap a una lista de claves (Palabras Secretas) para el adaptador
-        List<String> secretWordsList = new ArrayList<>(categoryWords.keySet());
-
-        wordPairAdapter = new WordPairAdapter(this, categoryWords, secretWordsList, this);
+        wordPairAdapter = new WordPairAdapter(this, categoryWords, palabrasOrdenadas, this);
         rvWordPairs.setLayoutManager(new LinearLayoutManager(this));
         rvWordPairs.setAdapter(wordPairAdapter);
     }
@@ -96,15 +155,31 @@ public class CreatePackageActivity extends AppCompatActivity
     private void configurarListeners() {
         btnSavePackage.setOnClickListener(v -> savePackageAndFinish());
         btnAddWord.setOnClickListener(v -> addWordToPackage()); // Nuevo listener para añadir
+        btnImportWords.setOnClickListener(v -> importLauncher.launch(IMPORT_MIME_TYPES));
+        btnExportWords.setOnClickListener(v -> exportCsvLauncher.launch(nombreExportacion()));
+        // Filtrar a cada tecla: el adaptador solo hace dos búsquedas binarias
+        etSearchWords.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                wordPairAdapter.setFilter(s.toString());
+            }
+        });
     }
 
     private void loadPackageForEditing() {
-        Serializable extra = getIntent().getSerializableExtra(CATEGORY_TO_EDIT_KEY);
+        String nombre = getIntent().getStringExtra(CATEGORY_TO_EDIT_KEY);
+        Categoria extra = nombre != null ? DataBase.getInstance().getCustomCategory(nombre) : null;
         String titleText;
 
-        if (extra instanceof Categoria) {
-            this.categoryToEdit = (Categoria) extra;
-            this.categoryWords = new HashMap<>(this.categoryToEdit.getPalabras());
+        if (extra != null) {
+            this.categoryToEdit = extra;
+            this.categoryWords = new WordStore(this.categoryToEdit.getWordStore());
 
             etPackageName.setText(this.categoryToEdit.getName());
             etPackageName.setEnabled(false); // No se permite cambiar el nombre al editar
@@ -115,17 +190,22 @@ public class CreatePackageActivity extends AppCompatActivity
 
             // Si hay palabras, mostrar el primer par en los campos de texto
             if (!this.categoryWords.isEmpty()) {
-                String firstWord = Objects.requireNonNull(this.categoryWords.keySet().iterator().next());
-                etSecretWord.setText(firstWord);
-                etImpostorClue.setText(this.categoryWords.get(firstWord));
+                etSecretWord.setText(this.categoryWords.wordAt(0));
+                etImpostorClue.setText(this.categoryWords.clueAt(0));
             }
         } else {
-            this.categoryWords = new HashMap<>();
+            this.categoryWords = new WordStore();
             btnSavePackage.setText(getString(R.string.btn_save_package));
             titleText = getString(R.string.title_create_new_package);
         }
 
         tvTitle.setText(titleText);
+
+        // Las claves ya salen normalizadas del orden: no se calculan dos veces.
+        palabrasOrdenadas = new SortedWordList(categoryWords);
+        for (int i = 0; i < palabrasOrdenadas.size(); i++) {
+            clavesPaquete.add(palabrasOrdenadas.keyAt(i));
+        }
     }
 
     /**
@@ -141,16 +221,31 @@ public class CreatePackageActivity extends AppCompatActivity
             Toast.makeText(this, "Por favor, ingresa la Palabra Secreta y la Pista.", Toast.LENGTH_LONG).show();
             return;
         }
-        if (secretWord.equalsIgnoreCase(impostorClue)) {
+        if (WordIndex.sameText(secretWord, impostorClue)) {
             Toast.makeText(this, "La Palabra Secreta y la Pista no pueden ser iguales.", Toast.LENGTH_LONG).show();
             return;
         }
+        // La misma palabra exacta solo cambia la pista; otra escritura de una que ya está, no.
+        String clave = WordIndex.normalize(secretWord);
+        if (!categoryWords.containsWord(secretWord) && clavesPaquete.contains(clave)) {
+            Toast.makeText(this, getString(R.string.toast_word_duplicate_here, secretWord), Toast.LENGTH_LONG).show();
+            return;
+        }
+        // Sin esperar al índice: si aún se está construyendo (recién abierta la
+        // pantalla, muchos paquetes) esta palabra se añade sin mirar los demás.
+        WordIndex indice = DataBase.getInstance().getWordIndexIfReady();
+        String otroPaquete = indice != null ? indice.findPack(secretWord, nombrePaqueteEditado()) : null;
+        if (otroPaquete != null) {
+            Toast.makeText(this, getString(R.string.toast_word_duplicate_other, secretWord, otroPaquete), Toast.LENGTH_LONG).show();
+            return;
+        }
 
-        // 2. Añadir/Sobreescribir el par en el HashMap
+        // 2. Añadir/Sobreescribir el par en el almacén
         categoryWords.put(secretWord, impostorClue);
+        clavesPaquete.add(clave);
 
-        // 3. Notificar al adaptador y limpiar campos de texto
-        wordPairAdapter.updateWords(new ArrayList<>(categoryWords.keySet()));
+        // 3. Notificar al adaptador (solo esa fila) y limpiar campos de texto
+        wordPairAdapter.onPairPut(secretWord);
         etSecretWord.setText("");
         etImpostorClue.setText("");
 
@@ -165,9 +260,11 @@ public class CreatePackageActivity extends AppCompatActivity
     private void updateWordListUI() {
         if (categoryWords.isEmpty()) {
             rvWordPairs.setVisibility(View.GONE);
+            tilSearchWords.setVisibility(View.GONE);
             tvEmptyList.setVisibility(View.VISIBLE);
         } else {
             rvWordPairs.setVisibility(View.VISIBLE);
+            tilSearchWords.setVisibility(View.VISIBLE);
             tvEmptyList.setVisibility(View.GONE);
         }
     }
@@ -177,18 +274,160 @@ public class CreatePackageActivity extends AppCompatActivity
      */
     @Override
     public void onDeletePairClicked(String secretWord) {
-        if (categoryWords.containsKey(secretWord)) {
-            categoryWords.remove(secretWord);
-            wordPairAdapter.updateWords(new ArrayList<>(categoryWords.keySet()));
+        if (busy) return;
+        if (categoryWords.remove(secretWord) != null) {
+            clavesPaquete.remove(WordIndex.normalize(secretWord));
+            wordPairAdapter.onPairRemoved(secretWord);
             updateWordListUI();
             Toast.makeText(this, "Par '" + secretWord + "' eliminado del paquete.", Toast.LENGTH_SHORT).show();
         }
     }
 
+    // ******************************************************
+    // IMPORTAR / EXPORTAR (Storage Access Framework)
+    // ******************************************************
+
+    private void configurarFicheros() {
+        importLauncher = registerForActivityResult(new ActivityResultContracts.OpenDocument(), uri -> {
+            if (uri != null) importarPares(uri);
+        });
+        exportCsvLauncher = registerForActivityResult(new ActivityResultContracts.CreateDocument("text/csv"), uri -> {
+            if (uri != null) exportarPares(uri);
+        });
+    }
+
+    /**
+     * Lee el fichero en segundo plano y escribe los pares directamente en
+     * categoryWords. La barra avanza por bytes leídos.
+     */
+    private void importarPares(Uri uri) {
+        String displayName = consultarNombre(uri);
+        long totalBytes = consultarTamano(uri);
+        WordPackCodec.Format format = WordPackCodec.Format.fromFileName(displayName);
+        WordStore destino = categoryWords;
+        HashSet<String> claves = clavesPaquete;
+
+        setBusy(true);
+        ioExecutor.execute(() -> {
+            WordPackCodec.Result result = null;
+            try (InputStream in = getContentResolver().openInputStream(uri)) {
+                if (in == null) throw new IOException("Sin acceso a " + uri);
+                result = WordPackCodec.importPairs(in, totalBytes, format, destino, claves,
+                        (read, total, imported) -> mainHandler.post(() -> mostrarProgreso(read, total)));
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Importación fallida: " + uri, e);
+            }
+            // Aunque falle a medias, lo ya importado está en el almacén: se reordena todo aquí.
+            final SortedWordList ordenadas = new SortedWordList(destino);
+            final WordPackCodec.Result resultado = result;
+            mainHandler.post(() -> terminarImportacion(resultado, ordenadas));
+        });
+    }
+
+    private void terminarImportacion(WordPackCodec.Result result, SortedWordList ordenadas) {
+        if (isDestroyed()) return;
+        palabrasOrdenadas = ordenadas;
+        wordPairAdapter.replaceAll(ordenadas);
+        setBusy(false);
+        updateWordListUI();
+        if (result == null) {
+            Toast.makeText(this, getString(R.string.toast_import_failed), Toast.LENGTH_LONG).show();
+            return;
+        }
+        Toast.makeText(this, getString(R.string.toast_import_done, result.imported, result.rejected()), Toast.LENGTH_SHORT).show();
+        if (result.rejected() > 0) {
+            Toast.makeText(this, getString(R.string.toast_import_rejected_detail,
+                    result.duplicates, result.empty, result.tooLong, result.sameAsClue, result.malformed,
+                    result.firstRejectedLine), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    private void exportarPares(Uri uri) {
+        WordStore origen = categoryWords;
+        setBusy(true);
+        ioExecutor.execute(() -> {
+            boolean ok = false;
+            try (OutputStream out = getContentResolver().openOutputStream(uri)) {
+                if (out == null) throw new IOException("Sin acceso a " + uri);
+                Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+                WordPackCodec.exportPairs(origen, WordPackCodec.Format.CSV, writer);
+                ok = true;
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "Exportación fallida: " + uri, e);
+            }
+            final boolean exito = ok;
+            final int pares = origen.size();
+            mainHandler.post(() -> {
+                if (isDestroyed()) return;
+                setBusy(false);
+                if (exito) {
+                    Toast.makeText(this, getString(R.string.toast_export_done, pares), Toast.LENGTH_SHORT).show();
+                } else {
+                    Toast.makeText(this, getString(R.string.toast_export_failed), Toast.LENGTH_LONG).show();
+                }
+            });
+        });
+    }
+
     /**
-     * Valida los campos, guarda/actualiza la categoría en la Base de Datos, devuelve el objeto y cierra la actividad.
+     * Bloquea la edición mientras otro hilo usa categoryWords. La lista se
+     * vacía para que el RecyclerView no lea el almacén a la vez.
+     */
+    private void setBusy(boolean busy) {
+        this.busy = busy;
+        wordPairAdapter.setPaused(busy);
+        btnAddWord.setEnabled(!busy);
+        btnSavePackage.setEnabled(!busy);
+        btnImportWords.setEnabled(!busy);
+        btnExportWords.setEnabled(!busy);
+        pbImport.setProgress(0);
+        pbImport.setIndeterminate(busy);
+        pbImport.setVisibility(busy ? View.VISIBLE : View.GONE);
+    }
+
+    private void mostrarProgreso(long read, long total) {
+        if (!busy || total <= 0) return;
+        pbImport.setIndeterminate(false);
+        pbImport.setProgress((int) Math.min(pbImport.getMax(), read * pbImport.getMax() / total));
+    }
+
+    /**
+     * Nombre con el que está guardado (o se guardará) el paquete: sus propias
+     * palabras no cuentan como duplicadas de otro paquete.
+     */
+    private String nombrePaqueteEditado() {
+        if (categoryToEdit != null) return categoryToEdit.getName();
+        return Objects.requireNonNull(etPackageName.getText()).toString().trim();
+    }
+
+    private String nombreExportacion() {
+        String nombre = Objects.requireNonNull(etPackageName.getText()).toString().trim();
+        return (nombre.isEmpty() ? "paquete" : nombre) + ".csv";
+    }
+
+    private String consultarNombre(Uri uri) {
+        try (Cursor cursor = getContentResolver().query(uri, new String[]{OpenableColumns.DISPLAY_NAME}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) return cursor.getString(0);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Sin nombre para " + uri, e);
+        }
+        return uri.getLastPathSegment();
+    }
+
+    private long consultarTamano(Uri uri) {
+        try (Cursor cursor = getContentResolver().query(uri, new String[]{OpenableColumns.SIZE}, null, null, null)) {
+            if (cursor != null && cursor.moveToFirst() && !cursor.isNull(0)) return cursor.getLong(0);
+        } catch (RuntimeException e) {
+            Log.w(TAG, "Sin tamaño para " + uri, e);
+        }
+        return -1;
+    }
+
+    /**
+     * Valida los campos, guarda/actualiza la categoría en la Base de Datos, devuelve su nombre y cierra la actividad.
      */
     private void savePackageAndFinish() {
+        if (busy) return;
         // 1. Obtener el nombre del paquete
         String packageName = Objects.requireNonNull(etPackageName.getText()).toString().trim();
 
@@ -201,12 +440,23 @@ public class CreatePackageActivity extends AppCompatActivity
             Toast.makeText(this, "El paquete debe contener al menos un par de Palabra/Pista.", Toast.LENGTH_LONG).show();
             return;
         }
+        // El nombre identifica al paquete (selección, índices): no puede repetirse.
+        // Lo de los predefinidos vale también al editar un paquete antiguo que ya se llamaba así.
+        DataBase db = DataBase.getInstance();
+        if (db.isPredefinedName(packageName)) {
+            Toast.makeText(this, getString(R.string.toast_package_name_predefined, packageName), Toast.LENGTH_LONG).show();
+            return;
+        }
+        if (categoryToEdit == null && db.getCustomCategory(packageName) != null) {
+            Toast.makeText(this, getString(R.string.toast_package_name_taken, packageName), Toast.LENGTH_LONG).show();
+            return;
+        }
 
-        // 3. Crear o Actualizar el Objeto Categoria
+        // 3. Crear o Actualizar el Objeto Categoria (el almacén editado pasa tal cual, sin copiarlo)
         Categoria finalCategory;
         if (categoryToEdit != null) {
             finalCategory = categoryToEdit;
-            finalCategory.setPalabras(categoryWords);
+            finalCategory.setWordStore(categoryWords);
             Toast.makeText(this, "Paquete '" + packageName + "' actualizado correctamente.", Toast.LENGTH_SHORT).show();
         } else {
             finalCategory = new Categoria(packageName, categoryWords);
@@ -214,14 +464,14 @@ public class CreatePackageActivity extends AppCompatActivity
         }
 
         // 4. GUARDAR EN LA BASE DE DATOS
-        DataBase.getInstance().saveCustomCategory(finalCategory);
+        db.saveCustomCategory(finalCategory);
 
-        // 5. Devolver el objeto guardado
+        // 5. Devolver el nombre del paquete guardado
         Intent resultIntent = new Intent();
-        resultIntent.putExtra(CATEGORY_RETURNED_KEY, finalCategory);
+        resultIntent.putExtra(CATEGORY_RETURNED_KEY, finalCategory.getName());
 
         // 6. Cerrar
         setResult(Activity.RESULT_OK, resultIntent);
         finish();
     }
-}
\ No newline at end of file
+}
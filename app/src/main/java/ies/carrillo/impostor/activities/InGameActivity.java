@@ -3,7 +3,7 @@ package ies.carrillo.impostor.activities;
 import android.content.Intent;
 import android.graphics.Color;
 import android.os.Bundle;
-import android.os.CountDownTimer;
+import android.os.SystemClock;
 import android.view.View;
 import android.widget.LinearLayout;
 import android.widget.TextView;
@@ -22,34 +22,39 @@ import com.google.android.material.button.MaterialButton;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Locale;
 
 import ies.carrillo.impostor.R;
 import ies.carrillo.impostor.adapters.PlayersAdapter;
+import ies.carrillo.impostor.engine.GameEngine;
+import ies.carrillo.impostor.metrics.Metrics;
+import ies.carrillo.impostor.metrics.TraceRecorder;
 import ies.carrillo.impostor.model.Jugador;
-import ies.carrillo.impostor.roles.Roles;
+import ies.carrillo.impostor.session.DiscussionTimer;
+import ies.carrillo.impostor.session.GameSession;
+import ies.carrillo.impostor.session.GameSessionRegistry;
 
 public class InGameActivity extends AppCompatActivity implements PlayersAdapter.OnPlayerActionListener {
 
-    public static final String EXTRA_PLAYERS_WITH_ROLES = "JUGADORES_CON_ROLES";
-    public static final String EXTRA_DURATION_MINUTES = "DURACION_MINUTOS";
-
     private TextView tvTimer;
     private RecyclerView rvActivePlayers;
     private LinearLayout overlayEndGame;
     private TextView tvEndGameTitle, tvEndGameSubtitle;
     private MaterialButton btnBackToMenu;
 
+    private int sessionId;
+    private GameSession session;
+    private GameEngine engine;
     private PlayersAdapter adapter;
     private final List<Jugador> activePlayers = new ArrayList<>();
-    private CountDownTimer countDownTimer;
-    private long timeLeftInMillis;
+    private DiscussionTimer discussionTimer;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         EdgeToEdge.enable(this);
+        long inflate = Metrics.begin(Metrics.INFLATE);
         setContentView(R.layout.activity_in_game);
+        Metrics.end(Metrics.INFLATE, inflate);
 
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
             Insets bars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
@@ -58,8 +63,14 @@ public class InGameActivity extends AppCompatActivity implements PlayersAdapter.
         });
 
         initViews();
-        loadIntentData();
+        if (!loadIntentData()) return;
         setupRecyclerView();
+
+        if (engine.getPhase() == GameEngine.Phase.RESULT) {
+            // Actividad recreada con la partida ya decidida.
+            showWinner(engine.getWinner());
+            return;
+        }
         startTimer();
     }
 
@@ -73,23 +84,38 @@ public class InGameActivity extends AppCompatActivity implements PlayersAdapter.
         btnBackToMenu = findViewById(R.id.btn_back_to_menu);
 
         btnBackToMenu.setOnClickListener(v -> {
+            GameSessionRegistry.release(sessionId);
             Intent i = new Intent(this, MainActivity.class);
             i.setFlags(Intent.FLAG_ACTIVITY_NEW_TASK | Intent.FLAG_ACTIVITY_CLEAR_TASK);
             startActivity(i);
         });
     }
 
-    private void loadIntentData() {
+    private boolean loadIntentData() {
         Intent intent = getIntent();
 
-        List<Jugador> received = (List<Jugador>) intent.getSerializableExtra(EXTRA_PLAYERS_WITH_ROLES);
-        if (received != null) {
-            activePlayers.clear();
-            activePlayers.addAll(received);
+        session = GameSessionRegistry.from(intent);
+        sessionId = GameSessionRegistry.idFrom(intent);
+        if (session == null) {
+            Toast.makeText(this, "Error: No se encontró la partida.", Toast.LENGTH_LONG).show();
+            finish();
+            return false;
         }
 
-        int minutes = intent.getIntExtra(EXTRA_DURATION_MINUTES, 5);
-        timeLeftInMillis = minutes * 60_000L;
+        engine = session.getEngine();
+        if (engine.getPhase() == GameEngine.Phase.REVEAL) {
+            // Sesión restaurada tras morir el proceso: los jugadores ya vieron su rol.
+            engine.finishReveal();
+            GameSessionRegistry.persist(sessionId, session);
+        }
+
+        // La lista muestra los vivos en el mismo orden que el motor: fila == fila.
+        List<Jugador> jugadores = session.getJugadores();
+        activePlayers.clear();
+        for (int row = 0; row < engine.getAliveCount(); row++) {
+            activePlayers.add(jugadores.get(engine.aliveSeatAt(row)));
+        }
+        return true;
     }
 
     private void setupRecyclerView() {
@@ -99,32 +125,55 @@ public class InGameActivity extends AppCompatActivity implements PlayersAdapter.
     }
 
     private void startTimer() {
-        if (timeLeftInMillis <= 0) timeLeftInMillis = 300_000;
-
-        countDownTimer = new CountDownTimer(timeLeftInMillis, 1000) {
+        // La cuenta atrás vive en la sesión: al recrear la actividad sigue donde iba
+        if (!session.isTimerStarted()) {
+            session.startTimer(SystemClock.elapsedRealtime());
+            GameSessionRegistry.persist(sessionId, session);
+        }
+        if (!session.isTimerRunning()) {
+            // Ya se agotó en una vida anterior de la actividad
+            mostrarTiempoAgotado();
+            return;
+        }
+        // Empieza a pintar en onStart; si se agotó mientras no estábamos, termina ahí mismo
+        discussionTimer = new DiscussionTimer(session, new DiscussionTimer.Listener() {
             @Override
-            public void onTick(long remaining) {
-                timeLeftInMillis = remaining;
-                updateTimerText();
+            public void onTick(String text, long remainingMillis) {
+                tvTimer.setText(text);
             }
 
             @Override
             public void onFinish() {
-                tvTimer.setText("¡TIEMPO!");
-                tvTimer.setTextColor(Color.RED);
+                session.stopTimer(SystemClock.elapsedRealtime());
+                if (engine.getPhase() == GameEngine.Phase.DISCUSSION) engine.startVote();
+                GameSessionRegistry.persist(sessionId, session);
+                mostrarTiempoAgotado();
                 Toast.makeText(InGameActivity.this, "El tiempo ha terminado. ¡Votad!", Toast.LENGTH_LONG).show();
             }
-        }.start();
+        });
+    }
+
+    private void mostrarTiempoAgotado() {
+        tvTimer.setText("¡TIEMPO!");
+        tvTimer.setTextColor(Color.RED);
     }
 
-    private void updateTimerText() {
-        int m = (int) (timeLeftInMillis / 1000) / 60;
-        int s = (int) (timeLeftInMillis / 1000) % 60;
-        tvTimer.setText(String.format(Locale.getDefault(), "%02d:%02d", m, s));
+    @Override
+    protected void onStart() {
+        super.onStart();
+        if (discussionTimer != null) discussionTimer.resume();
+    }
+
+    @Override
+    protected void onStop() {
+        super.onStop();
+        // Solo deja de pintar: el plazo sigue corriendo en la sesión
+        if (discussionTimer != null) discussionTimer.pause();
     }
 
     @Override
     public void onPlayerDelete(int position) {
+        if (engine.getPhase() == GameEngine.Phase.RESULT) return;
         confirmDeletion(position);
     }
 
@@ -153,35 +202,29 @@ public class InGameActivity extends AppCompatActivity implements PlayersAdapter.
 
     private void removePlayer(int position) {
         Jugador out = activePlayers.get(position);
+        int seat = engine.eliminateAt(position);
 
-        // Comparación correcta con String
-        String rolTexto = "IMPOSTOR".equals(out.getRole()) ? "IMPOSTOR" : "CIVIL";
+        String rolTexto = engine.isImpostor(seat) ? "IMPOSTOR" : "CIVIL";
         Toast.makeText(this, out.getName() + " era " + rolTexto, Toast.LENGTH_LONG).show();
 
         activePlayers.remove(position);
         adapter.notifyItemRemoved(position);
 
-        checkWinCondition();
+        if (engine.getPhase() == GameEngine.Phase.RESULT) {
+            session.stopTimer(SystemClock.elapsedRealtime());
+            showWinner(engine.getWinner());
+            // Partida completa: de MainActivity hasta aquí
+            TraceRecorder.exportGame(this);
+        }
+        GameSessionRegistry.persist(sessionId, session);
     }
 
-    private void checkWinCondition() {
-        if (activePlayers.isEmpty()) return;
-
-        // Contar impostores correctamente usando String
-        long impostors = activePlayers.stream()
-                .filter(j -> "IMPOSTOR".equals(j.getRole()))
-                .count();
-
-        long civils = activePlayers.size() - impostors;
-
-        if (impostors == 0) {
+    private void showWinner(GameEngine.Winner winner) {
+        if (winner == GameEngine.Winner.CIVILES) {
             showEndGame(true,
                     "¡VICTORIA de los Civiles! 🏆",
                     "Todos los impostores han sido eliminados.");
-            return;
-        }
-
-        if (impostors >= civils) {
+        } else if (winner == GameEngine.Winner.IMPOSTORES) {
             showEndGame(false,
                     "¡VICTORIA del Impostor! 🔪",
                     "Los impostores han alcanzado el mismo número que los civiles.");
@@ -190,7 +233,7 @@ public class InGameActivity extends AppCompatActivity implements PlayersAdapter.
 
 
     private void showEndGame(boolean civilWin, String title, String subtitle) {
-        if (countDownTimer != null) countDownTimer.cancel();
+        if (discussionTimer != null) discussionTimer.pause();
 
         overlayEndGame.setVisibility(View.VISIBLE);
         overlayEndGame.setBackgroundColor(
@@ -203,10 +246,4 @@ public class InGameActivity extends AppCompatActivity implements PlayersAdapter.
         tvEndGameTitle.setText(title);
         tvEndGameSubtitle.setText(subtitle);
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (countDownTimer != null) countDownTimer.cancel();
-    }
 }
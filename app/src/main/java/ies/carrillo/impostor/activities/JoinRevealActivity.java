@@ -0,0 +1,203 @@
+package ies.carrillo.impostor.activities;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.View;
+import android.widget.TextView;
+
+import androidx.activity.EdgeToEdge;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.cardview.widget.CardView;
+import androidx.core.content.ContextCompat;
+import androidx.core.graphics.Insets;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.WindowInsetsCompat;
+
+import com.google.android.material.button.MaterialButton;
+import com.google.android.material.textfield.TextInputEditText;
+import com.google.android.material.textfield.TextInputLayout;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ies.carrillo.impostor.R;
+import ies.carrillo.impostor.net.RevealClient;
+import ies.carrillo.impostor.net.RevealProtocol;
+
+/**
+ * Pantalla del jugador en la revelación en varios móviles: se conecta al
+ * móvil anfitrión (el que tiene la partida en {@link JuegoActivity}), espera
+ * a que revele y muestra solo el rol de este jugador.
+ */
+public class JoinRevealActivity extends AppCompatActivity {
+
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+
+    // Vistas
+    private TextInputLayout tilHost;
+    private TextInputEditText etHost;
+    private TextInputEditText etName;
+    private MaterialButton btnJoin;
+    private TextView tvStatus;
+    private CardView cardRole;
+    private TextView tvPlayerRole;
+    private TextView tvPlayerWord;
+    private MaterialButton btnUnderstood;
+
+    // La conexión bloquea: vive en su propio hilo
+    private final ExecutorService redExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile RevealClient client;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        EdgeToEdge.enable(this);
+        setContentView(R.layout.activity_join_reveal);
+        ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
+            Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
+            v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
+            return insets;
+        });
+
+        inicializarVistas();
+        btnJoin.setOnClickListener(v -> unirse());
+        btnUnderstood.setOnClickListener(v -> confirmar());
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        cerrarConexion();
+        redExecutor.shutdownNow();
+    }
+
+    private void inicializarVistas() {
+        tilHost = findViewById(R.id.til_join_host);
+        etHost = findViewById(R.id.et_join_host);
+        etName = findViewById(R.id.et_join_name);
+        btnJoin = findViewById(R.id.btn_join);
+        tvStatus = findViewById(R.id.tv_join_status);
+        cardRole = findViewById(R.id.card_join_role);
+        tvPlayerRole = findViewById(R.id.tv_player_role);
+        tvPlayerWord = findViewById(R.id.tv_player_word);
+        btnUnderstood = findViewById(R.id.btn_understood);
+    }
+
+    private void unirse() {
+        InetSocketAddress host = leerDireccion(etHost.getText() != null ? etHost.getText().toString() : "");
+        if (host == null) {
+            tilHost.setError(getString(R.string.text_join_invalid_host));
+            return;
+        }
+        tilHost.setError(null);
+        String nombre = etName.getText() != null ? etName.getText().toString().trim() : "";
+
+        setFormularioActivo(false);
+        tvStatus.setText(R.string.text_join_connecting);
+
+        redExecutor.execute(() -> {
+            RevealClient conectado = null;
+            try {
+                // Se resuelve aquí, fuera del hilo principal
+                InetSocketAddress resuelta = new InetSocketAddress(host.getHostString(), host.getPort());
+                conectado = RevealClient.connect(resuelta, nombre, CONNECT_TIMEOUT_MS);
+                client = conectado;
+                mainHandler.post(() -> tvStatus.setText(getString(R.string.text_join_waiting, nombre.toUpperCase())));
+
+                RevealClient.Reveal reveal = conectado.awaitReveal();
+                mainHandler.post(() -> mostrarRol(reveal));
+            } catch (RevealClient.RejectedException e) {
+                cerrar(conectado);
+                mainHandler.post(() -> fallo(motivoRechazo(e.reason)));
+            } catch (IOException e) {
+                cerrar(conectado);
+                // Si la actividad cerró la conexión al destruirse, no hay nada que contar
+                if (!isDestroyed()) mainHandler.post(() -> fallo(e.getMessage()));
+            }
+        });
+    }
+
+    private void mostrarRol(RevealClient.Reveal reveal) {
+        if (isDestroyed()) return;
+        tvStatus.setText(null);
+        if (reveal.impostor) {
+            tvPlayerRole.setText(R.string.impostor);
+            tvPlayerRole.setTextColor(ContextCompat.getColor(this, R.color.role_impostor));
+        } else {
+            tvPlayerRole.setText(R.string.civil);
+            tvPlayerRole.setTextColor(ContextCompat.getColor(this, R.color.colorPrimary));
+        }
+        tvPlayerWord.setText(reveal.text.isEmpty() ? "—" : reveal.text.toUpperCase());
+        cardRole.setVisibility(View.VISIBLE);
+    }
+
+    private void confirmar() {
+        // Se oculta ya: nadie más debe ver el rol mientras se envía la confirmación
+        cardRole.setVisibility(View.GONE);
+        tvStatus.setText(R.string.text_join_done);
+        RevealClient actual = client;
+        redExecutor.execute(() -> {
+            try {
+                actual.acknowledge();
+            } catch (IOException ignored) {
+                // El anfitrión ya no está: el rol se vio igual
+            }
+        });
+    }
+
+    private void fallo(String motivo) {
+        if (isDestroyed()) return;
+        client = null;
+        tvStatus.setText(getString(R.string.text_join_failed, motivo));
+        setFormularioActivo(true);
+    }
+
+    private void setFormularioActivo(boolean activo) {
+        etHost.setEnabled(activo);
+        etName.setEnabled(activo);
+        btnJoin.setEnabled(activo);
+    }
+
+    private String motivoRechazo(int reason) {
+        String[] motivos = getResources().getStringArray(R.array.reveal_reject_reasons);
+        return reason > 0 && reason < motivos.length ? motivos[reason] : motivos[0];
+    }
+
+    private void cerrarConexion() {
+        cerrar(client);
+        client = null;
+    }
+
+    private static void cerrar(RevealClient cliente) {
+        if (cliente == null) return;
+        try {
+            cliente.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    /**
+     * "IP" o "IP:puerto" tal como la muestra el anfitrión; null si no es válida.
+     */
+    private static InetSocketAddress leerDireccion(String texto) {
+        String limpio = texto.trim();
+        if (limpio.isEmpty()) return null;
+        int port = RevealProtocol.DEFAULT_PORT;
+        int dosPuntos = limpio.lastIndexOf(':');
+        if (dosPuntos >= 0) {
+            try {
+                port = Integer.parseInt(limpio.substring(dosPuntos + 1));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+            limpio = limpio.substring(0, dosPuntos);
+        }
+        if (limpio.isEmpty() || port <= 0 || port > 0xFFFF) return null;
+        // Sin resolver: la resolución se hace en el hilo de red
+        return InetSocketAddress.createUnresolved(limpio, port);
+    }
+}
@@ -3,6 +3,8 @@ package ies.carrillo.impostor.activities;
 import android.app.AlertDialog;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.view.GestureDetector;
 import android.view.MotionEvent;
@@ -23,19 +25,31 @@ import androidx.core.view.WindowInsetsCompat;
 
 import com.google.android.material.button.MaterialButton;
 
-import java.io.Serializable;
+import java.io.IOException;
+import java.net.Inet4Address;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.NetworkInterface;
+import java.net.SocketException;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import ies.carrillo.impostor.R;
-import ies.carrillo.impostor.model.Categoria;
+import ies.carrillo.impostor.engine.GameEngine;
+import ies.carrillo.impostor.metrics.FrameRecorder;
+import ies.carrillo.impostor.metrics.Metrics;
 import ies.carrillo.impostor.model.Jugador;
+import ies.carrillo.impostor.net.RevealHost;
+import ies.carrillo.impostor.net.RevealProtocol;
 import ies.carrillo.impostor.roles.Roles;
+import ies.carrillo.impostor.session.GameSession;
+import ies.carrillo.impostor.session.GameSessionRegistry;
+import ies.carrillo.impostor.session.HostedReveal;
 
 public class JuegoActivity extends AppCompatActivity {
 
-    private static final String KEY_JUGADORES = "JUGADORES_CON_ROLES";
-    private static final String KEY_CATEGORIA = "CATEGORIA_SELECCIONADA";
-
     // Vistas
     private TextView tvCurrentPlayerName;
     private TextView tvPlayerRole;
@@ -46,6 +60,7 @@ public class JuegoActivity extends AppCompatActivity {
     private LinearLayout llRoleContent;
     private MaterialButton btnAction;
     private MaterialButton btnNextPlayer;
+    private MaterialButton btnHostReveal;
 
     // Gestos y Constantes
     private GestureDetector gestureDetector;
@@ -53,10 +68,43 @@ public class JuegoActivity extends AppCompatActivity {
     private static final int SWIPE_VELOCITY_THRESHOLD = 100;
 
     // Datos del juego
+    private int sessionId;
+    private GameSession session;
     private List<Jugador> jugadores;
-    private Categoria categoriaSeleccionada;
-    private int currentPlayerIndex = 0;
-    private boolean isRoleRevealed = false;
+    // El turno y si el rol está a la vista los lleva el motor; la actividad solo los pinta.
+    private GameEngine engine;
+    // Tiempo entre fotogramas de la animación de revelar
+    private final FrameRecorder revealFrames = new FrameRecorder(Metrics.REVEAL_FRAME);
+
+    // Revelación en varios móviles: este móvil hace de anfitrión y cada jugador
+    // recibe su rol en el suyo a la vez, en lugar de ir pasando el teléfono.
+    private final ExecutorService redExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // Vive en la sesión: al girar la pantalla el anfitrión sigue abierto
+    private HostedReveal revelacionRed;
+    private AlertDialog dialogoRed;
+    private final RevealHost.Listener avisosRed = new RevealHost.Listener() {
+        // Los avisos llegan en el hilo del anfitrión: se pasan al principal
+        @Override
+        public void onPlayerJoined(int seat, String name) {
+            mainHandler.post(() -> actualizarDialogoRed());
+        }
+
+        @Override
+        public void onPlayerLeft(int seat) {
+            mainHandler.post(() -> actualizarDialogoRed());
+        }
+
+        @Override
+        public void onPlayerAcknowledged(int seat) {
+            mainHandler.post(() -> actualizarDialogoRed());
+        }
+
+        @Override
+        public void onAllAcknowledged() {
+            mainHandler.post(() -> terminarRevelacionEnRed());
+        }
+    };
 
     // Constante de estado del botón
     // Asegúrate de actualizar el string en strings.xml si es necesario
@@ -67,7 +115,9 @@ public class JuegoActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         EdgeToEdge.enable(this);
+        long inflate = Metrics.begin(Metrics.INFLATE);
         setContentView(R.layout.activity_game);
+        Metrics.end(Metrics.INFLATE, inflate);
         ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
             Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
             v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
@@ -76,20 +126,65 @@ public class JuegoActivity extends AppCompatActivity {
 
         inicializarVistas();
         recuperarDatosDeIntent();
+        if (engine == null) return; // Sin sesión: recuperarDatosDeIntent() ya cerró la actividad
 
         // ¡El orden es importante! Configurar gestos ANTES de configurarListeners,
         // ya que el gesto se basa en un listener que debe existir primero.
         configurarGestos();
         configurarListeners();
 
+        if (engine.getPhase() != GameEngine.Phase.REVEAL) {
+            // La revelación ya terminó (p. ej. actividad recreada): directos al debate.
+            irAlDebate();
+            return;
+        }
+
         if (jugadores != null && !jugadores.isEmpty()) {
             mostrarTurnoActual();
+            if (isRoleRevealed()) {
+                mostrarRolRevelado();
+            }
         } else {
             Toast.makeText(this, "Error: El juego no tiene jugadores válidos.", Toast.LENGTH_LONG).show();
             finish();
+            return;
         }
 
         btnNextPlayer.setVisibility(View.GONE);
+        // Solo se ofrece antes de que nadie haya visto su rol en este móvil
+        btnHostReveal.setVisibility(engine.getRevealSeat() == 0 && !isRoleRevealed() ? View.VISIBLE : View.GONE);
+
+        if (session.getHostedReveal() != null) {
+            // Actividad recreada con la revelación en red abierta: se retoma
+            revelacionRed = session.getHostedReveal();
+            revelacionRed.attach(avisosRed);
+            btnHostReveal.setVisibility(revelacionRed.isRolesSent() ? View.GONE : View.VISIBLE);
+            btnHostReveal.setEnabled(false);
+            if (revelacionRed.isLocalAcknowledged()) {
+                // Su rol no se queda a la vista detrás del diálogo
+                llRoleContent.setVisibility(View.INVISIBLE);
+                btnAction.setEnabled(false);
+            }
+            // Con los roles enviados, el diálogo espera a que el de este móvil vea el suyo
+            if (!revelacionRed.isRolesSent() || revelacionRed.isLocalAcknowledged()) mostrarDialogoRed();
+        }
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        revealFrames.stop();
+        if (isChangingConfigurations() && revelacionRed != null) {
+            // Se recrea enseguida: los móviles siguen conectados a la sesión
+            revelacionRed.attach(null);
+            revelacionRed = null; // Los avisos ya encolados no hacen nada aquí
+            if (dialogoRed != null) dialogoRed.dismiss();
+            dialogoRed = null;
+        } else {
+            cerrarRevelacionEnRed();
+        }
+        // shutdown() y no shutdownNow(): el cierre del anfitrión puede estar en cola
+        redExecutor.shutdown();
     }
 
     private void inicializarVistas() {
@@ -104,6 +199,7 @@ public class JuegoActivity extends AppCompatActivity {
         llRoleContent = findViewById(R.id.ll_role_content);
         btnAction = findViewById(R.id.btn_action);
         btnNextPlayer = findViewById(R.id.btn_next_player);
+        btnHostReveal = findViewById(R.id.btn_host_reveal);
     }
 
     private void recuperarDatosDeIntent() {
@@ -115,26 +211,30 @@ public class JuegoActivity extends AppCompatActivity {
             return;
         }
 
-        jugadores = (List<Jugador>) intent.getSerializableExtra(KEY_JUGADORES);
-        categoriaSeleccionada = (Categoria) intent.getSerializableExtra(KEY_CATEGORIA);
+        // La sesión se recupera del registro en memoria; la palabra ya se eligió en MainActivity
+        // y no debe volver a sortearse (p. ej. al recrear la actividad).
+        session = GameSessionRegistry.from(intent);
+        sessionId = GameSessionRegistry.idFrom(intent);
 
-        if (jugadores == null || jugadores.isEmpty() || categoriaSeleccionada == null) {
+        if (session == null || session.getJugadores().isEmpty()) {
             Toast.makeText(this, "Error: Faltan datos críticos para iniciar el juego.", Toast.LENGTH_LONG).show();
             finish();
             return;
         }
 
-        categoriaSeleccionada.seleccionarPalabraAleatoria();
-        Log.i("Categoria", categoriaSeleccionada.getName());
+        jugadores = session.getJugadores();
+        engine = session.getEngine();
+        Log.i("Categoria", session.getCategoryName());
     }
 
     private void configurarListeners() {
         // btnAction ahora tiene DOS funciones: REVELAR/PULSAR y PASAR TURNO
         btnAction.setOnClickListener(v -> handleActionButton());
+        btnHostReveal.setOnClickListener(v -> iniciarRevelacionEnRed());
 
         // El TextView de instrucción debe ser clickeable para disparar la revelación
         tvInstruction.setOnClickListener(v -> {
-            if (!isRoleRevealed) {
+            if (!isRoleRevealed()) {
                 handleActionButton(); // El clic en la instrucción también dispara la revelación
             }
         });
@@ -156,7 +256,7 @@ public class JuegoActivity extends AppCompatActivity {
         // Asignar el OnTouchListener a la MÁSCARA
         imgMaskCover.setOnTouchListener((v, event) -> {
             // Si el rol ya está revelado, no consumimos el evento touch
-            if (isRoleRevealed) {
+            if (isRoleRevealed()) {
                 return false;
             }
 
@@ -178,7 +278,7 @@ public class JuegoActivity extends AppCompatActivity {
         // También podemos usar onSingleTapUp para revelar si el usuario solo toca la tarjeta
         @Override
         public boolean onSingleTapUp(MotionEvent e) {
-            if (!isRoleRevealed) {
+            if (!isRoleRevealed()) {
                 handleActionButton(); // Trata el toque simple como una pulsación del botón
                 return true;
             }
@@ -194,9 +294,8 @@ public class JuegoActivity extends AppCompatActivity {
             if (Math.abs(diffY) > Math.abs(diffX) && Math.abs(diffY) > SWIPE_THRESHOLD && Math.abs(velocityY) > SWIPE_VELOCITY_THRESHOLD) {
                 if (diffY < 0) {
                     // Swipe UP detectado
-                    if (!isRoleRevealed) {
+                    if (!isRoleRevealed()) {
                         revelarRol();
-                        isRoleRevealed = true;
                         btnAction.setEnabled(false); // Deshabilitamos temporalmente
                         return true;
                     }
@@ -211,10 +310,9 @@ public class JuegoActivity extends AppCompatActivity {
      * Alterna entre el estado de REVELAR (inicia animación) y el estado de PASAR TURNO (avanza al siguiente jugador).
      */
     private void handleActionButton() {
-        if (!isRoleRevealed) {
+        if (!isRoleRevealed()) {
             // Estado 1: REVELAR ROL (Pulsar o tocar)
             revelarRol();
-            isRoleRevealed = true;
             btnAction.setEnabled(false); // Deshabilita temporalmente durante la animación/revelación
         } else {
             // Estado 2: ENTENDIDO (Pulsa y pasa al siguiente jugador)
@@ -222,9 +320,14 @@ public class JuegoActivity extends AppCompatActivity {
         }
     }
 
+    private boolean isRoleRevealed() {
+        return engine.isRevealed();
+    }
+
     private void revelarRol() {
-        Jugador actual = jugadores.get(currentPlayerIndex);
-        Roles rolActual = Roles.valueOf(actual.getRole());
+        Roles rolActual = engine.revealCurrent() ? Roles.IMPOSTOR : Roles.CIVIL;
+        GameSessionRegistry.persist(sessionId, session);
+        btnHostReveal.setVisibility(View.GONE);
 
         prepararContenidoRol(rolActual);
 
@@ -233,11 +336,15 @@ public class JuegoActivity extends AppCompatActivity {
         slideOut.setAnimationListener(new Animation.AnimationListener() {
             @Override
             public void onAnimationStart(Animation animation) {
+                Metrics.markStart(Metrics.REVEAL_ANIMATION);
+                revealFrames.start();
                 llRoleContent.setVisibility(View.VISIBLE);
             }
 
             @Override
             public void onAnimationEnd(Animation animation) {
+                revealFrames.stop();
+                Metrics.markEnd(Metrics.REVEAL_ANIMATION);
                 // Ocultar permanentemente los elementos de la máscara
                 imgMaskCover.setVisibility(View.GONE);
                 tvInstruction.setVisibility(View.GONE);
@@ -258,6 +365,19 @@ public class JuegoActivity extends AppCompatActivity {
         //       imgLockIcon.startAnimation(slideOut);
     }
 
+    /**
+     * Pinta directamente el rol del turno actual (sin animación) cuando el
+     * motor indica que ya estaba a la vista, p. ej. tras girar la pantalla.
+     */
+    private void mostrarRolRevelado() {
+        prepararContenidoRol(engine.isImpostor(engine.getRevealSeat()) ? Roles.IMPOSTOR : Roles.CIVIL);
+        imgMaskCover.setVisibility(View.GONE);
+        tvInstruction.setVisibility(View.GONE);
+        llRoleContent.setVisibility(View.VISIBLE);
+        btnAction.setText(STATE_REVEALED);
+        btnAction.setEnabled(true);
+    }
+
     private void prepararContenidoRol(Roles rolActual) {
         String rolDisplay;
         String wordToDisplay;
@@ -267,11 +387,11 @@ public class JuegoActivity extends AppCompatActivity {
 
         if (rolActual == Roles.IMPOSTOR) {
             rolDisplay = getResources().getString(R.string.impostor);
-            wordToDisplay = categoriaSeleccionada.getClue();
+            wordToDisplay = session.getClue();
             tvPlayerRole.setTextColor(colorImpostor);
         } else {
             rolDisplay = getResources().getString(R.string.civil);
-            wordToDisplay = categoriaSeleccionada.getWord();
+            wordToDisplay = session.getWord();
             tvPlayerRole.setTextColor(colorCivil);
         }
 
@@ -280,10 +400,18 @@ public class JuegoActivity extends AppCompatActivity {
     }
 
     private void pasarSiguienteJugador() {
-        currentPlayerIndex++;
+        if (revelacionRed != null && revelacionRed.isRolesSent()) {
+            // Revelación en red: el de este móvil ya vio su rol, cuenta como su confirmación
+            revelacionRed.acknowledgeLocal();
+            llRoleContent.setVisibility(View.INVISIBLE);
+            btnAction.setEnabled(false);
+            mostrarDialogoRed();
+            return;
+        }
+        engine.nextReveal();
 
-        if (currentPlayerIndex < jugadores.size()) {
-            isRoleRevealed = false;
+        if (engine.getPhase() == GameEngine.Phase.REVEAL) {
+            GameSessionRegistry.persist(sessionId, session);
 
             // --- REINICIO DE ESTADOS VISUALES ---
             btnAction.setText(STATE_REVEAL);
@@ -305,18 +433,20 @@ public class JuegoActivity extends AppCompatActivity {
 
         } else {
             Toast.makeText(this, "¡Todos listos! Comienza el debate.", Toast.LENGTH_LONG).show();
+            irAlDebate();
+        }
+    }
 
-            Intent intent = new Intent(JuegoActivity.this, InGameActivity.class);
-            intent.putExtra(KEY_JUGADORES, (Serializable) jugadores);
-            intent.putExtra(KEY_CATEGORIA, categoriaSeleccionada);
+    private void irAlDebate() {
+        Intent intent = new Intent(JuegoActivity.this, InGameActivity.class);
+        GameSessionRegistry.putInto(intent, sessionId, session);
 
-            startActivity(intent);
-            finish();
-        }
+        startActivity(intent);
+        finish();
     }
 
     private void mostrarTurnoActual() {
-        Jugador actual = jugadores.get(currentPlayerIndex);
+        Jugador actual = jugadores.get(engine.getRevealSeat());
 
         tvCurrentPlayerName.setText(getString(R.string.turn_of, actual.getName().toUpperCase()));
 
@@ -328,4 +458,172 @@ public class JuegoActivity extends AppCompatActivity {
                 .setIcon(R.drawable.ic_player_transfer)
                 .show();
     }
-}
\ No newline at end of file
+
+    // ******************************************************
+    // REVELACIÓN EN VARIOS MÓVILES
+    // ******************************************************
+
+    private void iniciarRevelacionEnRed() {
+        if (!cabeEnRed()) {
+            noCabeEnRed();
+            return;
+        }
+        btnHostReveal.setEnabled(false);
+        String[] nombres = new String[jugadores.size()];
+        for (int seat = 0; seat < nombres.length; seat++) {
+            nombres[seat] = jugadores.get(seat).getName();
+        }
+
+        HostedReveal revelacion = new HostedReveal(nombres, engine.getRevealSeat());
+        RevealHost host = revelacion.getHost();
+        redExecutor.execute(() -> {
+            try {
+                int puerto;
+                try {
+                    puerto = host.start(new InetSocketAddress(RevealProtocol.DEFAULT_PORT));
+                } catch (IOException ocupado) {
+                    // Puerto habitual ocupado: cualquiera libre, se muestra en el diálogo
+                    puerto = host.start(new InetSocketAddress(0));
+                }
+                String direccion = direccionLocal() + ":" + puerto;
+                mainHandler.post(() -> {
+                    if (isDestroyed()) {
+                        host.close();
+                        return;
+                    }
+                    revelacion.setAddress(direccion);
+                    revelacion.attach(avisosRed);
+                    revelacionRed = revelacion;
+                    session.setHostedReveal(revelacion);
+                    mostrarDialogoRed();
+                });
+            } catch (IOException e) {
+                mainHandler.post(() -> {
+                    btnHostReveal.setEnabled(true);
+                    Toast.makeText(this, getString(R.string.toast_host_reveal_failed, e.getMessage()), Toast.LENGTH_LONG).show();
+                });
+            }
+        });
+    }
+
+    private void mostrarDialogoRed() {
+        dialogoRed = new AlertDialog.Builder(this, R.style.AlertDialogTheme)
+                .setTitle(R.string.dialog_host_reveal_title)
+                .setMessage(" ")
+                .setCancelable(false)
+                .setPositiveButton(R.string.btn_reveal_now, null)
+                .setNegativeButton(R.string.dialog_delete_negative, (d, w) -> cerrarRevelacionEnRed())
+                .setIcon(R.drawable.ic_player_transfer)
+                .show();
+        // Sin cerrar el diálogo: se queda mostrando quién falta por confirmar
+        dialogoRed.getButton(AlertDialog.BUTTON_POSITIVE).setOnClickListener(v -> enviarRoles());
+        if (revelacionRed.isRolesSent()) dialogoRed.getButton(AlertDialog.BUTTON_POSITIVE).setVisibility(View.GONE);
+        actualizarDialogoRed();
+    }
+
+    private void actualizarDialogoRed() {
+        if (revelacionRed == null || dialogoRed == null) return;
+        RevealHost revealHost = revelacionRed.getHost();
+        boolean rolesEnviados = revelacionRed.isRolesSent();
+        int total = revealHost.getPlayerCount();
+        int remotos = revealHost.getRemoteCount();
+        int conectados = revealHost.getJoinedCount();
+        if (rolesEnviados && revealHost.getAcknowledgedCount() == total) {
+            // Todos confirmaron mientras no había actividad enganchada (p. ej. al girar)
+            terminarRevelacionEnRed();
+            return;
+        }
+        if (!rolesEnviados && conectados == remotos) {
+            // Todos dentro: se revela sin esperar al botón
+            enviarRoles();
+            return;
+        }
+        if (rolesEnviados) {
+            dialogoRed.setMessage(getString(R.string.dialog_host_reveal_revealed,
+                    revealHost.getAcknowledgedCount(), total));
+        } else {
+            dialogoRed.setMessage(getString(R.string.dialog_host_reveal_message,
+                    getString(R.string.btn_join_reveal), revelacionRed.getAddress(), conectados, remotos));
+        }
+    }
+
+    private void enviarRoles() {
+        if (revelacionRed == null || revelacionRed.isRolesSent()) return;
+        boolean[] impostor = new boolean[jugadores.size()];
+        for (int seat = 0; seat < impostor.length; seat++) {
+            impostor[seat] = engine.isImpostor(seat);
+        }
+        // Mismo texto que en la revelación local; quien se conecte tarde lo recibe al entrar
+        try {
+            revelacionRed.getHost().revealAll(impostor, session.getWord(), session.getClue());
+        } catch (IllegalArgumentException demasiadoLargo) {
+            // No cabe en una trama (ver cabeEnRed): se sigue pasando el teléfono
+            cerrarRevelacionEnRed();
+            noCabeEnRed();
+            return;
+        }
+        revelacionRed.setRolesSent(true);
+        // Ahora le toca al de este móvil ver su rol en pantalla; el diálogo vuelve al confirmarlo
+        dialogoRed.dismiss();
+        dialogoRed = null;
+        btnHostReveal.setVisibility(View.GONE);
+        Jugador local = jugadores.get(engine.getRevealSeat());
+        Toast.makeText(this, getString(R.string.toast_host_reveal_local, local.getName().toUpperCase()), Toast.LENGTH_LONG).show();
+    }
+
+    /**
+     * Si la palabra y la pista caben en una trama de la revelación en red.
+     * Las que se escriben o importan ahora siempre caben (20 caracteres como
+     * mucho), pero un paquete antiguo puede traer textos más largos.
+     */
+    private boolean cabeEnRed() {
+        return RevealProtocol.fitsReveal(session.getWord()) && RevealProtocol.fitsReveal(session.getClue());
+    }
+
+    private void noCabeEnRed() {
+        btnHostReveal.setVisibility(View.GONE);
+        Toast.makeText(this, R.string.toast_host_reveal_too_long, Toast.LENGTH_LONG).show();
+    }
+
+    private void terminarRevelacionEnRed() {
+        if (revelacionRed == null) return;
+        cerrarRevelacionEnRed();
+        engine.finishReveal();
+        Toast.makeText(this, "¡Todos listos! Comienza el debate.", Toast.LENGTH_LONG).show();
+        irAlDebate();
+    }
+
+    private void cerrarRevelacionEnRed() {
+        if (dialogoRed != null) {
+            dialogoRed.dismiss();
+            dialogoRed = null;
+        }
+        if (revelacionRed != null) {
+            RevealHost host = revelacionRed.getHost();
+            revelacionRed.attach(null);
+            revelacionRed = null;
+            session.setHostedReveal(null);
+            // close() espera al hilo del anfitrión: fuera del hilo principal
+            redExecutor.execute(host::close);
+        }
+        btnHostReveal.setEnabled(true);
+        // Si el de este móvil ya había confirmado, sigue pasando el teléfono desde su turno
+        btnAction.setEnabled(true);
+    }
+
+    /**
+     * Primera IPv4 de la red local (wifi o punto de acceso) de este móvil.
+     */
+    private static String direccionLocal() {
+        try {
+            for (NetworkInterface red : Collections.list(NetworkInterface.getNetworkInterfaces())) {
+                if (!red.isUp() || red.isLoopback()) continue;
+                for (InetAddress direccion : Collections.list(red.getInetAddresses())) {
+                    if (direccion instanceof Inet4Address) return direccion.getHostAddress();
+                }
+            }
+        } catch (SocketException ignored) {
+        }
+        return InetAddress.getLoopbackAddress().getHostAddress();
+    }
+}
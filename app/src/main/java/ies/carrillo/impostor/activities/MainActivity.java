@@ -17,16 +17,20 @@ import androidx.appcompat.app.AppCompatActivity;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.switchmaterial.SwitchMaterial;
 
-import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Random;
 
 import ies.carrillo.impostor.R;
 import ies.carrillo.impostor.dataBase.DataBase;
+import ies.carrillo.impostor.metrics.Metrics;
 import ies.carrillo.impostor.model.Categoria;
+import ies.carrillo.impostor.model.CategoryRegistry;
 import ies.carrillo.impostor.model.Jugador;
+import ies.carrillo.impostor.model.SelectionModel;
+import ies.carrillo.impostor.session.GameSession;
+import ies.carrillo.impostor.session.GameSessionRegistry;
 import ies.carrillo.impostor.utils.GameLogic;
+import ies.carrillo.impostor.utils.StartupPipeline;
 
 public class MainActivity extends AppCompatActivity {
 
@@ -47,8 +51,10 @@ public class MainActivity extends AppCompatActivity {
     public static final String KEY_SELECTED_CATEGORIES = "CATEGORIAS_SELECCIONADAS";
     public static final String KEY_SELECTED_TIME = "DURACION_SEGUNDOS";
 
-    // Lista real de categorías seleccionadas por el usuario
-    private ArrayList<Categoria> categoriasSeleccionadas = new ArrayList<>();
+    // Paquetes seleccionados por el usuario: un bit por id de CategoryRegistry
+    private SelectionModel seleccion = new SelectionModel();
+    // Sin selección previa se marcan los primeros paquetes predefinidos (Semana Santa y Naturaleza)
+    private static final int PAQUETES_POR_DEFECTO = 2;
 
     // Launchers para manejar resultados de otras actividades
     private ActivityResultLauncher<Intent> packagesLauncher;
@@ -59,7 +65,9 @@ public class MainActivity extends AppCompatActivity {
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         EdgeToEdge.enable(this);
+        long inflate = Metrics.begin(Metrics.INFLATE);
         setContentView(R.layout.activity_main);
+        Metrics.end(Metrics.INFLATE, inflate);
 
         inicializarVistas();
         setupActivityLaunchers();
@@ -70,6 +78,12 @@ public class MainActivity extends AppCompatActivity {
         // **NOTA:** Mantener la inicialización del launcher para el caso de retorno.
 
         updateDisplays();
+
+        // Lo publicado en la vista raíz se ejecuta tras el primer dibujado: ahí la app ya es usable.
+        getWindow().getDecorView().post(() -> {
+            reportFullyDrawn();
+            StartupPipeline.get().logTimeToInteractive();
+        });
     }
 
     @Override
@@ -82,17 +96,23 @@ public class MainActivity extends AppCompatActivity {
 
     /**
      * Asegura que haya categorías seleccionadas.
-     * Si la lista está vacía, se inicializan las categorías predefinidas.
+     * Si la selección está vacía se recupera la de la sesión anterior y, si
+     * tampoco había, se marcan los primeros paquetes predefinidos.
      */
     private void asegurarCategoriasSeleccionadas() {
-        if (categoriasSeleccionadas == null || categoriasSeleccionadas.isEmpty()) {
-            DataBase db = DataBase.getInstance();
-            categoriasSeleccionadas = new ArrayList<>(); // Inicializar si era null
-
-            // Añadir categorías predefinidas
-            categoriasSeleccionadas.add(db.getSemanaSanta());
-            categoriasSeleccionadas.add(db.getNaturaleza());
+        DataBase db = DataBase.getInstance();
+        CategoryRegistry registro = db.getRegistry();
+        if (seleccion.isEmpty()) {
+            seleccion = db.getSeleccionGuardada();
         }
+        if (seleccion.isEmpty()) {
+            List<Categoria> predefinidas = db.getCategorias();
+            for (int i = 0; i < Math.min(PAQUETES_POR_DEFECTO, predefinidas.size()); i++) {
+                seleccion.set(registro.idOf(predefinidas.get(i).getName()), true);
+            }
+        }
+        // Solo entran o salen de la bolsa los paquetes que cambian.
+        db.getWordScheduler().setSelection(registro.resolve(seleccion));
     }
 
 
@@ -111,17 +131,14 @@ public class MainActivity extends AppCompatActivity {
                 result -> {
                     if (result.getResultCode() == Activity.RESULT_OK && result.getData() != null) {
                         Intent data = result.getData();
-                        Serializable categoriesExtra = data.getSerializableExtra(KEY_SELECTED_CATEGORIES);
-
-                        if (categoriesExtra instanceof ArrayList) {
-                            // La lista recibida es la fuente de verdad.
-                            categoriasSeleccionadas = (ArrayList<Categoria>) categoriesExtra;
-                            updateDisplays();
-                            Toast.makeText(this, categoriasSeleccionadas.size() + " paquetes seleccionados.", Toast.LENGTH_SHORT).show();
-                        } else {
-                            // Si el resultado es OK pero la lista no está bien, la vaciamos.
-                            categoriasSeleccionadas = new ArrayList<>();
-                            updateDisplays();
+                        // La selección recibida es la fuente de verdad (sin extra, queda vacía).
+                        DataBase db = DataBase.getInstance();
+                        seleccion = SelectionModel.fromLongArray(data.getLongArrayExtra(KEY_SELECTED_CATEGORIES));
+                        db.getWordScheduler().setSelection(db.getRegistry().resolve(seleccion));
+                        db.guardarSeleccion(seleccion);
+                        updateDisplays();
+                        if (!seleccion.isEmpty()) {
+                            Toast.makeText(this, seleccion.count() + " paquetes seleccionados.", Toast.LENGTH_SHORT).show();
                         }
                     }
                 }
@@ -163,7 +180,7 @@ public class MainActivity extends AppCompatActivity {
         tvTiempoSeleccionado.setText(duracionMinutos + " min");
 
         // 4. Actualizar Paquetes
-        int countPaquetes = categoriasSeleccionadas.size();
+        int countPaquetes = seleccion.count();
         tvPaquetesSeleccionados.setText(countPaquetes + " Selecc.");
 
         // Habilitar/Deshabilitar el botón de inicio
@@ -204,10 +221,14 @@ public class MainActivity extends AppCompatActivity {
             // CORRECCIÓN CRÍTICA: Enviamos la lista actual para que SelectPackagesActivity
             // sepa qué está seleccionado por defecto (Semana Santa, Naturaleza).
             Intent intent = new Intent(MainActivity.this, SelectPackagesActivity.class);
-            intent.putExtra(KEY_SELECTED_CATEGORIES, categoriasSeleccionadas);
+            intent.putExtra(KEY_SELECTED_CATEGORIES, seleccion.toLongArray());
             packagesLauncher.launch(intent);
         });
 
+        // Este móvil se une a la revelación que abre otro (el que tiene la partida)
+        findViewById(R.id.btn_unirse_partida).setOnClickListener(v ->
+                startActivity(new Intent(MainActivity.this, JoinRevealActivity.class)));
+
         LinearLayout llTiempo = findViewById(R.id.ll_tiempo_config);
         // Usamos el Launcher para obtener la duración
         llTiempo.setOnClickListener(v -> timeLauncher.launch(new Intent(MainActivity.this, TimeSelectorActivity.class)));
@@ -228,48 +249,37 @@ public class MainActivity extends AppCompatActivity {
                 Toast.makeText(this, "Mínimo " + MIN_PLAYERS + " jugadores.", Toast.LENGTH_SHORT).show();
                 return;
             }
-            if (categoriasSeleccionadas.isEmpty()) {
+            if (seleccion.isEmpty()) {
                 Toast.makeText(this, "Selecciona al menos un paquete de palabras.", Toast.LENGTH_SHORT).show();
                 return;
             }
 
-            // 1. Obtener Categoría Aleatoria
-            Categoria categoriaSeleccionada = obtenerCategoriaAleatoria(categoriasSeleccionadas);
+            // 1-2. Sacar la siguiente palabra/pista de la bolsa: no se repite ninguna
+            // hasta agotar todos los paquetes seleccionados.
+            DataBase db = DataBase.getInstance();
+            Categoria categoriaSeleccionada = db.getWordScheduler().draw();
             if (categoriaSeleccionada == null) {
-                Toast.makeText(this, "Error al seleccionar una categoría.", Toast.LENGTH_SHORT).show();
+                // Todos los paquetes seleccionados están vacíos (p. ej. personalizados sin pares).
+                Toast.makeText(this, "Los paquetes seleccionados no contienen palabras.", Toast.LENGTH_LONG).show();
                 return;
             }
-
-            // Si la categoría seleccionada no tiene palabras, puede ser un error de la DB o
-            // un paquete personalizado mal creado.
-            if (categoriaSeleccionada.getPalabras() == null || categoriaSeleccionada.getPalabras().isEmpty()) {
-                Toast.makeText(this, "El paquete seleccionado (" + categoriaSeleccionada.getName() + ") no contiene palabras.", Toast.LENGTH_LONG).show();
-                return;
-            }
-
-            // 2. Seleccionar palabra/pista
-            categoriaSeleccionada.seleccionarPalabraAleatoria();
+            db.guardarProgresoPalabras();
 
             // 3. Asignar Roles
+            long reparto = Metrics.begin(Metrics.ROLE_ASSIGN);
             GameLogic.assignRoles(jugadores, numImpostores);
+            Metrics.end(Metrics.ROLE_ASSIGN, reparto);
 
-            // 4. Iniciar JuegoActivity
-            Intent intent = new Intent(MainActivity.this, JuegoActivity.class);
+            // 4. Iniciar JuegoActivity: solo viaja el id de la sesión (y una copia mínima de respaldo)
+            GameSession session = new GameSession(jugadores, categoriaSeleccionada.getName(),
+                    categoriaSeleccionada.getWord(), categoriaSeleccionada.getClue(),
+                    duracionJuegoSegundos, pistasHabilitadas);
+            Log.i("Categoria en main", categoriaSeleccionada.getName());
 
-            intent.putExtra("CATEGORIA_SELECCIONADA", (Serializable) categoriaSeleccionada);
-            Log.i("Categoria en main",categoriaSeleccionada.getName());
-            intent.putExtra("JUGADORES_CON_ROLES", (Serializable) jugadores);
-            intent.putExtra("DURACION_SEGUNDOS", duracionJuegoSegundos);
-            intent.putExtra("PISTAS_HABILITADAS", pistasHabilitadas);
+            Intent intent = new Intent(MainActivity.this, JuegoActivity.class);
+            GameSessionRegistry.putInto(intent, session);
 
             startActivity(intent);
         });
     }
-
-    private Categoria obtenerCategoriaAleatoria(List<Categoria> listaSeleccionada) {
-        if (listaSeleccionada.isEmpty()) return null;
-
-        Random random = new Random();
-        return listaSeleccionada.get(random.nextInt(listaSeleccionada.size()));
-    }
 }
\ No newline at end of file
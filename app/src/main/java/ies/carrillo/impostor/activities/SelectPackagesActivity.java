@@ -4,8 +4,13 @@ import android.app.Activity;
 import android.app.AlertDialog;
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.widget.ExpandableListView;
+import android.widget.TextView;
 import android.widget.Toast;
 
 import androidx.activity.EdgeToEdge;
@@ -15,38 +20,63 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.google.android.material.button.MaterialButton;
+import com.google.android.material.textfield.TextInputEditText;
+import com.google.android.material.textfield.TextInputLayout;
 
-import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import ies.carrillo.impostor.R;
 import ies.carrillo.impostor.dataBase.DataBase;
 import ies.carrillo.impostor.model.Categoria;
+import ies.carrillo.impostor.model.CategoryRegistry;
+import ies.carrillo.impostor.model.PackSearchIndex;
+import ies.carrillo.impostor.model.SelectionModel;
+import ies.carrillo.impostor.adapters.PackSearchAdapter;
 import ies.carrillo.impostor.adapters.PackagesExpandableAdapter;
 
 // Implementamos la interfaz del adaptador y el click del grupo
 public class SelectPackagesActivity extends AppCompatActivity
-        implements PackagesExpandableAdapter.OnPackageActionListener, ExpandableListView.OnGroupClickListener {
+        implements PackagesExpandableAdapter.OnPackageActionListener, ExpandableListView.OnGroupClickListener,
+        PackSearchAdapter.OnResultToggledListener {
 
     // Vistas
     private ExpandableListView expandablePackagesList;
     private MaterialButton btnConfirmPackages;
+    private TextInputLayout tilSearchPackages;
+    private TextInputEditText etSearchPackages;
+    private RecyclerView rvSearchResults;
+    private TextView tvNoSearchResults;
 
     // Adaptador
     private PackagesExpandableAdapter adapter;
+    private PackSearchAdapter searchAdapter;
 
-    // Data para el juego
-    // CRÍTICO: Inicializada como lista vacía, pero se reasigna en recuperarEstadoSeleccion()
-    private List<Categoria> selectedCategories = new ArrayList<>();
+    // Búsqueda: el índice se construye en segundo plano; hasta entonces la caja está desactivada
+    private static final int MAX_SEARCH_RESULTS = 50;
+    private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private PackSearchIndex searchIndex;
+
+    // Data para el juego: un bit por id de paquete (ver CategoryRegistry).
+    // Se reasigna en recuperarEstadoSeleccion() y los adaptadores comparten esta instancia.
+    private CategoryRegistry registry;
+    private SelectionModel seleccion = new SelectionModel();
 
     // Constantes de nombres
     private final String PACKAGE_CUSTOM_GROUP = "Personalizadas";
 
+    // Pesos de sorteo ofrecidos al mantener pulsado un paquete, en el orden de R.array.pack_weight_labels
+    // (0 = automático por tamaño; el resto, % respecto al paquete medio).
+    private static final int[] PESOS_PAQUETE = {0, 50, 100, 200};
+
     // Launcher para volver de crear/editar paquete
     private ActivityResultLauncher<Intent> createPackageLauncher;
 
@@ -74,32 +104,35 @@ public class SelectPackagesActivity extends AppCompatActivity
 
         // Cargar datos y configurar la lista
         setupExpandableList();
+        setupSearch();
 
         updateConfirmButton();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        searchExecutor.shutdownNow();
+    }
+
     /**
      * Recupera la lista de categorías seleccionadas de MainActivity (si existe).
      */
     private void recuperarEstadoSeleccion() {
-        Intent intent = getIntent();
-        // Usamos la constante de clave de MainActivity
-        Serializable categoriesExtra = intent.getSerializableExtra(MainActivity.KEY_SELECTED_CATEGORIES);
-
-        if (categoriesExtra instanceof List) {
-            // CRÍTICO: Asignamos la lista recibida a la variable de clase.
-            // El adaptador usará esta misma referencia.
-            this.selectedCategories = (List<Categoria>) categoriesExtra;
-        } else {
-            // Si no se recibió nada (o se recibió null), aseguramos que la lista sea una nueva y vacía.
-            this.selectedCategories = new ArrayList<>();
-        }
+        registry = DataBase.getInstance().getRegistry();
+        // Usamos la constante de clave de MainActivity; sin extra, la selección queda vacía.
+        long[] bits = getIntent().getLongArrayExtra(MainActivity.KEY_SELECTED_CATEGORIES);
+        this.seleccion = SelectionModel.fromLongArray(bits);
     }
 
 
     private void inicializarVistas() {
         expandablePackagesList = findViewById(R.id.expandable_packages_list);
         btnConfirmPackages = findViewById(R.id.btn_confirm_packages);
+        tilSearchPackages = findViewById(R.id.til_search_packages);
+        etSearchPackages = findViewById(R.id.et_search_packages);
+        rvSearchResults = findViewById(R.id.rv_search_results);
+        tvNoSearchResults = findViewById(R.id.tv_no_search_results);
 
         btnConfirmPackages.setOnClickListener(v -> confirmSelection());
     }
@@ -107,26 +140,29 @@ public class SelectPackagesActivity extends AppCompatActivity
     // --- Lógica del ExpandableListView ---
 
     private void setupExpandableList() {
-        // Nombres de los Grupos (Orden Fijo: Predefinidas y Personalizadas)
-        // MODIFICACIÓN 1: Incluir los nombres de las 3 categorías nuevas
-        List<String> groupNames = Arrays.asList(
-                DataBase.getInstance().getSemanaSanta().getName(), // "Semana Santa"
-                DataBase.getInstance().getNaturaleza().getName(),  // "Naturaleza"
-                DataBase.getInstance().getVideojuegos().getName(), // "Videojuegos"
-                DataBase.getInstance().getCineTv().getName(),      // "Cine y TV"
-                DataBase.getInstance().getComida().getName(),      // "Comida"
-                PACKAGE_CUSTOM_GROUP
-        );
+        // Nombres de los Grupos: los paquetes predefinidos (en el orden de sus
+        // ficheros) y al final Personalizadas
+        List<String> groupNames = new ArrayList<>();
+        for (Categoria categoria : DataBase.getInstance().getCategorias()) {
+            groupNames.add(categoria.getName());
+        }
+        groupNames.add(PACKAGE_CUSTOM_GROUP);
 
         // Cargar datos del DB
         HashMap<String, List<Categoria>> groupChildren = getPackageData();
 
         // Crear el adaptador, pasando la lista de categorías seleccionadas.
-        adapter = new PackagesExpandableAdapter(this, groupNames, groupChildren, selectedCategories, this);
+        adapter = new PackagesExpandableAdapter(this, groupNames, groupChildren, registry, seleccion, this);
         expandablePackagesList.setAdapter(adapter);
 
         // Configurar listeners
         expandablePackagesList.setOnGroupClickListener(this);
+        expandablePackagesList.setOnItemLongClickListener((parent, view, position, id) -> {
+            String nombre = nombrePaqueteEn(position);
+            if (nombre == null) return false;
+            mostrarDialogoPeso(nombre);
+            return true;
+        });
 
         // CORRECCIÓN: Forzar la expansión del grupo "Personalizadas" al inicio
         // para que la opción "CREAR NUEVO PAQUETE" siempre esté visible.
@@ -136,6 +172,114 @@ public class SelectPackagesActivity extends AppCompatActivity
         }
     }
 
+    // --- Búsqueda ---
+
+    private void setupSearch() {
+        searchAdapter = new PackSearchAdapter(this, registry, seleccion, this);
+        rvSearchResults.setLayoutManager(new LinearLayoutManager(this));
+        rvSearchResults.setAdapter(searchAdapter);
+
+        // Cada tecla consulta el índice en el hilo principal: es una búsqueda
+        // binaria por paquete, muy por debajo de un frame.
+        etSearchPackages.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) { }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) { }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                buscar();
+            }
+        });
+
+        // Construir el índice recorre todas las palabras: fuera del hilo principal
+        searchExecutor.execute(() -> {
+            PackSearchIndex indice = DataBase.getInstance().getSearchIndex();
+            mainHandler.post(() -> {
+                if (isDestroyed()) return;
+                searchIndex = indice;
+                tilSearchPackages.setHint(getString(R.string.hint_search_packages));
+                etSearchPackages.setEnabled(true);
+            });
+        });
+    }
+
+    /**
+     * Muestra los resultados del texto actual, o la lista de paquetes si está vacío.
+     */
+    private void buscar() {
+        String consulta = etSearchPackages.getText() != null ? etSearchPackages.getText().toString().trim() : "";
+        if (searchIndex == null || consulta.isEmpty()) {
+            rvSearchResults.setVisibility(View.GONE);
+            tvNoSearchResults.setVisibility(View.GONE);
+            expandablePackagesList.setVisibility(View.VISIBLE);
+            // La selección ha podido cambiar desde los resultados
+            adapter.notifyDataSetChanged();
+            return;
+        }
+
+        List<PackSearchIndex.Hit> hits = searchIndex.search(consulta, MAX_SEARCH_RESULTS);
+        searchAdapter.setHits(hits);
+        expandablePackagesList.setVisibility(View.GONE);
+        rvSearchResults.setVisibility(hits.isEmpty() ? View.GONE : View.VISIBLE);
+        tvNoSearchResults.setVisibility(hits.isEmpty() ? View.VISIBLE : View.GONE);
+        if (hits.isEmpty()) {
+            tvNoSearchResults.setText(getString(R.string.text_no_search_results, consulta));
+        }
+    }
+
+    @Override
+    public void onSearchResultToggled(String packName, boolean isChecked) {
+        seleccion.set(registry.idOf(packName), isChecked);
+        updateConfirmButton();
+    }
+
+    /**
+     * Nombre del paquete en una posición plana de la lista, o null si es el grupo
+     * "Personalizadas" o el botón de crear paquete.
+     */
+    private String nombrePaqueteEn(int flatPosition) {
+        long packed = expandablePackagesList.getExpandableListPosition(flatPosition);
+        int type = ExpandableListView.getPackedPositionType(packed);
+        int group = ExpandableListView.getPackedPositionGroup(packed);
+
+        if (type == ExpandableListView.PACKED_POSITION_TYPE_GROUP) {
+            String groupName = (String) adapter.getGroup(group);
+            return groupName.equals(PACKAGE_CUSTOM_GROUP) ? null : groupName;
+        }
+        if (type == ExpandableListView.PACKED_POSITION_TYPE_CHILD) {
+            Object child = adapter.getChild(group, ExpandableListView.getPackedPositionChild(packed));
+            return child instanceof Categoria ? ((Categoria) child).getName() : null;
+        }
+        return null;
+    }
+
+    /**
+     * Permite fijar con qué frecuencia sale un paquete en el sorteo.
+     * La tabla de muestreo se reconstruye una sola vez, en el siguiente sorteo.
+     */
+    private void mostrarDialogoPeso(String nombre) {
+        DataBase db = DataBase.getInstance();
+        int actual = db.getPesoPaquete(nombre);
+        int checked = 0;
+        for (int i = 0; i < PESOS_PAQUETE.length; i++) {
+            if (PESOS_PAQUETE[i] == actual) checked = i;
+        }
+        String[] etiquetas = getResources().getStringArray(R.array.pack_weight_labels);
+
+        new AlertDialog.Builder(this)
+                .setTitle(getString(R.string.dialog_weight_title, nombre))
+                .setSingleChoiceItems(etiquetas, checked, (dialog, which) -> {
+                    db.setPesoPaquete(nombre, PESOS_PAQUETE[which]);
+                    Toast.makeText(this, getString(R.string.toast_weight_updated, nombre, etiquetas[which]), Toast.LENGTH_SHORT).show();
+                    dialog.dismiss();
+                })
+                .setNegativeButton(getString(R.string.dialog_delete_negative), null)
+                .show();
+    }
+
     /**
      * Carga las categorías del DataBase y las prepara para el adaptador.
      */
@@ -144,13 +288,9 @@ public class SelectPackagesActivity extends AppCompatActivity
         HashMap<String, List<Categoria>> data = new HashMap<>();
 
         // 1. Paquetes predefinidos (gestionados directamente en el GroupView)
-        data.put(db.getSemanaSanta().getName(), new ArrayList<>());
-        data.put(db.getNaturaleza().getName(), new ArrayList<>());
-
-        // MODIFICACIÓN 2: Añadir las nuevas categorías al mapa de datos
-        data.put(db.getVideojuegos().getName(), new ArrayList<>());
-        data.put(db.getCineTv().getName(), new ArrayList<>());
-        data.put(db.getComida().getName(), new ArrayList<>());
+        for (Categoria categoria : db.getCategorias()) {
+            data.put(categoria.getName(), new ArrayList<>());
+        }
 
 
         // 2. Paquetes personalizados (los hijos son las categorías personalizadas)
@@ -177,6 +317,9 @@ public class SelectPackagesActivity extends AppCompatActivity
 
         // 4. Actualizar el botón de confirmación
         updateConfirmButton();
+
+        // 5. Si hay una búsqueda abierta, repetirla (el índice ya tiene los cambios)
+        buscar();
     }
 
     // --- Implementación de OnGroupClickListener ---
@@ -195,36 +338,14 @@ public class SelectPackagesActivity extends AppCompatActivity
 
     @Override
     public void onGroupCheckboxToggled(String groupName, boolean isChecked) {
-        DataBase db = DataBase.getInstance();
-        // Buscar categoría predefinida
-        // NOTA: Se ha simplificado la forma de buscar en el DataBase en la versión anterior.
-        // Si tienes un método `getCategorias()` que devuelve todas las predefinidas,
-        // esto funcionará correctamente con las nuevas categorías añadidas.
-        Categoria category = db.getCategorias().stream()
-                .filter(cat -> cat.getName().equals(groupName))
-                .findFirst().orElse(null);
-
-        if (category == null) return;
-
-        if (isChecked) {
-            if (!selectedCategories.contains(category)) {
-                selectedCategories.add(category);
-            }
-        } else {
-            selectedCategories.remove(category);
-        }
+        // El id sale de un mapa por nombre: no se recorren las categorías
+        seleccion.set(registry.idOf(groupName), isChecked);
         updateConfirmButton();
     }
 
     @Override
     public void onChildCheckboxToggled(Categoria category, boolean isChecked) {
-        if (isChecked) {
-            if (!selectedCategories.contains(category)) {
-                selectedCategories.add(category);
-            }
-        } else {
-            selectedCategories.remove(category);
-        }
+        seleccion.set(registry.idOf(category.getName()), isChecked);
         updateConfirmButton();
     }
 
@@ -232,8 +353,8 @@ public class SelectPackagesActivity extends AppCompatActivity
     public void onEditPackageClicked(Categoria category) {
         currentEditingCategory = category; // Guardamos la categoría que estamos editando
         Intent intent = new Intent(this, CreatePackageActivity.class);
-        // Usamos la constante del Activity
-        intent.putExtra(CreatePackageActivity.CATEGORY_TO_EDIT_KEY, category);
+        // Solo viaja el nombre: un paquete grande no cabe en un Intent
+        intent.putExtra(CreatePackageActivity.CATEGORY_TO_EDIT_KEY, category.getName());
         createPackageLauncher.launch(intent);
     }
 
@@ -243,8 +364,8 @@ public class SelectPackagesActivity extends AppCompatActivity
                 .setTitle(getString(R.string.dialog_delete_title)) // Usar String Resource
                 .setMessage(getString(R.string.dialog_delete_message, category.getName())) // Usar String Resource
                 .setPositiveButton(getString(R.string.dialog_delete_positive), (dialog, which) -> {
+                    seleccion.set(registry.idOf(category.getName()), false); // Asegurar deselección
                     DataBase.getInstance().deleteCustomCategory(category);
-                    selectedCategories.remove(category); // Asegurar deselección
                     Toast.makeText(this, getString(R.string.toast_package_deleted, category.getName()), Toast.LENGTH_SHORT).show();
                     reloadDataAndRefreshUI();
                 })
@@ -270,8 +391,10 @@ public class SelectPackagesActivity extends AppCompatActivity
                 result -> {
                     if (result.getResultCode() == Activity.RESULT_OK) {
                         // 1. Recuperar la Categoria devuelta (nueva o editada)
-                        Categoria returnedCategory = (Categoria) result.getData()
-                                .getSerializableExtra(RETURN_KEY);
+                        String returnedName = result.getData() != null
+                                ? result.getData().getStringExtra(RETURN_KEY) : null;
+                        Categoria returnedCategory = returnedName != null
+                                ? DataBase.getInstance().getCustomCategory(returnedName) : null;
 
                         if (returnedCategory == null) {
                             Toast.makeText(this, getString(R.string.toast_error_retrieving_package), Toast.LENGTH_SHORT).show();
@@ -280,9 +403,7 @@ public class SelectPackagesActivity extends AppCompatActivity
 
                         // 2. Si fue una CREACIÓN (currentEditingCategory == null), la seleccionamos automáticamente.
                         if (currentEditingCategory == null) {
-                            if (!selectedCategories.contains(returnedCategory)) {
-                                selectedCategories.add(returnedCategory);
-                            }
+                            seleccion.set(registry.idOf(returnedCategory.getName()), true);
                             Toast.makeText(this, getString(R.string.toast_new_package_selected, returnedCategory.getName()), Toast.LENGTH_SHORT).show();
                         } else {
                             // Es una EDICIÓN, solo notificamos
@@ -307,7 +428,7 @@ public class SelectPackagesActivity extends AppCompatActivity
      * Actualiza el texto y estado del botón Confirmar.
      */
     private void updateConfirmButton() {
-        int count = selectedCategories.size();
+        int count = seleccion.count();
 
         btnConfirmPackages.setText(getString(R.string.btn_continue_packages, count));
 
@@ -320,14 +441,14 @@ public class SelectPackagesActivity extends AppCompatActivity
      * Confirma la selección y pasa a la siguiente Activity.
      */
     private void confirmSelection() {
-        if (selectedCategories.isEmpty()) {
+        if (seleccion.isEmpty()) {
             Toast.makeText(this, getString(R.string.toast_select_at_least_one_package), Toast.LENGTH_SHORT).show();
             return;
         }
 
-        // Pasar la lista de categorías seleccionadas de vuelta a MainActivity
+        // Pasar la selección de vuelta a MainActivity (solo los bits)
         Intent intent = new Intent();
-        intent.putExtra(MainActivity.KEY_SELECTED_CATEGORIES, (Serializable) selectedCategories);
+        intent.putExtra(MainActivity.KEY_SELECTED_CATEGORIES, seleccion.toLongArray());
         setResult(Activity.RESULT_OK, intent);
         finish();
     }
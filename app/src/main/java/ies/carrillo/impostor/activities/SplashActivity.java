@@ -2,45 +2,54 @@ package ies.carrillo.impostor.activities;
 
 import android.content.Intent;
 import android.os.Bundle;
-import android.os.Handler;
 import android.widget.ProgressBar;
 
 import androidx.appcompat.app.AppCompatActivity;
 
 import ies.carrillo.impostor.R;
+import ies.carrillo.impostor.metrics.Metrics;
+import ies.carrillo.impostor.utils.StartupPipeline;
 
-public class SplashActivity extends AppCompatActivity {
+public class SplashActivity extends AppCompatActivity implements StartupPipeline.Listener {
 
     private ProgressBar progressBar;
-    private int progressStatus = 0;
-    private final int SPLASH_DURATION = 3000; // 3 segundos
+    private boolean mainLaunched = false;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
+        // Termina con el primer fotograma de MainActivity (ActivityMetrics)
+        Metrics.markStart(Metrics.SPLASH_TO_MENU);
         setContentView(R.layout.activity_splash);
 
         progressBar = findViewById(R.id.progressBar);
 
-        // Animación de la barra de progreso
-        new Thread(() -> {
-            while (progressStatus < 100) {
-                progressStatus += 1;
-                runOnUiThread(() -> progressBar.setProgress(progressStatus));
-
-                try {
-                    Thread.sleep(SPLASH_DURATION / 100); // Distribuye el progreso en 3 segundos
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-
-            // Abrir MainActivity al finalizar
-            runOnUiThread(() -> {
-                Intent intent = new Intent(SplashActivity.this, MainActivity.class);
-                startActivity(intent);
-                finish();
-            });
-        }).start();
+        // La barra avanza según terminan las tareas reales de arranque
+        // y la pantalla se cierra en cuanto están todas.
+        StartupPipeline pipeline = StartupPipeline.get();
+        pipeline.start(getApplicationContext());
+        pipeline.setListener(this);
+    }
+
+    @Override
+    public void onProgress(int completed, int total) {
+        progressBar.setProgress(completed * progressBar.getMax() / total);
+    }
+
+    @Override
+    public void onReady() {
+        if (mainLaunched || isFinishing()) return;
+        mainLaunched = true;
+
+        // Abrir MainActivity al finalizar
+        Intent intent = new Intent(SplashActivity.this, MainActivity.class);
+        startActivity(intent);
+        finish();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        StartupPipeline.get().setListener(null);
     }
 }
@@ -0,0 +1,93 @@
+package ies.carrillo.impostor.activities;
+
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.widget.TextView;
+
+import androidx.activity.EdgeToEdge;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.core.graphics.Insets;
+import androidx.core.view.ViewCompat;
+import androidx.core.view.WindowInsetsCompat;
+
+import com.google.android.material.button.MaterialButton;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ies.carrillo.impostor.R;
+import ies.carrillo.impostor.metrics.StallLog;
+
+/**
+ * Pantalla de depuración: los atascos del hilo principal que guardó el
+ * vigilante, agrupados por el sitio de la app donde estaba y del peor al
+ * menos malo, con la pila que más se vio en el peor. Se abre tocando el
+ * panel de métricas.
+ */
+public class StallsActivity extends AppCompatActivity {
+
+    // Cuántos marcos de la pila se enseñan, desde la hoja
+    private static final int FRAMES_SHOWN = 12;
+
+    private TextView tvStalls;
+    private StallLog log;
+
+    // Los ficheros se leen fuera del hilo principal
+    private final ExecutorService discoExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        EdgeToEdge.enable(this);
+        setContentView(R.layout.activity_stalls);
+        ViewCompat.setOnApplyWindowInsetsListener(findViewById(R.id.main), (v, insets) -> {
+            Insets systemBars = insets.getInsets(WindowInsetsCompat.Type.systemBars());
+            v.setPadding(systemBars.left, systemBars.top, systemBars.right, systemBars.bottom);
+            return insets;
+        });
+
+        tvStalls = findViewById(R.id.tv_stalls);
+        MaterialButton btnClear = findViewById(R.id.btn_clear_stalls);
+        log = StallLog.in(getFilesDir());
+
+        btnClear.setOnClickListener(v -> discoExecutor.execute(() -> {
+            log.clear();
+            cargar();
+        }));
+        discoExecutor.execute(this::cargar);
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        discoExecutor.shutdownNow();
+    }
+
+    private void cargar() {
+        List<StallLog.Site> sitios = log.worstSites();
+        CharSequence texto = formatear(sitios);
+        mainHandler.post(() -> {
+            if (!isDestroyed()) tvStalls.setText(texto);
+        });
+    }
+
+    private CharSequence formatear(List<StallLog.Site> sitios) {
+        if (sitios.isEmpty()) return getString(R.string.text_stalls_empty);
+        StringBuilder texto = new StringBuilder();
+        for (StallLog.Site sitio : sitios) {
+            texto.append(getString(R.string.text_stalls_site, sitio.worstMs, sitio.stalls, sitio.totalMs))
+                    .append('\n').append(sitio.callSite).append('\n');
+            if (sitio.worstStack != null) {
+                String[] marcos = sitio.worstStack.split(";");
+                for (int i = marcos.length - 1; i >= Math.max(0, marcos.length - FRAMES_SHOWN); i--) {
+                    texto.append("    ").append(marcos[i]).append('\n');
+                }
+            }
+            texto.append('\n');
+        }
+        return texto;
+    }
+}
@@ -0,0 +1,106 @@
+package ies.carrillo.impostor.adapters;
+
+import android.content.Context;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.CheckBox;
+import android.widget.TextView;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.RecyclerView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ies.carrillo.impostor.R;
+import ies.carrillo.impostor.model.CategoryRegistry;
+import ies.carrillo.impostor.model.PackSearchIndex;
+import ies.carrillo.impostor.model.SelectionModel;
+
+/**
+ * Resultados de la búsqueda de paquetes: nombre, la palabra que encaja y
+ * una casilla para seleccionar el paquete sin salir de la búsqueda.
+ */
+public class PackSearchAdapter extends RecyclerView.Adapter<PackSearchAdapter.ResultViewHolder> {
+
+    private final Context context;
+    // Misma selección que usa el ExpandableListView
+    private final CategoryRegistry registry;
+    private final SelectionModel selection;
+    private final OnResultToggledListener listener;
+    private final List<PackSearchIndex.Hit> hits = new ArrayList<>();
+
+    public interface OnResultToggledListener {
+        void onSearchResultToggled(String packName, boolean isChecked);
+    }
+
+    public PackSearchAdapter(Context context, CategoryRegistry registry, SelectionModel selection,
+                             OnResultToggledListener listener) {
+        this.context = context;
+        this.registry = registry;
+        this.selection = selection;
+        this.listener = listener;
+    }
+
+    /**
+     * Sustituye los resultados mostrados.
+     */
+    public void setHits(List<PackSearchIndex.Hit> nuevos) {
+        hits.clear();
+        hits.addAll(nuevos);
+        notifyDataSetChanged();
+    }
+
+    @NonNull
+    @Override
+    public ResultViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        View view = LayoutInflater.from(context).inflate(R.layout.list_item_pack_search, parent, false);
+        ResultViewHolder holder = new ResultViewHolder(view);
+
+        // Toda la fila marca/desmarca la casilla
+        View.OnClickListener toggle = v -> {
+            int adapterPosition = holder.getAdapterPosition();
+            if (adapterPosition == RecyclerView.NO_POSITION) return;
+            if (v != holder.cbSelect) holder.cbSelect.toggle();
+            listener.onSearchResultToggled(hits.get(adapterPosition).pack, holder.cbSelect.isChecked());
+        };
+        view.setOnClickListener(toggle);
+        holder.cbSelect.setOnClickListener(toggle);
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull ResultViewHolder holder, int position) {
+        PackSearchIndex.Hit hit = hits.get(position);
+        holder.tvName.setText(hit.pack);
+
+        if (hit.matchedWord == null) {
+            holder.tvDetail.setText(context.getString(R.string.search_result_name));
+        } else if (hit.matches > 1) {
+            holder.tvDetail.setText(context.getString(R.string.search_result_words, hit.matchedWord, hit.matches - 1));
+        } else {
+            holder.tvDetail.setText(context.getString(R.string.search_result_word, hit.matchedWord));
+        }
+
+        holder.cbSelect.setChecked(selection.isSelected(registry.idOf(hit.pack)));
+    }
+
+    @Override
+    public int getItemCount() {
+        return hits.size();
+    }
+
+    static class ResultViewHolder extends RecyclerView.ViewHolder {
+        final CheckBox cbSelect;
+        final TextView tvName;
+        final TextView tvDetail;
+
+        ResultViewHolder(View itemView) {
+            super(itemView);
+            cbSelect = itemView.findViewById(R.id.cb_search_select);
+            tvName = itemView.findViewById(R.id.tv_search_package_name);
+            tvDetail = itemView.findViewById(R.id.tv_search_detail);
+        }
+    }
+}
@@ -16,13 +16,17 @@ import java.util.Map;
 
 import ies.carrillo.impostor.R;
 import ies.carrillo.impostor.model.Categoria;
+import ies.carrillo.impostor.model.CategoryRegistry;
+import ies.carrillo.impostor.model.SelectionModel;
 
 public class PackagesExpandableAdapter extends BaseExpandableListAdapter {
 
     private final Context context;
     private List<String> groupNames;
     private HashMap<String, List<Categoria>> groupChildren;
-    private List<Categoria> selectedCategories; // Referencia a la lista de categorías seleccionadas
+    // Ids de los paquetes y selección (la misma instancia que modifica la actividad)
+    private final CategoryRegistry registry;
+    private final SelectionModel selection;
     private OnPackageActionListener listener;
 
     // --- MAPA DE ICONOS CORREGIDO Y AMPLIADO ---
@@ -60,12 +64,14 @@ public class PackagesExpandableAdapter extends BaseExpandableListAdapter {
 
     public PackagesExpandableAdapter(Context context, List<String> groupNames,
                                      HashMap<String, List<Categoria>> groupChildren,
-                                     List<Categoria> selectedCategories,
+                                     CategoryRegistry registry,
+                                     SelectionModel selection,
                                      OnPackageActionListener listener) {
         this.context = context;
         this.groupNames = groupNames;
         this.groupChildren = groupChildren;
-        this.selectedCategories = selectedCategories;
+        this.registry = registry;
+        this.selection = selection;
         this.listener = listener;
     }
 
@@ -170,10 +176,8 @@ public class PackagesExpandableAdapter extends BaseExpandableListAdapter {
             // Grupos Predefinidos (incluyendo los nuevos) son seleccionables.
             cbGroupCheck.setVisibility(View.VISIBLE);
 
-            // Comprobamos si la categoría predefinida está seleccionada en la lista principal
-            boolean isChecked = selectedCategories.stream()
-                    .anyMatch(c -> c.getName().equals(groupName));
-            cbGroupCheck.setChecked(isChecked);
+            // Comprobamos si la categoría predefinida está seleccionada (un bit por id)
+            cbGroupCheck.setChecked(selection.isSelected(registry.idOf(groupName)));
 
             cbGroupCheck.setOnClickListener(v -> {
                 listener.onGroupCheckboxToggled(groupName, cbGroupCheck.isChecked());
@@ -218,8 +222,7 @@ public class PackagesExpandableAdapter extends BaseExpandableListAdapter {
         holder.tvChildName.setText(category.getName());
 
         // Lógica de Checkbox (selección)
-        boolean isChecked = selectedCategories.contains(category);
-        holder.cbChildCheck.setChecked(isChecked);
+        holder.cbChildCheck.setChecked(selection.isSelected(registry.idOf(category.getName())));
 
         holder.cbChildCheck.setOnClickListener(v -> {
             listener.onChildCheckboxToggled(category, holder.cbChildCheck.isChecked());
@@ -1,7 +1,7 @@
 package ies.carrillo.impostor.adapters;
 
-import android.graphics.Color;
-import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,20 +11,46 @@ import android.widget.TextView;
 
 import androidx.annotation.NonNull;
 import androidx.constraintlayout.widget.ConstraintLayout;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
-import com.squareup.picasso.Picasso;
-
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import ies.carrillo.impostor.R;
+import ies.carrillo.impostor.metrics.Metrics;
 import ies.carrillo.impostor.model.Jugador;
-import ies.carrillo.impostor.utils.CircleTransform;
+import ies.carrillo.impostor.utils.AvatarCache;
 
+/**
+ * Lista de jugadores con ids estables y repintado parcial.
+ * <p>
+ * Quien cambie un solo aspecto de una fila debe notificarlo con su payload
+ * ({@link #PAYLOAD_COLOR}, {@link #PAYLOAD_AVATAR}, {@link #PAYLOAD_NAME}) para
+ * que solo se repinte eso. Para sustituir la lista entera está
+ * {@link #submitList}, que calcula el diff en segundo plano.
+ */
 public class PlayersAdapter extends RecyclerView.Adapter<PlayersAdapter.PlayerViewHolder> {
 
+    // Payloads como máscara de bits: varios cambios de la misma fila se combinan.
+    public static final int PAYLOAD_COLOR = 1;
+    public static final int PAYLOAD_AVATAR = 1 << 1;
+    public static final int PAYLOAD_NAME = 1 << 2;
+
+    private static final ExecutorService DIFF_EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "impostor-diff");
+        thread.setDaemon(true);
+        return thread;
+    });
+
     private final List<Jugador> playersList;
     private final OnPlayerActionListener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private int avatarSizePx;
+    // Descarta diffs que terminan después de otro submitList más reciente.
+    private int generation;
 
     public interface OnPlayerActionListener {
         void onPlayerDelete(int position);
@@ -36,41 +62,58 @@ public class PlayersAdapter extends RecyclerView.Adapter<PlayersAdapter.PlayerVi
     public PlayersAdapter(List<Jugador> playersList, OnPlayerActionListener listener) {
         this.playersList = playersList;
         this.listener = listener;
+        setHasStableIds(true);
+    }
+
+    /**
+     * Sustituye el contenido de la lista (que es la misma que recibió el
+     * constructor) por {@code nuevos}. El diff se calcula en segundo plano
+     * sobre una copia del estado visible de cada fila, de modo que solo se
+     * notifican las filas que cambian.
+     *
+     * @param onApplied se ejecuta en el hilo principal cuando la lista ya está actualizada; puede ser null.
+     */
+    public void submitList(List<Jugador> nuevos, Runnable onApplied) {
+        final int submitted = ++generation;
+        final List<Jugador> nuevaLista = new ArrayList<>(nuevos);
+        final Row[] antes = Row.of(playersList);
+        final Row[] despues = Row.of(nuevaLista);
+
+        DIFF_EXECUTOR.execute(() -> {
+            DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new RowDiff(antes, despues));
+            mainHandler.post(() -> {
+                if (submitted != generation) return;
+                boolean sinCambiosLocales = Row.sameIds(antes, playersList);
+                playersList.clear();
+                playersList.addAll(nuevaLista);
+                if (sinCambiosLocales) {
+                    diff.dispatchUpdatesTo(this);
+                } else {
+                    // La lista se tocó mientras se calculaba: el diff ya no vale.
+                    notifyDataSetChanged();
+                }
+                if (onApplied != null) onApplied.run();
+            });
+        });
     }
 
     @NonNull
     @Override
     public PlayerViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        if (avatarSizePx == 0) {
+            avatarSizePx = parent.getResources().getDimensionPixelSize(R.dimen.avatar_list_size);
+        }
         View view = LayoutInflater.from(parent.getContext())
                 .inflate(R.layout.item_player, parent, false);
-        return new PlayerViewHolder(view);
-    }
+        PlayerViewHolder holder = new PlayerViewHolder(view);
 
-    @Override
-    public void onBindViewHolder(@NonNull PlayerViewHolder holder, int position) {
-        Jugador jugador = playersList.get(position);
-        holder.tvPlayerName.setText(jugador.getName());
-
-        // Carga la foto de perfil con Picasso y recorte circular
-        String imageUriString = jugador.getProfileImageUri();
-        if (imageUriString != null && !imageUriString.isEmpty()) {
-            Picasso.get()
-                    .load(Uri.parse(imageUriString))
-                    .placeholder(R.drawable.ic_default_profile)
-                    .error(R.drawable.ic_default_profile)
-                    .transform(new CircleTransform())
-                    .into(holder.imgColorIndicator);
-        } else {
-            Picasso.get()
-                    .load(R.drawable.ic_default_profile)
-                    .transform(new CircleTransform())
-                    .into(holder.imgColorIndicator);
-        }
-
-        // Listener para cambiar color/foto
-        holder.imgColorIndicator.setOnClickListener(v ->
-                listener.onColorIndicatorClicked(holder.getAdapterPosition())
-        );
+        // Los listeners no dependen del jugador: se ponen una vez por vista y no en cada bind.
+        holder.imgColorIndicator.setOnClickListener(v -> {
+            int adapterPosition = holder.getAdapterPosition();
+            if (listener != null && adapterPosition != RecyclerView.NO_POSITION) {
+                listener.onColorIndicatorClicked(adapterPosition);
+            }
+        });
 
         // Eliminar jugador
         holder.btnDeletePlayer.setOnClickListener(v -> {
@@ -79,16 +122,53 @@ public class PlayersAdapter extends RecyclerView.Adapter<PlayersAdapter.PlayerVi
                 listener.onPlayerDelete(adapterPosition);
             }
         });
+        return holder;
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull PlayerViewHolder holder, int position) {
+        bind(holder, playersList.get(position), PAYLOAD_NAME | PAYLOAD_AVATAR | PAYLOAD_COLOR);
+    }
 
-        // Fondo del item según colorHex
+    @Override
+    public void onBindViewHolder(@NonNull PlayerViewHolder holder, int position, @NonNull List<Object> payloads) {
+        if (payloads.isEmpty()) {
+            onBindViewHolder(holder, position);
+            return;
+        }
+        int cambios = 0;
+        for (Object payload : payloads) {
+            if (payload instanceof Integer) {
+                cambios |= (Integer) payload;
+            }
+        }
+        bind(holder, playersList.get(position), cambios);
+    }
+
+    private void bind(PlayerViewHolder holder, Jugador jugador, int cambios) {
+        long start = Metrics.begin(Metrics.PLAYER_BIND);
         try {
-            int colorInt = Color.parseColor(jugador.getColorHex());
-            holder.clPlayerItemContainer.setBackgroundColor(colorInt);
-        } catch (IllegalArgumentException e) {
-            holder.clPlayerItemContainer.setBackgroundColor(Color.GRAY);
+            if ((cambios & PAYLOAD_NAME) != 0) {
+                holder.tvPlayerName.setText(jugador.getName());
+            }
+            if ((cambios & PAYLOAD_AVATAR) != 0) {
+                // Avatar circular ya renderizado al tamaño de la lista (o se carga una vez y se guarda)
+                AvatarCache.get().bind(holder.imgColorIndicator, jugador.getProfileImageUri(), avatarSizePx);
+            }
+            if ((cambios & PAYLOAD_COLOR) != 0) {
+                // Fondo del item según el color ya interpretado en el modelo
+                holder.clPlayerItemContainer.setBackgroundColor(jugador.getColorInt());
+            }
+        } finally {
+            Metrics.end(Metrics.PLAYER_BIND, start);
         }
     }
 
+    @Override
+    public long getItemId(int position) {
+        return playersList.get(position).getId();
+    }
+
     @Override
     public int getItemCount() {
         return playersList.size();
@@ -108,4 +188,83 @@ public class PlayersAdapter extends RecyclerView.Adapter<PlayersAdapter.PlayerVi
             clPlayerItemContainer = itemView.findViewById(R.id.cl_player_item_container);
         }
     }
+
+    /**
+     * Lo que muestra una fila, copiado en el hilo principal: los {@link Jugador}
+     * son mutables y el diff se calcula en otro hilo.
+     */
+    private static final class Row {
+        final long id;
+        final String name;
+        final int color;
+        final String avatar;
+
+        Row(Jugador jugador) {
+            this.id = jugador.getId();
+            this.name = jugador.getName();
+            this.color = jugador.getColorInt();
+            this.avatar = jugador.getProfileImageUri();
+        }
+
+        static Row[] of(List<Jugador> jugadores) {
+            Row[] rows = new Row[jugadores.size()];
+            for (int i = 0; i < rows.length; i++) rows[i] = new Row(jugadores.get(i));
+            return rows;
+        }
+
+        static boolean sameIds(Row[] rows, List<Jugador> jugadores) {
+            if (rows.length != jugadores.size()) return false;
+            for (int i = 0; i < rows.length; i++) {
+                if (rows[i].id != jugadores.get(i).getId()) return false;
+            }
+            return true;
+        }
+
+        int changesFrom(Row old) {
+            int cambios = 0;
+            if (!equal(name, old.name)) cambios |= PAYLOAD_NAME;
+            if (color != old.color) cambios |= PAYLOAD_COLOR;
+            if (!equal(avatar, old.avatar)) cambios |= PAYLOAD_AVATAR;
+            return cambios;
+        }
+
+        private static boolean equal(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    private static final class RowDiff extends DiffUtil.Callback {
+        private final Row[] antes;
+        private final Row[] despues;
+
+        RowDiff(Row[] antes, Row[] despues) {
+            this.antes = antes;
+            this.despues = despues;
+        }
+
+        @Override
+        public int getOldListSize() {
+            return antes.length;
+        }
+
+        @Override
+        public int getNewListSize() {
+            return despues.length;
+        }
+
+        @Override
+        public boolean areItemsTheSame(int oldItemPosition, int newItemPosition) {
+            return antes[oldItemPosition].id == despues[newItemPosition].id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(int oldItemPosition, int newItemPosition) {
+            return despues[newItemPosition].changesFrom(antes[oldItemPosition]) == 0;
+        }
+
+        @Override
+        public Object getChangePayload(int oldItemPosition, int newItemPosition) {
+            return despues[newItemPosition].changesFrom(antes[oldItemPosition]);
+        }
+    }
 }
@@ -10,63 +10,160 @@ import android.widget.TextView;
 import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
-import java.util.HashMap;
-import java.util.List;
-
 import ies.carrillo.impostor.R;
-
+import ies.carrillo.impostor.model.SortedWordList;
+import ies.carrillo.impostor.model.WordStore;
+
+/**
+ * Pares Palabra/Pista de un paquete en orden alfabético, con filtro por prefijo.
+ * <p>
+ * El orden lo lleva un {@link SortedWordList}; el filtro es el rango
+ * [desde, hasta) de ese orden cuyas palabras empiezan por el texto buscado.
+ * Quien cambie el almacén debe avisar con {@link #onPairPut} o
+ * {@link #onPairRemoved}, que notifican la posición exacta de la fila.
+ */
 public class WordPairAdapter extends RecyclerView.Adapter<WordPairAdapter.WordPairViewHolder> {
 
     private final Context context;
-    // Mapeo original de Palabra -> Pista
-    private final HashMap<String, String> wordMap;
-    // Lista de claves (Palabra Secreta) para el orden del RecyclerView
-    private List<String> secretWordsList;
+    // Pares Palabra -> Pista; de aquí solo se leen las pistas
+    private final WordStore words;
     private final OnPairActionListener listener;
+    private SortedWordList sorted;
+    private String prefix = "";
+    // Rango visible dentro de sorted
+    private int desde;
+    private int hasta;
+    // Mientras otro hilo escribe en el almacén (importación) la lista se muestra vacía
+    private boolean paused;
 
     public interface OnPairActionListener {
         void onDeletePairClicked(String secretWord);
     }
 
-    public WordPairAdapter(Context context, HashMap<String, String> wordMap, List<String> secretWordsList, OnPairActionListener listener) {
+    public WordPairAdapter(Context context, WordStore words, SortedWordList sorted, OnPairActionListener listener) {
         this.context = context;
-        this.wordMap = wordMap;
-        this.secretWordsList = secretWordsList;
+        this.words = words;
+        this.sorted = sorted;
         this.listener = listener;
+        this.hasta = sorted.size();
     }
 
     @NonNull
     @Override
     public WordPairViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
         View view = LayoutInflater.from(context).inflate(R.layout.list_item_word_pair, parent, false);
-        return new WordPairViewHolder(view);
+        WordPairViewHolder holder = new WordPairViewHolder(view);
+
+        // Configurar listener para el botón de borrar (una vez por vista)
+        holder.btnDelete.setOnClickListener(v -> {
+            int adapterPosition = holder.getAdapterPosition();
+            if (adapterPosition != RecyclerView.NO_POSITION) {
+                listener.onDeletePairClicked(sorted.wordAt(desde + adapterPosition));
+            }
+        });
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull WordPairViewHolder holder, int position) {
-        final String secretWord = secretWordsList.get(position);
-        final String impostorClue = wordMap.get(secretWord);
-
+        String secretWord = sorted.wordAt(desde + position);
         holder.tvSecretWord.setText(secretWord);
-        holder.tvImpostorClue.setText(impostorClue);
-
-        // Configurar listener para el botón de borrar
-        holder.btnDelete.setOnClickListener(v -> listener.onDeletePairClicked(secretWord));
+        holder.tvImpostorClue.setText(words.getClue(secretWord));
     }
 
     @Override
     public int getItemCount() {
-        return secretWordsList.size();
+        return paused ? 0 : hasta - desde;
+    }
+
+    /**
+     * Avisa de que se ha añadido un par o cambiado la pista de uno existente.
+     */
+    public void onPairPut(String secretWord) {
+        int existing = sorted.indexOf(secretWord);
+        if (existing >= 0) {
+            if (!paused && existing >= desde && existing < hasta) notifyItemChanged(existing - desde);
+            return;
+        }
+        int index = sorted.insert(secretWord);
+        boolean visible = SortedWordList.matchesPrefix(secretWord, prefix);
+        recalcularRango();
+        if (!paused && visible) notifyItemInserted(index - desde);
+    }
+
+    /**
+     * Avisa de que se ha borrado un par del almacén.
+     */
+    public void onPairRemoved(String secretWord) {
+        int index = sorted.indexOf(secretWord);
+        if (index < 0) return;
+        boolean visible = index >= desde && index < hasta;
+        int position = index - desde;
+        sorted.remove(secretWord);
+        recalcularRango();
+        if (!paused && visible) notifyItemRemoved(position);
     }
 
     /**
-     * Actualiza la lista de palabras cuando se añade o borra un par.
+     * Sustituye el orden entero, p. ej. tras una importación. Se puede
+     * construir en segundo plano y pasar aquí ya hecho.
      */
-    public void updateWords(List<String> newSecretWordsList) {
-        this.secretWordsList = newSecretWordsList;
+    public void replaceAll(SortedWordList sorted) {
+        this.sorted = sorted;
+        recalcularRango();
+        if (!paused) notifyDataSetChanged();
+    }
+
+    /**
+     * Muestra solo las palabras que empiezan por {@code prefix} (sin contar
+     * tildes ni mayúsculas). Cuesta dos búsquedas binarias; como el rango
+     * viejo y el nuevo son tramos del mismo orden, la diferencia se notifica
+     * en como mucho dos bloques quitados o añadidos en los extremos.
+     */
+    public void setFilter(String prefix) {
+        String nuevo = prefix == null ? "" : prefix;
+        if (nuevo.equals(this.prefix)) return;
+        this.prefix = nuevo;
+        int viejoDesde = desde;
+        int viejoHasta = hasta;
+        recalcularRango();
+        if (paused) return;
+
+        if (hasta <= viejoDesde || desde >= viejoHasta) {
+            // Sin filas en común
+            notifyItemRangeRemoved(0, viejoHasta - viejoDesde);
+            notifyItemRangeInserted(0, hasta - desde);
+            return;
+        }
+        // Cabeza: la lista pasa a empezar en desde
+        if (desde > viejoDesde) {
+            notifyItemRangeRemoved(0, desde - viejoDesde);
+        } else if (desde < viejoDesde) {
+            notifyItemRangeInserted(0, viejoDesde - desde);
+        }
+        // Cola: ahora la lista es [desde, viejoHasta)
+        if (hasta < viejoHasta) {
+            notifyItemRangeRemoved(hasta - desde, viejoHasta - hasta);
+        } else if (hasta > viejoHasta) {
+            notifyItemRangeInserted(viejoHasta - desde, hasta - viejoHasta);
+        }
+    }
+
+    /**
+     * Oculta (o vuelve a mostrar) los pares mientras el almacén se modifica
+     * desde otro hilo, para que la lista no lo lea a la vez.
+     */
+    public void setPaused(boolean paused) {
+        if (this.paused == paused) return;
+        this.paused = paused;
         notifyDataSetChanged();
     }
 
+    private void recalcularRango() {
+        desde = sorted.prefixStart(prefix);
+        hasta = sorted.prefixEnd(prefix);
+    }
+
     static class WordPairViewHolder extends RecyclerView.ViewHolder {
         final TextView tvSecretWord;
         final TextView tvImpostorClue;
@@ -79,4 +176,4 @@ public class WordPairAdapter extends RecyclerView.Adapter<WordPairAdapter.WordPa
             btnDelete = itemView.findViewById(R.id.btn_delete_pair);
         }
     }
-}
\ No newline at end of file
+}
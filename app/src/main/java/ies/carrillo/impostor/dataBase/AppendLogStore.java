@@ -0,0 +1,790 @@
+package ies.carrillo.impostor.dataBase;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.CRC32;
+
+import ies.carrillo.impostor.model.Categoria;
+import ies.carrillo.impostor.model.Jugador;
+import ies.carrillo.impostor.model.WordStore;
+import ies.carrillo.impostor.roles.Roles;
+
+/**
+ * Motor de persistencia de {@link DataBase}: un log de solo-anexado más una
+ * instantánea compactada.
+ * <p>
+ * Cada mutación ({@link #saveCategory}, {@link #deleteCategory},
+ * {@link #setPlayers}, {@link #setWeight}) se copia en un registro inmutable en el hilo que la
+ * llama y se encola; un único hilo de fondo agrupa todos los registros
+ * pendientes en una sola escritura + {@code fsync}. El hilo de la UI nunca
+ * espera al disco.
+ * <p>
+ * Ficheros dentro de {@code dir}:
+ * <ul>
+ *     <li>{@code store.snap}: estado completo + número de generación + CRC32.</li>
+ *     <li>{@code store.log}: cabecera con la generación y registros
+ *     {@code [int longitud][int crc32][payload]}.</li>
+ * </ul>
+ * La compactación escribe la nueva instantánea (generación g+1) en un temporal
+ * y la renombra de forma atómica; después crea un log vacío de la misma
+ * generación. Si el proceso muere entre ambos pasos, el log antiguo tiene una
+ * generación menor y se ignora. Un registro final incompleto o con CRC
+ * inválido (escritura cortada) se descarta y el log se trunca en ese punto.
+ * <p>
+ * Además admite ficheros auxiliares pequeños ({@link #writeAuxiliary}) que se
+ * sustituyen enteros: para estado que cambia a menudo y no merece un registro
+ * por cambio, como el progreso de la bolsa de palabras.
+ */
+public final class AppendLogStore implements Closeable {
+
+    private static final int SNAPSHOT_MAGIC = 0x494D5053; // "IMPS"
+    private static final int LOG_MAGIC = 0x494D504C;      // "IMPL"
+    // v2: la instantánea incluye los pesos de paquete. Se siguen leyendo ficheros v1.
+    private static final int FORMAT_VERSION = 2;
+    private static final int LOG_HEADER_SIZE = 16;
+
+    private static final byte TYPE_SAVE_CATEGORY = 1;
+    private static final byte TYPE_DELETE_CATEGORY = 2;
+    private static final byte TYPE_SET_PLAYERS = 3;
+    private static final byte TYPE_SET_WEIGHT = 4;
+
+    // Se compacta cuando el log supera este tamaño y también el de la última instantánea.
+    private static final long MIN_COMPACTION_BYTES = 256 * 1024;
+
+    private static final String SNAPSHOT_FILE = "store.snap";
+    private static final String LOG_FILE = "store.log";
+    private static final String TMP_SUFFIX = ".tmp";
+    private static final String CORRUPT_SUFFIX = ".corrupt";
+    private static final int AUX_HEADER_SIZE = 8;
+
+    private final File snapshotFile;
+    private final File logFile;
+    private final File dir;
+    private final ExecutorService executor;
+    private final ConcurrentLinkedQueue<Record> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+    // Última versión pendiente de cada fichero auxiliar: las intermedias no llegan a escribirse.
+    private final ConcurrentHashMap<String, byte[]> pendingAux = new ConcurrentHashMap<>();
+
+    // --- Estado accedido solo desde el hilo del executor (o antes de load()) ---
+    private final LinkedHashMap<String, SaveCategory> categories = new LinkedHashMap<>();
+    private PlayerData[] players = new PlayerData[0];
+    private final LinkedHashMap<String, Integer> weights = new LinkedHashMap<>();
+    private long generation;
+    private long logBytes;
+    private long snapshotBytes;
+    private FileOutputStream logOut;
+    private final ByteArrayOutputStream batchBuffer = new ByteArrayOutputStream(8 * 1024);
+    // Lote en curso; si su escritura falla se queda aquí y se reintenta antes que lo nuevo.
+    private final ArrayList<Record> batch = new ArrayList<>();
+    private IOException lastWriteError;
+
+    public AppendLogStore(File dir) {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IllegalStateException("No se pudo crear el directorio " + dir);
+        }
+        this.dir = dir;
+        this.snapshotFile = new File(dir, SNAPSHOT_FILE);
+        this.logFile = new File(dir, LOG_FILE);
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "impostor-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // ******************************************************
+    // CARGA Y RECUPERACIÓN
+    // ******************************************************
+
+    /**
+     * Estado recuperado del disco.
+     */
+    public static final class State {
+        public final ArrayList<Jugador> jugadores;
+        public final ArrayList<Categoria> customCategories;
+        // Peso fijado por el usuario para cada paquete (ver WordScheduler#setWeight).
+        public final LinkedHashMap<String, Integer> pesos;
+
+        State(ArrayList<Jugador> jugadores, ArrayList<Categoria> customCategories,
+              LinkedHashMap<String, Integer> pesos) {
+            this.jugadores = jugadores;
+            this.customCategories = customCategories;
+            this.pesos = pesos;
+        }
+    }
+
+    /**
+     * Lee la instantánea, reaplica el log y lo deja abierto para anexar.
+     * Debe llamarse una sola vez, antes de cualquier mutación.
+     */
+    public State load() throws IOException {
+        Future<State> future = executor.submit(this::loadOnExecutor);
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Carga interrumpida", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private State loadOnExecutor() throws IOException {
+        deleteIfExists(new File(snapshotFile.getPath() + TMP_SUFFIX));
+        deleteIfExists(new File(logFile.getPath() + TMP_SUFFIX));
+
+        generation = 0;
+        snapshotBytes = 0;
+        if (snapshotFile.exists()) {
+            try {
+                readSnapshot();
+            } catch (IOException e) {
+                // Instantánea dañada: se aparta para poder mirarla y se empieza de cero.
+                // Sin esto el log no llegaría a abrirse y no se guardaría nada más.
+                rename(snapshotFile, new File(snapshotFile.getPath() + CORRUPT_SUFFIX));
+                resetState();
+            }
+        }
+
+        boolean logValid = false;
+        if (logFile.exists()) {
+            logValid = replayLog();
+        }
+        if (!logValid) {
+            writeEmptyLog(generation);
+        }
+        logOut = new FileOutputStream(logFile, true);
+        logBytes = logFile.length();
+
+        return buildState();
+    }
+
+    private void readSnapshot() throws IOException {
+        byte[] bytes = readFully(snapshotFile);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (bytes.length < 24 || in.readInt() != SNAPSHOT_MAGIC) {
+            throw new IOException("Instantánea con formato desconocido");
+        }
+        int version = in.readInt();
+        if (version < 1 || version > FORMAT_VERSION) {
+            throw new IOException("Versión de instantánea no soportada: " + version);
+        }
+        long snapshotGeneration = in.readLong();
+        int length = in.readInt();
+        int crc = in.readInt();
+        if (length != bytes.length - 24 || crc(bytes, 24, length) != crc) {
+            throw new IOException("Instantánea corrupta");
+        }
+
+        players = readPlayers(in);
+        int count = in.readInt();
+        categories.clear();
+        for (int i = 0; i < count; i++) {
+            SaveCategory category = readCategory(in);
+            categories.put(category.name, category);
+        }
+        weights.clear();
+        if (version >= 2) {
+            int weightCount = in.readInt();
+            for (int i = 0; i < weightCount; i++) {
+                weights.put(in.readUTF(), in.readInt());
+            }
+        }
+        generation = snapshotGeneration;
+        snapshotBytes = bytes.length;
+    }
+
+    /**
+     * @return false si el log no pertenece a la generación actual y hay que recrearlo.
+     */
+    private boolean replayLog() throws IOException {
+        byte[] bytes = readFully(logFile);
+        if (bytes.length < LOG_HEADER_SIZE) return false;
+
+        DataInputStream header = new DataInputStream(new ByteArrayInputStream(bytes, 0, LOG_HEADER_SIZE));
+        if (header.readInt() != LOG_MAGIC) return false;
+        int version = header.readInt();
+        if (version < 1 || version > FORMAT_VERSION) return false;
+        if (header.readLong() != generation) return false;
+
+        int position = LOG_HEADER_SIZE;
+        while (position + 8 <= bytes.length) {
+            int length = readInt(bytes, position);
+            int crc = readInt(bytes, position + 4);
+            int payloadStart = position + 8;
+            if (length <= 0 || payloadStart + length > bytes.length
+                    || crc(bytes, payloadStart, length) != crc) {
+                break; // Registro cortado o corrupto: fin del log válido.
+            }
+            apply(decode(new DataInputStream(new ByteArrayInputStream(bytes, payloadStart, length))));
+            position = payloadStart + length;
+        }
+
+        if (position < bytes.length) {
+            try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+                file.setLength(position);
+                file.getFD().sync();
+            }
+        }
+        return true;
+    }
+
+    private void resetState() {
+        categories.clear();
+        players = new PlayerData[0];
+        weights.clear();
+        generation = 0;
+        snapshotBytes = 0;
+    }
+
+    private State buildState() {
+        ArrayList<Jugador> jugadores = new ArrayList<>(players.length);
+        for (PlayerData data : players) {
+            jugadores.add(data.toJugador());
+        }
+        ArrayList<Categoria> customCategories = new ArrayList<>(categories.size());
+        for (SaveCategory category : categories.values()) {
+            customCategories.add(category.toCategoria());
+        }
+        return new State(jugadores, customCategories, new LinkedHashMap<>(weights));
+    }
+
+    // ******************************************************
+    // MUTACIONES (cualquier hilo, no bloquean)
+    // ******************************************************
+
+    public void saveCategory(Categoria categoria) {
+        WordStore store = categoria.getWordStore();
+        enqueue(new SaveCategory(categoria.getName(), store.copyWords(), store.copyClues()));
+    }
+
+    public void deleteCategory(String name) {
+        enqueue(new DeleteCategory(name));
+    }
+
+    /**
+     * Guarda el peso de un paquete; 0 lo devuelve al modo automático.
+     */
+    public void setWeight(String name, int weight) {
+        enqueue(new SetWeight(name, weight));
+    }
+
+    public void setPlayers(List<Jugador> jugadores) {
+        PlayerData[] data = new PlayerData[jugadores.size()];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = new PlayerData(jugadores.get(i));
+        }
+        enqueue(new SetPlayers(data));
+    }
+
+    private void enqueue(Record record) {
+        pending.add(record);
+        if (drainScheduled.compareAndSet(false, true)) {
+            executor.execute(this::drain);
+        }
+    }
+
+    /**
+     * Espera a que todo lo encolado hasta ahora esté en disco.
+     */
+    public void flush() throws IOException {
+        try {
+            executor.submit(this::drain).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Flush interrumpido", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            throw new IOException(e.getCause());
+        }
+        if (lastWriteError != null) {
+            throw lastWriteError;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            executor.execute(this::closeLog);
+            executor.shutdown();
+            try {
+                executor.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // ******************************************************
+    // FICHEROS AUXILIARES
+    // ******************************************************
+
+    /**
+     * Sustituye el contenido de un fichero auxiliar sin bloquear: se escribe
+     * en un temporal con CRC, {@code fsync} y renombrado atómico.
+     */
+    public void writeAuxiliary(String name, byte[] data) {
+        if (pendingAux.put(name, data) == null) {
+            executor.execute(() -> writeAuxOnExecutor(name));
+        }
+    }
+
+    /**
+     * Lee un fichero auxiliar (espera a las escrituras pendientes).
+     *
+     * @return su contenido, o null si no existe o está dañado.
+     */
+    public byte[] readAuxiliary(String name) throws IOException {
+        Future<byte[]> future = executor.submit(() -> readAuxOnExecutor(name));
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Lectura interrumpida", e);
+        } catch (java.util.concurrent.ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private void writeAuxOnExecutor(String name) {
+        byte[] data = pendingAux.remove(name);
+        if (data == null) return;
+        File target = new File(dir, name);
+        File tmp = new File(target.getPath() + TMP_SUFFIX);
+        try {
+            try (FileOutputStream file = new FileOutputStream(tmp)) {
+                DataOutputStream out = new DataOutputStream(file);
+                out.writeInt(data.length);
+                out.writeInt(crc(data, 0, data.length));
+                out.write(data);
+                out.flush();
+                file.getFD().sync();
+            }
+            rename(tmp, target);
+        } catch (IOException e) {
+            lastWriteError = e;
+        }
+    }
+
+    private byte[] readAuxOnExecutor(String name) throws IOException {
+        File file = new File(dir, name);
+        deleteIfExists(new File(file.getPath() + TMP_SUFFIX));
+        if (!file.exists()) return null;
+        byte[] bytes = readFully(file);
+        if (bytes.length < AUX_HEADER_SIZE) return null;
+        int length = readInt(bytes, 0);
+        if (length != bytes.length - AUX_HEADER_SIZE
+                || readInt(bytes, 4) != crc(bytes, AUX_HEADER_SIZE, length)) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        System.arraycopy(bytes, AUX_HEADER_SIZE, data, 0, length);
+        return data;
+    }
+
+    // ******************************************************
+    // ESCRITURA (solo hilo del executor)
+    // ******************************************************
+
+    private void drain() {
+        drainScheduled.set(false);
+        if (logOut == null) return;
+        Record record;
+        while ((record = pending.poll()) != null) {
+            batch.add(record);
+        }
+        if (batch.isEmpty()) return;
+
+        IOException encodeError = null;
+        try {
+            batchBuffer.reset();
+            DataOutputStream out = new DataOutputStream(batchBuffer);
+            ByteArrayOutputStream payload = new ByteArrayOutputStream(256);
+            Iterator<Record> records = batch.iterator();
+            while (records.hasNext()) {
+                payload.reset();
+                try {
+                    records.next().write(new DataOutputStream(payload));
+                } catch (IOException e) {
+                    // No se puede codificar (p. ej. un texto de más de 64 KB para writeUTF):
+                    // reintentarlo no cambiaría nada y bloquearía todo lo que viene detrás.
+                    records.remove();
+                    encodeError = e;
+                    continue;
+                }
+                byte[] bytes = payload.toByteArray();
+                out.writeInt(bytes.length);
+                out.writeInt(crc(bytes, 0, bytes.length));
+                out.write(bytes);
+            }
+            out.flush();
+            if (batch.isEmpty()) {
+                lastWriteError = encodeError;
+                return;
+            }
+
+            // Un único write + fsync por lote.
+            FileChannel channel = logOut.getChannel();
+            if (channel.size() != logBytes) {
+                // Quedó una trama cortada de un lote que falló: la reproducción pararía en ella
+                channel.truncate(logBytes);
+            }
+            batchBuffer.writeTo(logOut);
+            logOut.getFD().sync();
+        } catch (IOException e) {
+            lastWriteError = e;
+            // El lote sigue en memoria y se reintenta; lo escrito a medias se quita ya
+            try {
+                logOut.getChannel().truncate(logBytes);
+            } catch (IOException ignored) {
+                // Se vuelve a intentar al principio del siguiente lote
+            }
+            return;
+        }
+
+        // Solo lo que ya está en disco pasa al estado que se compacta
+        logBytes += batchBuffer.size();
+        for (Record written : batch) {
+            apply(written);
+        }
+        batch.clear();
+        // El registro descartado se avisa en el siguiente flush(); lo demás ya está guardado
+        lastWriteError = encodeError;
+
+        if (logBytes > MIN_COMPACTION_BYTES && logBytes > snapshotBytes) {
+            try {
+                compact();
+            } catch (IOException e) {
+                lastWriteError = e;
+            }
+        }
+    }
+
+    private void compact() throws IOException {
+        long nextGeneration = generation + 1;
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE, logBytes));
+        DataOutputStream out = new DataOutputStream(body);
+        writePlayers(out, players);
+        out.writeInt(categories.size());
+        for (SaveCategory category : categories.values()) {
+            category.writeBody(out);
+        }
+        out.writeInt(weights.size());
+        for (Map.Entry<String, Integer> weight : weights.entrySet()) {
+            out.writeUTF(weight.getKey());
+            out.writeInt(weight.getValue());
+        }
+        out.flush();
+        byte[] bytes = body.toByteArray();
+
+        File tmp = new File(snapshotFile.getPath() + TMP_SUFFIX);
+        try (FileOutputStream file = new FileOutputStream(tmp)) {
+            DataOutputStream header = new DataOutputStream(file);
+            header.writeInt(SNAPSHOT_MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            header.writeLong(nextGeneration);
+            header.writeInt(bytes.length);
+            header.writeInt(crc(bytes, 0, bytes.length));
+            header.write(bytes);
+            header.flush();
+            file.getFD().sync();
+        }
+        rename(tmp, snapshotFile);
+        snapshotBytes = snapshotFile.length();
+
+        closeLog();
+        writeEmptyLog(nextGeneration);
+        generation = nextGeneration;
+        logOut = new FileOutputStream(logFile, true);
+        logBytes = logFile.length();
+    }
+
+    private void writeEmptyLog(long logGeneration) throws IOException {
+        File tmp = new File(logFile.getPath() + TMP_SUFFIX);
+        try (FileOutputStream file = new FileOutputStream(tmp)) {
+            DataOutputStream out = new DataOutputStream(file);
+            out.writeInt(LOG_MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(logGeneration);
+            out.flush();
+            file.getFD().sync();
+        }
+        rename(tmp, logFile);
+    }
+
+    private void closeLog() {
+        if (logOut == null) return;
+        try {
+            logOut.close();
+        } catch (IOException ignored) {
+            // Los datos ya se sincronizaron en el último lote.
+        }
+        logOut = null;
+    }
+
+    // Aplica un registro al espejo en memoria usado para compactar.
+    private void apply(Record record) {
+        if (record instanceof SaveCategory) {
+            SaveCategory save = (SaveCategory) record;
+            // Igual que DataBase.saveCustomCategory: la versión nueva pasa al final.
+            categories.remove(save.name);
+            categories.put(save.name, save);
+        } else if (record instanceof DeleteCategory) {
+            String name = ((DeleteCategory) record).name;
+            categories.remove(name);
+            weights.remove(name);
+        } else if (record instanceof SetPlayers) {
+            players = ((SetPlayers) record).players;
+        } else if (record instanceof SetWeight) {
+            SetWeight set = (SetWeight) record;
+            if (set.weight == 0) {
+                weights.remove(set.name);
+            } else {
+                weights.put(set.name, set.weight);
+            }
+        }
+    }
+
+    // ******************************************************
+    // REGISTROS
+    // ******************************************************
+
+    private abstract static class Record {
+        abstract void write(DataOutputStream out) throws IOException;
+    }
+
+    private static final class SaveCategory extends Record {
+        final String name;
+        final String[] words;
+        final String[] clues;
+
+        SaveCategory(String name, String[] words, String[] clues) {
+            this.name = name;
+            this.words = words;
+            this.clues = clues;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(TYPE_SAVE_CATEGORY);
+            writeBody(out);
+        }
+
+        void writeBody(DataOutputStream out) throws IOException {
+            out.writeUTF(name);
+            out.writeInt(words.length);
+            for (int i = 0; i < words.length; i++) {
+                out.writeUTF(words[i]);
+                out.writeUTF(clues[i]);
+            }
+        }
+
+        Categoria toCategoria() {
+            WordStore store = new WordStore(words.length);
+            for (int i = 0; i < words.length; i++) {
+                store.put(words[i], clues[i]);
+            }
+            return new Categoria(name, store);
+        }
+    }
+
+    private static final class DeleteCategory extends Record {
+        final String name;
+
+        DeleteCategory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(TYPE_DELETE_CATEGORY);
+            out.writeUTF(name);
+        }
+    }
+
+    private static final class SetPlayers extends Record {
+        final PlayerData[] players;
+
+        SetPlayers(PlayerData[] players) {
+            this.players = players;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(TYPE_SET_PLAYERS);
+            writePlayers(out, players);
+        }
+    }
+
+    private static final class SetWeight extends Record {
+        final String name;
+        final int weight;
+
+        SetWeight(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        @Override
+        void write(DataOutputStream out) throws IOException {
+            out.writeByte(TYPE_SET_WEIGHT);
+            out.writeUTF(name);
+            out.writeInt(weight);
+        }
+    }
+
+    // Copia inmutable de un Jugador en el momento de la mutación.
+    private static final class PlayerData {
+        final String name;
+        final String role;
+        final String colorHex;
+        final String profileImageUri;
+
+        PlayerData(Jugador jugador) {
+            this(jugador.getName(), jugador.getRole() != null ? jugador.getRole().name() : null,
+                    jugador.getColorHex(), jugador.getProfileImageUri());
+        }
+
+        PlayerData(String name, String role, String colorHex, String profileImageUri) {
+            this.name = name;
+            this.role = role;
+            this.colorHex = colorHex;
+            this.profileImageUri = profileImageUri;
+        }
+
+        Jugador toJugador() {
+            Jugador jugador = new Jugador(name, Roles.fromName(role), colorHex);
+            jugador.setProfileImageUri(profileImageUri);
+            return jugador;
+        }
+    }
+
+    private static Record decode(DataInputStream in) throws IOException {
+        byte type = in.readByte();
+        switch (type) {
+            case TYPE_SAVE_CATEGORY:
+                return readCategory(in);
+            case TYPE_DELETE_CATEGORY:
+                return new DeleteCategory(in.readUTF());
+            case TYPE_SET_PLAYERS:
+                return new SetPlayers(readPlayers(in));
+            case TYPE_SET_WEIGHT:
+                return new SetWeight(in.readUTF(), in.readInt());
+            default:
+                throw new IOException("Tipo de registro desconocido: " + type);
+        }
+    }
+
+    private static SaveCategory readCategory(DataInputStream in) throws IOException {
+        String name = in.readUTF();
+        int count = in.readInt();
+        String[] words = new String[count];
+        String[] clues = new String[count];
+        for (int i = 0; i < count; i++) {
+            words[i] = in.readUTF();
+            clues[i] = in.readUTF();
+        }
+        return new SaveCategory(name, words, clues);
+    }
+
+    private static void writePlayers(DataOutputStream out, PlayerData[] players) throws IOException {
+        out.writeInt(players.length);
+        for (PlayerData player : players) {
+            out.writeUTF(player.name);
+            writeNullableUTF(out, player.role);
+            writeNullableUTF(out, player.colorHex);
+            writeNullableUTF(out, player.profileImageUri);
+        }
+    }
+
+    private static PlayerData[] readPlayers(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        PlayerData[] players = new PlayerData[count];
+        for (int i = 0; i < count; i++) {
+            players[i] = new PlayerData(in.readUTF(), readNullableUTF(in), readNullableUTF(in), readNullableUTF(in));
+        }
+        return players;
+    }
+
+    // ******************************************************
+    // UTILIDADES
+    // ******************************************************
+
+    private static void writeNullableUTF(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullableUTF(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static int crc(byte[] bytes, int offset, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static int readInt(byte[] bytes, int offset) {
+        return ((bytes[offset] & 0xFF) << 24) | ((bytes[offset + 1] & 0xFF) << 16)
+                | ((bytes[offset + 2] & 0xFF) << 8) | (bytes[offset + 3] & 0xFF);
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        long length = file.length();
+        if (length > Integer.MAX_VALUE) throw new IOException("Fichero demasiado grande: " + file);
+        byte[] bytes = new byte[(int) length];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) throw new EOFException("Fin inesperado de " + file);
+                read += n;
+            }
+        }
+        return bytes;
+    }
+
+    // File.renameTo sustituye el destino de forma atómica en el mismo sistema de ficheros.
+    private static void rename(File from, File to) throws IOException {
+        if (!from.renameTo(to)) {
+            throw new IOException("No se pudo renombrar " + from + " a " + to);
+        }
+    }
+
+    private static void deleteIfExists(File file) {
+        if (file.exists()) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+}
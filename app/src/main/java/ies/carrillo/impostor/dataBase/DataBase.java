@@ -1,11 +1,31 @@
 package ies.carrillo.impostor.dataBase;
 
+import android.content.Context;
+import android.content.res.AssetFileDescriptor;
+import android.content.res.AssetManager;
+import android.util.Log;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import ies.carrillo.impostor.model.Categoria;
+import ies.carrillo.impostor.model.CategoryRegistry;
 import ies.carrillo.impostor.model.Jugador;
+import ies.carrillo.impostor.model.PackSearchIndex;
+import ies.carrillo.impostor.model.SelectionModel;
+import ies.carrillo.impostor.model.WordIndex;
+import ies.carrillo.impostor.model.WordScheduler;
 
 /**
  * Singleton para gestionar los datos persistentes de la aplicación:
@@ -13,12 +33,30 @@ import ies.carrillo.impostor.model.Jugador;
  */
 public class DataBase {
 
+    private static final String TAG = "DataBase";
+    private static final String PACKS_ASSET_DIR = "packs";
+    private static final String PACK_EXTENSION = ".pack";
+    private static final String STORE_DIR = "database";
+    private static final String SCHEDULER_FILE = "scheduler.bin";
+    private static final String SELECTION_FILE = "selection.bin";
+
     // --- PATRÓN SINGLETON ---
     private static DataBase instance;
+    private static Context appContext;
+
+    /**
+     * Registra el contexto de aplicación. Se llama una vez desde {@link ies.carrillo.impostor.ImpostorApplication}.
+     */
+    public static void init(Context context) {
+        appContext = context.getApplicationContext();
+    }
 
-    public static DataBase getInstance() {
+    public static synchronized DataBase getInstance() {
         if (instance == null) {
-            instance = new DataBase();
+            if (appContext == null) {
+                throw new IllegalStateException("DataBase.init(Context) no se ha llamado");
+            }
+            instance = new DataBase(appContext);
         }
         return instance;
     }
@@ -28,213 +66,410 @@ public class DataBase {
     private final ArrayList<Jugador> jugadores = new ArrayList<>();
     private final ArrayList<Categoria> predefinidas = new ArrayList<>();
     // Lista mutable para las categorías personalizadas creadas por el usuario.
+    // Se cambia desde el hilo principal; quien la copie desde otro hilo usa customLock.
     private final List<Categoria> customCategories = new ArrayList<>();
+    private final Object customLock = new Object();
+    // Id entero de cada paquete (predefinido o personalizado) para la selección.
+    private final CategoryRegistry registry = new CategoryRegistry();
+    // Selección guardada en la sesión anterior; se traduce a ids cuando ya está todo registrado.
+    private volatile byte[] seleccionGuardada;
+
+    // Persistencia de jugadores y paquetes personalizados (log de solo-anexado)
+    private final AppendLogStore store;
+    // Bolsa de palabras sin repetición entre rondas (y entre sesiones).
+    private final WordScheduler wordScheduler = new WordScheduler();
+    // Palabras normalizadas de todos los paquetes (duplicados entre paquetes).
+    // Solo se construye si alguien lo pide: recorre todas las palabras.
+    // indiceLock solo ordena las construcciones entre sí; guardar o borrar un
+    // paquete no lo toma, sube la versión y un índice a medias se descarta.
+    private final Object indiceLock = new Object();
+    // Versión de customCategories (se cambia con customLock)
+    private int versionPersonalizadas;
+    private volatile WordIndex wordIndex;
+    // Búsqueda por nombre y contenido de paquetes (SelectPackagesActivity); mismo ciclo de vida.
+    private volatile PackSearchIndex searchIndex;
+
+    // Las dos cargas son independientes: el arranque (StartupPipeline) las lanza
+    // en paralelo y cualquier getter espera solo a la parte que necesita.
+    private final Context context;
+    private final Object predefinidasLock = new Object();
+    private final Object estadoLock = new Object();
+    private boolean predefinidasCargadas;
+    private boolean estadoCargado;
 
-    private Categoria semanaSanta;
-    private Categoria naturaleza;
+    // Constructor privado para forzar el uso de getInstance()
+    private DataBase(Context context) {
+        this.context = context;
+        store = new AppendLogStore(new File(context.getFilesDir(), STORE_DIR));
+    }
 
-    // --- NUEVAS CATEGORÍAS ---
-    private Categoria videojuegos;
-    private Categoria cineTv;
-    private Categoria comida;
+    /**
+     * Mapea los paquetes predefinidos si aún no se ha hecho. Idempotente y
+     * seguro entre hilos.
+     */
+    public void asegurarPredefinidas() {
+        synchronized (predefinidasLock) {
+            if (predefinidasCargadas) return;
+            inicializarCategorias(context);
+            predefinidasCargadas = true;
+        }
+    }
 
-    // Constructor privado para forzar el uso de getInstance()
-    private DataBase() {
-        inicializarCategorias();
-    }
-
-    private void inicializarCategorias() {
-        // --- 1. Crear el objeto Semana Santa (EXISTENTE) ---
-        HashMap<String, String> palabrasSemanaSanta = new HashMap<>();
-        palabrasSemanaSanta.put("Nazareno", "Capirotes");
-        palabrasSemanaSanta.put("Trono", "Costaleros");
-        palabrasSemanaSanta.put("Mantilla", "Velo");
-        palabrasSemanaSanta.put("Capataces", "Llamador");
-        palabrasSemanaSanta.put("Saeta", "Canto");
-        palabrasSemanaSanta.put("Incienso", "Humo");
-        palabrasSemanaSanta.put("Cruz", "Guía");
-        palabrasSemanaSanta.put("Palio", "Bambalinas");
-        palabrasSemanaSanta.put("Cuaresma", "Penitencia");
-        palabrasSemanaSanta.put("Misterio", "Pasaje");
-
-        palabrasSemanaSanta.put("Domingo", "Ramos");
-        palabrasSemanaSanta.put("Madrugá", "Silencio");
-        palabrasSemanaSanta.put("Pasos", "Flores");
-        palabrasSemanaSanta.put("Marcha", "Procesional");
-        palabrasSemanaSanta.put("Orfebrería", "Plata");
-        palabrasSemanaSanta.put("Semana", "Mayor");
-        palabrasSemanaSanta.put("Estación", "Penitencia");
-        palabrasSemanaSanta.put("Carrera", "Oficial");
-        palabrasSemanaSanta.put("Banda", "Música");
-        palabrasSemanaSanta.put("Jesús", "Cristo");
-
-        palabrasSemanaSanta.put("Claveles", "Flores");
-        palabrasSemanaSanta.put("Manolas", "Dolorosa");
-        palabrasSemanaSanta.put("Cirio", "Luz");
-        palabrasSemanaSanta.put("Penitente", "Promesa");
-        palabrasSemanaSanta.put("Bulla", "Gentío");
-        palabrasSemanaSanta.put("Madera", "Talla");
-        palabrasSemanaSanta.put("Guión", "Estandarte");
-        palabrasSemanaSanta.put("Prioste", "Mayordomo"); // Se cambió "Fiscal" por "Mayordomo" para variedad
-        palabrasSemanaSanta.put("Silencio", "Recogimiento");
-        palabrasSemanaSanta.put("Capilla", "Iglesia");
-
-        palabrasSemanaSanta.put("Triduo", "Pascual");
-        palabrasSemanaSanta.put("Sagrario", "Monumento");
-        palabrasSemanaSanta.put("Pregón", "Anuncio");
-        palabrasSemanaSanta.put("Bocinas", "Heráldicas");
-        palabrasSemanaSanta.put("Medalla", "Hermandad");
-        palabrasSemanaSanta.put("Altar", "Culto");
-        palabrasSemanaSanta.put("Fiscal", "Recorrido"); // Nuevo par
-        palabrasSemanaSanta.put("Vía", "Crucis");
-        palabrasSemanaSanta.put("Lágrimas", "Dolorosa");
-        palabrasSemanaSanta.put("Viernes", "Santo");
-
-        semanaSanta = new Categoria(
-                "Semana Santa",
-                palabrasSemanaSanta
-        );
-
-        // --- 2. Crear el objeto Naturaleza (EXISTENTE) ---
-        HashMap<String, String> palabrasNaturaleza = new HashMap<>();
-        palabrasNaturaleza.put("Fotosíntesis", "Clorofila");
-        palabrasNaturaleza.put("Ecosistema", "Habitat");
-        palabrasNaturaleza.put("Lluvia", "Nubes");
-        palabrasNaturaleza.put("Árbol", "Raíces");
-        palabrasNaturaleza.put("Biodiversidad", "Vida");
-        palabrasNaturaleza.put("Atmósfera", "Aire");
-        palabrasNaturaleza.put("Océano", "Agua");
-        palabrasNaturaleza.put("Volcán", "Magma");
-        palabrasNaturaleza.put("Glaciar", "Hielo");
-        palabrasNaturaleza.put("Desierto", "Arena");
-
-        naturaleza = new Categoria(
-                "Naturaleza",
-                palabrasNaturaleza
-        );
-
-        // --- 3. Crear el objeto Videojuegos (NUEVA) ---
-        HashMap<String, String> palabrasVideojuegos = new HashMap<>();
-        palabrasVideojuegos.put("Multijugador", "Servidor");
-        palabrasVideojuegos.put("Consola", "Mando");
-        palabrasVideojuegos.put("Gráficos", "Renderizado");
-        palabrasVideojuegos.put("Personaje", "Avatar");
-        palabrasVideojuegos.put("Misión", "Objetivo");
-        palabrasVideojuegos.put("Aventura", "Exploración");
-        palabrasVideojuegos.put("E-Sports", "Torneo");
-        palabrasVideojuegos.put("Realidad Virtual", "Gafas");
-        palabrasVideojuegos.put("Indie", "Desarrollador");
-        palabrasVideojuegos.put("Mapa", "Navegación");
-
-        videojuegos = new Categoria(
-                "Videojuegos",
-                palabrasVideojuegos
-        );
-
-        // --- 4. Crear el objeto Cine y TV (NUEVA) ---
-        HashMap<String, String> palabrasCineTv = new HashMap<>();
-        palabrasCineTv.put("Director", "Cámara");
-        palabrasCineTv.put("Guion", "Diálogo");
-        palabrasCineTv.put("Estreno", "Cartelera");
-        palabrasCineTv.put("Secuela", "Original");
-        palabrasCineTv.put("Teatro", "Escenario");
-        palabrasCineTv.put("Streaming", "Plataforma");
-        palabrasCineTv.put("Óscar", "Estatua");
-        palabrasCineTv.put("Banda Sonora", "Música");
-        palabrasCineTv.put("Efectos Especiales", "CGI");
-        palabrasCineTv.put("Documental", "Realidad");
-
-        cineTv = new Categoria(
-                "Cine y TV",
-                palabrasCineTv
-        );
-
-        // --- 5. Crear el objeto Comida (NUEVA) ---
-        HashMap<String, String> palabrasComida = new HashMap<>();
-        palabrasComida.put("Chef", "Receta");
-        palabrasComida.put("Ingrediente", "Sabor");
-        palabrasComida.put("Vegetariano", "Verdura");
-        palabrasComida.put("Especias", "Aroma");
-        palabrasComida.put("Desayuno", "Mañana");
-        palabrasComida.put("Postre", "Dulce");
-        palabrasComida.put("Cena", "Noche");
-        palabrasComida.put("Marinado", "Carne");
-        palabrasComida.put("Alérgeno", "Riesgo");
-        palabrasComida.put("Dieta", "Salud");
-
-        comida = new Categoria(
-                "Comida",
-                palabrasComida
-        );
-
-        // --- 6. Añadir TODAS las categorías predefinidas a su lista ---
-        predefinidas.add(semanaSanta);
-        predefinidas.add(naturaleza);
-        predefinidas.add(videojuegos); // NUEVO
-        predefinidas.add(cineTv);      // NUEVO
-        predefinidas.add(comida);      // NUEVO
+    /**
+     * Carga jugadores, paquetes personalizados y progreso de palabras si aún
+     * no se ha hecho. Idempotente y seguro entre hilos.
+     */
+    public void asegurarEstadoPersistido() {
+        synchronized (estadoLock) {
+            if (estadoCargado) return;
+            cargarEstadoPersistido();
+            estadoCargado = true;
+        }
+    }
+
+    /**
+     * Recupera jugadores y paquetes personalizados guardados en sesiones anteriores.
+     */
+    private void cargarEstadoPersistido() {
+        try {
+            AppendLogStore.State estado = store.load();
+            jugadores.addAll(estado.jugadores);
+            customCategories.addAll(estado.customCategories);
+            for (Categoria categoria : estado.customCategories) registry.register(categoria);
+            for (Map.Entry<String, Integer> peso : estado.pesos.entrySet()) {
+                wordScheduler.setWeight(peso.getKey(), peso.getValue());
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "No se pudo recuperar el estado guardado", e);
+        }
+        try {
+            byte[] progreso = store.readAuxiliary(SCHEDULER_FILE);
+            if (progreso != null) {
+                wordScheduler.readFrom(new DataInputStream(new ByteArrayInputStream(progreso)));
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "No se pudo recuperar el progreso de palabras; se empieza bolsa nueva", e);
+        }
+        try {
+            seleccionGuardada = store.readAuxiliary(SELECTION_FILE);
+        } catch (IOException e) {
+            Log.e(TAG, "No se pudo recuperar la selección de paquetes", e);
+        }
+    }
+
+    /**
+     * Mapea en memoria los paquetes predefinidos (assets/packs/*.pack).
+     * Solo se leen las cabeceras: las palabras se convierten en objetos
+     * cuando la categoría se selecciona para jugar.
+     */
+    private void inicializarCategorias(Context context) {
+        AssetManager assets = context.getAssets();
+        String[] ficheros;
+        try {
+            ficheros = assets.list(PACKS_ASSET_DIR);
+        } catch (IOException e) {
+            Log.e(TAG, "No se pudo listar los paquetes predefinidos", e);
+            ficheros = null;
+        }
+        if (ficheros == null) ficheros = new String[0];
+
+        // El prefijo numérico del fichero (01_, 02_...) fija el orden de la lista.
+        Arrays.sort(ficheros);
+        for (String fichero : ficheros) {
+            if (!fichero.endsWith(PACK_EXTENSION)) continue;
+            try {
+                MappedWordPack pack = MappedWordPack.open(mapAsset(assets, PACKS_ASSET_DIR + "/" + fichero));
+                Categoria categoria = new Categoria(pack.getName(), pack);
+                predefinidas.add(categoria);
+                registry.registerPredefined(categoria);
+            } catch (IOException e) {
+                Log.e(TAG, "Paquete predefinido ilegible: " + fichero, e);
+            }
+        }
+    }
+
+    /**
+     * Mapea un asset sin comprimir (ver noCompress en build.gradle.kts).
+     * El mapeo sigue siendo válido después de cerrar el descriptor.
+     */
+    private static MappedByteBuffer mapAsset(AssetManager assets, String path) throws IOException {
+        try (AssetFileDescriptor afd = assets.openFd(path);
+             FileInputStream in = new FileInputStream(afd.getFileDescriptor());
+             FileChannel channel = in.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, afd.getStartOffset(), afd.getLength());
+        }
     }
 
     // --- MÉTODOS DE JUGADORES (SIN CAMBIOS) ---
 
     public ArrayList<Jugador> getJugadores() {
+        asegurarEstadoPersistido();
         return jugadores;
     }
 
     public void setJugadores(ArrayList<Jugador> nuevosJugadores) {
+        asegurarEstadoPersistido();
         this.jugadores.clear();
         this.jugadores.addAll(nuevosJugadores);
+        store.setPlayers(this.jugadores);
     }
 
-    // --- MÉTODOS DE CATEGORÍAS PREDEFINIDAS ---
+    // --- BOLSA DE PALABRAS ---
 
-    public ArrayList<Categoria> getCategorias() {
-        return predefinidas;
+    public WordScheduler getWordScheduler() {
+        asegurarEstadoPersistido();
+        return wordScheduler;
     }
 
-    public Categoria getSemanaSanta() {
-        return semanaSanta;
+    /**
+     * Guarda el progreso de la bolsa de palabras en segundo plano.
+     * Son unos pocos bytes por paquete (un bit por palabra ya usada).
+     */
+    public void guardarProgresoPalabras() {
+        asegurarEstadoPersistido();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            wordScheduler.writeTo(out);
+            out.flush();
+        } catch (IOException e) {
+            Log.e(TAG, "No se pudo serializar el progreso de palabras", e);
+            return;
+        }
+        store.writeAuxiliary(SCHEDULER_FILE, bytes.toByteArray());
     }
 
-    public Categoria getNaturaleza() {
-        return naturaleza;
+    /**
+     * Peso de un paquete en el sorteo: 0 = automático (según su número de
+     * palabras); si no, porcentaje respecto al paquete medio de la selección.
+     */
+    public int getPesoPaquete(String nombre) {
+        asegurarEstadoPersistido();
+        return wordScheduler.getWeight(nombre);
     }
 
-    // --- NUEVOS GETTERS ESPECÍFICOS ---
+    public void setPesoPaquete(String nombre, int porcentaje) {
+        asegurarEstadoPersistido();
+        if (wordScheduler.getWeight(nombre) == porcentaje) return;
+        wordScheduler.setWeight(nombre, porcentaje);
+        store.setWeight(nombre, porcentaje);
+    }
 
-    public Categoria getVideojuegos() {
-        return videojuegos;
+    // --- ÍNDICE DE PALABRAS ---
+
+    /**
+     * Índice de palabras normalizadas de todos los paquetes. La primera
+     * llamada lo construye (recorre todas las palabras; mejor desde un hilo
+     * de fondo) y después se mantiene al guardar o borrar paquetes.
+     */
+    public WordIndex getWordIndex() {
+        WordIndex indice = wordIndex;
+        if (indice != null) return indice;
+        synchronized (indiceLock) {
+            while (wordIndex == null) {
+                int version = versionPersonalizadas();
+                int total = 0;
+                for (Categoria categoria : getCategorias()) total += categoria.getNumPalabras();
+                List<Categoria> personalizadas = copiarPersonalizadas();
+                for (Categoria categoria : personalizadas) total += categoria.getNumPalabras();
+
+                indice = new WordIndex(total);
+                for (Categoria categoria : predefinidas) {
+                    indice.putPack(categoria.getName(), categoria.copyWords());
+                }
+                for (Categoria categoria : personalizadas) {
+                    // Uno antiguo con nombre de predefinido no pisa las palabras de este
+                    if (registry.isPredefined(categoria.getName())) continue;
+                    indice.putPack(categoria.getName(), categoria.copyWords());
+                }
+                synchronized (customLock) {
+                    // Si un paquete cambió mientras tanto, se vuelve a construir
+                    if (version == versionPersonalizadas) wordIndex = indice;
+                }
+            }
+            return wordIndex;
+        }
     }
 
-    public Categoria getCineTv() {
-        return cineTv;
+    /**
+     * El índice de {@link #getWordIndex()} si ya está construido, o null. No
+     * espera: para el hilo principal.
+     */
+    public WordIndex getWordIndexIfReady() {
+        return wordIndex;
+    }
+
+    /**
+     * Índice de búsqueda de paquetes por nombre y palabras. Como
+     * {@link #getWordIndex()}, la primera llamada lo construye (mejor desde un
+     * hilo de fondo) y después se mantiene al guardar o borrar paquetes.
+     */
+    public PackSearchIndex getSearchIndex() {
+        PackSearchIndex indice = searchIndex;
+        if (indice != null) return indice;
+        synchronized (indiceLock) {
+            while (searchIndex == null) {
+                int version = versionPersonalizadas();
+                indice = new PackSearchIndex();
+                for (Categoria categoria : getCategorias()) {
+                    indice.putPack(categoria.getName(), categoria.copyWords());
+                }
+                for (Categoria categoria : copiarPersonalizadas()) {
+                    if (registry.isPredefined(categoria.getName())) continue;
+                    indice.putPack(categoria.getName(), categoria.copyWords());
+                }
+                synchronized (customLock) {
+                    if (version == versionPersonalizadas) searchIndex = indice;
+                }
+            }
+            return searchIndex;
+        }
+    }
+
+    private int versionPersonalizadas() {
+        asegurarEstadoPersistido();
+        synchronized (customLock) {
+            return versionPersonalizadas;
+        }
+    }
+
+    // Copia de las personalizadas para recorrerla fuera del hilo principal
+    private List<Categoria> copiarPersonalizadas() {
+        asegurarEstadoPersistido();
+        synchronized (customLock) {
+            return new ArrayList<>(customCategories);
+        }
+    }
+
+    // --- MÉTODOS DE CATEGORÍAS PREDEFINIDAS ---
+
+    public ArrayList<Categoria> getCategorias() {
+        asegurarPredefinidas();
+        return predefinidas;
+    }
+
+    // --- REGISTRO Y SELECCIÓN ---
+
+    /**
+     * Registro con el id de cada paquete. Espera a que estén cargados los
+     * predefinidos y los personalizados.
+     */
+    public CategoryRegistry getRegistry() {
+        asegurarPredefinidas();
+        asegurarEstadoPersistido();
+        return registry;
     }
 
-    public Categoria getComida() {
-        return comida;
+    /**
+     * Selección de paquetes de la sesión anterior (vacía si no había o no se pudo leer).
+     */
+    public SelectionModel getSeleccionGuardada() {
+        CategoryRegistry registro = getRegistry();
+        byte[] guardada = seleccionGuardada;
+        if (guardada == null) return new SelectionModel();
+        try {
+            return registro.readSelection(new DataInputStream(new ByteArrayInputStream(guardada)));
+        } catch (IOException e) {
+            Log.e(TAG, "Selección de paquetes dañada; se descarta", e);
+            return new SelectionModel();
+        }
+    }
+
+    /**
+     * Guarda la selección en segundo plano: unos pocos bytes de bits y los nombres que cubren.
+     */
+    public void guardarSeleccion(SelectionModel seleccion) {
+        CategoryRegistry registro = getRegistry();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try {
+            DataOutputStream out = new DataOutputStream(bytes);
+            registro.writeSelection(seleccion, out);
+            out.flush();
+        } catch (IOException e) {
+            Log.e(TAG, "No se pudo serializar la selección de paquetes", e);
+            return;
+        }
+        seleccionGuardada = bytes.toByteArray();
+        store.writeAuxiliary(SELECTION_FILE, seleccionGuardada);
     }
 
     // --- MÉTODOS PARA CATEGORÍAS PERSONALIZADAS MÚLTIPLES (SIN CAMBIOS) ---
 
     public List<Categoria> getCustomCategories() {
+        asegurarEstadoPersistido();
         return customCategories;
     }
 
+    /**
+     * Categoría personalizada por nombre, o null si no existe.
+     */
+    public Categoria getCustomCategory(String nombre) {
+        asegurarEstadoPersistido();
+        for (Categoria categoria : customCategories) {
+            if (categoria.getName().equals(nombre)) return categoria;
+        }
+        return null;
+    }
+
+    /**
+     * Si ya hay un paquete predefinido con ese nombre: uno personalizado no
+     * puede llamarse igual.
+     */
+    public boolean isPredefinedName(String nombre) {
+        asegurarPredefinidas();
+        return registry.isPredefined(nombre);
+    }
+
     /**
      * Guarda o actualiza una categoría personalizada.
+     *
+     * @throws IllegalArgumentException si tiene el nombre de un paquete predefinido.
      */
     public void saveCustomCategory(Categoria categoria) {
-        // Eliminar la versión antigua si existe (comparando por nombre gracias a equals/hashCode)
-        customCategories.remove(categoria);
-
-        // Añadir el nuevo o el actualizado (la instancia actual)
-        customCategories.add(categoria);
+        if (isPredefinedName(categoria.getName())) {
+            throw new IllegalArgumentException("Nombre de paquete predefinido: " + categoria.getName());
+        }
+        asegurarEstadoPersistido();
+        synchronized (customLock) {
+            // Eliminar la versión antigua si existe (comparando por nombre gracias a equals/hashCode)
+            customCategories.remove(categoria);
+
+            // Añadir el nuevo o el actualizado (la instancia actual)
+            customCategories.add(categoria);
+            versionPersonalizadas++;
+        }
+        registry.register(categoria);
+        store.saveCategory(categoria);
+        // Sin esperar a una construcción en curso: la descarta la versión. Los ya
+        // publicados se leen después de subirla, así que ninguno se queda sin el cambio.
+        WordIndex palabrasIndice = wordIndex;
+        PackSearchIndex busqueda = searchIndex;
+        if (palabrasIndice != null || busqueda != null) {
+            String[] palabras = categoria.copyWords();
+            if (palabrasIndice != null) palabrasIndice.putPack(categoria.getName(), palabras);
+            if (busqueda != null) busqueda.putPack(categoria.getName(), palabras);
+        }
     }
 
     /**
      * Elimina una categoría personalizada de la lista.
      */
     public void deleteCustomCategory(Categoria category) {
-        customCategories.remove(category);
+        asegurarEstadoPersistido();
+        synchronized (customLock) {
+            customCategories.remove(category);
+            versionPersonalizadas++;
+        }
+        registry.unregister(category.getName());
+        store.deleteCategory(category.getName());
+        // Los índices van por nombre: si es el de un predefinido, sus entradas son del predefinido
+        if (!isPredefinedName(category.getName())) {
+            WordIndex palabrasIndice = wordIndex;
+            PackSearchIndex busqueda = searchIndex;
+            if (palabrasIndice != null) palabrasIndice.removePack(category.getName());
+            if (busqueda != null) busqueda.removePack(category.getName());
+        }
+        wordScheduler.forget(category.getName());
+        guardarProgresoPalabras();
     }
 }
\ No newline at end of file
@@ -0,0 +1,102 @@
+package ies.carrillo.impostor.dataBase;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import ies.carrillo.impostor.model.PackSource;
+import ies.carrillo.impostor.model.WordStore;
+
+/**
+ * Lector de un paquete binario ".pack" (generado en compilación por la tarea
+ * {@code compileWordPacks}) sobre un {@link ByteBuffer} mapeado en memoria.
+ * <p>
+ * Abrir el paquete solo valida la cabecera y lee el nombre; las parejas se
+ * decodifican bajo demanda, de modo que el coste de arranque no depende del
+ * número total de palabras incluidas en la app.
+ * Todos los accesos son absolutos, por lo que una instancia puede leerse
+ * desde varios hilos a la vez.
+ */
+public final class MappedWordPack implements PackSource {
+
+    static final int MAGIC = 0x494D504B; // "IMPK"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 28;
+
+    private final ByteBuffer buffer;
+    private final String name;
+    private final int pairCount;
+    private final int indexOffset;
+    private final int stringsOffset;
+    private final int stringsLength;
+
+    private MappedWordPack(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("No es un paquete de palabras válido");
+        }
+        int version = buffer.getShort(4) & 0xFFFF;
+        if (version != VERSION) {
+            throw new IOException("Versión de paquete no soportada: " + version);
+        }
+        this.pairCount = buffer.getInt(8);
+        int nameRef = buffer.getInt(12);
+        this.indexOffset = buffer.getInt(16);
+        this.stringsOffset = buffer.getInt(20);
+        this.stringsLength = buffer.getInt(24);
+
+        long indexEnd = indexOffset + (long) pairCount * 8;
+        if (pairCount < 0 || indexEnd > stringsOffset
+                || (long) stringsOffset + stringsLength > buffer.capacity()) {
+            throw new IOException("Paquete de palabras corrupto");
+        }
+        this.name = readString(nameRef);
+    }
+
+    /**
+     * Abre un paquete sobre un buffer (normalmente un {@code MappedByteBuffer}).
+     */
+    public static MappedWordPack open(ByteBuffer buffer) throws IOException {
+        return new MappedWordPack(buffer);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public int size() {
+        return pairCount;
+    }
+
+    @Override
+    public String wordAt(int index) {
+        return readString(buffer.getInt(indexOffset + index * 8));
+    }
+
+    public String clueAt(int index) {
+        return readString(buffer.getInt(indexOffset + index * 8 + 4));
+    }
+
+    @Override
+    public WordStore load() {
+        WordStore store = new WordStore(pairCount);
+        for (int i = 0; i < pairCount; i++) {
+            store.put(wordAt(i), clueAt(i));
+        }
+        return store;
+    }
+
+    private String readString(int ref) {
+        if (ref < 0 || ref + 2 > stringsLength) {
+            throw new IndexOutOfBoundsException("Referencia de cadena fuera de rango: " + ref);
+        }
+        int position = stringsOffset + ref;
+        int length = ((buffer.get(position) & 0xFF) << 8) | (buffer.get(position + 1) & 0xFF);
+        byte[] utf8 = new byte[length];
+        for (int i = 0; i < length; i++) {
+            utf8[i] = buffer.get(position + 2 + i);
+        }
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,104 @@
+package ies.carrillo.impostor.metrics;
+
+import android.app.Activity;
+import android.app.Application;
+import android.os.Bundle;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import ies.carrillo.impostor.activities.MainActivity;
+
+/**
+ * Mide los cambios de pantalla para todas las actividades sin tocarlas:
+ * desde que se pausa una hasta el primer fotograma de la siguiente
+ * ({@link Metrics#SCREEN_TRANSITION}), la llegada al menú que abrió la
+ * pantalla de inicio ({@link Metrics#SPLASH_TO_MENU}) y de {@code onCreate}
+ * a {@code onResume} de cada una ({@link Metrics#ACTIVITY_CREATE}, con su
+ * nombre en la línea temporal). Cada {@code MainActivity} nueva empieza la
+ * partida que exporta el {@link TraceRecorder}. En compilaciones depurables
+ * pone además el {@link MetricsOverlay} en cada actividad.
+ */
+public final class ActivityMetrics implements Application.ActivityLifecycleCallbacks {
+
+    private final boolean overlay;
+    private final Map<Activity, MetricsOverlay> overlays = new IdentityHashMap<>();
+    private final Map<Activity, Long> creating = new IdentityHashMap<>();
+    private Activity paused;
+
+    public ActivityMetrics(boolean overlay) {
+        this.overlay = overlay;
+    }
+
+    @Override
+    public void onActivityPaused(Activity activity) {
+        paused = activity;
+        Metrics.markStart(Metrics.SCREEN_TRANSITION);
+        MetricsOverlay panel = overlays.get(activity);
+        if (panel != null) panel.detach();
+    }
+
+    @Override
+    public void onActivityResumed(Activity activity) {
+        if (overlay) {
+            MetricsOverlay panel = overlays.get(activity);
+            if (panel == null) {
+                panel = new MetricsOverlay(activity);
+                overlays.put(activity, panel);
+            }
+            panel.attach();
+        }
+
+        if (paused == activity) {
+            // Vuelve la misma (diálogo, segundo plano): no es un cambio de pantalla
+            Metrics.cancel(Metrics.SCREEN_TRANSITION);
+        }
+        paused = null;
+        Long created = creating.remove(activity);
+        if (created != null) {
+            long nanos = System.nanoTime() - created;
+            Metrics.record(Metrics.ACTIVITY_CREATE, nanos);
+            TraceRecorder.async(TraceRecorder.intern(activity.getClass().getSimpleName() + ".create"), created, nanos);
+        }
+        final boolean menu = activity instanceof MainActivity;
+        final View decor = activity.getWindow().getDecorView();
+        decor.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
+            @Override
+            public boolean onPreDraw() {
+                decor.getViewTreeObserver().removeOnPreDrawListener(this);
+                Metrics.markEnd(Metrics.SCREEN_TRANSITION);
+                if (menu) Metrics.markEnd(Metrics.SPLASH_TO_MENU);
+                return true;
+            }
+        });
+    }
+
+    @Override
+    public void onActivityDestroyed(Activity activity) {
+        if (paused == activity) paused = null;
+        creating.remove(activity);
+        MetricsOverlay panel = overlays.remove(activity);
+        if (panel != null) panel.detach();
+    }
+
+    @Override
+    public void onActivityCreated(Activity activity, Bundle savedInstanceState) {
+        // Se llama desde super.onCreate(): antes de inflar la vista
+        if (activity instanceof MainActivity) TraceRecorder.markGameStart();
+        creating.put(activity, System.nanoTime());
+    }
+
+    @Override
+    public void onActivityStarted(Activity activity) {
+    }
+
+    @Override
+    public void onActivityStopped(Activity activity) {
+    }
+
+    @Override
+    public void onActivitySaveInstanceState(Activity activity, Bundle outState) {
+    }
+}
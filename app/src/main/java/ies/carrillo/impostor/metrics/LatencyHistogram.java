@@ -0,0 +1,109 @@
+package ies.carrillo.impostor.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma de latencias en nanosegundos, sin bloqueos.
+ * <p>
+ * Cubetas log-lineales: exactas por debajo de 32 ns y, a partir de ahí, 16
+ * por cada potencia de dos (error relativo por debajo del 6,25 %), hasta
+ * unos 18 minutos. {@link #record} son un par de operaciones atómicas, así
+ * que se puede llamar a la vez desde el hilo principal y los de Picasso; las
+ * lecturas son aproximadas mientras se escribe, lo normal en un panel.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    // Valores a partir de 2^40 ns se cuentan en la última cubeta
+    private static final int MAX_BITS = 40;
+    static final int BUCKETS = (MAX_BITS - SUB_BITS + 1) * SUB;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts.incrementAndGet(indexOf(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+        long seen;
+        while (nanos > (seen = max.get())) {
+            if (max.compareAndSet(seen, nanos)) break;
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public long getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : sum.get() / n;
+    }
+
+    /**
+     * Valor por debajo del que queda la fracción {@code quantile} (0..1) de
+     * las muestras: el borde superior de su cubeta, sin pasar del máximo visto.
+     */
+    public long getPercentile(double quantile) {
+        long[] snapshot = snapshot();
+        long total = 0;
+        for (long c : snapshot) total += c;
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < snapshot.length; i++) {
+            seen += snapshot[i];
+            if (seen >= rank) return Math.min(upperBound(i), max.get());
+        }
+        return max.get();
+    }
+
+    /**
+     * Copia de los contadores por cubeta (índices de {@link #lowerBound}).
+     */
+    public long[] snapshot() {
+        long[] copy = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) copy[i] = counts.get(i);
+        return copy;
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    // ******************************************************
+    // CUBETAS
+    // ******************************************************
+
+    static int indexOf(long value) {
+        if (value < 2 * SUB) return (int) value;
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        if (msb >= MAX_BITS) return BUCKETS - 1;
+        int exp = msb - SUB_BITS;
+        return exp * SUB + (int) (value >>> exp);
+    }
+
+    static long lowerBound(int index) {
+        if (index < 2 * SUB) return index;
+        int exp = index / SUB - 1;
+        return (long) (index % SUB + SUB) << exp;
+    }
+
+    static long upperBound(int index) {
+        if (index < 2 * SUB) return index;
+        int exp = index / SUB - 1;
+        return ((long) (index % SUB + SUB + 1) << exp) - 1;
+    }
+}
@@ -0,0 +1,199 @@
+package ies.carrillo.impostor.metrics;
+
+import android.os.Build;
+import android.os.Trace;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Instrumentación de los caminos calientes de la app.
+ * <p>
+ * Cada medida es una sección de {@code Trace} (visible en Perfetto o
+ * systrace), un evento de la línea temporal del {@link TraceRecorder} y, si
+ * está activado, una muestra en un {@link LatencyHistogram} en memoria que
+ * enseña el {@link MetricsOverlay} y se puede volcar a un fichero para
+ * comparar compilaciones. Se identifican por constantes enteras: medir no
+ * busca en mapas ni reserva memoria.
+ * <pre>
+ * long t = Metrics.begin(Metrics.PLAYER_BIND);
+ * try { ... } finally { Metrics.end(Metrics.PLAYER_BIND, t); }
+ * </pre>
+ * Los intervalos que empiezan en un sitio y acaban en otro (de la pantalla
+ * de inicio al menú, de una pantalla a la siguiente) usan
+ * {@link #markStart}/{@link #markEnd}.
+ */
+public final class Metrics {
+
+    public static final int SPLASH_TO_MENU = 0;
+    public static final int SCREEN_TRANSITION = 1;
+    public static final int ACTIVITY_CREATE = 2;
+    public static final int INFLATE = 3;
+    public static final int INTENT_WRITE = 4;
+    public static final int INTENT_READ = 5;
+    public static final int ROLE_ASSIGN = 6;
+    public static final int PLAYER_BIND = 7;
+    public static final int CIRCLE_TRANSFORM = 8;
+    public static final int IMAGE_DECODE = 9;
+    public static final int AVATAR_LOAD = 10;
+    public static final int REVEAL_ANIMATION = 11;
+    public static final int REVEAL_FRAME = 12;
+    public static final int COUNT = 13;
+
+    private static final String[] NAMES = {
+            "splash_to_menu", "screen_transition", "activity_create", "inflate", "intent_write", "intent_read",
+            "role_assign", "player_bind", "circle_transform", "image_decode", "avatar_load", "reveal_animation",
+            "reveal_frame"
+    };
+    private static final String[] TRACE_NAMES = new String[COUNT];
+
+    static {
+        for (int i = 0; i < COUNT; i++) TRACE_NAMES[i] = "impostor:" + NAMES[i];
+    }
+
+    private static final LatencyHistogram[] HISTOGRAMS = new LatencyHistogram[COUNT];
+
+    static {
+        for (int i = 0; i < COUNT; i++) HISTOGRAMS[i] = new LatencyHistogram();
+    }
+
+    // Inicio de los intervalos abiertos con markStart; 0 si no hay ninguno
+    private static final AtomicLongArray PENDING = new AtomicLongArray(COUNT);
+    private static volatile boolean enabled;
+
+    private Metrics() {
+    }
+
+    /**
+     * Activa los histogramas (las secciones de {@code Trace} van siempre: sin
+     * nadie grabando no cuestan nada).
+     */
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Abre la sección de {@code metric} en este hilo.
+     *
+     * @return el instante de inicio que hay que pasar a {@link #end}.
+     */
+    public static long begin(int metric) {
+        Trace.beginSection(TRACE_NAMES[metric]);
+        return enabled || TraceRecorder.isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Cierra la sección que abrió {@link #begin} en este mismo hilo.
+     */
+    public static void end(int metric, long start) {
+        Trace.endSection();
+        if (start == 0) return;
+        long nanos = System.nanoTime() - start;
+        if (enabled) HISTOGRAMS[metric].record(nanos);
+        TraceRecorder.complete(metric, start, nanos);
+    }
+
+    public static void record(int metric, long nanos) {
+        if (enabled) HISTOGRAMS[metric].record(nanos);
+    }
+
+    /**
+     * Abre un intervalo que se cerrará en otro método (o en otro hilo).
+     * Si ya había uno abierto, vuelve a empezar.
+     */
+    public static void markStart(int metric) {
+        long now = System.nanoTime();
+        long previous = PENDING.getAndSet(metric, now);
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            if (previous != 0) Trace.endAsyncSection(TRACE_NAMES[metric], metric);
+            Trace.beginAsyncSection(TRACE_NAMES[metric], metric);
+        }
+    }
+
+    /**
+     * Cierra el intervalo abierto con {@link #markStart}; si no hay ninguno, no hace nada.
+     */
+    public static void markEnd(int metric) {
+        long start = PENDING.getAndSet(metric, 0);
+        if (start == 0) return;
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(TRACE_NAMES[metric], metric);
+        }
+        span(metric, start);
+    }
+
+    /**
+     * Cuenta un intervalo que empezó en {@code start} y acaba ahora, medido
+     * por quien llama (sin sección de {@code Trace}; en la línea temporal,
+     * como intervalo asíncrono).
+     */
+    public static void span(int metric, long start) {
+        long nanos = System.nanoTime() - start;
+        if (enabled) HISTOGRAMS[metric].record(nanos);
+        TraceRecorder.async(metric, start, nanos);
+    }
+
+    /**
+     * Descarta el intervalo abierto sin contarlo.
+     */
+    public static void cancel(int metric) {
+        if (PENDING.getAndSet(metric, 0) != 0 && Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+            Trace.endAsyncSection(TRACE_NAMES[metric], metric);
+        }
+    }
+
+    public static String name(int metric) {
+        return NAMES[metric];
+    }
+
+    public static LatencyHistogram histogram(int metric) {
+        return HISTOGRAMS[metric];
+    }
+
+    public static void resetAll() {
+        for (LatencyHistogram histogram : HISTOGRAMS) histogram.reset();
+    }
+
+    // ******************************************************
+    // VOLCADO
+    // ******************************************************
+
+    /**
+     * Escribe todos los histogramas en {@code file} como CSV: una línea de
+     * resumen por medida y, debajo, sus cubetas no vacías. Los valores en
+     * nanosegundos, para que dos volcados se puedan comparar sin redondeos.
+     */
+    public static void dump(File file, String build) throws IOException {
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+            out.println("# build," + build);
+            out.println("# device," + Build.MANUFACTURER + " " + Build.MODEL + ",sdk " + Build.VERSION.SDK_INT);
+            out.println("metric,count,mean_ns,p50_ns,p95_ns,p99_ns,max_ns");
+            for (int i = 0; i < COUNT; i++) {
+                LatencyHistogram h = HISTOGRAMS[i];
+                out.println(String.format(Locale.ROOT, "%s,%d,%d,%d,%d,%d,%d", NAMES[i], h.getCount(), h.getMean(),
+                        h.getPercentile(0.50), h.getPercentile(0.95), h.getPercentile(0.99), h.getMax()));
+            }
+            out.println();
+            out.println("metric,bucket_from_ns,bucket_to_ns,count");
+            for (int i = 0; i < COUNT; i++) {
+                long[] buckets = HISTOGRAMS[i].snapshot();
+                for (int b = 0; b < buckets.length; b++) {
+                    if (buckets[b] == 0) continue;
+                    out.println(NAMES[i] + "," + LatencyHistogram.lowerBound(b) + ","
+                            + LatencyHistogram.upperBound(b) + "," + buckets[b]);
+                }
+            }
+            if (out.checkError()) throw new IOException("No se pudo escribir " + file);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package ies.carrillo.impostor.metrics;
+
+import android.app.Activity;
+import android.content.Intent;
+import android.content.pm.PackageInfo;
+import android.content.pm.PackageManager;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Gravity;
+import android.view.ViewGroup;
+import android.widget.FrameLayout;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.io.File;
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import ies.carrillo.impostor.activities.StallsActivity;
+
+/**
+ * Panel de depuración con p50/p95/p99 de cada {@link Metrics} en vivo,
+ * encima de la actividad. Tocarlo abre los atascos del hilo principal
+ * ({@code StallsActivity}); una pulsación larga vuelca los histogramas a
+ * {@code Android/data/<paquete>/files/metrics/} y los pone a cero, para
+ * medir la siguiente prueba por separado. Solo se añade en compilaciones
+ * depurables (ver {@link ActivityMetrics}).
+ */
+final class MetricsOverlay {
+
+    private static final long REFRESH_MS = 500;
+
+    private final Activity activity;
+    private final TextView view;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final StringBuilder text = new StringBuilder(256);
+    private final Runnable refresh = new Runnable() {
+        @Override
+        public void run() {
+            update();
+            handler.postDelayed(this, REFRESH_MS);
+        }
+    };
+
+    MetricsOverlay(Activity activity) {
+        this.activity = activity;
+        float density = activity.getResources().getDisplayMetrics().density;
+        int padding = (int) (4 * density);
+
+        view = new TextView(activity);
+        view.setTypeface(Typeface.MONOSPACE);
+        view.setTextSize(9);
+        view.setTextColor(Color.WHITE);
+        view.setBackgroundColor(Color.argb(160, 0, 0, 0));
+        view.setPadding(padding, padding, padding, padding);
+        view.setOnClickListener(v -> activity.startActivity(new Intent(activity, StallsActivity.class)));
+        view.setOnLongClickListener(v -> {
+            dump();
+            return true;
+        });
+    }
+
+    void attach() {
+        ViewGroup content = activity.findViewById(android.R.id.content);
+        if (content == null || view.getParent() != null) return;
+        FrameLayout.LayoutParams params = new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.WRAP_CONTENT, ViewGroup.LayoutParams.WRAP_CONTENT,
+                Gravity.BOTTOM | Gravity.START);
+        content.addView(view, params);
+        refresh.run();
+    }
+
+    void detach() {
+        handler.removeCallbacks(refresh);
+        if (view.getParent() instanceof ViewGroup) ((ViewGroup) view.getParent()).removeView(view);
+    }
+
+    private void update() {
+        text.setLength(0);
+        text.append("métrica             n    p50    p95    p99 ms");
+        for (int i = 0; i < Metrics.COUNT; i++) {
+            LatencyHistogram h = Metrics.histogram(i);
+            text.append('\n').append(String.format(Locale.ROOT, "%-17s %4d %6.2f %6.2f %6.2f", Metrics.name(i), h.getCount(),
+                    millis(h.getPercentile(0.50)), millis(h.getPercentile(0.95)), millis(h.getPercentile(0.99))));
+        }
+        view.setText(text);
+    }
+
+    private void dump() {
+        File dir = activity.getExternalFilesDir("metrics");
+        if (dir == null) dir = new File(activity.getFilesDir(), "metrics");
+        String build = buildName();
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date());
+        File file = new File(dir, "metrics-" + build.replace(' ', '_') + "-" + stamp + ".csv");
+        try {
+            if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("No se pudo crear " + dir);
+            Metrics.dump(file, build);
+            Metrics.resetAll();
+            update();
+            Toast.makeText(activity, "Métricas guardadas en " + file, Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Toast.makeText(activity, "No se pudieron guardar las métricas: " + e.getMessage(), Toast.LENGTH_LONG).show();
+        }
+    }
+
+    private String buildName() {
+        try {
+            PackageInfo info = activity.getPackageManager().getPackageInfo(activity.getPackageName(), 0);
+            return info.versionName + " (" + info.versionCode + ")";
+        } catch (PackageManager.NameNotFoundException e) {
+            return "desconocida";
+        }
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1e6;
+    }
+}
@@ -0,0 +1,238 @@
+package ies.carrillo.impostor.metrics;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Anillo en disco de los últimos {@code capacity} atascos del hilo principal.
+ * <p>
+ * Cada atasco es un fichero de texto {@code stall-<n>.txt} con una cabecera
+ * y sus pilas plegadas ("pila cuenta" por línea, el formato que leen
+ * {@code flamegraph.pl} y speedscope). Al escribir el n-ésimo se borra el
+ * n-capacity: el directorio nunca pasa de {@code capacity} ficheros.
+ * Se escribe desde el hilo del {@link StallWatchdog}.
+ */
+public final class StallLog implements StallWatchdog.Listener {
+
+    private static final String DIR = "stalls";
+    private static final int CAPACITY = 32;
+    private static final String PREFIX = "stall-";
+    private static final String SUFFIX = ".txt";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /**
+     * Atascos con el mismo sitio de la app, sumados.
+     */
+    public static final class Site {
+        public final String callSite;
+        public int stalls;
+        public long totalMs;
+        public long worstMs;
+        // Pila más vista en el peor de ellos
+        public String worstStack;
+
+        Site(String callSite) {
+            this.callSite = callSite;
+        }
+    }
+
+    private final File dir;
+    private final int capacity;
+    private long next = -1;
+
+    /**
+     * El anillo de la app, en {@code files/stalls}: el vigilante escribe en él
+     * y la pantalla de depuración lo lee (cada uno con su instancia; los
+     * ficheros se escriben enteros con rename).
+     */
+    public static StallLog in(File filesDir) {
+        return new StallLog(new File(filesDir, DIR), CAPACITY);
+    }
+
+    public StallLog(File dir, int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacidad: " + capacity);
+        this.dir = dir;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void onStall(StallWatchdog.Stall stall) {
+        try {
+            add(stall);
+        } catch (IOException ignored) {
+            // Sin espacio o sin permisos: este atasco se pierde, el vigilante sigue
+        }
+    }
+
+    public synchronized void add(StallWatchdog.Stall stall) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("No se pudo crear " + dir);
+        if (next < 0) next = highestIndex() + 1;
+        long index = next++;
+
+        File file = new File(dir, PREFIX + index + SUFFIX);
+        File tmp = new File(dir, PREFIX + index + TMP_SUFFIX);
+        try (PrintWriter out = new PrintWriter(new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            out.println("# inicio " + stall.startedAt);
+            out.println("# duracion_ms " + stall.durationMs);
+            out.println("# sitio " + stall.callSite);
+            for (int i = 0; i < stall.stacks.length; i++) {
+                out.println(stall.stacks[i] + " " + stall.counts[i]);
+            }
+            if (out.checkError()) throw new IOException("No se pudo escribir " + tmp);
+        }
+        if (!tmp.renameTo(file)) {
+            //noinspection ResultOfMethodCallIgnored
+            tmp.delete();
+            throw new IOException("No se pudo renombrar " + tmp);
+        }
+
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File old : files) {
+            long n = indexOf(old);
+            if (n >= 0 && n <= index - capacity) {
+                //noinspection ResultOfMethodCallIgnored
+                old.delete();
+            }
+        }
+    }
+
+    /**
+     * Los atascos guardados, del más reciente al más antiguo. Los ficheros
+     * que no se puedan leer se saltan.
+     */
+    public synchronized List<StallWatchdog.Stall> load() {
+        List<long[]> indexed = new ArrayList<>();
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (int i = 0; i < files.length; i++) {
+                long n = indexOf(files[i]);
+                if (n >= 0) indexed.add(new long[]{n, i});
+            }
+        }
+        Collections.sort(indexed, (a, b) -> Long.compare(b[0], a[0]));
+
+        List<StallWatchdog.Stall> stalls = new ArrayList<>(indexed.size());
+        for (long[] entry : indexed) {
+            try {
+                stalls.add(read(files[(int) entry[1]]));
+            } catch (IOException | RuntimeException ignored) {
+                // Fichero a medias o de otro formato
+            }
+        }
+        return stalls;
+    }
+
+    /**
+     * Los sitios de la app con atascos, del peor al menos malo.
+     */
+    public List<Site> worstSites() {
+        Map<String, Site> sites = new LinkedHashMap<>();
+        for (StallWatchdog.Stall stall : load()) {
+            Site site = sites.get(stall.callSite);
+            if (site == null) {
+                site = new Site(stall.callSite);
+                sites.put(stall.callSite, site);
+            }
+            site.stalls++;
+            site.totalMs += stall.durationMs;
+            if (stall.durationMs > site.worstMs || site.worstStack == null) {
+                site.worstMs = stall.durationMs;
+                site.worstStack = busiestStack(stall);
+            }
+        }
+        List<Site> sorted = new ArrayList<>(sites.values());
+        Collections.sort(sorted, (a, b) -> a.worstMs != b.worstMs
+                ? Long.compare(b.worstMs, a.worstMs)
+                : Long.compare(b.totalMs, a.totalMs));
+        return sorted;
+    }
+
+    public synchronized void clear() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (indexOf(file) >= 0) {
+                    //noinspection ResultOfMethodCallIgnored
+                    file.delete();
+                }
+            }
+        }
+        next = 0;
+    }
+
+    // ******************************************************
+    // FICHEROS
+    // ******************************************************
+
+    private static StallWatchdog.Stall read(File file) throws IOException {
+        long startedAt = -1;
+        long durationMs = -1;
+        String callSite = null;
+        List<String> stacks = new ArrayList<>();
+        List<Integer> counts = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.startsWith("# inicio ")) {
+                    startedAt = Long.parseLong(line.substring(9));
+                } else if (line.startsWith("# duracion_ms ")) {
+                    durationMs = Long.parseLong(line.substring(14));
+                } else if (line.startsWith("# sitio ")) {
+                    callSite = line.substring(8);
+                } else if (!line.isEmpty()) {
+                    int space = line.lastIndexOf(' ');
+                    stacks.add(line.substring(0, space));
+                    counts.add(Integer.parseInt(line.substring(space + 1)));
+                }
+            }
+        }
+        if (startedAt < 0 || durationMs < 0 || callSite == null) throw new IOException("Cabecera incompleta en " + file);
+        int[] countArray = new int[counts.size()];
+        for (int i = 0; i < countArray.length; i++) countArray[i] = counts.get(i);
+        return new StallWatchdog.Stall(startedAt, durationMs, stacks.toArray(new String[0]), countArray, callSite);
+    }
+
+    private static String busiestStack(StallWatchdog.Stall stall) {
+        String busiest = null;
+        int most = -1;
+        for (int i = 0; i < stall.stacks.length; i++) {
+            if (stall.counts[i] > most) {
+                busiest = stall.stacks[i];
+                most = stall.counts[i];
+            }
+        }
+        return busiest;
+    }
+
+    private long highestIndex() {
+        long highest = -1;
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) highest = Math.max(highest, indexOf(file));
+        }
+        return highest;
+    }
+
+    private static long indexOf(File file) {
+        String name = file.getName();
+        if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) return -1;
+        try {
+            return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package ies.carrillo.impostor.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Vigila que un hilo (el principal) siga atendiendo su cola.
+ * <p>
+ * Cada {@code thresholdMs} le manda un aviso por {@code pinger} (en la app,
+ * {@code Handler#post} del {@code Looper} principal). Si no lo ha atendido
+ * cuando vence el siguiente, el hilo lleva al menos ese tiempo atascado: a
+ * partir de ahí se toma su pila cada {@code sampleMs} hasta que responde, y
+ * las pilas se agrupan plegadas (formato "collapsed" de los flame graphs:
+ * de la raíz a la hoja separadas por ';' y cuántas veces salió cada una). Al
+ * acabar, el {@link Stall} se pasa al {@link Listener} desde el hilo del
+ * vigilante, que puede escribir a disco sin molestar.
+ * <p>
+ * La duración cuenta desde el aviso sin respuesta, así que es una cota
+ * inferior: el atasco pudo empezar hasta un periodo antes.
+ */
+public final class StallWatchdog {
+
+    // Bloqueos sin fin: a partir de aquí se deja de muestrear (y se guarda lo que hay)
+    static final int MAX_SAMPLES = 1000;
+    // Pilas distintas por atasco; las que no caben se cuentan juntas
+    static final int MAX_STACKS = 256;
+    static final String OTHER_STACKS = "(otras)";
+    private static final int MAX_FRAMES = 64;
+
+    /**
+     * Atascos terminados, en el hilo del vigilante.
+     */
+    public interface Listener {
+        void onStall(Stall stall);
+    }
+
+    private final Thread target;
+    private final Executor pinger;
+    private final long thresholdMs;
+    private final long sampleMs;
+    private final String appPackage;
+    private final Listener listener;
+    private final Runnable pong = new Runnable() {
+        @Override
+        public void run() {
+            answered = sent;
+        }
+    };
+    private volatile long sent;
+    private volatile long answered;
+    private volatile boolean running;
+    private Thread thread;
+
+    /**
+     * @param appPackage prefijo de las clases propias: el sitio de un atasco es
+     *                   el marco más profundo de la app, no el del framework.
+     */
+    public StallWatchdog(Thread target, Executor pinger, long thresholdMs, long sampleMs,
+                         String appPackage, Listener listener) {
+        if (thresholdMs <= 0 || sampleMs <= 0) {
+            throw new IllegalArgumentException("Umbral " + thresholdMs + " ms, muestreo " + sampleMs + " ms");
+        }
+        this.target = target;
+        this.pinger = pinger;
+        this.thresholdMs = thresholdMs;
+        this.sampleMs = sampleMs;
+        this.appPackage = appPackage;
+        this.listener = listener;
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::loop, "stall-watchdog");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    public synchronized void stop() {
+        running = false;
+        if (thread != null) thread.interrupt();
+        thread = null;
+    }
+
+    private void loop() {
+        try {
+            while (running) {
+                long pingedAt = System.currentTimeMillis();
+                long pingedNanos = System.nanoTime();
+                sent++;
+                pinger.execute(pong);
+                Thread.sleep(thresholdMs);
+                if (answered != sent) sample(pingedAt, pingedNanos);
+            }
+        } catch (InterruptedException ignored) {
+            // stop()
+        }
+    }
+
+    private void sample(long startedAt, long startedNanos) throws InterruptedException {
+        Map<String, int[]> stacks = new HashMap<>();
+        int samples = 0;
+        while (running && answered != sent) {
+            if (samples < MAX_SAMPLES) {
+                String stack = collapse(target.getStackTrace());
+                // La pila puede ser de después de responder: se descarta
+                if (answered == sent) break;
+                if (!stack.isEmpty()) {
+                    int[] count = stacks.get(stack);
+                    if (count == null) {
+                        if (stacks.size() >= MAX_STACKS) {
+                            stack = OTHER_STACKS;
+                            count = stacks.get(stack);
+                        }
+                        if (count == null) {
+                            count = new int[1];
+                            stacks.put(stack, count);
+                        }
+                    }
+                    count[0]++;
+                    samples++;
+                }
+            }
+            Thread.sleep(sampleMs);
+        }
+        long durationMs = (System.nanoTime() - startedNanos) / 1_000_000;
+        if (samples > 0) listener.onStall(Stall.of(startedAt, durationMs, stacks, appPackage));
+    }
+
+    /**
+     * Pila plegada, de la raíz a la hoja: "Clase.metodo:linea;...".
+     */
+    static String collapse(StackTraceElement[] frames) {
+        StringBuilder out = new StringBuilder(frames.length * 48);
+        int from = Math.min(frames.length, MAX_FRAMES) - 1;
+        for (int i = from; i >= 0; i--) {
+            StackTraceElement frame = frames[i];
+            if (out.length() > 0) out.append(';');
+            out.append(frame.getClassName()).append('.').append(frame.getMethodName());
+            if (frame.getLineNumber() >= 0) out.append(':').append(frame.getLineNumber());
+        }
+        return out.toString();
+    }
+
+    // ******************************************************
+    // ATASCO
+    // ******************************************************
+
+    /**
+     * Un atasco terminado: cuándo empezó, cuánto duró y las pilas vistas.
+     */
+    public static final class Stall {
+        public final long startedAt;
+        public final long durationMs;
+        public final String[] stacks;
+        public final int[] counts;
+        public final String callSite;
+
+        Stall(long startedAt, long durationMs, String[] stacks, int[] counts, String callSite) {
+            this.startedAt = startedAt;
+            this.durationMs = durationMs;
+            this.stacks = stacks;
+            this.counts = counts;
+            this.callSite = callSite;
+        }
+
+        static Stall of(long startedAt, long durationMs, Map<String, int[]> samples, String appPackage) {
+            String[] stacks = new String[samples.size()];
+            int[] counts = new int[stacks.length];
+            int i = 0;
+            String busiest = null;
+            int busiestCount = 0;
+            for (Map.Entry<String, int[]> entry : samples.entrySet()) {
+                stacks[i] = entry.getKey();
+                counts[i] = entry.getValue()[0];
+                if (counts[i] > busiestCount && !OTHER_STACKS.equals(stacks[i])) {
+                    busiest = stacks[i];
+                    busiestCount = counts[i];
+                }
+                i++;
+            }
+            return new Stall(startedAt, durationMs, stacks, counts, callSiteOf(busiest, appPackage));
+        }
+
+        public int getSamples() {
+            int total = 0;
+            for (int count : counts) total += count;
+            return total;
+        }
+    }
+
+    /**
+     * Marco más profundo de la app en la pila (o la hoja si no hay ninguno).
+     */
+    static String callSiteOf(String stack, String appPackage) {
+        if (stack == null || stack.isEmpty()) return OTHER_STACKS;
+        String[] frames = stack.split(";");
+        for (int i = frames.length - 1; i >= 0; i--) {
+            if (appPackage != null && frames[i].startsWith(appPackage)) return frames[i];
+        }
+        return frames[frames.length - 1];
+    }
+}
@@ -0,0 +1,155 @@
+package ies.carrillo.impostor.metrics;
+
+import android.content.Context;
+import android.os.Process;
+import android.util.Log;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Línea temporal de una partida entera, para abrirla en Perfetto.
+ * <p>
+ * Todo lo que mide {@link Metrics} (creación de actividades, inflado,
+ * paso de la sesión entre pantallas, decodificación de imágenes, reparto de
+ * roles, cada animación de revelar...) acaba también aquí como evento con su
+ * hilo. Se guarda en un {@link TraceRing} reservado al arrancar, así que se
+ * puede dejar encendido: cada evento cuesta unas decenas de nanosegundos.
+ * <p>
+ * La partida empieza al crearse {@code MainActivity} ({@link #markGameStart})
+ * y al decidirse se vuelca con {@link #exportGame} a
+ * {@code Android/data/<paquete>/files/traces/partida-*.json}.
+ */
+public final class TraceRecorder {
+
+    private static final String TAG = "TraceRecorder";
+    // 16 K eventos (~0,5 MB): sobra para una partida larga
+    private static final int CAPACITY = 1 << 14;
+
+    private static final TraceRing RING = new TraceRing(CAPACITY);
+    private static final Map<String, Integer> IDS = new HashMap<>();
+    private static String[] names = new String[Metrics.COUNT];
+    private static final Map<Integer, String> THREADS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Integer> TID = new ThreadLocal<Integer>() {
+        @Override
+        protected Integer initialValue() {
+            int tid = Process.myTid();
+            THREADS.put(tid, Thread.currentThread().getName());
+            return tid;
+        }
+    };
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "trace-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    static {
+        // Los ids de las métricas son sus propias constantes
+        for (int i = 0; i < Metrics.COUNT; i++) {
+            names[i] = Metrics.name(i);
+            IDS.put(names[i], i);
+        }
+    }
+
+    private static volatile boolean enabled;
+    private static volatile long gameStart;
+
+    private TraceRecorder() {
+    }
+
+    public static void setEnabled(boolean value) {
+        enabled = value;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Id de evento para un nombre que no es una métrica (p. ej. una actividad).
+     * Busca en un mapa: mejor guardarlo que pedirlo en cada evento.
+     */
+    public static synchronized int intern(String name) {
+        Integer id = IDS.get(name);
+        if (id != null) return id;
+        int next = IDS.size();
+        if (next == names.length) {
+            String[] bigger = new String[names.length * 2];
+            System.arraycopy(names, 0, bigger, 0, names.length);
+            names = bigger;
+        }
+        names[next] = name;
+        IDS.put(name, next);
+        return next;
+    }
+
+    /**
+     * Sección síncrona de este hilo que empezó en {@code start} y duró {@code nanos}.
+     */
+    public static void complete(int name, long start, long nanos) {
+        if (enabled) RING.add(TraceRing.COMPLETE, name, TID.get(), start, nanos);
+    }
+
+    /**
+     * Intervalo que no encaja en la pila de un hilo (empieza en una pantalla y acaba en otra).
+     */
+    public static void async(int name, long start, long nanos) {
+        if (enabled) RING.add(TraceRing.ASYNC, name, TID.get(), start, nanos);
+    }
+
+    public static void instant(int name) {
+        if (enabled) RING.add(TraceRing.INSTANT, name, TID.get(), System.nanoTime(), 0);
+    }
+
+    /**
+     * Lo anterior a este instante ya no es de la partida que se va a exportar.
+     */
+    public static void markGameStart() {
+        gameStart = System.nanoTime();
+    }
+
+    /**
+     * Vuelca en segundo plano los eventos desde {@link #markGameStart}.
+     */
+    public static void exportGame(Context context) {
+        if (!enabled) return;
+        final long since = gameStart;
+        final Context app = context.getApplicationContext();
+        final String[] snapshot;
+        synchronized (TraceRecorder.class) {
+            snapshot = names.clone();
+        }
+        WRITER.execute(() -> {
+            File dir = app.getExternalFilesDir("traces");
+            if (dir == null) dir = new File(app.getFilesDir(), "traces");
+            String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss", Locale.ROOT).format(new Date());
+            File file = new File(dir, "partida-" + stamp + ".json");
+            try {
+                if (!dir.isDirectory() && !dir.mkdirs()) throw new IOException("No se pudo crear " + dir);
+                int events;
+                try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+                    events = RING.writeChromeJson(out, Process.myPid(), app.getPackageName(), snapshot,
+                            new TreeMap<>(THREADS), since);
+                }
+                Log.i(TAG, events + " eventos en " + file);
+            } catch (IOException e) {
+                Log.w(TAG, "No se pudo escribir la traza", e);
+            }
+        });
+    }
+}
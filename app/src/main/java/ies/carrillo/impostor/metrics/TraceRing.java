@@ -0,0 +1,171 @@
+package ies.carrillo.impostor.metrics;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Búfer circular de eventos de traza, reservado entero al crearlo: añadir
+ * un evento son unas escrituras en arrays de primitivos y dos atómicas, sin
+ * bloqueos ni basura. Cuando se llena pisa los más antiguos.
+ * <p>
+ * Cada casilla lleva el número de secuencia de su evento más uno, publicado
+ * después de escribir los campos (0 mientras se escribe). Al leer se
+ * comprueba antes y después de copiar: un evento que se estaba pisando se
+ * salta en vez de salir mezclado.
+ * <p>
+ * {@link #writeChromeJson} lo vuelca en el formato JSON de Chrome
+ * ({@code chrome://tracing}), que abre Perfetto.
+ */
+final class TraceRing {
+
+    // Sección síncrona en un hilo ("X")
+    static final byte COMPLETE = 0;
+    // Intervalo que empieza y acaba en sitios distintos ("b"/"e")
+    static final byte ASYNC = 1;
+    // Marca puntual ("i")
+    static final byte INSTANT = 2;
+
+    private final int mask;
+    private final byte[] kinds;
+    private final int[] names;
+    private final int[] threads;
+    private final long[] starts;
+    private final long[] durations;
+    private final AtomicLongArray published;
+    private final AtomicLong next = new AtomicLong();
+
+    TraceRing(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacidad: " + capacity);
+        }
+        mask = capacity - 1;
+        kinds = new byte[capacity];
+        names = new int[capacity];
+        threads = new int[capacity];
+        starts = new long[capacity];
+        durations = new long[capacity];
+        published = new AtomicLongArray(capacity);
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    void add(byte kind, int name, int thread, long start, long duration) {
+        long seq = next.getAndIncrement();
+        int i = (int) seq & mask;
+        published.set(i, 0);
+        kinds[i] = kind;
+        names[i] = name;
+        threads[i] = thread;
+        starts[i] = start;
+        durations[i] = duration;
+        published.lazySet(i, seq + 1);
+    }
+
+    void clear() {
+        // Solo se llama sin nadie escribiendo (pruebas)
+        for (int i = 0; i <= mask; i++) published.set(i, 0);
+        next.set(0);
+    }
+
+    // ******************************************************
+    // CHROME TRACE
+    // ******************************************************
+
+    /**
+     * Escribe los eventos que empezaron desde {@code since} (ns de
+     * {@code System.nanoTime}) como un documento JSON de Chrome trace.
+     *
+     * @param names   nombre de cada id de evento.
+     * @param threads nombre de cada hilo que aparece, por tid.
+     * @return los eventos escritos.
+     */
+    int writeChromeJson(Appendable out, int pid, String processName, String[] names,
+                        Map<Integer, String> threads, long since) throws IOException {
+        out.append("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+        out.append("{\"name\":\"process_name\",\"ph\":\"M\",\"pid\":").append(Integer.toString(pid))
+                .append(",\"args\":{\"name\":");
+        quote(out, processName);
+        out.append("}}");
+        for (Map.Entry<Integer, String> thread : threads.entrySet()) {
+            out.append(",\n{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":").append(Integer.toString(pid))
+                    .append(",\"tid\":").append(Integer.toString(thread.getKey())).append(",\"args\":{\"name\":");
+            quote(out, thread.getValue());
+            out.append("}}");
+        }
+
+        int written = 0;
+        long end = next.get();
+        for (long seq = Math.max(0, end - capacity()); seq < end; seq++) {
+            int i = (int) seq & mask;
+            if (published.get(i) != seq + 1) continue;
+            byte kind = kinds[i];
+            int name = this.names[i];
+            int thread = this.threads[i];
+            long start = starts[i];
+            long duration = durations[i];
+            if (published.get(i) != seq + 1) continue;
+            if (start < since) continue;
+
+            String label = name >= 0 && name < names.length ? names[name] : "?";
+            if (kind == ASYNC) {
+                event(out, label, "b", pid, thread, start);
+                out.append(",\"id\":").append(Long.toString(seq)).append('}');
+                event(out, label, "e", pid, thread, start + duration);
+                out.append(",\"id\":").append(Long.toString(seq)).append('}');
+            } else if (kind == INSTANT) {
+                event(out, label, "i", pid, thread, start);
+                out.append(",\"s\":\"t\"}");
+            } else {
+                event(out, label, "X", pid, thread, start);
+                out.append(",\"dur\":");
+                micros(out, duration);
+                out.append('}');
+            }
+            written++;
+        }
+        out.append("\n]}\n");
+        return written;
+    }
+
+    private static void event(Appendable out, String name, String phase, int pid, int tid, long nanos) throws IOException {
+        out.append(",\n{\"name\":");
+        quote(out, name);
+        out.append(",\"cat\":\"impostor\",\"ph\":\"").append(phase)
+                .append("\",\"pid\":").append(Integer.toString(pid))
+                .append(",\"tid\":").append(Integer.toString(tid))
+                .append(",\"ts\":");
+        micros(out, nanos);
+    }
+
+    // Microsegundos con tres decimales, sin pasar por double
+    static void micros(Appendable out, long nanos) throws IOException {
+        if (nanos < 0) {
+            out.append('-');
+            nanos = -nanos;
+        }
+        out.append(Long.toString(nanos / 1000)).append('.');
+        long fraction = nanos % 1000;
+        if (fraction < 100) out.append('0');
+        if (fraction < 10) out.append('0');
+        out.append(Long.toString(fraction));
+    }
+
+    static void quote(Appendable out, String text) throws IOException {
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < 0x20) {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        out.append('"');
+    }
+}
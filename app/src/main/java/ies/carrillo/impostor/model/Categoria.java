@@ -2,43 +2,136 @@ package ies.carrillo.impostor.model;
 
 import org.jetbrains.annotations.NotNull;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects; // Importar java.util.Objects
-import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 public class Categoria implements Serializable {
     private String name, word, clue;
-    @NotNull
-    private HashMap<String,String> palabras;
+    // Almacén indexado Palabra/Pista: se construye una vez y se actualiza par a par.
+    // En los paquetes predefinidos es null hasta que se usan (ver PackSource).
+    private WordStore palabras;
+    // Paquete mapeado del que se cargan los pares al usarse por primera vez.
+    private transient PackSource source;
+    // Versión del contenido (ver getContentVersion): almacenes sustituidos y
+    // cambios del actual desde que se puso.
+    private transient int storesReplaced;
+    private transient int baseModCount;
+
+    public Categoria(String name, Map<String, String> palabras) {
+        this.name = name;
+        this.word = null;
+        this.clue = null;
+        this.palabras = WordStore.fromMap(palabras);
+    }
 
-    public Categoria(String name,  HashMap<String, String> palabras) {
+    public Categoria(String name, WordStore palabras) {
         this.name = name;
         this.word = null;
         this.clue = null;
-        this.palabras = palabras;
+        this.palabras = palabras != null ? palabras : new WordStore();
+    }
+
+    /**
+     * Categoría respaldada por un paquete binario: los pares no se convierten
+     * en objetos hasta que la categoría se usa en una partida o se edita.
+     */
+    public Categoria(String name, PackSource source) {
+        this.name = name;
+        this.word = null;
+        this.clue = null;
+        this.source = source;
+    }
+
+    /**
+     * Devuelve el almacén de pares, cargándolo desde el paquete si aún no se ha hecho.
+     */
+    @NotNull
+    private synchronized WordStore store() {
+        if (palabras == null) {
+            palabras = source != null ? source.load() : new WordStore();
+            source = null;
+            // Cargar el paquete no cambia su contenido
+            baseModCount = palabras.getModCount();
+        }
+        return palabras;
     }
 
     /**
-     * Selecciona una palabra y su pista de forma aleatoria del HashMap.
+     * Indica si los pares ya se han convertido en objetos.
+     */
+    public synchronized boolean isLoaded() {
+        return palabras != null;
+    }
+
+    /**
+     * Selecciona una palabra y su pista de forma aleatoria.
+     * Es un único acceso por índice al almacén: O(1) y sin reservar memoria.
      */
     public void seleccionarPalabraAleatoria() {
+        WordStore palabras = store();
         if (palabras.isEmpty()) {
             this.word = "ERROR";
             this.clue = "VACÍO";
             return;
         }
-        // 1. Convertir las claves a una lista para acceder por índice
-        ArrayList<String> keys = new ArrayList<>(palabras.keySet());
+        int randomIndex = ThreadLocalRandom.current().nextInt(palabras.size());
+        this.word = palabras.wordAt(randomIndex);
+        this.clue = palabras.clueAt(randomIndex);
+    }
 
-        // 2. Elegir un índice aleatorio
-        Random random = new Random();
-        int randomIndex = random.nextInt(keys.size());
+    // ******************************************************
+    // EDICIÓN DE PARES
+    // ******************************************************
 
-        // 3. Obtener la palabra clave y su pista asociada
-        this.word = keys.get(randomIndex);
-        this.clue = palabras.get(word);
+    /**
+     * Añade un par Palabra/Pista (o sustituye la pista si la palabra ya existía).
+     */
+    public void addPalabra(String palabra, String pista) {
+        store().put(palabra, pista);
+    }
+
+    /**
+     * Elimina el par asociado a la palabra, si existe.
+     */
+    public void removePalabra(String palabra) {
+        store().remove(palabra);
+    }
+
+    /**
+     * Versión del contenido: cambia cada vez que se añade o quita algún par o
+     * se sustituye el almacén entero, de modo que mientras no cambie cada
+     * índice del almacén sigue siendo la misma palabra. Cambiar solo la pista
+     * de una palabra no la cambia (ver {@link WordStore#getModCount}). No
+     * obliga a cargar un paquete predefinido.
+     */
+    public synchronized long getContentVersion() {
+        int cambios = palabras == null ? 0 : palabras.getModCount() - baseModCount;
+        return ((long) storesReplaced << 32) | (cambios & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Número de pares. No obliga a cargar un paquete predefinido.
+     */
+    public synchronized int getNumPalabras() {
+        if (palabras == null && source != null) return source.size();
+        return store().size();
+    }
+
+    /**
+     * Copia de las palabras (sin pistas). En un paquete predefinido aún no
+     * cargado se leen del paquete sin materializar el almacén.
+     */
+    public synchronized String[] copyWords() {
+        if (palabras == null && source != null) {
+            String[] words = new String[source.size()];
+            for (int i = 0; i < words.length; i++) words[i] = source.wordAt(i);
+            return words;
+        }
+        return store().copyWords();
     }
 
     // ******************************************************
@@ -93,11 +186,38 @@ public class Categoria implements Serializable {
         this.clue = clue;
     }
 
-    public HashMap<String, String> getPalabras() {
-        return palabras;
+    /**
+     * Vista de solo lectura de los pares Palabra -> Pista.
+     */
+    public Map<String, String> getPalabras() {
+        return store().asMap();
+    }
+
+    public synchronized void setPalabras(Map<String, String> palabras) {
+        replaceStore(WordStore.fromMap(palabras));
+    }
+
+    public WordStore getWordStore() {
+        return store();
     }
 
-    public void setPalabras(HashMap<String, String> palabras) {
+    /**
+     * Sustituye los pares por {@code palabras} (sin copiarlos).
+     */
+    public synchronized void setWordStore(WordStore palabras) {
+        replaceStore(palabras != null ? palabras : new WordStore());
+    }
+
+    private void replaceStore(WordStore palabras) {
         this.palabras = palabras;
+        this.source = null;
+        this.storesReplaced++;
+        this.baseModCount = palabras.getModCount();
+    }
+
+    // Un paquete aún no cargado se materializa antes de serializarse.
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        store();
+        out.defaultWriteObject();
     }
 }
\ No newline at end of file
@@ -0,0 +1,162 @@
+package ies.carrillo.impostor.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/**
+ * Todos los paquetes (predefinidos y personalizados) con un id entero estable.
+ * <p>
+ * Los ids se asignan al registrar, empezando en 0, y no se reutilizan
+ * mientras dure el proceso: un paquete borrado deja su hueco. Volver a
+ * registrar un nombre (p. ej. al guardar un paquete editado) mantiene su id.
+ * Así el id sirve de índice en el mapa de bits de {@link SelectionModel} y
+ * de posición en un array, sin buscar por nombre.
+ * <p>
+ * Los predefinidos ({@link #registerPredefined}) son fijos: un personalizado
+ * con el mismo nombre no los sustituye ni los retira, se carguen en el orden
+ * que se carguen.
+ * <p>
+ * Entre sesiones los ids pueden cambiar (las cargas de paquetes van en
+ * paralelo), por lo que una selección guardada lleva además el nombre de
+ * cada id que cubre ({@link #writeSelection}). Es seguro entre hilos.
+ */
+public final class CategoryRegistry {
+
+    private static final int SELECTION_MAGIC = 0x53454C31; // "SEL1"
+
+    private final ArrayList<Categoria> byId = new ArrayList<>();
+    private final HashMap<String, Integer> ids = new HashMap<>();
+    private final HashSet<String> predefined = new HashSet<>();
+
+    /**
+     * Registra un paquete personalizado o sustituye el que tenía ese nombre.
+     *
+     * @return su id, o -1 si el nombre es de un paquete predefinido.
+     */
+    public synchronized int register(Categoria categoria) {
+        if (predefined.contains(categoria.getName())) return -1;
+        return put(categoria);
+    }
+
+    /**
+     * Registra un paquete predefinido; si ya había un personalizado con ese
+     * nombre, el predefinido ocupa su id.
+     */
+    public synchronized int registerPredefined(Categoria categoria) {
+        predefined.add(categoria.getName());
+        return put(categoria);
+    }
+
+    private int put(Categoria categoria) {
+        Integer id = ids.get(categoria.getName());
+        if (id != null) {
+            byId.set(id, categoria);
+            return id;
+        }
+        byId.add(categoria);
+        ids.put(categoria.getName(), byId.size() - 1);
+        return byId.size() - 1;
+    }
+
+    /**
+     * Retira un paquete personalizado. Su id queda libre pero no se vuelve a
+     * dar. Los predefinidos no se retiran.
+     */
+    public synchronized void unregister(String name) {
+        if (predefined.contains(name)) return;
+        Integer id = ids.remove(name);
+        if (id != null) byId.set(id, null);
+    }
+
+    /**
+     * Si el nombre es de un paquete predefinido.
+     */
+    public synchronized boolean isPredefined(String name) {
+        return predefined.contains(name);
+    }
+
+    /**
+     * Id del paquete con ese nombre, o -1 si no está registrado.
+     */
+    public synchronized int idOf(String name) {
+        Integer id = ids.get(name);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Paquete con ese id, o null si no existe (o se borró).
+     */
+    public synchronized Categoria get(int id) {
+        return id >= 0 && id < byId.size() ? byId.get(id) : null;
+    }
+
+    /**
+     * Número de paquetes registrados.
+     */
+    public synchronized int size() {
+        return ids.size();
+    }
+
+    /**
+     * Paquetes seleccionados, en orden de id. Los ids que ya no existen se saltan.
+     */
+    public synchronized List<Categoria> resolve(SelectionModel selection) {
+        List<Categoria> categorias = new ArrayList<>(selection.count());
+        for (int id = selection.nextSelected(0); id >= 0; id = selection.nextSelected(id + 1)) {
+            Categoria categoria = get(id);
+            if (categoria != null) categorias.add(categoria);
+        }
+        return categorias;
+    }
+
+    // ******************************************************
+    // PERSISTENCIA DE LA SELECCIÓN
+    // ******************************************************
+
+    /**
+     * Escribe la selección: los nombres de los ids hasta el último
+     * seleccionado (vacío en los huecos) y después los bits.
+     */
+    public synchronized void writeSelection(SelectionModel selection, DataOutputStream out) throws IOException {
+        long[] bits = selection.toLongArray();
+        int covered = 0;
+        for (int id = selection.nextSelected(0); id >= 0; id = selection.nextSelected(id + 1)) covered = id + 1;
+
+        out.writeInt(SELECTION_MAGIC);
+        out.writeInt(covered);
+        for (int id = 0; id < covered; id++) {
+            Categoria categoria = get(id);
+            out.writeUTF(categoria != null ? categoria.getName() : "");
+        }
+        out.writeInt(bits.length);
+        for (long word : bits) out.writeLong(word);
+    }
+
+    /**
+     * Lee una selección de {@link #writeSelection} y la traduce a los ids
+     * actuales por nombre. Los paquetes que ya no existen se descartan.
+     */
+    public synchronized SelectionModel readSelection(DataInputStream in) throws IOException {
+        if (in.readInt() != SELECTION_MAGIC) throw new IOException("Selección con formato desconocido");
+        int covered = in.readInt();
+        if (covered < 0) throw new IOException("Selección dañada");
+        String[] names = new String[covered];
+        for (int i = 0; i < covered; i++) names[i] = in.readUTF();
+        int length = in.readInt();
+        if (length < 0 || length > (covered + 63) / 64 + 1) throw new IOException("Selección dañada");
+        long[] bits = new long[length];
+        for (int i = 0; i < length; i++) bits[i] = in.readLong();
+
+        SelectionModel saved = SelectionModel.fromLongArray(bits);
+        SelectionModel current = new SelectionModel();
+        for (int old = saved.nextSelected(0); old >= 0 && old < covered; old = saved.nextSelected(old + 1)) {
+            current.set(idOf(names[old]), true);
+        }
+        return current;
+    }
+}
@@ -0,0 +1,95 @@
+package ies.carrillo.impostor.model;
+
+import java.util.Random;
+
+/**
+ * Muestreo ponderado en O(1) con el método alias de Vose.
+ * <p>
+ * La tabla se construye en O(n) a partir de los pesos y después cada sorteo
+ * es un índice al azar más una comparación. Los pesos a 0 no salen nunca.
+ * Es inmutable: si cambian los pesos se construye otra.
+ */
+public final class CategorySampler {
+
+    private final double[] probability;
+    private final int[] alias;
+    private final int size;
+
+    private CategorySampler(double[] probability, int[] alias) {
+        this.probability = probability;
+        this.alias = alias;
+        this.size = probability.length;
+    }
+
+    /**
+     * @param weights pesos no negativos; al menos uno debe ser positivo.
+     */
+    public static CategorySampler build(double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double weight : weights) {
+            if (weight < 0 || Double.isNaN(weight) || Double.isInfinite(weight)) {
+                throw new IllegalArgumentException("Peso inválido: " + weight);
+            }
+            total += weight;
+        }
+        if (total <= 0) throw new IllegalArgumentException("Todos los pesos son 0");
+
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+        // Pilas de índices con probabilidad escalada por debajo/encima de 1.
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        double[] scaled = new double[n];
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // Lo que queda vale 1 salvo por errores de redondeo; un peso 0 nunca debe salir.
+        int anyPositive = 0;
+        while (weights[anyPositive] <= 0) anyPositive++;
+        while (largeCount > 0) probability[large[--largeCount]] = 1.0;
+        while (smallCount > 0) {
+            int i = small[--smallCount];
+            if (weights[i] > 0) {
+                probability[i] = 1.0;
+            } else {
+                probability[i] = 0.0;
+                alias[i] = anyPositive;
+            }
+        }
+
+        return new CategorySampler(probability, alias);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Índice sorteado con probabilidad proporcional a su peso.
+     */
+    public int sample(Random random) {
+        int column = random.nextInt(size);
+        return random.nextDouble() < probability[column] ? column : alias[column];
+    }
+}
@@ -1,30 +1,43 @@
 package ies.carrillo.impostor.model;
 
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicLong;
+
+import ies.carrillo.impostor.roles.Roles;
 
 public class Jugador implements Serializable {
+    // Gris (0xFF888888), el mismo que se usaba cuando el color no se podía leer.
+    public static final int COLOR_DESCONOCIDO = 0xFF888888;
+    private static final AtomicLong NEXT_ID = new AtomicLong();
+
+    // Identificador estable mientras vive el proceso (ids de RecyclerView y diffs).
+    private final long id = NEXT_ID.incrementAndGet();
     private String name;
-    private String role; // Rol: Civil o Impostor
+    private Roles role; // Rol: Civil o Impostor
     private String colorHex; // Nuevo campo: Color en formato Hex
+    private int colorInt; // colorHex ya interpretado, para no parsearlo en cada bind
     private String profileImageUri = null;
 
     // Constructor que acepta el nombre y asigna un color por defecto
     public Jugador(String name) {
         this.name = name;
-        this.role = "Civil"; // Rol por defecto
-        this.colorHex = "#FF4081"; // Color Rosa/Magenta por defecto (ejemplo)
+        this.role = Roles.CIVIL; // Rol por defecto
+        setColorHex("#FF4081"); // Color Rosa/Magenta por defecto (ejemplo)
         this.profileImageUri=null;
     }
 
     // Constructor completo (si lo necesitas)
-    public Jugador(String name, String role, String colorHex) {
+    public Jugador(String name, Roles role, String colorHex) {
         this.name = name;
         this.role = role;
-        this.colorHex = colorHex;
+        setColorHex(colorHex);
     }
 
     // --- Getters y Setters ---
 
+    public long getId() {
+        return id;
+    }
 
     public String getProfileImageUri() {
         return profileImageUri;
@@ -42,11 +55,11 @@ public class Jugador implements Serializable {
         this.name = name;
     }
 
-    public String getRole() {
+    public Roles getRole() {
         return role;
     }
 
-    public void setRole(String role) {
+    public void setRole(Roles role) {
         this.role = role;
     }
 
@@ -56,5 +69,29 @@ public class Jugador implements Serializable {
 
     public void setColorHex(String colorHex) { // ¡Nuevo Setter!
         this.colorHex = colorHex;
+        this.colorInt = parseColor(colorHex);
+    }
+
+    /**
+     * Color ARGB de {@link #getColorHex()}, o {@link #COLOR_DESCONOCIDO} si no es válido.
+     */
+    public int getColorInt() {
+        return colorInt;
+    }
+
+    /**
+     * Interpreta "#RRGGBB" o "#AARRGGBB" como {@code Color.parseColor}, pero sin
+     * depender de Android y sin lanzar excepción.
+     */
+    static int parseColor(String hex) {
+        if (hex == null || hex.length() < 1 || hex.charAt(0) != '#') return COLOR_DESCONOCIDO;
+        int digits = hex.length() - 1;
+        if (digits != 6 && digits != 8) return COLOR_DESCONOCIDO;
+        try {
+            long value = Long.parseLong(hex.substring(1), 16);
+            return digits == 6 ? (int) (value | 0xFF000000L) : (int) value;
+        } catch (NumberFormatException e) {
+            return COLOR_DESCONOCIDO;
+        }
     }
 }
\ No newline at end of file
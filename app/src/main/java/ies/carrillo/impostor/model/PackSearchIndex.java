@@ -0,0 +1,218 @@
+package ies.carrillo.impostor.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Índice invertido para buscar paquetes por su nombre o por las palabras que contienen.
+ * <p>
+ * Está partido por paquete: cada uno guarda su diccionario de términos
+ * (las palabras normalizadas con {@link WordIndex#normalize} y troceadas en
+ * tokens) ordenado alfabéticamente. Un término de la consulta es un prefijo,
+ * y los términos que empiezan por él son un rango que se encuentra con dos
+ * búsquedas binarias, así que consultar cuesta O(paquetes · log términos)
+ * aunque haya millones de palabras indexadas. Añadir, sustituir o quitar un
+ * paquete solo toca su parte.
+ * <p>
+ * Las consultas leen una copia inmutable de la lista de paquetes y no se
+ * bloquean; las escrituras se serializan y publican una copia nueva.
+ */
+public final class PackSearchIndex {
+
+    // Puntuación: el nombre pesa más que cualquier palabra y una palabra exacta más que un prefijo.
+    private static final int SCORE_NAME = 1_000_000;
+    private static final int SCORE_EXACT_WORD = 10_000;
+    private static final int MAX_PREFIX_SCORE = SCORE_EXACT_WORD - 1;
+
+    /**
+     * Un paquete que contiene todos los términos de la consulta.
+     */
+    public static final class Hit {
+        public final String pack;
+        // Primera palabra del paquete que encaja (tal como está escrita), o null si solo encaja el nombre.
+        public final String matchedWord;
+        // Palabras distintas que encajan con el primer término de la consulta.
+        public final int matches;
+        public final boolean nameMatch;
+        final int score;
+
+        Hit(String pack, String matchedWord, int matches, boolean nameMatch, int score) {
+            this.pack = pack;
+            this.matchedWord = matchedWord;
+            this.matches = matches;
+            this.nameMatch = nameMatch;
+            this.score = score;
+        }
+    }
+
+    private static final class PackTerms {
+        final String name;
+        final String[] nameTokens;
+        // Términos distintos ordenados y, en paralelo, la palabra original de la que salieron.
+        final String[] terms;
+        final String[] words;
+
+        PackTerms(String name, String[] nameTokens, String[] terms, String[] words) {
+            this.name = name;
+            this.nameTokens = nameTokens;
+            this.terms = terms;
+            this.words = words;
+        }
+    }
+
+    private volatile PackTerms[] packs = new PackTerms[0];
+
+    /**
+     * Indexa (o reindexa) un paquete. Se puede llamar desde cualquier hilo.
+     */
+    public void putPack(String name, String[] words) {
+        PackTerms indexed = build(name, words);
+        synchronized (this) {
+            PackTerms[] current = packs;
+            for (int i = 0; i < current.length; i++) {
+                if (current[i].name.equals(name)) {
+                    PackTerms[] replaced = current.clone();
+                    replaced[i] = indexed;
+                    packs = replaced;
+                    return;
+                }
+            }
+            PackTerms[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = indexed;
+            packs = grown;
+        }
+    }
+
+    public synchronized void removePack(String name) {
+        PackTerms[] current = packs;
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].name.equals(name)) {
+                PackTerms[] shrunk = new PackTerms[current.length - 1];
+                System.arraycopy(current, 0, shrunk, 0, i);
+                System.arraycopy(current, i + 1, shrunk, i, current.length - i - 1);
+                packs = shrunk;
+                return;
+            }
+        }
+    }
+
+    public int packCount() {
+        return packs.length;
+    }
+
+    /**
+     * Número total de términos indexados.
+     */
+    public int termCount() {
+        int total = 0;
+        for (PackTerms pack : packs) total += pack.terms.length;
+        return total;
+    }
+
+    /**
+     * Paquetes cuyo nombre o palabras empiezan por todos los términos de la
+     * consulta, de mejor a peor: primero los que encajan por nombre, después
+     * los que tienen la palabra exacta y después por número de palabras que
+     * encajan. A igual puntuación, por nombre.
+     *
+     * @param limit número máximo de resultados.
+     */
+    public List<Hit> search(String query, int limit) {
+        String[] queryTokens = tokens(WordIndex.normalize(query));
+        if (queryTokens.length == 0 || limit <= 0) return Collections.emptyList();
+
+        ArrayList<Hit> hits = new ArrayList<>();
+        for (PackTerms pack : packs) {
+            Hit hit = match(pack, queryTokens);
+            if (hit != null) hits.add(hit);
+        }
+        Collections.sort(hits, (a, b) -> a.score != b.score
+                ? Integer.compare(b.score, a.score)
+                : a.pack.compareTo(b.pack));
+        return hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    /**
+     * Trocea un texto ya normalizado en tokens de letras y dígitos.
+     */
+    static String[] tokens(String normalized) {
+        ArrayList<String> tokens = new ArrayList<>(2);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean letter = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (letter && start < 0) {
+                start = i;
+            } else if (!letter && start >= 0) {
+                tokens.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return tokens.toArray(new String[0]);
+    }
+
+    // --- Internos ---
+
+    private static PackTerms build(String name, String[] words) {
+        // Término -> primera palabra que lo contiene
+        HashMap<String, String> firstWord = new HashMap<>(words.length * 4 / 3 + 1);
+        for (String word : words) {
+            for (String term : tokens(WordIndex.normalize(word))) {
+                if (!firstWord.containsKey(term)) firstWord.put(term, word);
+            }
+        }
+        String[] terms = firstWord.keySet().toArray(new String[0]);
+        Arrays.sort(terms);
+        String[] original = new String[terms.length];
+        for (int i = 0; i < terms.length; i++) original[i] = firstWord.get(terms[i]);
+        return new PackTerms(name, tokens(WordIndex.normalize(name)), terms, original);
+    }
+
+    private static Hit match(PackTerms pack, String[] queryTokens) {
+        int score = 0;
+        int matches = -1;
+        String matchedWord = null;
+        boolean nameMatch = false;
+
+        for (String token : queryTokens) {
+            boolean inName = false;
+            for (String nameToken : pack.nameTokens) {
+                if (nameToken.startsWith(token)) {
+                    inName = true;
+                    break;
+                }
+            }
+            int from = lowerBound(pack.terms, token);
+            int to = lowerBound(pack.terms, token + '\uffff');
+            if (!inName && from == to) return null;
+
+            if (inName) {
+                score += SCORE_NAME;
+                nameMatch = true;
+            }
+            if (from < to) {
+                boolean exact = pack.terms[from].equals(token);
+                score += (exact ? SCORE_EXACT_WORD : 0) + Math.min(to - from, MAX_PREFIX_SCORE);
+                if (matchedWord == null) matchedWord = pack.words[from];
+            }
+            if (matches < 0) matches = to - from;
+        }
+        return new Hit(pack.name, matchedWord, matches, nameMatch, score);
+    }
+
+    private static int lowerBound(String[] sorted, String key) {
+        int lo = 0;
+        int hi = sorted.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (sorted[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+}
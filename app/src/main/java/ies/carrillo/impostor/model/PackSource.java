@@ -0,0 +1,23 @@
+package ies.carrillo.impostor.model;
+
+/**
+ * Origen perezoso de los pares de una {@link Categoria}.
+ * Permite conocer el tamaño del paquete sin convertirlo todavía en objetos.
+ */
+public interface PackSource {
+
+    /**
+     * Número de pares Palabra/Pista del paquete.
+     */
+    int size();
+
+    /**
+     * Palabra del par {@code index}, sin convertir el resto del paquete.
+     */
+    String wordAt(int index);
+
+    /**
+     * Convierte el paquete completo en un {@link WordStore}.
+     */
+    WordStore load();
+}
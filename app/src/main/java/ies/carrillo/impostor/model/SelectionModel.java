@@ -0,0 +1,92 @@
+package ies.carrillo.impostor.model;
+
+import java.util.Arrays;
+
+/**
+ * Paquetes seleccionados como mapa de bits sobre los ids de {@link CategoryRegistry}.
+ * <p>
+ * Consultar, marcar y desmarcar son O(1) y el número de seleccionados se
+ * lleva al día en cada cambio (a diferencia de {@link java.util.BitSet#cardinality()},
+ * que recorre todo el mapa). Viaja entre actividades como un {@code long[]}:
+ * unos pocos bytes en lugar de las categorías serializadas.
+ */
+public final class SelectionModel {
+
+    private long[] words;
+    private int count;
+
+    public SelectionModel() {
+        this.words = new long[1];
+    }
+
+    private SelectionModel(long[] words) {
+        this.words = words.length > 0 ? words : new long[1];
+        for (long word : this.words) count += Long.bitCount(word);
+    }
+
+    /**
+     * Selección a partir de {@link #toLongArray()}; null da una selección vacía.
+     */
+    public static SelectionModel fromLongArray(long[] bits) {
+        return bits == null ? new SelectionModel() : new SelectionModel(bits.clone());
+    }
+
+    public boolean isSelected(int id) {
+        if (id < 0) return false;
+        int word = id >>> 6;
+        return word < words.length && (words[word] & (1L << id)) != 0;
+    }
+
+    /**
+     * Marca o desmarca un id (los negativos, de paquetes que no existen, se ignoran).
+     *
+     * @return true si la selección ha cambiado.
+     */
+    public boolean set(int id, boolean selected) {
+        if (id < 0 || isSelected(id) == selected) return false;
+        int word = id >>> 6;
+        if (word >= words.length) {
+            words = Arrays.copyOf(words, Math.max(word + 1, words.length * 2));
+        }
+        words[word] ^= 1L << id;
+        count += selected ? 1 : -1;
+        return true;
+    }
+
+    public int count() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0L);
+        count = 0;
+    }
+
+    /**
+     * Primer id seleccionado mayor o igual que {@code from}, o -1 si no hay.
+     */
+    public int nextSelected(int from) {
+        if (from < 0) from = 0;
+        int word = from >>> 6;
+        if (word >= words.length) return -1;
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) return (word << 6) + Long.numberOfTrailingZeros(bits);
+            if (++word == words.length) return -1;
+            bits = words[word];
+        }
+    }
+
+    /**
+     * Los bits sin los ceros del final, para guardar o pasar en un Intent.
+     */
+    public long[] toLongArray() {
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) length--;
+        return Arrays.copyOf(words, length);
+    }
+}
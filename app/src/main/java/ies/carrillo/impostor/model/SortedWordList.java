@@ -0,0 +1,171 @@
+package ies.carrillo.impostor.model;
+
+import java.util.Arrays;
+
+/**
+ * Palabras de un paquete ordenadas alfabéticamente por su clave normalizada
+ * ({@link WordIndex#normalize}), con la posición exacta de cada cambio.
+ * <p>
+ * Son dos arrays paralelos (clave y palabra): buscar es una búsqueda binaria
+ * y añadir o quitar mueve el final del array con {@link System#arraycopy},
+ * que para 100.000 palabras son unos pocos cientos de KB de memoria contigua.
+ * Como todas las palabras que empiezan por un prefijo quedan seguidas, un
+ * filtro por prefijo es un rango [desde, hasta) que se calcula en O(log n).
+ */
+public final class SortedWordList {
+
+    private String[] keys;
+    private String[] words;
+    private int size;
+
+    public SortedWordList(WordStore store) {
+        this(store.copyWords());
+    }
+
+    public SortedWordList(String[] source) {
+        int n = source.length;
+        Integer[] order = new Integer[n];
+        String[] sourceKeys = new String[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+            sourceKeys[i] = WordIndex.normalize(source[i]);
+        }
+        Arrays.sort(order, (a, b) -> compare(sourceKeys[a], source[a], sourceKeys[b], source[b]));
+
+        this.keys = new String[Math.max(n, 1)];
+        this.words = new String[Math.max(n, 1)];
+        for (int i = 0; i < n; i++) {
+            keys[i] = sourceKeys[order[i]];
+            words[i] = source[order[i]];
+        }
+        this.size = n;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String wordAt(int index) {
+        checkIndex(index);
+        return words[index];
+    }
+
+    public String keyAt(int index) {
+        checkIndex(index);
+        return keys[index];
+    }
+
+    /**
+     * Posición de la palabra, o -1 si no está.
+     */
+    public int indexOf(String word) {
+        String key = WordIndex.normalize(word);
+        int i = lowerBound(key, word);
+        return i < size && words[i].equals(word) ? i : -1;
+    }
+
+    /**
+     * Inserta la palabra en su sitio.
+     *
+     * @return la posición en la que ha quedado, o -1 si ya estaba.
+     */
+    public int insert(String word) {
+        String key = WordIndex.normalize(word);
+        int i = lowerBound(key, word);
+        if (i < size && words[i].equals(word)) return -1;
+
+        if (size == words.length) {
+            int capacity = size + (size >> 1) + 1;
+            keys = Arrays.copyOf(keys, capacity);
+            words = Arrays.copyOf(words, capacity);
+        }
+        System.arraycopy(keys, i, keys, i + 1, size - i);
+        System.arraycopy(words, i, words, i + 1, size - i);
+        keys[i] = key;
+        words[i] = word;
+        size++;
+        return i;
+    }
+
+    /**
+     * Quita la palabra.
+     *
+     * @return la posición que ocupaba, o -1 si no estaba.
+     */
+    public int remove(String word) {
+        int i = indexOf(word);
+        if (i < 0) return -1;
+        System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+        System.arraycopy(words, i + 1, words, i, size - i - 1);
+        size--;
+        keys[size] = null;
+        words[size] = null;
+        return i;
+    }
+
+    /**
+     * Primera posición cuya clave empieza por el prefijo (ya normalizado o no).
+     */
+    public int prefixStart(String prefix) {
+        return lowerBoundKey(WordIndex.normalize(prefix));
+    }
+
+    /**
+     * Posición siguiente a la última cuya clave empieza por el prefijo.
+     */
+    public int prefixEnd(String prefix) {
+        String key = WordIndex.normalize(prefix);
+        if (key.isEmpty()) return size;
+        // Ninguna clave que empiece por el prefijo es mayor que prefijo + U+FFFF.
+        return lowerBoundKey(key + '\uffff');
+    }
+
+    /**
+     * Indica si la palabra pasa un filtro de prefijo.
+     */
+    public static boolean matchesPrefix(String word, String prefix) {
+        return WordIndex.normalize(word).startsWith(WordIndex.normalize(prefix));
+    }
+
+    // --- Internos ---
+
+    private int lowerBound(String key, String word) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (compare(keys[mid], words[mid], key, word) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int lowerBoundKey(String key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Orden por clave normalizada; a igual clave ("Árbol"/"arbol"), por la palabra tal cual.
+    private static int compare(String keyA, String wordA, String keyB, String wordB) {
+        int byKey = keyA.compareTo(keyB);
+        return byKey != 0 ? byKey : wordA.compareTo(wordB);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Índice " + index + ", tamaño " + size);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package ies.carrillo.impostor.model;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+
+/**
+ * Índice global de palabras normalizadas para detectar duplicados entre paquetes.
+ * <p>
+ * Cada palabra se guarda por su clave normalizada ({@link #normalize}): sin
+ * tildes ni diéresis y en minúsculas, de modo que "Árbol", "arbol" y "ÁRBOL"
+ * son la misma. El valor de cada clave son los paquetes que la contienen:
+ * el nombre directamente en el caso habitual de un solo paquete y un array
+ * corto cuando la comparten varios. Consultar es una búsqueda en un
+ * {@link HashMap}: O(1) al escribir, aunque haya millones de palabras.
+ * <p>
+ * Por cada paquete se guardan sus claves, para poder retirarlo o sustituirlo
+ * sin conocer su contenido anterior. Es seguro entre hilos.
+ */
+public final class WordIndex {
+
+    // Clave normalizada -> String (un paquete) o String[] (varios, sin repetir).
+    private final HashMap<String, Object> owners;
+    private final HashMap<String, String[]> keysByPack = new HashMap<>();
+
+    public WordIndex() {
+        this(1024);
+    }
+
+    public WordIndex(int expectedWords) {
+        this.owners = new HashMap<>(expectedWords * 4 / 3 + 1);
+    }
+
+    /**
+     * Clave de comparación de una palabra: recortada, sin marcas diacríticas y
+     * en minúsculas. La virgulilla de la ñ se conserva ("año" no es "ano").
+     */
+    public static String normalize(String text) {
+        String trimmed = text.trim();
+        boolean ascii = true;
+        for (int i = 0; i < trimmed.length(); i++) {
+            if (trimmed.charAt(i) >= 0x80) {
+                ascii = false;
+                break;
+            }
+        }
+        if (ascii) return trimmed.toLowerCase(Locale.ROOT);
+
+        String decomposed = Normalizer.normalize(trimmed, Normalizer.Form.NFD);
+        StringBuilder folded = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                char previous = i > 0 ? decomposed.charAt(i - 1) : 0;
+                if (c != '\u0303' || (previous != 'n' && previous != 'N')) continue;
+            }
+            folded.append(c);
+        }
+        return Normalizer.normalize(folded, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Indica si dos textos son iguales tras normalizarlos (p. ej. palabra y pista).
+     */
+    public static boolean sameText(String a, String b) {
+        return normalize(a).equals(normalize(b));
+    }
+
+    /**
+     * Indexa las palabras de un paquete, sustituyendo lo que hubiera con ese nombre.
+     */
+    public synchronized void putPack(String pack, String[] words) {
+        removePack(pack);
+        String[] keys = new String[words.length];
+        int count = 0;
+        for (String word : words) {
+            String key = normalize(word);
+            Object current = owners.get(key);
+            if (current == null) {
+                owners.put(key, pack);
+            } else if (ownedBy(current, pack)) {
+                // Dos palabras del mismo paquete con la misma clave: cuenta una vez.
+                continue;
+            } else if (current instanceof String) {
+                owners.put(key, new String[]{(String) current, pack});
+            } else {
+                String[] previous = (String[]) current;
+                String[] grown = Arrays.copyOf(previous, previous.length + 1);
+                grown[previous.length] = pack;
+                owners.put(key, grown);
+            }
+            keys[count++] = key;
+        }
+        keysByPack.put(pack, count == keys.length ? keys : Arrays.copyOf(keys, count));
+    }
+
+    /**
+     * Retira un paquete del índice (si estaba).
+     */
+    public synchronized void removePack(String pack) {
+        String[] keys = keysByPack.remove(pack);
+        if (keys == null) return;
+        for (String key : keys) {
+            Object current = owners.get(key);
+            if (current instanceof String) {
+                owners.remove(key);
+            } else if (current != null) {
+                String[] previous = (String[]) current;
+                if (previous.length == 2) {
+                    owners.put(key, previous[0].equals(pack) ? previous[1] : previous[0]);
+                } else {
+                    String[] shrunk = new String[previous.length - 1];
+                    int j = 0;
+                    for (String owner : previous) {
+                        if (!owner.equals(pack)) shrunk[j++] = owner;
+                    }
+                    owners.put(key, shrunk);
+                }
+            }
+        }
+    }
+
+    /**
+     * Paquete distinto de {@code exceptPack} que ya contiene la palabra, o null si ninguno.
+     */
+    public synchronized String findPack(String word, String exceptPack) {
+        Object current = owners.get(normalize(word));
+        if (current == null) return null;
+        if (current instanceof String) {
+            return current.equals(exceptPack) ? null : (String) current;
+        }
+        for (String owner : (String[]) current) {
+            if (!owner.equals(exceptPack)) return owner;
+        }
+        return null;
+    }
+
+    public synchronized boolean contains(String word) {
+        return owners.containsKey(normalize(word));
+    }
+
+    /**
+     * Número de claves distintas indexadas.
+     */
+    public synchronized int size() {
+        return owners.size();
+    }
+
+    public synchronized boolean containsPack(String pack) {
+        return keysByPack.containsKey(pack);
+    }
+
+    private static boolean ownedBy(Object current, String pack) {
+        if (current instanceof String) return current.equals(pack);
+        for (String owner : (String[]) current) {
+            if (owner.equals(pack)) return true;
+        }
+        return false;
+    }
+}
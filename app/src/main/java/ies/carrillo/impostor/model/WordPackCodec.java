@@ -0,0 +1,589 @@
+package ies.carrillo.impostor.model;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Importación y exportación de pares Palabra/Pista en CSV y JSON Lines.
+ * <p>
+ * La lectura es en streaming: se procesan bloques de caracteres con una
+ * pequeña máquina de estados y cada par válido se escribe directamente en el
+ * {@link WordStore} de destino, sin listas intermedias. Así un fichero de
+ * 100.000 pares solo ocupa en memoria lo que ocupa el propio almacén.
+ * <p>
+ * Formatos aceptados:
+ * <ul>
+ *     <li>CSV: dos columnas (palabra, pista) separadas por coma, punto y coma
+ *     o tabulador (se detecta con el primer separador). Comillas dobles al
+ *     estilo RFC 4180, con saltos de línea dentro de comillas. La cabecera
+ *     "palabra,pista" es opcional.</li>
+ *     <li>JSON Lines: un objeto por línea con las claves "palabra" y "pista"
+ *     (o "word" y "clue"); el resto de claves se ignoran.</li>
+ * </ul>
+ * Pares descartados: con algún valor vacío, más largo que
+ * {@link #MAX_FIELD_LENGTH} (el mismo límite que los campos de la pantalla),
+ * con palabra igual a la pista (sin contar tildes ni mayúsculas), ya
+ * presentes (en el fichero o en el paquete) y líneas mal formadas.
+ */
+public final class WordPackCodec {
+
+    public enum Format {
+        CSV, JSONL;
+
+        /**
+         * Deduce el formato del nombre del fichero; por defecto, CSV.
+         */
+        public static Format fromFileName(String name) {
+            if (name != null) {
+                String lower = name.toLowerCase(Locale.ROOT);
+                if (lower.endsWith(".jsonl") || lower.endsWith(".ndjson") || lower.endsWith(".json")) {
+                    return JSONL;
+                }
+            }
+            return CSV;
+        }
+    }
+
+    public interface Listener {
+        /**
+         * Llamado desde el hilo que importa, como mucho cada {@link #PROGRESS_STEP_BYTES}.
+         *
+         * @param totalBytes tamaño del fichero, o -1 si no se conoce.
+         */
+        void onProgress(long bytesRead, long totalBytes, int imported);
+    }
+
+    /**
+     * Recuento de una importación.
+     */
+    public static final class Result {
+        public int imported;
+        public int duplicates;
+        public int empty;
+        public int tooLong;
+        public int sameAsClue;
+        public int malformed;
+        // Primera línea rechazada (1-based), para poder señalarla; 0 si no hubo.
+        public int firstRejectedLine;
+
+        public int rejected() {
+            return duplicates + empty + tooLong + sameAsClue + malformed;
+        }
+
+        private void reject(int line) {
+            if (firstRejectedLine == 0) firstRejectedLine = line;
+        }
+    }
+
+    public static final int PROGRESS_STEP_BYTES = 64 * 1024;
+    // maxLength de la palabra y la pista en activity_createpackage.xml
+    public static final int MAX_FIELD_LENGTH = 20;
+    private static final int CHUNK_CHARS = 16 * 1024;
+
+    private WordPackCodec() {
+    }
+
+    // ******************************************************
+    // IMPORTACIÓN
+    // ******************************************************
+
+    /**
+     * Lee {@code in} (UTF-8, con o sin BOM) y añade a {@code into} los pares válidos.
+     * Se puede cancelar interrumpiendo el hilo: lanza {@link InterruptedIOException}
+     * y lo ya importado se queda en el almacén.
+     */
+    public static Result importPairs(InputStream in, long totalBytes, Format format,
+                                     WordStore into, Listener listener) throws IOException {
+        return importPairs(in, totalBytes, format, into, null, listener, CHUNK_CHARS);
+    }
+
+    /**
+     * Como {@link #importPairs(InputStream, long, Format, WordStore, Listener)},
+     * pero los duplicados se detectan por clave normalizada ({@link WordIndex#normalize}):
+     * {@code keys} son las claves ya presentes en el paquete y se amplía con las importadas.
+     */
+    public static Result importPairs(InputStream in, long totalBytes, Format format, WordStore into,
+                                     Set<String> keys, Listener listener) throws IOException {
+        return importPairs(in, totalBytes, format, into, keys, listener, CHUNK_CHARS);
+    }
+
+    static Result importPairs(InputStream in, long totalBytes, Format format, WordStore into,
+                              Set<String> keys, Listener listener, int chunkChars) throws IOException {
+        CountingInputStream counting = new CountingInputStream(in);
+        Reader reader = new InputStreamReader(counting, StandardCharsets.UTF_8);
+        Importer importer = format == Format.JSONL ? new JsonLinesImporter(into) : new CsvImporter(into);
+        importer.keys = keys;
+
+        char[] chunk = new char[chunkChars];
+        long lastReport = 0;
+        boolean first = true;
+        int read;
+        while ((read = reader.read(chunk)) != -1) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Importación cancelada");
+            }
+            int start = 0;
+            if (first && read > 0 && chunk[0] == '\uFEFF') start = 1;
+            first = false;
+            importer.feed(chunk, start, read);
+
+            if (listener != null && counting.count - lastReport >= PROGRESS_STEP_BYTES) {
+                lastReport = counting.count;
+                listener.onProgress(counting.count, totalBytes, importer.result.imported);
+            }
+        }
+        importer.finish();
+        if (listener != null) listener.onProgress(counting.count, totalBytes, importer.result.imported);
+        return importer.result;
+    }
+
+    private abstract static class Importer {
+        final WordStore into;
+        final Result result = new Result();
+        // Claves normalizadas del paquete, o null para comparar palabras exactas.
+        Set<String> keys;
+        // Línea (1-based) en la que empieza el registro actual.
+        int recordLine = 1;
+        int line = 1;
+
+        Importer(WordStore into) {
+            this.into = into;
+        }
+
+        abstract void feed(char[] chunk, int from, int to);
+
+        abstract void finish();
+
+        final void accept(String word, String clue) {
+            word = word == null ? "" : word.trim();
+            clue = clue == null ? "" : clue.trim();
+            if (word.isEmpty() || clue.isEmpty()) {
+                result.empty++;
+                result.reject(recordLine);
+            } else if (word.length() > MAX_FIELD_LENGTH || clue.length() > MAX_FIELD_LENGTH) {
+                result.tooLong++;
+                result.reject(recordLine);
+            } else if (WordIndex.sameText(word, clue)) {
+                result.sameAsClue++;
+                result.reject(recordLine);
+            } else if (keys != null ? !keys.add(WordIndex.normalize(word)) : into.containsWord(word)) {
+                result.duplicates++;
+                result.reject(recordLine);
+            } else {
+                into.put(word, clue);
+                result.imported++;
+            }
+        }
+
+        final void malformed() {
+            result.malformed++;
+            result.reject(recordLine);
+        }
+    }
+
+    private static final class CsvImporter extends Importer {
+        private final StringBuilder field = new StringBuilder(32);
+        private String first;
+        private String second;
+        private int fields;
+        private char separator;
+        private boolean inQuotes;
+        private boolean afterQuote;
+        private boolean fieldStarted;
+        private boolean headerChecked;
+
+        CsvImporter(WordStore into) {
+            super(into);
+        }
+
+        @Override
+        void feed(char[] chunk, int from, int to) {
+            for (int i = from; i < to; i++) {
+                char c = chunk[i];
+                if (c == '\n') line++;
+
+                if (inQuotes) {
+                    if (c == '"') {
+                        inQuotes = false;
+                        afterQuote = true;
+                    } else {
+                        field.append(c);
+                    }
+                    continue;
+                }
+                if (afterQuote) {
+                    afterQuote = false;
+                    if (c == '"') {
+                        // "" dentro de un campo entrecomillado es una comilla literal.
+                        field.append('"');
+                        inQuotes = true;
+                        continue;
+                    }
+                }
+
+                if (c == '\n') {
+                    endRecord();
+                } else if (c == '\r') {
+                    // CRLF: el \n cierra el registro.
+                } else if (isSeparator(c)) {
+                    endField();
+                } else if (c == '"' && !fieldStarted) {
+                    inQuotes = true;
+                    fieldStarted = true;
+                } else {
+                    field.append(c);
+                    fieldStarted = true;
+                }
+            }
+        }
+
+        private boolean isSeparator(char c) {
+            if (separator == 0 && (c == ',' || c == ';' || c == '\t')) {
+                separator = c;
+            }
+            return c == separator;
+        }
+
+        private void endField() {
+            String value = field.toString();
+            if (fields == 0) {
+                first = value;
+            } else if (fields == 1) {
+                second = value;
+            }
+            fields++;
+            field.setLength(0);
+            fieldStarted = false;
+        }
+
+        private void endRecord() {
+            endField();
+            boolean blank = fields == 1 && first.trim().isEmpty();
+            if (!blank) {
+                if (!headerChecked && isHeader(first, second)) {
+                    // Cabecera opcional.
+                } else if (fields < 2) {
+                    malformed();
+                } else {
+                    accept(first, second);
+                }
+                headerChecked = true;
+            }
+            first = null;
+            second = null;
+            fields = 0;
+            recordLine = line;
+        }
+
+        @Override
+        void finish() {
+            if (inQuotes) {
+                // Comilla sin cerrar: el último registro está cortado.
+                inQuotes = false;
+                malformed();
+                return;
+            }
+            if (fields > 0 || field.length() > 0 || fieldStarted) endRecord();
+        }
+
+        private static boolean isHeader(String a, String b) {
+            if (a == null || b == null) return false;
+            String word = a.trim().toLowerCase(Locale.ROOT);
+            String clue = b.trim().toLowerCase(Locale.ROOT);
+            return (word.equals("palabra") && clue.equals("pista"))
+                    || (word.equals("word") && clue.equals("clue"));
+        }
+    }
+
+    private static final class JsonLinesImporter extends Importer {
+        private final StringBuilder lineBuffer = new StringBuilder(64);
+
+        JsonLinesImporter(WordStore into) {
+            super(into);
+        }
+
+        @Override
+        void feed(char[] chunk, int from, int to) {
+            int start = from;
+            for (int i = from; i < to; i++) {
+                if (chunk[i] == '\n') {
+                    lineBuffer.append(chunk, start, i - start);
+                    endLine();
+                    start = i + 1;
+                }
+            }
+            lineBuffer.append(chunk, start, to - start);
+        }
+
+        private void endLine() {
+            recordLine = line;
+            line++;
+            if (!isBlank(lineBuffer)) {
+                JsonLine parsed = new JsonLine(lineBuffer);
+                if (parsed.parse()) {
+                    accept(parsed.word, parsed.clue);
+                } else {
+                    malformed();
+                }
+            }
+            lineBuffer.setLength(0);
+        }
+
+        @Override
+        void finish() {
+            if (lineBuffer.length() > 0) endLine();
+        }
+
+        private static boolean isBlank(CharSequence text) {
+            for (int i = 0; i < text.length(); i++) {
+                if (!Character.isWhitespace(text.charAt(i))) return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Lector mínimo de un objeto JSON plano: claves de texto y valores
+     * primitivos. Suficiente para JSON Lines de pares y sin dependencias.
+     */
+    private static final class JsonLine {
+        private final CharSequence text;
+        private final StringBuilder scratch = new StringBuilder(32);
+        private int pos;
+        String word;
+        String clue;
+
+        JsonLine(CharSequence text) {
+            this.text = text;
+        }
+
+        boolean parse() {
+            skipSpaces();
+            if (!consume('{')) return false;
+            skipSpaces();
+            if (consume('}')) return trailingOnly();
+            do {
+                skipSpaces();
+                String key = readString();
+                if (key == null) return false;
+                skipSpaces();
+                if (!consume(':')) return false;
+                skipSpaces();
+                String value;
+                if (peek() == '"') {
+                    value = readString();
+                    if (value == null) return false;
+                } else if (!skipPrimitive()) {
+                    return false;
+                } else {
+                    value = null;
+                }
+                if (key.equals("palabra") || key.equals("word")) {
+                    word = value;
+                } else if (key.equals("pista") || key.equals("clue")) {
+                    clue = value;
+                }
+                skipSpaces();
+            } while (consume(','));
+            return consume('}') && trailingOnly();
+        }
+
+        private boolean trailingOnly() {
+            skipSpaces();
+            return pos == text.length();
+        }
+
+        private String readString() {
+            if (!consume('"')) return null;
+            scratch.setLength(0);
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') return scratch.toString();
+                if (c != '\\') {
+                    scratch.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) return null;
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case '"':
+                    case '\\':
+                    case '/':
+                        scratch.append(escaped);
+                        break;
+                    case 'b':
+                        scratch.append('\b');
+                        break;
+                    case 'f':
+                        scratch.append('\f');
+                        break;
+                    case 'n':
+                        scratch.append('\n');
+                        break;
+                    case 'r':
+                        scratch.append('\r');
+                        break;
+                    case 't':
+                        scratch.append('\t');
+                        break;
+                    case 'u':
+                        if (pos + 4 > text.length()) return null;
+                        int code = 0;
+                        for (int k = 0; k < 4; k++) {
+                            int digit = Character.digit(text.charAt(pos++), 16);
+                            if (digit < 0) return null;
+                            code = (code << 4) | digit;
+                        }
+                        scratch.append((char) code);
+                        break;
+                    default:
+                        return null;
+                }
+            }
+            return null;
+        }
+
+        // Números, true, false y null: se saltan sin interpretarlos.
+        private boolean skipPrimitive() {
+            int start = pos;
+            while (pos < text.length()) {
+                char c = text.charAt(pos);
+                if (c == ',' || c == '}' || Character.isWhitespace(c)) break;
+                if (c == '{' || c == '[' || c == '"') return false;
+                pos++;
+            }
+            return pos > start;
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private boolean consume(char expected) {
+            if (peek() != expected) return false;
+            pos++;
+            return true;
+        }
+
+        private void skipSpaces() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b != -1) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+
+    // ******************************************************
+    // EXPORTACIÓN
+    // ******************************************************
+
+    /**
+     * Escribe todos los pares de {@code store} en orden de índice. El llamante
+     * pasa un {@link Writer} con buffer y lo cierra.
+     */
+    public static void exportPairs(WordStore store, Format format, Writer out) throws IOException {
+        int size = store.size();
+        if (format == Format.CSV) {
+            out.write("palabra,pista\n");
+        }
+        for (int i = 0; i < size; i++) {
+            if (format == Format.CSV) {
+                writeCsvField(out, store.wordAt(i));
+                out.write(',');
+                writeCsvField(out, store.clueAt(i));
+                out.write('\n');
+            } else {
+                out.write("{\"palabra\":");
+                writeJsonString(out, store.wordAt(i));
+                out.write(",\"pista\":");
+                writeJsonString(out, store.clueAt(i));
+                out.write("}\n");
+            }
+        }
+        out.flush();
+    }
+
+    private static void writeCsvField(Writer out, String value) throws IOException {
+        boolean quote = false;
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == ';' || c == '\t' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    private static void writeJsonString(Writer out, String value) throws IOException {
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
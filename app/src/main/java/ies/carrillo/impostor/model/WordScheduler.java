@@ -0,0 +1,461 @@
+package ies.carrillo.impostor.model;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * "Bolsa" de palabras sin repetición sobre todos los paquetes seleccionados.
+ * <p>
+ * Cada paquete tiene su propia bolsa: una permutación de sus índices que se
+ * va consumiendo con Fisher–Yates (sacar un par es un intercambio, O(1)).
+ * La permutación se crea perezosamente: una casilla a 0 significa "el índice
+ * de esa posición", así que no hace falta inicializarla.
+ * El paquete de cada extracción se elige con probabilidad proporcional a los
+ * pares que le quedan, usando un árbol de Fenwick sobre los restantes; el
+ * resultado es un sorteo uniforme entre todos los pares pendientes y ningún
+ * par se repite hasta vaciar la bolsa completa.
+ * <p>
+ * Si el usuario fija el peso de algún paquete seleccionado ({@link #setWeight}),
+ * el paquete se elige con una tabla alias ({@link CategorySampler}): los
+ * paquetes en automático pesan su número de palabras y los demás un porcentaje
+ * del tamaño medio de la selección. La tabla solo se reconstruye cuando cambia
+ * la selección, un peso o el contenido de un paquete. En ese modo cada paquete
+ * rellena su bolsa por separado al agotarse.
+ * <p>
+ * Cambiar la selección ({@link #setSelection}) solo activa o desactiva las
+ * bolsas afectadas; las desactivadas conservan su progreso por si vuelven a
+ * seleccionarse. El progreso se guarda como un mapa de bits de pares ya
+ * usados por paquete ({@link #writeTo}/{@link #readFrom}).
+ * <p>
+ * No es segura entre hilos: se usa desde el hilo principal.
+ */
+public class WordScheduler {
+
+    private static final int MAGIC = 0x494D5057; // "IMPW"
+    private static final int VERSION = 1;
+    private static final long UNKNOWN_VERSION = -1;
+
+    private final Random random;
+    // Todas las bolsas conocidas (activas o no), por nombre de paquete.
+    private final HashMap<String, Bag> bags = new HashMap<>();
+    // Peso fijado por el usuario (porcentaje del paquete medio); sin entrada = automático.
+    private final HashMap<String, Integer> weights = new HashMap<>();
+
+    // --- Bolsas activas indexadas por hueco del árbol de Fenwick ---
+    private Bag[] slots = new Bag[8];
+    private int[] tree = new int[slots.length + 1];
+    private int slotCount;
+    private int[] freeSlots = new int[8];
+    private int freeCount;
+    private int totalRemaining;
+
+    // Tabla alias sobre los huecos; null si todos los paquetes activos están en automático.
+    private CategorySampler sampler;
+    private boolean samplerDirty;
+
+    public WordScheduler() {
+        this(new Random());
+    }
+
+    public WordScheduler(Random random) {
+        this.random = random;
+    }
+
+    // ******************************************************
+    // SELECCIÓN
+    // ******************************************************
+
+    /**
+     * Ajusta las bolsas activas a la selección. Solo se tocan los paquetes
+     * que entran o salen; el resto conserva su posición en la bolsa.
+     */
+    public void setSelection(List<Categoria> seleccion) {
+        HashSet<String> nombres = new HashSet<>(seleccion.size() * 2);
+        for (Categoria categoria : seleccion) {
+            if (categoria == null) continue;
+            nombres.add(categoria.getName());
+            Bag bag = bags.get(categoria.getName());
+            if (bag == null) {
+                bag = new Bag(categoria.getName(), categoria.getNumPalabras());
+                bags.put(bag.name, bag);
+            }
+            // La selección puede traer otra instancia con el mismo nombre:
+            // sus versiones no se comparan con las de la anterior.
+            if (bag.categoria != categoria) {
+                bag.categoria = categoria;
+                bag.version = UNKNOWN_VERSION;
+            }
+            if (bag.slot < 0) activate(bag);
+            syncContent(bag);
+        }
+        for (int slot = 0; slot < slotCount; slot++) {
+            Bag bag = slots[slot];
+            if (bag != null && !nombres.contains(bag.name)) deactivate(bag);
+        }
+    }
+
+    /**
+     * Olvida el progreso de un paquete (p. ej. al borrar un paquete personalizado).
+     */
+    public void forget(String nombre) {
+        Bag bag = bags.remove(nombre);
+        if (bag != null && bag.slot >= 0) deactivate(bag);
+        weights.remove(nombre);
+    }
+
+    /**
+     * Fija el peso de un paquete como porcentaje del paquete medio de la
+     * selección (100 = como la media). 0 vuelve al modo automático (por tamaño).
+     */
+    public void setWeight(String nombre, int porcentaje) {
+        if (porcentaje < 0) throw new IllegalArgumentException("Peso negativo: " + porcentaje);
+        Integer anterior = porcentaje == 0 ? weights.remove(nombre) : weights.put(nombre, porcentaje);
+        int antes = anterior == null ? 0 : anterior;
+        Bag bag = bags.get(nombre);
+        if (antes != porcentaje && bag != null && bag.slot >= 0) samplerDirty = true;
+    }
+
+    /**
+     * Peso fijado por el usuario, o 0 si el paquete está en automático.
+     */
+    public int getWeight(String nombre) {
+        Integer peso = weights.get(nombre);
+        return peso == null ? 0 : peso;
+    }
+
+    // ******************************************************
+    // EXTRACCIÓN
+    // ******************************************************
+
+    /**
+     * Saca el siguiente par de la bolsa y lo deja en {@code getWord()/getClue()}
+     * de la categoría devuelta. Cuando la bolsa se vacía, se rellena entera.
+     *
+     * @return la categoría del par, o null si ningún paquete activo tiene palabras.
+     */
+    public Categoria draw() {
+        if (samplerDirty) rebuildSampler();
+        if (sampler != null) return drawWeighted();
+
+        if (totalRemaining == 0 && !refill()) return null;
+
+        while (true) {
+            Bag bag = slots[find(random.nextInt(totalRemaining))];
+            // Un paquete personalizado editado desde el último sorteo empieza bolsa nueva.
+            if (syncContent(bag)) {
+                if (totalRemaining == 0 && !refill()) return null;
+                continue;
+            }
+            return take(bag);
+        }
+    }
+
+    // Paquete elegido por la tabla alias; solo se rellena su propia bolsa.
+    private Categoria drawWeighted() {
+        while (true) {
+            Bag bag = slots[sampler.sample(random)];
+            if (syncContent(bag)) {
+                rebuildSampler();
+                if (sampler == null) return draw();
+                continue;
+            }
+            if (bag.remaining == 0) {
+                bag.remaining = bag.size;
+                update(bag.slot, bag.size);
+            }
+            return take(bag);
+        }
+    }
+
+    private Categoria take(Bag bag) {
+        int index = bag.next(random);
+        update(bag.slot, -1);
+
+        WordStore store = bag.categoria.getWordStore();
+        bag.categoria.setWord(store.wordAt(index));
+        bag.categoria.setClue(store.clueAt(index));
+        return bag.categoria;
+    }
+
+    private void rebuildSampler() {
+        samplerDirty = false;
+        sampler = null;
+
+        boolean manual = false;
+        long totalSize = 0;
+        int active = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            Bag bag = slots[slot];
+            if (bag == null) continue;
+            if (weights.containsKey(bag.name)) manual = true;
+            totalSize += bag.size;
+            active++;
+        }
+        if (!manual || totalSize == 0) return;
+
+        double media = (double) totalSize / active;
+        double[] pesos = new double[slotCount];
+        for (int slot = 0; slot < slotCount; slot++) {
+            Bag bag = slots[slot];
+            // Un paquete vacío no puede salir aunque tenga peso.
+            if (bag == null || bag.size == 0) continue;
+            Integer porcentaje = weights.get(bag.name);
+            pesos[slot] = porcentaje == null ? bag.size : media * porcentaje / 100.0;
+        }
+        sampler = CategorySampler.build(pesos);
+    }
+
+    /**
+     * Pares que quedan por salir entre los paquetes activos.
+     */
+    public int getRemaining() {
+        return totalRemaining;
+    }
+
+    /**
+     * Pares que quedan por salir de un paquete (activo o no), o -1 si no se conoce.
+     */
+    public int getRemaining(String nombre) {
+        Bag bag = bags.get(nombre);
+        return bag == null ? -1 : bag.remaining;
+    }
+
+    // Vuelve a llenar todas las bolsas activas. false si no hay ningún par.
+    private boolean refill() {
+        for (int slot = 0; slot < slotCount; slot++) {
+            Bag bag = slots[slot];
+            if (bag == null) continue;
+            bag.remaining = bag.size;
+        }
+        rebuildTree();
+        return totalRemaining > 0;
+    }
+
+    // Reinicia la bolsa si el paquete cambió desde que se vio: la bolsa guarda
+    // posiciones del almacén y al borrar un par el último ocupa su hueco, así
+    // que no basta con el tamaño (borrar uno y añadir otro lo deja igual).
+    // true si hubo cambio.
+    private boolean syncContent(Bag bag) {
+        if (bag.categoria == null) return false;
+        int size = bag.categoria.getNumPalabras();
+        long version = bag.categoria.getContentVersion();
+        if (size == bag.size && (bag.version == UNKNOWN_VERSION || bag.version == version)) {
+            // Una bolsa leída de disco solo puede comprobarse por tamaño
+            bag.version = version;
+            return false;
+        }
+        int before = bag.remaining;
+        bag.reset(size);
+        bag.version = version;
+        if (bag.slot >= 0) {
+            update(bag.slot, bag.remaining - before);
+            samplerDirty = true;
+        }
+        return true;
+    }
+
+    // ******************************************************
+    // ÁRBOL DE FENWICK SOBRE LOS PARES RESTANTES
+    // ******************************************************
+
+    private void activate(Bag bag) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == slots.length) {
+                slots = Arrays.copyOf(slots, slots.length * 2);
+                tree = new int[slots.length + 1];
+                rebuildTree();
+            }
+            slot = slotCount++;
+        }
+        slots[slot] = bag;
+        bag.slot = slot;
+        update(slot, bag.remaining);
+        samplerDirty = true;
+    }
+
+    private void deactivate(Bag bag) {
+        int slot = bag.slot;
+        update(slot, -bag.remaining);
+        slots[slot] = null;
+        bag.slot = -1;
+        samplerDirty = true;
+        if (freeCount == freeSlots.length) freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void update(int slot, int delta) {
+        totalRemaining += delta;
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Hueco cuyo rango acumulado contiene r (0 <= r < totalRemaining).
+    private int find(int r) {
+        int position = 0;
+        for (int step = Integer.highestOneBit(tree.length - 1); step > 0; step >>= 1) {
+            int next = position + step;
+            if (next < tree.length && tree[next] <= r) {
+                position = next;
+                r -= tree[next];
+            }
+        }
+        return position;
+    }
+
+    private void rebuildTree() {
+        Arrays.fill(tree, 0);
+        totalRemaining = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            Bag bag = slots[slot];
+            if (bag != null) update(slot, bag.remaining);
+        }
+    }
+
+    // ******************************************************
+    // PERSISTENCIA
+    // ******************************************************
+
+    /**
+     * Escribe el progreso de todas las bolsas: nombre, tamaño y un mapa de
+     * bits con los pares ya usados (solo si se ha usado alguno).
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(bags.size());
+        for (Bag bag : bags.values()) {
+            out.writeUTF(bag.name);
+            out.writeInt(bag.size);
+            out.writeInt(bag.remaining);
+            if (bag.remaining < bag.size) {
+                out.write(bag.usedBits());
+            }
+        }
+    }
+
+    /**
+     * Sustituye el progreso por el leído de {@code in}. Las bolsas quedan
+     * inactivas hasta la siguiente llamada a {@link #setSelection}.
+     */
+    public void readFrom(DataInputStream in) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Progreso de palabras con formato desconocido");
+        int version = in.readUnsignedShort();
+        if (version != VERSION) throw new IOException("Versión de progreso no soportada: " + version);
+
+        int count = in.readInt();
+        ArrayList<Bag> leidas = new ArrayList<>(Math.max(count, 0));
+        for (int i = 0; i < count; i++) {
+            String name = in.readUTF();
+            int size = in.readInt();
+            int remaining = in.readInt();
+            if (size < 0 || remaining < 0 || remaining > size) {
+                throw new IOException("Progreso de palabras corrupto: " + name);
+            }
+            Bag bag = new Bag(name, size);
+            if (remaining < size) {
+                byte[] used = new byte[(size + 7) >>> 3];
+                in.readFully(used);
+                bag.restore(used, remaining);
+            }
+            leidas.add(bag);
+        }
+
+        bags.clear();
+        Arrays.fill(slots, null);
+        slotCount = 0;
+        freeCount = 0;
+        sampler = null;
+        samplerDirty = false;
+        rebuildTree();
+        for (Bag bag : leidas) {
+            bags.put(bag.name, bag);
+        }
+    }
+
+    // ******************************************************
+    // BOLSA DE UN PAQUETE
+    // ******************************************************
+
+    private static final class Bag {
+        final String name;
+        Categoria categoria;
+        // Versión del contenido de categoria con la que se llenó la bolsa
+        long version = UNKNOWN_VERSION;
+        int size;
+        int remaining;
+        // Permutación perezosa: perm[i] == 0 significa i; si no, perm[i] - 1.
+        int[] perm;
+        int slot = -1;
+
+        Bag(String name, int size) {
+            this.name = name;
+            this.size = size;
+            this.remaining = size;
+        }
+
+        void reset(int newSize) {
+            size = newSize;
+            remaining = newSize;
+            perm = null;
+        }
+
+        int get(int position) {
+            int stored = perm == null ? 0 : perm[position];
+            return stored == 0 ? position : stored - 1;
+        }
+
+        // Fisher–Yates de un paso: lleva un índice al azar de la parte pendiente al final.
+        int next(Random random) {
+            if (perm == null) perm = new int[size];
+            int j = random.nextInt(remaining);
+            int last = remaining - 1;
+            int picked = get(j);
+            perm[j] = get(last) + 1;
+            perm[last] = picked + 1;
+            remaining = last;
+            return picked;
+        }
+
+        byte[] usedBits() {
+            byte[] bits = new byte[(size + 7) >>> 3];
+            for (int position = remaining; position < size; position++) {
+                int index = get(position);
+                bits[index >>> 3] |= (byte) (1 << (index & 7));
+            }
+            return bits;
+        }
+
+        // Coloca los pendientes delante y los usados detrás, como tras los sorteos.
+        void restore(byte[] used, int pending) {
+            perm = new int[size];
+            int front = 0;
+            int back = pending;
+            for (int index = 0; index < size; index++) {
+                boolean isUsed = (used[index >>> 3] & (1 << (index & 7))) != 0;
+                int position = isUsed ? back++ : front++;
+                if (position >= size) {
+                    // El mapa de bits no cuadra con el contador: bolsa nueva.
+                    reset(size);
+                    return;
+                }
+                perm[position] = index + 1;
+            }
+            if (front != pending) {
+                reset(size);
+                return;
+            }
+            remaining = pending;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package ies.carrillo.impostor.model;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Almacén indexado de pares Palabra/Pista respaldado por dos arrays paralelos.
+ * <p>
+ * Cada par ocupa una posición fija en {@code words}/{@code clues}, por lo que
+ * obtener un par por índice es O(1) y no reserva memoria. Un {@link HashMap}
+ * auxiliar (palabra -> índice) permite sustituir y borrar pares también en O(1):
+ * al borrar, el último par se mueve al hueco que queda libre.
+ */
+public class WordStore implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private transient String[] words;
+    private transient String[] clues;
+    private transient int size;
+    private transient HashMap<String, Integer> indexByWord;
+    private transient Map<String, String> readOnlyView;
+    // Cambia al añadir o quitar pares (las posiciones se mueven), no al cambiar una pista
+    private transient int modCount;
+
+    public WordStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public WordStore(int initialCapacity) {
+        int capacity = Math.max(initialCapacity, 1);
+        this.words = new String[capacity];
+        this.clues = new String[capacity];
+        this.indexByWord = new HashMap<>(capacity * 4 / 3 + 1);
+    }
+
+    /**
+     * Copia independiente de {@code other} (copia de arrays y del índice, sin recorrer pares).
+     */
+    public WordStore(WordStore other) {
+        this.words = Arrays.copyOf(other.words, Math.max(other.size, 1));
+        this.clues = Arrays.copyOf(other.clues, Math.max(other.size, 1));
+        this.size = other.size;
+        this.indexByWord = new HashMap<>(other.indexByWord);
+        this.modCount = other.modCount;
+    }
+
+    /**
+     * Construye el almacén a partir de un mapa Palabra -> Pista (una sola pasada).
+     */
+    public static WordStore fromMap(Map<String, String> palabras) {
+        WordStore store = new WordStore(palabras == null ? 0 : palabras.size());
+        if (palabras != null) {
+            for (Map.Entry<String, String> entry : palabras.entrySet()) {
+                store.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return store;
+    }
+
+    // --- Escritura ---
+
+    /**
+     * Añade un par o sustituye la pista si la palabra ya existía.
+     *
+     * @return la pista anterior, o null si el par es nuevo.
+     */
+    public String put(String word, String clue) {
+        Integer existing = indexByWord.get(word);
+        if (existing != null) {
+            String previous = clues[existing];
+            clues[existing] = clue;
+            return previous;
+        }
+        ensureCapacity(size + 1);
+        words[size] = word;
+        clues[size] = clue;
+        indexByWord.put(word, size);
+        size++;
+        modCount++;
+        return null;
+    }
+
+    /**
+     * Elimina el par asociado a la palabra (el último par ocupa su posición).
+     *
+     * @return la pista eliminada, o null si la palabra no existía.
+     */
+    public String remove(String word) {
+        Integer index = indexByWord.remove(word);
+        if (index == null) return null;
+
+        int i = index;
+        String removedClue = clues[i];
+        int last = size - 1;
+        if (i != last) {
+            words[i] = words[last];
+            clues[i] = clues[last];
+            indexByWord.put(words[i], i);
+        }
+        words[last] = null;
+        clues[last] = null;
+        size = last;
+        modCount++;
+        return removedClue;
+    }
+
+    public void clear() {
+        Arrays.fill(words, 0, size, null);
+        Arrays.fill(clues, 0, size, null);
+        indexByWord.clear();
+        size = 0;
+        modCount++;
+    }
+
+    // --- Lectura ---
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public String wordAt(int index) {
+        checkIndex(index);
+        return words[index];
+    }
+
+    public String clueAt(int index) {
+        checkIndex(index);
+        return clues[index];
+    }
+
+    public int indexOf(String word) {
+        Integer index = indexByWord.get(word);
+        return index == null ? -1 : index;
+    }
+
+    public String getClue(String word) {
+        Integer index = indexByWord.get(word);
+        return index == null ? null : clues[index];
+    }
+
+    public boolean containsWord(String word) {
+        return indexByWord.containsKey(word);
+    }
+
+    /**
+     * Contador de cambios de estructura: si no ha cambiado, cada índice sigue
+     * siendo el mismo par (aunque su pista sea otra).
+     */
+    public int getModCount() {
+        return modCount;
+    }
+
+    /**
+     * Copia de las palabras en orden de índice (una copia de array, sin recorrer el mapa).
+     */
+    public String[] copyWords() {
+        return Arrays.copyOf(words, size);
+    }
+
+    /**
+     * Copia de las pistas en el mismo orden que {@link #copyWords()}.
+     */
+    public String[] copyClues() {
+        return Arrays.copyOf(clues, size);
+    }
+
+    /**
+     * Vista de solo lectura Palabra -> Pista respaldada por este almacén.
+     * Refleja los cambios posteriores sin copiar los datos.
+     */
+    public Map<String, String> asMap() {
+        if (readOnlyView == null) {
+            readOnlyView = new ReadOnlyMapView();
+        }
+        return readOnlyView;
+    }
+
+    // --- Internos ---
+
+    private void ensureCapacity(int required) {
+        if (required <= words.length) return;
+        int newCapacity = Math.max(required, words.length + (words.length >> 1) + 1);
+        words = Arrays.copyOf(words, newCapacity);
+        clues = Arrays.copyOf(clues, newCapacity);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Índice " + index + ", tamaño " + size);
+        }
+    }
+
+    // Solo se serializan los pares ocupados; el índice se reconstruye al leer.
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        out.defaultWriteObject();
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeUTF(words[i]);
+            out.writeUTF(clues[i]);
+        }
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        int count = in.readInt();
+        words = new String[Math.max(count, 1)];
+        clues = new String[Math.max(count, 1)];
+        indexByWord = new HashMap<>(count * 4 / 3 + 1);
+        size = 0;
+        for (int i = 0; i < count; i++) {
+            put(in.readUTF(), in.readUTF());
+        }
+    }
+
+    // ******************************************************
+    // VISTA MAP DE SOLO LECTURA
+    // ******************************************************
+
+    private final class ReadOnlyMapView extends AbstractMap<String, String> {
+
+        private final Set<Entry<String, String>> entrySet = new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new Iterator<Entry<String, String>>() {
+                    private int cursor = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return cursor < size;
+                    }
+
+                    @Override
+                    public Entry<String, String> next() {
+                        if (cursor >= size) throw new NoSuchElementException();
+                        int i = cursor++;
+                        return new SimpleImmutableEntry<>(words[i], clues[i]);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+
+        @Override
+        public Set<Entry<String, String>> entrySet() {
+            return entrySet;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String && indexByWord.containsKey(key);
+        }
+
+        @Override
+        public String get(Object key) {
+            return key instanceof String ? getClue((String) key) : null;
+        }
+    }
+}
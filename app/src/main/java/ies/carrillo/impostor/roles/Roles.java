@@ -1,5 +0,0 @@
-package ies.carrillo.impostor.roles;
-
-public enum Roles {
-    CIVIL,IMPOSTOR
-}
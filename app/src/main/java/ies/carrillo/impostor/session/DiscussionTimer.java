@@ -0,0 +1,130 @@
+package ies.carrillo.impostor.session;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.util.Locale;
+
+/**
+ * Cuenta atrás del debate sobre el plazo que guarda la {@link GameSession}.
+ * <p>
+ * No cuenta ticks: en cada uno vuelve a calcular lo que queda con
+ * {@link SystemClock#elapsedRealtime()} y el plazo absoluto, así que un tick
+ * tardío (hilo ocupado, pantalla apagada) no acumula deriva. El siguiente se
+ * programa justo cuando cambia el segundo mostrado y el texto sale de una
+ * tabla "mm:ss" precalculada: un tick no reserva memoria.
+ * <p>
+ * {@link #pause()} solo deja de pintar; el plazo sigue corriendo en la
+ * sesión, y {@link #resume()} retoma la cuenta donde esté de verdad (también
+ * tras restaurar la sesión de disco). Todo en el hilo principal.
+ */
+public final class DiscussionTimer {
+
+    /**
+     * Avisos de la cuenta atrás, en el hilo principal.
+     */
+    public interface Listener {
+        void onTick(String text, long remainingMillis);
+
+        void onFinish();
+    }
+
+    // Hasta 99:59; más allá se formatea en el momento
+    private static final int MAX_TABLE_SECONDS = 99 * 60 + 59;
+    private static String[] table = new String[0];
+
+    private final GameSession session;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final String[] texts;
+    private final Runnable tick = this::tick;
+    private boolean resumed;
+
+    public DiscussionTimer(GameSession session, Listener listener) {
+        this.session = session;
+        this.listener = listener;
+        // La tabla se prepara una vez, al tamaño del debate más largo posible de esta sesión
+        long longest = session.getTimerRemaining(SystemClock.elapsedRealtime());
+        this.texts = table(secondsShown(longest));
+    }
+
+    /**
+     * Empieza a pintar (p. ej. en {@code onStart}). Si la cuenta no corre, no hace nada.
+     */
+    public void resume() {
+        if (resumed || !session.isTimerRunning()) return;
+        resumed = true;
+        tick();
+    }
+
+    /**
+     * Deja de pintar (p. ej. en {@code onStop}); el plazo sigue corriendo.
+     */
+    public void pause() {
+        resumed = false;
+        handler.removeCallbacks(tick);
+    }
+
+    private void tick() {
+        if (!resumed) return;
+        long remaining = session.getTimerRemaining(SystemClock.elapsedRealtime());
+        if (remaining <= 0) {
+            resumed = false;
+            listener.onFinish();
+            return;
+        }
+        listener.onTick(format(texts, remaining), remaining);
+        handler.postDelayed(tick, delayToNextSecond(remaining));
+    }
+
+    // ******************************************************
+    // TEXTO Y ALINEACIÓN
+    // ******************************************************
+
+    /**
+     * Segundos que se muestran con {@code remainingMillis} restantes: se
+     * redondea hacia arriba, así "00:00" solo aparece al acabar.
+     */
+    static int secondsShown(long remainingMillis) {
+        if (remainingMillis <= 0) return 0;
+        return (int) Math.min(Integer.MAX_VALUE, (remainingMillis + 999) / 1000);
+    }
+
+    /**
+     * Milisegundos hasta que cambie el segundo mostrado.
+     */
+    static long delayToNextSecond(long remainingMillis) {
+        return (remainingMillis - 1) % 1000 + 1;
+    }
+
+    static String format(String[] texts, long remainingMillis) {
+        int seconds = secondsShown(remainingMillis);
+        if (seconds < texts.length) return texts[seconds];
+        return String.format(Locale.ROOT, "%02d:%02d", seconds / 60, seconds % 60);
+    }
+
+    /**
+     * Tabla "mm:ss" de 0 a {@code maxSeconds} (compartida y ampliada solo si hace falta).
+     */
+    static synchronized String[] table(int maxSeconds) {
+        int size = Math.min(maxSeconds, MAX_TABLE_SECONDS) + 1;
+        if (table.length < size) {
+            String[] bigger = new String[size];
+            System.arraycopy(table, 0, bigger, 0, table.length);
+            char[] chars = new char[5];
+            chars[2] = ':';
+            for (int s = table.length; s < size; s++) {
+                int m = s / 60;
+                int r = s % 60;
+                chars[0] = (char) ('0' + m / 10);
+                chars[1] = (char) ('0' + m % 10);
+                chars[3] = (char) ('0' + r / 10);
+                chars[4] = (char) ('0' + r % 10);
+                bigger[s] = new String(chars);
+            }
+            table = bigger;
+        }
+        return table;
+    }
+}
@@ -0,0 +1,134 @@
+package ies.carrillo.impostor.session;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ies.carrillo.impostor.engine.GameEngine;
+import ies.carrillo.impostor.model.Jugador;
+import ies.carrillo.impostor.roles.Roles;
+
+/**
+ * Estado de una partida en curso compartido en memoria entre
+ * {@code JuegoActivity} e {@code InGameActivity}.
+ * Solo contiene la pareja Palabra/Pista elegida, nunca el paquete completo.
+ * Las reglas y la fase de la partida las lleva su {@link GameEngine}; el
+ * asiento de cada jugador en el motor es su índice en {@link #getJugadores()}.
+ * <p>
+ * También guarda la cuenta atrás del debate, para que sobreviva a que se
+ * recree la actividad: mientras corre, como el instante en que acaba (en
+ * el reloj monotónico que pase quien llama, {@code SystemClock.elapsedRealtime()}
+ * en la app); parada, como el tiempo que le queda.
+ */
+public class GameSession {
+
+    private final ArrayList<Jugador> jugadores;
+    private final String categoryName;
+    private final String word;
+    private final String clue;
+    private final int durationSeconds;
+    private final boolean pistasHabilitadas;
+    private final GameEngine engine;
+
+    // Cuenta atrás del debate: -1 si no ha empezado; 0 en timerDeadline si está parada
+    private long timerRemainingMillis = -1;
+    private long timerDeadline;
+    // Solo en memoria: el anfitrión de la revelación en red, si hay uno abierto
+    private HostedReveal hostedReveal;
+
+    public GameSession(List<Jugador> jugadores, String categoryName, String word, String clue,
+                       int durationSeconds, boolean pistasHabilitadas) {
+        this.jugadores = new ArrayList<>(jugadores);
+        this.categoryName = categoryName;
+        this.word = word;
+        this.clue = clue;
+        this.durationSeconds = durationSeconds;
+        this.pistasHabilitadas = pistasHabilitadas;
+
+        int count = this.jugadores.size();
+        this.engine = new GameEngine(Math.max(count, 1));
+        if (count > 0) {
+            engine.setup(count);
+            for (int seat = 0; seat < count; seat++) {
+                engine.setImpostor(seat, this.jugadores.get(seat).getRole() == Roles.IMPOSTOR);
+            }
+            engine.startReveal();
+        }
+    }
+
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    public ArrayList<Jugador> getJugadores() {
+        return jugadores;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public String getWord() {
+        return word;
+    }
+
+    public String getClue() {
+        return clue;
+    }
+
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    public boolean isPistasHabilitadas() {
+        return pistasHabilitadas;
+    }
+
+    public HostedReveal getHostedReveal() {
+        return hostedReveal;
+    }
+
+    public void setHostedReveal(HostedReveal hostedReveal) {
+        this.hostedReveal = hostedReveal;
+    }
+
+    // ******************************************************
+    // CUENTA ATRÁS DEL DEBATE
+    // ******************************************************
+
+    /**
+     * Tiempo de debate que queda en el instante {@code now}.
+     */
+    public long getTimerRemaining(long now) {
+        if (timerDeadline != 0) return Math.max(0, timerDeadline - now);
+        if (timerRemainingMillis >= 0) return timerRemainingMillis;
+        // Sin duración configurada, cinco minutos
+        return durationSeconds > 0 ? durationSeconds * 1000L : 300_000L;
+    }
+
+    public boolean isTimerRunning() {
+        return timerDeadline != 0;
+    }
+
+    public boolean isTimerStarted() {
+        return timerDeadline != 0 || timerRemainingMillis >= 0;
+    }
+
+    public void startTimer(long now) {
+        if (isTimerRunning()) return;
+        timerDeadline = now + getTimerRemaining(now);
+    }
+
+    public void stopTimer(long now) {
+        timerRemainingMillis = getTimerRemaining(now);
+        timerDeadline = 0;
+    }
+
+    /**
+     * Restaura la cuenta atrás: {@code deadline} 0 la deja parada con
+     * {@code remainingMillis}; si no, corre hasta {@code deadline}.
+     */
+    public void restoreTimer(long remainingMillis, long deadline) {
+        this.timerRemainingMillis = remainingMillis;
+        this.timerDeadline = deadline;
+    }
+}
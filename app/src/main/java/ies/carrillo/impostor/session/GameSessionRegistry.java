@@ -0,0 +1,132 @@
+package ies.carrillo.impostor.session;
+
+import android.content.Intent;
+import android.os.SystemClock;
+import android.util.SparseArray;
+
+import java.io.File;
+
+import ies.carrillo.impostor.metrics.Metrics;
+
+/**
+ * Registro en proceso de las partidas activas.
+ * <p>
+ * Entre pantallas solo viaja un id entero (más una {@link GameSessionSnapshot}
+ * pequeña para sobrevivir a la muerte del proceso), en lugar de serializar la
+ * lista de jugadores y el paquete de palabras completo en cada transición.
+ * <p>
+ * Al ser estático, el registro sobrevive a los cambios de configuración: una
+ * actividad recreada (p. ej. al girar) recupera la misma sesión, con la misma
+ * palabra, turno y cuenta atrás. Para la muerte del proceso, cada transición
+ * se guarda con {@link #persist} en un {@link GameSessionStore}.
+ */
+public final class GameSessionRegistry {
+
+    public static final String KEY_SESSION_ID = "SESION_ID";
+    public static final String KEY_SESSION_SNAPSHOT = "SESION_SNAPSHOT";
+
+    private static final SparseArray<GameSession> sessions = new SparseArray<>();
+    private static int nextId = 1;
+    private static GameSessionStore store;
+
+    private GameSessionRegistry() {
+    }
+
+    /**
+     * Activa la copia en disco de la partida en curso (desde {@code Application}).
+     *
+     * @param bootId {@code Settings.Global.BOOT_COUNT}, o -1 si no se conoce.
+     */
+    public static synchronized void init(File dir, long bootId) {
+        if (store == null) store = new GameSessionStore(dir, bootId);
+    }
+
+    public static synchronized int register(GameSession session) {
+        int id = nextId++;
+        sessions.put(id, session);
+        return id;
+    }
+
+    public static synchronized GameSession get(int id) {
+        return sessions.get(id);
+    }
+
+    public static synchronized void release(int id) {
+        sessions.remove(id);
+        if (store != null) store.clear(id);
+    }
+
+    /**
+     * Guarda el estado actual de la partida (tras cada transición).
+     */
+    public static void persist(int id, GameSession session) {
+        GameSessionStore current;
+        synchronized (GameSessionRegistry.class) {
+            current = store;
+        }
+        if (current != null && id != 0) current.save(id, session, SystemClock.elapsedRealtime());
+    }
+
+    /**
+     * Registra la sesión y escribe en el Intent su id y la copia de respaldo.
+     */
+    public static void putInto(Intent intent, GameSession session) {
+        putInto(intent, register(session), session);
+    }
+
+    /**
+     * Pasa una sesión ya registrada a la siguiente pantalla.
+     */
+    public static void putInto(Intent intent, int id, GameSession session) {
+        long start = Metrics.begin(Metrics.INTENT_WRITE);
+        try {
+            intent.putExtra(KEY_SESSION_ID, id);
+            intent.putExtra(KEY_SESSION_SNAPSHOT, GameSessionSnapshot.of(session));
+            persist(id, session);
+        } finally {
+            Metrics.end(Metrics.INTENT_WRITE, start);
+        }
+    }
+
+    public static int idFrom(Intent intent) {
+        return intent.getIntExtra(KEY_SESSION_ID, 0);
+    }
+
+    /**
+     * Devuelve la sesión del Intent. Si el proceso se reinició y el registro está
+     * vacío, la reconstruye y la vuelve a registrar con el mismo id: desde la copia
+     * en disco si es de esta partida (con la ronda tal como iba) y si no, desde la
+     * copia del Intent (la partida recién empezada).
+     *
+     * @return la sesión, o null si el Intent no contiene ninguna.
+     */
+    public static synchronized GameSession from(Intent intent) {
+        long start = Metrics.begin(Metrics.INTENT_READ);
+        try {
+            return load(intent);
+        } finally {
+            Metrics.end(Metrics.INTENT_READ, start);
+        }
+    }
+
+    private static GameSession load(Intent intent) {
+        if (intent == null) return null;
+        int id = idFrom(intent);
+        GameSession session = sessions.get(id);
+        if (session != null) return session;
+
+        if (id == 0) return null;
+        if (store != null) {
+            GameSessionStore.Restored restored = store.load(SystemClock.elapsedRealtime());
+            if (restored != null && restored.id == id) session = restored.session;
+        }
+        if (session == null) {
+            GameSessionSnapshot snapshot = intent.getParcelableExtra(KEY_SESSION_SNAPSHOT);
+            if (snapshot == null) return null;
+            session = snapshot.toSession();
+        }
+        sessions.put(id, session);
+        nextId = Math.max(nextId, id + 1);
+        return session;
+    }
+}
@@ -0,0 +1,170 @@
+package ies.carrillo.impostor.session;
+
+import android.os.Parcel;
+import android.os.Parcelable;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import ies.carrillo.impostor.model.Jugador;
+import ies.carrillo.impostor.roles.Roles;
+
+/**
+ * Copia compacta y {@link Parcelable} de una {@link GameSession}: plantilla,
+ * roles y la pareja Palabra/Pista elegida. Viaja en el Intent solo para poder
+ * reconstruir la partida si el sistema mata el proceso. {@link GameSessionStore}
+ * la guarda además en binario ({@link #writeTo}) junto al estado de la ronda.
+ */
+public class GameSessionSnapshot implements Parcelable {
+
+    private final String[] names;
+    // Ordinal de Roles por jugador.
+    private final int[] roles;
+    private final String[] colors;
+    private final String[] imageUris;
+    private final String categoryName;
+    private final String word;
+    private final String clue;
+    private final int durationSeconds;
+    private final boolean pistasHabilitadas;
+
+    private GameSessionSnapshot(String[] names, int[] roles, String[] colors, String[] imageUris,
+                                String categoryName, String word, String clue,
+                                int durationSeconds, boolean pistasHabilitadas) {
+        this.names = names;
+        this.roles = roles;
+        this.colors = colors;
+        this.imageUris = imageUris;
+        this.categoryName = categoryName;
+        this.word = word;
+        this.clue = clue;
+        this.durationSeconds = durationSeconds;
+        this.pistasHabilitadas = pistasHabilitadas;
+    }
+
+    public static GameSessionSnapshot of(GameSession session) {
+        List<Jugador> jugadores = session.getJugadores();
+        int count = jugadores.size();
+        String[] names = new String[count];
+        int[] roles = new int[count];
+        String[] colors = new String[count];
+        String[] imageUris = new String[count];
+        for (int i = 0; i < count; i++) {
+            Jugador jugador = jugadores.get(i);
+            names[i] = jugador.getName();
+            roles[i] = jugador.getRole().ordinal();
+            colors[i] = jugador.getColorHex();
+            imageUris[i] = jugador.getProfileImageUri();
+        }
+        return new GameSessionSnapshot(names, roles, colors, imageUris, session.getCategoryName(),
+                session.getWord(), session.getClue(), session.getDurationSeconds(), session.isPistasHabilitadas());
+    }
+
+    /**
+     * Reconstruye la sesión en memoria a partir de la copia.
+     */
+    public GameSession toSession() {
+        ArrayList<Jugador> jugadores = new ArrayList<>(names.length);
+        for (int i = 0; i < names.length; i++) {
+            Jugador jugador = new Jugador(names[i], Roles.values()[roles[i]], colors[i]);
+            jugador.setProfileImageUri(imageUris[i]);
+            jugadores.add(jugador);
+        }
+        return new GameSession(jugadores, categoryName, word, clue, durationSeconds, pistasHabilitadas);
+    }
+
+    // --- Binario ---
+
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeShort(names.length);
+        for (int i = 0; i < names.length; i++) {
+            out.writeUTF(names[i]);
+            out.writeByte(roles[i]);
+            writeNullable(out, colors[i]);
+            writeNullable(out, imageUris[i]);
+        }
+        writeNullable(out, categoryName);
+        writeNullable(out, word);
+        writeNullable(out, clue);
+        out.writeInt(durationSeconds);
+        out.writeBoolean(pistasHabilitadas);
+    }
+
+    public static GameSessionSnapshot readFrom(DataInput in) throws IOException {
+        int count = in.readUnsignedShort();
+        String[] names = new String[count];
+        int[] roles = new int[count];
+        String[] colors = new String[count];
+        String[] imageUris = new String[count];
+        for (int i = 0; i < count; i++) {
+            names[i] = in.readUTF();
+            roles[i] = in.readUnsignedByte();
+            if (roles[i] >= Roles.values().length) throw new IOException("Rol inválido: " + roles[i]);
+            colors[i] = readNullable(in);
+            imageUris[i] = readNullable(in);
+        }
+        String categoryName = readNullable(in);
+        String word = readNullable(in);
+        String clue = readNullable(in);
+        int durationSeconds = in.readInt();
+        boolean pistasHabilitadas = in.readBoolean();
+        return new GameSessionSnapshot(names, roles, colors, imageUris, categoryName, word, clue,
+                durationSeconds, pistasHabilitadas);
+    }
+
+    private static void writeNullable(DataOutput out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) out.writeUTF(value);
+    }
+
+    private static String readNullable(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    // --- Parcelable ---
+
+    protected GameSessionSnapshot(Parcel in) {
+        names = in.createStringArray();
+        roles = in.createIntArray();
+        colors = in.createStringArray();
+        imageUris = in.createStringArray();
+        categoryName = in.readString();
+        word = in.readString();
+        clue = in.readString();
+        durationSeconds = in.readInt();
+        pistasHabilitadas = in.readByte() != 0;
+    }
+
+    @Override
+    public void writeToParcel(Parcel dest, int flags) {
+        dest.writeStringArray(names);
+        dest.writeIntArray(roles);
+        dest.writeStringArray(colors);
+        dest.writeStringArray(imageUris);
+        dest.writeString(categoryName);
+        dest.writeString(word);
+        dest.writeString(clue);
+        dest.writeInt(durationSeconds);
+        dest.writeByte((byte) (pistasHabilitadas ? 1 : 0));
+    }
+
+    @Override
+    public int describeContents() {
+        return 0;
+    }
+
+    public static final Creator<GameSessionSnapshot> CREATOR = new Creator<GameSessionSnapshot>() {
+        @Override
+        public GameSessionSnapshot createFromParcel(Parcel in) {
+            return new GameSessionSnapshot(in);
+        }
+
+        @Override
+        public GameSessionSnapshot[] newArray(int size) {
+            return new GameSessionSnapshot[size];
+        }
+    };
+}
@@ -0,0 +1,201 @@
+package ies.carrillo.impostor.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Copia binaria de la partida en curso, para retomarla tal cual si el sistema
+ * mata el proceso: plantilla y palabra ({@link GameSessionSnapshot}), estado
+ * del motor ({@code GameEngine#writeState}) y cuenta atrás del debate.
+ * Son unos cientos de bytes y se reescribe en cada transición.
+ * <p>
+ * La copia se codifica en el hilo que llama (refleja ese instante exacto) y
+ * se escribe en un hilo propio, en orden, con fichero temporal + rename para
+ * que un corte a medias nunca deje un fichero roto. Leerla es síncrono: es
+ * lo primero que necesita la actividad que se recrea.
+ * <p>
+ * Los instantes son del reloj monotónico que pase quien llama
+ * ({@code SystemClock.elapsedRealtime()} en la app), que sigue corriendo
+ * mientras el proceso está muerto: la cuenta atrás restaurada acaba a la
+ * misma hora que la original. Ese reloj vuelve a cero al reiniciar el móvil,
+ * así que la copia lleva también el arranque en que se escribió
+ * ({@code Settings.Global.BOOT_COUNT}); si no coincide con el actual, la
+ * cuenta atrás se retoma con el tiempo que le quedaba.
+ */
+public final class GameSessionStore {
+
+    // v2 (SES2): añade el arranque del sistema. Las copias SES1 se ignoran.
+    private static final int MAGIC = 0x53455332; // "SES2"
+    private static final String FILE_NAME = "session.bin";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    /**
+     * Partida leída del fichero.
+     */
+    public static final class Restored {
+        public final int id;
+        public final GameSession session;
+
+        Restored(int id, GameSession session) {
+            this.id = id;
+            this.session = session;
+        }
+    }
+
+    // Arranque del sistema de este proceso; -1 si no se conoce
+    private final long bootId;
+    private final File file;
+    private final File tmp;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "session-store");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Id de la partida que hay (o habrá) en el fichero; 0 si ninguna.
+    private volatile int storedId;
+
+    /**
+     * @param bootId número de arranque del sistema, o -1 si no se conoce (ver clase).
+     */
+    public GameSessionStore(File dir, long bootId) {
+        this.bootId = bootId;
+        this.file = new File(dir, FILE_NAME);
+        this.tmp = new File(dir, FILE_NAME + TMP_SUFFIX);
+    }
+
+    /**
+     * Guarda la partida tal como está en {@code now}.
+     */
+    public void save(int id, GameSession session, long now) {
+        final byte[] bytes;
+        try {
+            bytes = encode(id, session, now, bootId);
+        } catch (IOException e) {
+            // Solo puede fallar con datos imposibles de escribir (p. ej. un nombre enorme)
+            return;
+        }
+        storedId = id;
+        writer.execute(() -> {
+            try {
+                try (FileOutputStream out = new FileOutputStream(tmp)) {
+                    out.write(bytes);
+                    out.getFD().sync();
+                }
+                if (!tmp.renameTo(file)) throw new IOException("No se pudo renombrar " + tmp);
+            } catch (IOException e) {
+                // Se pierde solo esta copia: la siguiente transición lo vuelve a intentar
+                //noinspection ResultOfMethodCallIgnored
+                tmp.delete();
+            }
+        });
+    }
+
+    /**
+     * Lee la última partida guardada.
+     *
+     * @return la partida, o null si no hay o el fichero no es válido.
+     */
+    public Restored load(long now) {
+        if (!file.isFile()) return null;
+        try {
+            Restored restored = decode(readFully(file), now, bootId);
+            storedId = restored.id;
+            return restored;
+        } catch (IOException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Borra la copia si es de esa partida (p. ej. al volver al menú).
+     */
+    public void clear(int id) {
+        if (id == 0 || storedId != id) return;
+        storedId = 0;
+        writer.execute(() -> {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        });
+    }
+
+    /**
+     * Espera a que terminen las escrituras pendientes.
+     */
+    void flush() throws InterruptedException {
+        try {
+            writer.submit(() -> {
+            }).get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ******************************************************
+    // FORMATO
+    // ******************************************************
+
+    static byte[] encode(int id, GameSession session, long now, long bootId) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(MAGIC);
+        out.writeInt(id);
+        out.writeLong(now);
+        out.writeLong(bootId);
+        GameSessionSnapshot.of(session).writeTo(out);
+        session.getEngine().writeState(out);
+        out.writeBoolean(session.isTimerStarted());
+        out.writeBoolean(session.isTimerRunning());
+        out.writeLong(session.getTimerRemaining(now));
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    static Restored decode(byte[] bytes, long now, long bootId) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (in.readInt() != MAGIC) throw new IOException("Copia de partida con formato desconocido");
+        int id = in.readInt();
+        long writtenAt = in.readLong();
+        long writtenBoot = in.readLong();
+        GameSession session = GameSessionSnapshot.readFrom(in).toSession();
+        session.getEngine().readState(in);
+
+        boolean started = in.readBoolean();
+        boolean running = in.readBoolean();
+        long remaining = in.readLong();
+        if (started) {
+            if (!running) {
+                session.restoreTimer(remaining, 0);
+            } else if (bootId >= 0 && writtenBoot == bootId && now >= writtenAt) {
+                // Mismo arranque del sistema: el fin es el mismo instante que antes
+                session.restoreTimer(remaining, writtenAt + remaining);
+            } else {
+                // Reinicio (o arranque desconocido): el reloj no es comparable, se retoma donde se quedó
+                session.restoreTimer(remaining, now + remaining);
+            }
+        }
+        return new Restored(id, session);
+    }
+
+    private static byte[] readFully(File file) throws IOException {
+        byte[] bytes = new byte[(int) file.length()];
+        try (FileInputStream in = new FileInputStream(file)) {
+            int read = 0;
+            while (read < bytes.length) {
+                int n = in.read(bytes, read, bytes.length - read);
+                if (n < 0) throw new EOFException("Fin inesperado de " + file);
+                read += n;
+            }
+        }
+        return bytes;
+    }
+}
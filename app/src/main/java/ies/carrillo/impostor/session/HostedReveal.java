@@ -0,0 +1,94 @@
+package ies.carrillo.impostor.session;
+
+import ies.carrillo.impostor.net.RevealHost;
+
+/**
+ * Revelación en varios móviles en curso, guardada en la {@link GameSession}
+ * para que sobreviva a que se recree {@code JuegoActivity} (girar la pantalla):
+ * el anfitrión sigue abierto y los móviles conectados no se enteran.
+ * <p>
+ * Hace de {@link RevealHost.Listener} del anfitrión y reenvía los avisos a la
+ * actividad enganchada en cada momento. Mientras no hay ninguna se pierden;
+ * quien se engancha debe mirar el estado del anfitrión. No se guarda en disco.
+ */
+public final class HostedReveal implements RevealHost.Listener {
+
+    private final RevealHost host;
+    private volatile RevealHost.Listener target;
+    private String address;
+    private boolean rolesSent;
+    private boolean localAcknowledged;
+
+    /**
+     * @param localSeat asiento del jugador que ve su rol en este móvil.
+     */
+    public HostedReveal(String[] roster, int localSeat) {
+        this.host = new RevealHost(roster, localSeat, this);
+    }
+
+    public RevealHost getHost() {
+        return host;
+    }
+
+    /**
+     * Engancha la actividad que recibe los avisos; null para soltarla.
+     */
+    public void attach(RevealHost.Listener target) {
+        this.target = target;
+    }
+
+    public String getAddress() {
+        return address;
+    }
+
+    public void setAddress(String address) {
+        this.address = address;
+    }
+
+    public boolean isRolesSent() {
+        return rolesSent;
+    }
+
+    public void setRolesSent(boolean rolesSent) {
+        this.rolesSent = rolesSent;
+    }
+
+    /**
+     * Si el jugador de este móvil ya vio su rol y se confirmó al anfitrión.
+     */
+    public boolean isLocalAcknowledged() {
+        return localAcknowledged;
+    }
+
+    /**
+     * Da por visto el rol del jugador de este móvil (ver {@link RevealHost#acknowledgeLocal}).
+     */
+    public void acknowledgeLocal() {
+        localAcknowledged = true;
+        host.acknowledgeLocal();
+    }
+
+    @Override
+    public void onPlayerJoined(int seat, String name) {
+        RevealHost.Listener current = target;
+        if (current != null) current.onPlayerJoined(seat, name);
+    }
+
+    @Override
+    public void onPlayerLeft(int seat) {
+        RevealHost.Listener current = target;
+        if (current != null) current.onPlayerLeft(seat);
+    }
+
+    @Override
+    public void onPlayerAcknowledged(int seat) {
+        RevealHost.Listener current = target;
+        if (current != null) current.onPlayerAcknowledged(seat);
+    }
+
+    @Override
+    public void onAllAcknowledged() {
+        RevealHost.Listener current = target;
+        if (current != null) current.onAllAcknowledged();
+    }
+}
@@ -0,0 +1,164 @@
+package ies.carrillo.impostor.utils;
+
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.net.Uri;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.squareup.picasso.MemoryPolicy;
+import com.squareup.picasso.Picasso;
+import com.squareup.picasso.RequestCreator;
+import com.squareup.picasso.Target;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import ies.carrillo.impostor.R;
+import ies.carrillo.impostor.metrics.Metrics;
+
+/**
+ * Caché de avatares circulares ya renderizados, con clave "uri@px".
+ * <p>
+ * Un acierto es un {@code setImageBitmap} directo: ni Picasso, ni
+ * transformación, ni bitmaps nuevos. Solo un fallo decodifica la imagen
+ * (ya reducida a {@code px}) y la recorta en círculo; el resultado se guarda
+ * aquí y no en la caché de Picasso, para no tenerlo dos veces en memoria.
+ * Las peticiones en curso para la misma clave se comparten.
+ * <p>
+ * El tamaño está limitado en bytes (1/16 del heap de la app) y se expulsa por LRU.
+ * Todos los métodos se llaman desde el hilo principal.
+ */
+public final class AvatarCache {
+
+    private static AvatarCache instance;
+
+    public static AvatarCache get() {
+        if (instance == null) {
+            instance = new AvatarCache((int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16));
+        }
+        return instance;
+    }
+
+    private final LruCache<String, Bitmap> cache;
+    // Peticiones en curso: Picasso solo guarda referencias débiles a los Target.
+    private final HashMap<String, AvatarTarget> inFlight = new HashMap<>();
+
+    private AvatarCache(int maxBytes) {
+        this.cache = new LruCache<String, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+    }
+
+    public static String key(String uri, int px) {
+        return (uri == null || uri.isEmpty() ? "default" : uri) + "@" + px;
+    }
+
+    /**
+     * Muestra el avatar de {@code uri} (o el predeterminado si es null) a {@code px}×{@code px}.
+     */
+    public void bind(ImageView view, String uri, int px) {
+        String key = key(uri, px);
+        view.setTag(R.id.tag_avatar_key, key);
+
+        Bitmap cached = cache.get(key);
+        if (cached != null) {
+            view.setImageBitmap(cached);
+            return;
+        }
+        view.setImageResource(R.drawable.ic_default_profile);
+        request(key, uri, px).views.add(new WeakReference<>(view));
+    }
+
+    /**
+     * Renderiza un avatar en la caché sin mostrarlo.
+     *
+     * @param done se ejecuta al terminar (con éxito o no); puede ser null.
+     */
+    public void preload(String uri, int px, Runnable done) {
+        String key = key(uri, px);
+        if (cache.get(key) != null) {
+            if (done != null) done.run();
+            return;
+        }
+        AvatarTarget target = request(key, uri, px);
+        if (done != null) target.callbacks.add(done);
+    }
+
+    /**
+     * Libera memoria cuando el sistema lo pide ({@code onTrimMemory}).
+     */
+    public void trim(boolean severe) {
+        if (severe) {
+            cache.evictAll();
+        } else {
+            cache.trimToSize(cache.maxSize() / 2);
+        }
+    }
+
+    private AvatarTarget request(String key, String uri, int px) {
+        AvatarTarget target = inFlight.get(key);
+        if (target != null) return target;
+
+        target = new AvatarTarget(key);
+        inFlight.put(key, target);
+
+        Picasso picasso = Picasso.get();
+        RequestCreator request = uri == null || uri.isEmpty()
+                ? picasso.load(R.drawable.ic_default_profile)
+                : picasso.load(Uri.parse(uri));
+        // Picasso decodifica ya reducido a px y centrado: CircleTransform recibe un cuadrado.
+        request.resize(px, px)
+                .centerCrop()
+                .transform(CircleTransform.INSTANCE)
+                .memoryPolicy(MemoryPolicy.NO_CACHE, MemoryPolicy.NO_STORE)
+                .into(target);
+        return target;
+    }
+
+    private final class AvatarTarget implements Target {
+        final String key;
+        final ArrayList<WeakReference<ImageView>> views = new ArrayList<>(1);
+        final ArrayList<Runnable> callbacks = new ArrayList<>(0);
+        // Desde la petición hasta tener el bitmap (decodificado en los hilos de Picasso)
+        final long requested = System.nanoTime();
+
+        AvatarTarget(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public void onBitmapLoaded(Bitmap bitmap, Picasso.LoadedFrom from) {
+            Metrics.span(Metrics.AVATAR_LOAD, requested);
+            inFlight.remove(key);
+            cache.put(key, bitmap);
+            for (WeakReference<ImageView> ref : views) {
+                ImageView view = ref.get();
+                // La vista puede haberse reciclado para otro jugador mientras tanto.
+                if (view != null && key.equals(view.getTag(R.id.tag_avatar_key))) {
+                    view.setImageBitmap(bitmap);
+                }
+            }
+            finish();
+        }
+
+        @Override
+        public void onBitmapFailed(Exception e, Drawable errorDrawable) {
+            Metrics.span(Metrics.AVATAR_LOAD, requested);
+            inFlight.remove(key);
+            finish();
+        }
+
+        @Override
+        public void onPrepareLoad(Drawable placeHolderDrawable) {
+        }
+
+        private void finish() {
+            for (Runnable callback : callbacks) callback.run();
+        }
+    }
+}
@@ -3,32 +3,54 @@ package ies.carrillo.impostor.utils;
 import android.graphics.Bitmap;
 import android.graphics.BitmapShader;
 import android.graphics.Canvas;
+import android.graphics.Matrix;
 import android.graphics.Paint;
 
 import com.squareup.picasso.Transformation;
 
+import ies.carrillo.impostor.metrics.Metrics;
+
 public class CircleTransform implements Transformation {
 
+    // No tiene estado: una sola instancia sirve para todas las peticiones.
+    public static final CircleTransform INSTANCE = new CircleTransform();
+
     @Override
     public Bitmap transform(Bitmap source) {
+        // En los hilos de Picasso
+        long start = Metrics.begin(Metrics.CIRCLE_TRANSFORM);
+        try {
+            return circle(source);
+        } finally {
+            Metrics.end(Metrics.CIRCLE_TRANSFORM, start);
+        }
+    }
+
+    private static Bitmap circle(Bitmap source) {
         int size = Math.min(source.getWidth(), source.getHeight());
 
         int x = (source.getWidth() - size) / 2;
         int y = (source.getHeight() - size) / 2;
 
-        Bitmap squared = Bitmap.createBitmap(source, x, y, size, size);
-
         Bitmap bitmap = Bitmap.createBitmap(size, size, source.getConfig() != null ? source.getConfig() : Bitmap.Config.ARGB_8888);
 
+        // El shader lee directamente del original desplazado al centro,
+        // sin copiar antes el recorte cuadrado a otro bitmap.
+        BitmapShader shader = new BitmapShader(source, BitmapShader.TileMode.CLAMP, BitmapShader.TileMode.CLAMP);
+        if (x != 0 || y != 0) {
+            Matrix matrix = new Matrix();
+            matrix.setTranslate(-x, -y);
+            shader.setLocalMatrix(matrix);
+        }
+
         Canvas canvas = new Canvas(bitmap);
         Paint paint = new Paint();
-        paint.setShader(new BitmapShader(squared, BitmapShader.TileMode.CLAMP, BitmapShader.TileMode.CLAMP));
+        paint.setShader(shader);
         paint.setAntiAlias(true);
 
         float r = size / 2f;
         canvas.drawCircle(r, r, r, paint);
 
-        squared.recycle();
         source.recycle();
         return bitmap;
     }
@@ -1,15 +1,16 @@
 package ies.carrillo.impostor.utils;
 
-import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.Random;
 
+import ies.carrillo.impostor.engine.RoleAssigner;
 import ies.carrillo.impostor.model.Jugador;
-import ies.carrillo.impostor.roles.Roles; // ⬅️ IMPORTACIÓN NECESARIA
+import ies.carrillo.impostor.roles.Roles;
 
 public class GameLogic {
 
+    // Un único generador para toda la app: dos partidas seguidas nunca comparten semilla.
+    private static final RoleAssigner ASSIGNER = new RoleAssigner();
+
     /**
      * Asigna roles de 'Impostor' o 'Tripulante' aleatoriamente a la lista de jugadores.
      * @param jugadores Lista de jugadores (debe ser la lista final de la partida).
@@ -17,32 +18,36 @@ public class GameLogic {
      * @return La lista de jugadores con los roles ya asignados.
      */
     public static List<Jugador> assignRoles(List<Jugador> jugadores, int numImpostores) {
+        synchronized (ASSIGNER) {
+            return assignRoles(jugadores, numImpostores, ASSIGNER);
+        }
+    }
+
+    /**
+     * Igual que {@link #assignRoles(List, int)} pero con un asignador concreto,
+     * p. ej. uno con semilla para reproducir una ronda.
+     */
+    public static List<Jugador> assignRoles(List<Jugador> jugadores, int numImpostores, RoleAssigner assigner) {
         if (jugadores == null || jugadores.size() < numImpostores) {
             // Manejar error o retornar lista si no hay suficientes jugadores
             return jugadores;
         }
 
-        // 1. Crear una lista de índices para seleccionar los impostores
-        List<Integer> indices = new ArrayList<>();
-        for (int i = 0; i < jugadores.size(); i++) {
-            indices.add(i);
-            // Establecer el rol por defecto (Tripulante/CIVIL)
-            jugadores.get(i).setRole(String.valueOf(Roles.CIVIL)); // ⬅️ CORRECCIÓN: Usar Roles.CIVIL
+        // 1. Todos empiezan como CIVIL
+        int total = jugadores.size();
+        for (int i = 0; i < total; i++) {
+            jugadores.get(i).setRole(Roles.CIVIL);
         }
 
-        // 2. Mezclar los índices para seleccionar aleatoriamente
-        // Nota: Es mejor usar un nuevo Random si se llama múltiples veces en corto tiempo
-        Collections.shuffle(indices, new Random(System.currentTimeMillis()));
-
-        // 3. Asignar el rol de 'Impostor' a los primeros 'numImpostores' índices
+        // 2. Fisher–Yates parcial: solo se sortean los asientos de los impostores
+        int[] impostores = assigner.pick(total, numImpostores);
         for (int i = 0; i < numImpostores; i++) {
-            int indiceImpostor = indices.get(i);
-            jugadores.get(indiceImpostor).setRole(String.valueOf(Roles.IMPOSTOR)); // ⬅️ CORRECCIÓN: Usar Roles.IMPOSTOR
+            jugadores.get(impostores[i]).setRole(Roles.IMPOSTOR);
         }
 
-        // 4. Retornar la lista con los roles asignados
+        // 3. Retornar la lista con los roles asignados
         return jugadores;
     }
 
 
-}
\ No newline at end of file
+}
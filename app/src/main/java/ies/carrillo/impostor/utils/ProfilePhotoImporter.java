@@ -0,0 +1,248 @@
+package ies.carrillo.impostor.utils;
+
+import android.content.ContentResolver;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.media.ExifInterface;
+import android.net.Uri;
+import android.os.Build;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ies.carrillo.impostor.R;
+import ies.carrillo.impostor.metrics.Metrics;
+
+/**
+ * Importa una foto de la galería como avatar: se procesa una sola vez y se
+ * guarda una miniatura circular en WebP dentro de {@code filesDir/avatars}.
+ * <p>
+ * Pasos (en un hilo de fondo):
+ * <ol>
+ *     <li>Leer solo las dimensiones y elegir un {@code inSampleSize} potencia de 2
+ *     para no decodificar nunca la foto completa.</li>
+ *     <li>Aplicar la orientación EXIF.</li>
+ *     <li>Recortar el cuadrado central, escalarlo a {@code avatar_max_size} y
+ *     recortarlo en círculo en un único dibujado.</li>
+ *     <li>Escribir a un temporal y renombrar.</li>
+ * </ol>
+ * El resultado es una URI {@code file://} que el resto de la app trata como
+ * cualquier otra; la lista de jugadores ya no toca la foto original.
+ */
+public final class ProfilePhotoImporter {
+
+    private static final String TAG = "ProfilePhotoImporter";
+    private static final String DIR = "avatars";
+    private static final int WEBP_QUALITY = 85;
+
+    // Una importación a la vez: decodificar dos fotos grandes en paralelo solo gasta memoria.
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "impostor-avatars");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public interface Callback {
+        /**
+         * Siempre en el hilo principal.
+         */
+        void onImported(String uri);
+
+        /**
+         * Siempre en el hilo principal.
+         */
+        void onError(Exception e);
+    }
+
+    private final ContentResolver resolver;
+    private final File dir;
+    private final int sizePx;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public ProfilePhotoImporter(Context context) {
+        Context app = context.getApplicationContext();
+        this.resolver = app.getContentResolver();
+        this.dir = new File(app.getFilesDir(), DIR);
+        this.sizePx = app.getResources().getDimensionPixelSize(R.dimen.avatar_max_size);
+    }
+
+    /**
+     * Procesa {@code source} en segundo plano y devuelve la URI de la miniatura.
+     */
+    public void importPhoto(Uri source, Callback callback) {
+        EXECUTOR.execute(() -> {
+            try {
+                String uri = process(source);
+                mainHandler.post(() -> callback.onImported(uri));
+            } catch (IOException | RuntimeException e) {
+                Log.e(TAG, "No se pudo importar " + source, e);
+                mainHandler.post(() -> callback.onError(e));
+            }
+        });
+    }
+
+    /**
+     * Borra las miniaturas importadas que ya no usa ningún jugador.
+     *
+     * @param inUse URIs de avatar vigentes (las que no sean de este directorio se ignoran).
+     */
+    public void prune(Collection<String> inUse) {
+        HashSet<String> keep = new HashSet<>(inUse);
+        EXECUTOR.execute(() -> {
+            File[] files = dir.listFiles();
+            if (files == null) return;
+            for (File file : files) {
+                if (!keep.contains(Uri.fromFile(file).toString()) && !file.delete()) {
+                    Log.w(TAG, "No se pudo borrar " + file);
+                }
+            }
+        });
+    }
+
+    private String process(Uri source) throws IOException {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        try (InputStream in = open(source)) {
+            BitmapFactory.decodeStream(in, null, bounds);
+        }
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            throw new IOException("No es una imagen: " + source);
+        }
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inSampleSize = calculateInSampleSize(bounds.outWidth, bounds.outHeight, sizePx);
+        Bitmap decoded;
+        long decode = Metrics.begin(Metrics.IMAGE_DECODE);
+        try (InputStream in = open(source)) {
+            decoded = BitmapFactory.decodeStream(in, null, options);
+        } finally {
+            Metrics.end(Metrics.IMAGE_DECODE, decode);
+        }
+        if (decoded == null) throw new IOException("No se pudo decodificar " + source);
+
+        int orientation;
+        try (InputStream in = open(source)) {
+            orientation = new ExifInterface(in).getAttributeInt(
+                    ExifInterface.TAG_ORIENTATION, ExifInterface.ORIENTATION_NORMAL);
+        } catch (IOException e) {
+            // Sin EXIF legible: se deja tal cual.
+            orientation = ExifInterface.ORIENTATION_NORMAL;
+        }
+
+        Bitmap avatar = renderCircle(decoded, orientation, sizePx);
+        decoded.recycle();
+        try {
+            return Uri.fromFile(write(avatar)).toString();
+        } finally {
+            avatar.recycle();
+        }
+    }
+
+    private InputStream open(Uri source) throws IOException {
+        InputStream in = resolver.openInputStream(source);
+        if (in == null) throw new IOException("Sin acceso a " + source);
+        return in;
+    }
+
+    /**
+     * Mayor potencia de 2 que deja el lado corto en al menos {@code target} píxeles.
+     */
+    static int calculateInSampleSize(int width, int height, int target) {
+        int shortSide = Math.min(width, height);
+        int sample = 1;
+        while (shortSide / (sample * 2) >= target) {
+            sample *= 2;
+        }
+        return sample;
+    }
+
+    /**
+     * Orienta, recorta el cuadrado central, escala a {@code size} y recorta en
+     * círculo con una sola matriz sobre el shader: no hay bitmaps intermedios.
+     */
+    private static Bitmap renderCircle(Bitmap source, int orientation, int size) {
+        Matrix matrix = new Matrix();
+        // La orientación se aplica alrededor del centro para que el recorte siga centrado.
+        matrix.postTranslate(-source.getWidth() / 2f, -source.getHeight() / 2f);
+        switch (orientation) {
+            case ExifInterface.ORIENTATION_FLIP_HORIZONTAL:
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_180:
+                matrix.postRotate(180);
+                break;
+            case ExifInterface.ORIENTATION_FLIP_VERTICAL:
+                matrix.postScale(1, -1);
+                break;
+            case ExifInterface.ORIENTATION_TRANSPOSE:
+                matrix.postRotate(90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_90:
+                matrix.postRotate(90);
+                break;
+            case ExifInterface.ORIENTATION_TRANSVERSE:
+                matrix.postRotate(-90);
+                matrix.postScale(-1, 1);
+                break;
+            case ExifInterface.ORIENTATION_ROTATE_270:
+                matrix.postRotate(-90);
+                break;
+            default:
+                break;
+        }
+        float scale = (float) size / Math.min(source.getWidth(), source.getHeight());
+        matrix.postScale(scale, scale);
+        matrix.postTranslate(size / 2f, size / 2f);
+
+        BitmapShader shader = new BitmapShader(source, BitmapShader.TileMode.CLAMP, BitmapShader.TileMode.CLAMP);
+        shader.setLocalMatrix(matrix);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+        paint.setShader(shader);
+
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        float r = size / 2f;
+        new Canvas(bitmap).drawCircle(r, r, r, paint);
+        return bitmap;
+    }
+
+    @SuppressWarnings("deprecation")
+    private File write(Bitmap avatar) throws IOException {
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            throw new IOException("No se pudo crear " + dir);
+        }
+        Bitmap.CompressFormat format = Build.VERSION.SDK_INT >= Build.VERSION_CODES.R
+                ? Bitmap.CompressFormat.WEBP_LOSSY
+                : Bitmap.CompressFormat.WEBP;
+
+        // Nombre nuevo en cada importación: la URI cambia y AvatarCache no sirve la foto anterior.
+        File file = new File(dir, UUID.randomUUID() + ".webp");
+        File tmp = new File(dir, file.getName() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            if (!avatar.compress(format, WEBP_QUALITY, out)) {
+                throw new IOException("No se pudo comprimir el avatar");
+            }
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("No se pudo guardar " + file);
+        }
+        return file;
+    }
+}
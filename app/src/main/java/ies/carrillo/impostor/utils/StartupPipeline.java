@@ -0,0 +1,172 @@
+package ies.carrillo.impostor.utils;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import ies.carrillo.impostor.R;
+import ies.carrillo.impostor.dataBase.DataBase;
+import ies.carrillo.impostor.model.Jugador;
+
+/**
+ * Tareas de calentamiento del arranque, ejecutadas en paralelo en segundo plano:
+ * <ol>
+ *     <li>Mapear los paquetes predefinidos ({@link DataBase#asegurarPredefinidas()}).</li>
+ *     <li>Cargar jugadores y paquetes guardados ({@link DataBase#asegurarEstadoPersistido()}).</li>
+ *     <li>Renderizar los avatares de esos jugadores en {@link AvatarCache}
+ *     (depende de la tarea 2).</li>
+ * </ol>
+ * El progreso que se notifica es el número de tareas terminadas. Es un único
+ * objeto por proceso: si la pantalla de inicio se recrea, se vuelve a
+ * suscribir sin relanzar nada.
+ */
+public final class StartupPipeline {
+
+    private static final String TAG = "Startup";
+    private static final int TASK_COUNT = 3;
+    // Un avatar que no carga no debe retener el arranque.
+    private static final long AVATAR_TIMEOUT_MS = 2000;
+
+    public interface Listener {
+        /**
+         * Siempre en el hilo principal.
+         */
+        void onProgress(int completed, int total);
+
+        /**
+         * Siempre en el hilo principal; como mucho una vez por suscripción.
+         */
+        void onReady();
+    }
+
+    private static final StartupPipeline INSTANCE = new StartupPipeline();
+
+    public static StartupPipeline get() {
+        return INSTANCE;
+    }
+
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger completed = new AtomicInteger();
+    private boolean started;
+    private boolean ttiLogged;
+    private Listener listener;
+
+    private StartupPipeline() {
+    }
+
+    /**
+     * Lanza las tareas (solo la primera vez). Llamar desde el hilo principal.
+     */
+    public void start(Context context) {
+        if (started) return;
+        started = true;
+
+        int avatarSizePx = context.getResources().getDimensionPixelSize(R.dimen.avatar_list_size);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "impostor-startup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long startedAt = SystemClock.uptimeMillis();
+
+        executor.execute(() -> runTask("paquetes predefinidos", startedAt,
+                () -> DataBase.getInstance().asegurarPredefinidas()));
+        executor.execute(() -> {
+            runTask("estado guardado", startedAt, () -> DataBase.getInstance().asegurarEstadoPersistido());
+            runTask("avatares", startedAt, () -> preloadAvatars(avatarSizePx));
+        });
+        executor.shutdown();
+    }
+
+    /**
+     * Se suscribe al progreso (hilo principal). Si ya terminó, avisa al momento.
+     */
+    public void setListener(Listener listener) {
+        this.listener = listener;
+        if (listener != null) {
+            int done = completed.get();
+            listener.onProgress(done, TASK_COUNT);
+            if (done == TASK_COUNT) listener.onReady();
+        }
+    }
+
+    public boolean isReady() {
+        return completed.get() == TASK_COUNT;
+    }
+
+    /**
+     * Registra el tiempo desde que arrancó el proceso hasta que la primera
+     * pantalla útil se ha dibujado. Solo cuenta la primera llamada.
+     */
+    public void logTimeToInteractive() {
+        if (ttiLogged) return;
+        ttiLogged = true;
+        long tti = SystemClock.uptimeMillis() - Process.getStartUptimeMillis();
+        Log.i(TAG, "Tiempo hasta interactivo: " + tti + " ms");
+    }
+
+    private void runTask(String name, long startedAt, Runnable task) {
+        long begin = SystemClock.uptimeMillis();
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // Un fallo de calentamiento no impide arrancar: la carga se reintenta en el primer uso.
+            Log.e(TAG, "Falló la tarea de arranque: " + name, e);
+        }
+        long end = SystemClock.uptimeMillis();
+        Log.d(TAG, name + ": " + (end - begin) + " ms");
+
+        int done = completed.incrementAndGet();
+        if (done == TASK_COUNT) {
+            Log.i(TAG, "Arranque listo en " + (end - startedAt) + " ms");
+        }
+        mainHandler.post(() -> notifyProgress(done));
+    }
+
+    private void notifyProgress(int done) {
+        if (listener == null) return;
+        listener.onProgress(done, TASK_COUNT);
+        if (done == TASK_COUNT) listener.onReady();
+    }
+
+    /**
+     * Renderiza los avatares de la plantilla guardada al tamaño de la lista
+     * de jugadores, para que la primera lista salga de {@link AvatarCache}.
+     */
+    private void preloadAvatars(int px) {
+        List<String> uris = new ArrayList<>();
+        uris.add(null); // avatar predeterminado
+        for (Jugador jugador : new ArrayList<>(DataBase.getInstance().getJugadores())) {
+            String uri = jugador.getProfileImageUri();
+            if (uri != null && !uri.isEmpty() && !uris.contains(uri)) uris.add(uri);
+        }
+
+        CountDownLatch pending = new CountDownLatch(uris.size());
+        // AvatarCache solo se usa desde el hilo principal.
+        mainHandler.post(() -> {
+            for (String uri : uris) {
+                AvatarCache.get().preload(uri, px, pending::countDown);
+            }
+        });
+
+        try {
+            if (!pending.await(AVATAR_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+                Log.w(TAG, "Avatares sin terminar al agotar el tiempo; se cargarán al mostrarse");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package ies.carrillo.impostor.dataBase;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import ies.carrillo.impostor.model.Categoria;
+import ies.carrillo.impostor.model.Jugador;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AppendLogStoreTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("store").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void mutationsSurviveReopen() throws IOException {
+        AppendLogStore store = new AppendLogStore(dir);
+        store.load();
+        store.saveCategory(categoria("Animales", 3));
+        store.saveCategory(categoria("Deportes", 2));
+        store.deleteCategory("Animales");
+        store.setPlayers(Arrays.asList(jugador("Ana"), jugador("Luis")));
+        store.setWeight("Deportes", 200);
+        store.setWeight("Comida", 50);
+        store.setWeight("Comida", 0);
+        store.close();
+
+        AppendLogStore.State state = reopen();
+        assertEquals(1, state.customCategories.size());
+        assertEquals("Deportes", state.customCategories.get(0).getName());
+        assertEquals(2, state.customCategories.get(0).getNumPalabras());
+        assertEquals(2, state.jugadores.size());
+        assertEquals("Luis", state.jugadores.get(1).getName());
+        assertEquals("#123456", state.jugadores.get(1).getColorHex());
+        assertEquals(1, state.pesos.size());
+        assertEquals(Integer.valueOf(200), state.pesos.get("Deportes"));
+    }
+
+    @Test
+    public void tornTailIsDiscarded() throws IOException {
+        AppendLogStore store = new AppendLogStore(dir);
+        store.load();
+        store.saveCategory(categoria("Animales", 3));
+        store.close();
+
+        // Simula una escritura cortada a mitad de registro.
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "store.log"), true)) {
+            out.write(new byte[]{0, 0, 0, 40, 1, 2, 3});
+        }
+
+        AppendLogStore.State state = reopen();
+        assertEquals(1, state.customCategories.size());
+
+        // Lo anexado tras la recuperación también debe poder leerse.
+        AppendLogStore again = new AppendLogStore(dir);
+        again.load();
+        again.saveCategory(categoria("Deportes", 1));
+        again.close();
+        assertEquals(2, reopen().customCategories.size());
+    }
+
+    @Test
+    public void compactionKeepsLatestState() throws IOException {
+        AppendLogStore store = new AppendLogStore(dir);
+        store.load();
+        for (int round = 0; round < 40; round++) {
+            store.saveCategory(categoria("Grande", 500 + round));
+            store.flush();
+        }
+        store.saveCategory(categoria("Pequeño", 1));
+        store.close();
+
+        assertTrue(new File(dir, "store.snap").exists());
+        AppendLogStore.State state = reopen();
+        assertEquals(2, state.customCategories.size());
+        assertEquals("Grande", state.customCategories.get(0).getName());
+        assertEquals(539, state.customCategories.get(0).getNumPalabras());
+        assertEquals("Pequeño", state.customCategories.get(1).getName());
+    }
+
+    @Test
+    public void weightsSurviveCompaction() throws IOException {
+        AppendLogStore store = new AppendLogStore(dir);
+        store.load();
+        store.setWeight("Grande", 150);
+        for (int round = 0; round < 40; round++) {
+            store.saveCategory(categoria("Grande", 500 + round));
+            store.flush();
+        }
+        store.close();
+
+        assertTrue(new File(dir, "store.snap").exists());
+        assertEquals(Integer.valueOf(150), reopen().pesos.get("Grande"));
+    }
+
+    @Test
+    public void corruptSnapshotIsSetAsideAndSavingContinues() throws IOException {
+        AppendLogStore store = new AppendLogStore(dir);
+        store.load();
+        for (int round = 0; round < 40; round++) {
+            store.saveCategory(categoria("Grande", 500 + round));
+            store.flush();
+        }
+        store.close();
+
+        // Un byte cambiado en el cuerpo: el CRC ya no cuadra.
+        File snapshot = new File(dir, "store.snap");
+        byte[] bytes = Files.readAllBytes(snapshot.toPath());
+        bytes[bytes.length - 1] ^= 0x55;
+        Files.write(snapshot.toPath(), bytes);
+
+        AppendLogStore again = new AppendLogStore(dir);
+        assertEquals(0, again.load().customCategories.size());
+        assertTrue(new File(dir, "store.snap.corrupt").exists());
+        again.saveCategory(categoria("Deportes", 2));
+        again.close();
+
+        AppendLogStore.State state = reopen();
+        assertEquals(1, state.customCategories.size());
+        assertEquals("Deportes", state.customCategories.get(0).getName());
+    }
+
+    @Test
+    public void tornFrameLeftWhileOpenIsCutBeforeTheNextBatch() throws IOException {
+        AppendLogStore store = new AppendLogStore(dir);
+        store.load();
+        store.saveCategory(categoria("Animales", 3));
+        store.flush();
+
+        // Como un write que falló a medias: la trama cortada queda al final del log abierto.
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "store.log"), true)) {
+            out.write(new byte[]{0, 0, 0, 40, 1, 2, 3});
+        }
+        store.saveCategory(categoria("Deportes", 1));
+        store.close();
+
+        assertEquals(2, reopen().customCategories.size());
+    }
+
+    @Test
+    public void recordThatCannotBeEncodedIsDroppedAndSavingContinues() throws IOException {
+        AppendLogStore store = new AppendLogStore(dir);
+        store.load();
+        StringBuilder larga = new StringBuilder();
+        for (int i = 0; i < 70_000; i++) larga.append('a');
+        HashMap<String, String> palabras = new HashMap<>();
+        palabras.put("Sol", larga.toString());
+        store.saveCategory(new Categoria("Enorme", palabras));
+        store.setPlayers(Arrays.asList(jugador("Ana"), jugador("Luis")));
+        try {
+            store.flush();
+            throw new AssertionError("El registro que no cabe en writeUTF debería avisarse");
+        } catch (IOException expected) {
+            // Solo se pierde ese registro
+        }
+        store.saveCategory(categoria("Deportes", 2));
+        store.close();
+
+        AppendLogStore.State state = reopen();
+        assertEquals(2, state.jugadores.size());
+        assertEquals(1, state.customCategories.size());
+        assertEquals("Deportes", state.customCategories.get(0).getName());
+    }
+
+    @Test
+    public void loadsFiveHundredPacksQuickly() throws IOException {
+        AppendLogStore store = new AppendLogStore(dir);
+        store.load();
+        for (int i = 0; i < 500; i++) {
+            store.saveCategory(categoria("Paquete " + i, 20));
+        }
+        store.close();
+
+        reopen(); // calentamiento del JIT
+        long start = System.nanoTime();
+        AppendLogStore.State state = reopen();
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertEquals(500, state.customCategories.size());
+        assertTrue("Carga demasiado lenta: " + elapsedMs + " ms", elapsedMs < 200);
+    }
+
+    private AppendLogStore.State reopen() throws IOException {
+        AppendLogStore store = new AppendLogStore(dir);
+        try {
+            return store.load();
+        } finally {
+            store.close();
+        }
+    }
+
+    private static Categoria categoria(String name, int pairs) {
+        HashMap<String, String> palabras = new HashMap<>();
+        for (int i = 0; i < pairs; i++) {
+            palabras.put(name + " palabra " + i, "pista " + i);
+        }
+        return new Categoria(name, palabras);
+    }
+
+    private static Jugador jugador(String name) {
+        Jugador jugador = new Jugador(name);
+        jugador.setColorHex("#123456");
+        return jugador;
+    }
+}
@@ -0,0 +1,91 @@
+package ies.carrillo.impostor.dataBase;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import ies.carrillo.impostor.build.WordPackCompiler;
+import ies.carrillo.impostor.model.WordStore;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MappedWordPackTest {
+
+    @Test
+    public void compiledPackReadsBackAsTheCsvPairs() throws IOException {
+        String csv = "# name: Campaña y Montaña\n"
+                + "Árbol,Raíces\n"
+                + "\"Piña, colada\",Cóctel\n"
+                + "Ñandú,Ave\n"
+                + "Señal,\"Dice \"\"alto\"\"\"\n"
+                + "# comentario\n"
+                + "Über,Ciudad 🚕\n"
+                + "Árbol,Tronco\n"      // La última pista gana
+                + "Canción,Ave\n";      // Pista repetida: una sola cadena en la tabla
+
+        MappedWordPack pack = MappedWordPack.open(compile(csv, "sin nombre"));
+
+        assertEquals("Campaña y Montaña", pack.getName());
+        String[][] expected = {
+                {"Árbol", "Tronco"},
+                {"Piña, colada", "Cóctel"},
+                {"Ñandú", "Ave"},
+                {"Señal", "Dice \"alto\""},
+                {"Über", "Ciudad 🚕"},
+                {"Canción", "Ave"},
+        };
+        assertEquals(expected.length, pack.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i][0], pack.wordAt(i));
+            assertEquals(expected[i][1], pack.clueAt(i));
+        }
+
+        WordStore store = pack.load();
+        assertEquals(expected.length, store.size());
+        assertEquals("Ave", store.getClue("Ñandú"));
+        assertEquals(4, store.indexOf("Über"));
+    }
+
+    @Test
+    public void shippedPacksRoundTrip() throws IOException {
+        // Los CSV que se compilan en la app (el directorio de trabajo es el del módulo)
+        File[] csvs = new File("src/main/packs").listFiles((dir, name) -> name.endsWith(".csv"));
+        if (csvs == null) return;
+        for (File csv : csvs) {
+            byte[] source = Files.readAllBytes(csv.toPath());
+            int pairs;
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try (Reader reader = new InputStreamReader(new ByteArrayInputStream(source), StandardCharsets.UTF_8)) {
+                pairs = WordPackCompiler.compile(reader, csv.getName(), out);
+            }
+            MappedWordPack pack = MappedWordPack.open(ByteBuffer.wrap(out.toByteArray()));
+            assertEquals(csv.getName(), pairs, pack.size());
+            assertTrue(csv.getName(), !pack.getName().isEmpty());
+            WordStore store = pack.load();
+            for (int i = 0; i < pack.size(); i++) {
+                assertEquals(pack.clueAt(i), store.getClue(pack.wordAt(i)));
+            }
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsBuffersThatAreNotPacks() throws IOException {
+        MappedWordPack.open(ByteBuffer.wrap(new byte[64]));
+    }
+
+    private static ByteBuffer compile(String csv, String fallbackName) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WordPackCompiler.compile(new StringReader(csv), fallbackName, out);
+        return ByteBuffer.wrap(out.toByteArray());
+    }
+}
@@ -0,0 +1,74 @@
+package ies.carrillo.impostor.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsCoverEveryValueWithBoundedError() {
+        int previous = -1;
+        for (long value = 0; value < 1L << 42; value = value < 64 ? value + 1 : value + value / 7) {
+            int index = LatencyHistogram.indexOf(value);
+            assertTrue(index >= previous);
+            previous = index;
+            if (value >= 1L << 40) {
+                assertEquals(LatencyHistogram.BUCKETS - 1, index);
+                continue;
+            }
+            long low = LatencyHistogram.lowerBound(index);
+            long high = LatencyHistogram.upperBound(index);
+            assertTrue(value + " fuera de [" + low + ", " + high + "]", low <= value && value <= high);
+            assertTrue((high - low) <= low / 16 + 1);
+        }
+        // Las cubetas son contiguas
+        for (int i = 1; i < LatencyHistogram.BUCKETS; i++) {
+            assertEquals(LatencyHistogram.upperBound(i - 1) + 1, LatencyHistogram.lowerBound(i));
+        }
+    }
+
+    @Test
+    public void percentilesOfAUniformSpread() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getPercentile(0.99));
+        // 1..1000 µs
+        for (int i = 1; i <= 1000; i++) histogram.record(i * 1_000L);
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean());
+        assertNear(500_000, histogram.getPercentile(0.50));
+        assertNear(950_000, histogram.getPercentile(0.95));
+        assertNear(990_000, histogram.getPercentile(0.99));
+        assertEquals(1_000_000, histogram.getPercentile(1));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMax());
+    }
+
+    @Test
+    public void concurrentRecordsAreAllCounted() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final long value = (t + 1) * 1_000_000L;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 100_000; i++) histogram.record(value);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(400_000, histogram.getCount());
+        assertEquals(4_000_000, histogram.getMax());
+        long total = 0;
+        for (long c : histogram.snapshot()) total += c;
+        assertEquals(400_000, total);
+    }
+
+    private static void assertNear(long expected, long actual) {
+        assertTrue(actual + " lejos de " + expected, Math.abs(actual - expected) <= expected / 16);
+    }
+}
@@ -0,0 +1,84 @@
+package ies.carrillo.impostor.metrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class StallLogTest {
+
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("stalls").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void ringKeepsOnlyTheNewestStalls() throws IOException {
+        StallLog log = new StallLog(dir, 3);
+        for (int i = 0; i < 5; i++) log.add(stall(i, 100 + i, "a.B.c:" + i));
+        assertEquals(3, dir.listFiles().length);
+
+        List<StallWatchdog.Stall> stalls = log.load();
+        assertEquals(3, stalls.size());
+        assertEquals(104, stalls.get(0).durationMs);
+        assertEquals(102, stalls.get(2).durationMs);
+
+        // Otra instancia (otro arranque) sigue numerando donde iba
+        new StallLog(dir, 3).add(stall(5, 105, "a.B.c:5"));
+        assertEquals(3, dir.listFiles().length);
+        assertEquals(105, log.load().get(0).durationMs);
+    }
+
+    @Test
+    public void stallsRoundTripAndGroupByCallSite() throws IOException {
+        StallLog log = new StallLog(dir, 10);
+        log.add(stall(1, 300, "app.Db.init:40"));
+        log.add(stall(2, 1200, "app.Db.init:40"));
+        log.add(stall(3, 800, "app.Intent.read:7"));
+        // Un fichero roto no impide leer los demás
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "stall-99.txt"))) {
+            out.write("# inicio x".getBytes("UTF-8"));
+        }
+
+        StallWatchdog.Stall read = log.load().get(0);
+        assertEquals(3, read.startedAt);
+        assertEquals("app.Intent.read:7", read.callSite);
+        assertArrayEquals(new String[]{"root;app.Intent.read:7"}, read.stacks);
+        assertArrayEquals(new int[]{12}, read.counts);
+
+        List<StallLog.Site> sites = log.worstSites();
+        assertEquals(2, sites.size());
+        assertEquals("app.Db.init:40", sites.get(0).callSite);
+        assertEquals(2, sites.get(0).stalls);
+        assertEquals(1500, sites.get(0).totalMs);
+        assertEquals(1200, sites.get(0).worstMs);
+        assertEquals("root;app.Db.init:40", sites.get(0).worstStack);
+        assertEquals(800, sites.get(1).worstMs);
+
+        log.clear();
+        assertEquals(0, log.load().size());
+    }
+
+    private static StallWatchdog.Stall stall(long startedAt, long durationMs, String site) {
+        return new StallWatchdog.Stall(startedAt, durationMs, new String[]{"root;" + site}, new int[]{12}, site);
+    }
+}
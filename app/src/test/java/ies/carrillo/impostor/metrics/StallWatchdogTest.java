@@ -0,0 +1,103 @@
+package ies.carrillo.impostor.metrics;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StallWatchdogTest {
+
+    private ExecutorService looper;
+    private Thread looperThread;
+    private final LinkedBlockingQueue<StallWatchdog.Stall> stalls = new LinkedBlockingQueue<>();
+    private StallWatchdog watchdog;
+
+    @Before
+    public void setUp() throws Exception {
+        // Hace de Looper principal: un solo hilo que atiende su cola
+        AtomicReference<Thread> thread = new AtomicReference<>();
+        looper = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "main");
+            thread.set(t);
+            return t;
+        });
+        looper.submit(() -> {
+        }).get();
+        looperThread = thread.get();
+        watchdog = new StallWatchdog(looperThread, looper, 50, 5, "ies.carrillo.impostor.metrics", stalls::add);
+        watchdog.start();
+    }
+
+    @After
+    public void tearDown() {
+        watchdog.stop();
+        looper.shutdownNow();
+    }
+
+    @Test(timeout = 10_000)
+    public void blockedLooperIsSampledAtTheBlockingCallSite() throws Exception {
+        looper.execute(StallWatchdogTest::slowStartup);
+
+        StallWatchdog.Stall stall = stalls.poll(5, TimeUnit.SECONDS);
+        assertNotNull(stall);
+        assertTrue("Duró " + stall.durationMs + " ms", stall.durationMs >= 300 && stall.durationMs < 2_000);
+        assertTrue(stall.getSamples() >= 10);
+        assertTrue(stall.callSite, stall.callSite.startsWith(StallWatchdogTest.class.getName() + ".slowStartup:"));
+        // Pilas plegadas de la raíz a la hoja
+        for (String stack : stall.stacks) {
+            assertTrue(stack, stack.startsWith("java.lang.Thread.run"));
+        }
+    }
+
+    @Test(timeout = 10_000)
+    public void shortTasksAreNotStalls() throws Exception {
+        for (int i = 0; i < 20; i++) {
+            looper.execute(() -> sleep(10));
+            Thread.sleep(20);
+        }
+        assertNull(stalls.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void callSiteIsTheDeepestAppFrame() {
+        String stack = "android.os.Looper.loop:1;ies.carrillo.impostor.dataBase.DataBase.init:40;"
+                + "ies.carrillo.impostor.dataBase.AppendLogStore.load:138;java.io.FileInputStream.read";
+        assertEquals("ies.carrillo.impostor.dataBase.AppendLogStore.load:138",
+                StallWatchdog.callSiteOf(stack, "ies.carrillo.impostor"));
+        assertEquals("java.io.FileInputStream.read", StallWatchdog.callSiteOf(stack, "com.example"));
+        assertEquals(StallWatchdog.OTHER_STACKS, StallWatchdog.callSiteOf(null, "ies.carrillo.impostor"));
+    }
+
+    // Como una carga síncrona en el hilo principal: el sitio es este método
+    private static void slowStartup() {
+        long until = System.nanoTime() + 400_000_000L;
+        while (System.nanoTime() < until) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private static void sleep(long ms) {
+        long until = System.nanoTime() + ms * 1_000_000;
+        while (System.nanoTime() < until) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+}
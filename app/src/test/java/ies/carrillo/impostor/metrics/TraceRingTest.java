@@ -0,0 +1,109 @@
+package ies.carrillo.impostor.metrics;
+
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.TreeMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class TraceRingTest {
+
+    private static final String[] NAMES = {"inflate", "reveal_animation", "tick \"x\""};
+
+    @Test
+    public void eventsBecomeChromeTraceJson() throws Exception {
+        TraceRing ring = new TraceRing(8);
+        ring.add(TraceRing.COMPLETE, 0, 11, 5_000_000, 1_234_567);
+        ring.add(TraceRing.ASYNC, 1, 11, 7_000_000, 2_000_500);
+        ring.add(TraceRing.INSTANT, 2, 12, 9_000_001, 0);
+
+        StringBuilder json = new StringBuilder();
+        TreeMap<Integer, String> threads = new TreeMap<>();
+        threads.put(11, "main");
+        threads.put(12, "Picasso-1");
+        assertEquals(3, ring.writeChromeJson(json, 42, "ies.carrillo.impostor", NAMES, threads, 0));
+
+        String text = json.toString();
+        assertTrue(text.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+        assertTrue(text.trim().endsWith("]}"));
+        assertTrue(text.contains("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":42,\"tid\":12,\"args\":{\"name\":\"Picasso-1\"}}"));
+        assertTrue(text.contains("{\"name\":\"inflate\",\"cat\":\"impostor\",\"ph\":\"X\",\"pid\":42,\"tid\":11,\"ts\":5000.000,\"dur\":1234.567}"));
+        // Los asíncronos salen como pareja b/e con el mismo id
+        assertTrue(text.contains("\"ph\":\"b\",\"pid\":42,\"tid\":11,\"ts\":7000.000,\"id\":1}"));
+        assertTrue(text.contains("\"ph\":\"e\",\"pid\":42,\"tid\":11,\"ts\":9000.500,\"id\":1}"));
+        assertTrue(text.contains("{\"name\":\"tick \\\"x\\\"\",\"cat\":\"impostor\",\"ph\":\"i\",\"pid\":42,\"tid\":12,\"ts\":9000.001,\"s\":\"t\"}"));
+        assertBalanced(text);
+    }
+
+    @Test
+    public void fullRingKeepsTheNewestEventsAndFiltersBySince() throws Exception {
+        TraceRing ring = new TraceRing(4);
+        for (int i = 0; i < 10; i++) ring.add(TraceRing.COMPLETE, 0, 1, i * 1_000L, 10);
+
+        StringBuilder json = new StringBuilder();
+        assertEquals(4, ring.writeChromeJson(json, 1, "p", NAMES, Collections.<Integer, String>emptyMap(), 0));
+        assertFalse(json.toString().contains("\"ts\":5.000"));
+        assertTrue(json.toString().contains("\"ts\":6.000"));
+        assertTrue(json.toString().contains("\"ts\":9.000"));
+
+        // Solo lo que empezó desde el inicio de la partida
+        assertEquals(2, ring.writeChromeJson(new StringBuilder(), 1, "p", NAMES,
+                Collections.<Integer, String>emptyMap(), 8_000));
+
+        ring.clear();
+        assertEquals(0, ring.writeChromeJson(new StringBuilder(), 1, "p", NAMES,
+                Collections.<Integer, String>emptyMap(), 0));
+    }
+
+    @Test
+    public void concurrentWritersNeverLoseTheLatestWindow() throws Exception {
+        TraceRing ring = new TraceRing(1 << 10);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int tid = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 50_000; i++) ring.add(TraceRing.COMPLETE, 0, tid, i, 1);
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+        StringBuilder json = new StringBuilder();
+        assertEquals(1 << 10, ring.writeChromeJson(json, 1, "p", NAMES, Collections.<Integer, String>emptyMap(), 0));
+        assertBalanced(json.toString());
+    }
+
+    @Test
+    public void microsecondsKeepNanosecondPrecision() throws Exception {
+        StringBuilder out = new StringBuilder();
+        TraceRing.micros(out, 1_000_007);
+        out.append(' ');
+        TraceRing.micros(out, 999);
+        out.append(' ');
+        TraceRing.micros(out, -1_050);
+        assertEquals("1000.007 0.999 -1.050", out.toString());
+    }
+
+    private static void assertBalanced(String json) {
+        int depth = 0;
+        boolean inString = false;
+        for (int i = 0; i < json.length(); i++) {
+            char c = json.charAt(i);
+            if (inString) {
+                if (c == '\\') i++;
+                else if (c == '"') inString = false;
+            } else if (c == '"') {
+                inString = true;
+            } else if (c == '{' || c == '[') {
+                depth++;
+            } else if (c == '}' || c == ']') {
+                depth--;
+                assertTrue(depth >= 0);
+            }
+        }
+        assertEquals(0, depth);
+        assertFalse(inString);
+    }
+}
@@ -0,0 +1,91 @@
+package ies.carrillo.impostor.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class CategoryRegistryTest {
+
+    @Test
+    public void idsAreStableAndNotReused() {
+        CategoryRegistry registry = new CategoryRegistry();
+        int naturaleza = registry.register(new Categoria("Naturaleza", new WordStore()));
+        int mio = registry.register(new Categoria("Mío", new WordStore()));
+
+        Categoria editado = new Categoria("Mío", new WordStore());
+        assertEquals(mio, registry.register(editado));
+        assertSame(editado, registry.get(mio));
+
+        registry.unregister("Mío");
+        assertEquals(-1, registry.idOf("Mío"));
+        assertNull(registry.get(mio));
+        int otro = registry.register(new Categoria("Otro", new WordStore()));
+        assertTrue(otro != mio && otro != naturaleza);
+        assertEquals(2, registry.size());
+    }
+
+    @Test
+    public void customPackCannotTakeOverAPredefinedName() {
+        CategoryRegistry registry = new CategoryRegistry();
+        Categoria naturaleza = new Categoria("Naturaleza", new WordStore());
+        int id = registry.registerPredefined(naturaleza);
+
+        assertEquals(-1, registry.register(new Categoria("Naturaleza", new WordStore())));
+        registry.unregister("Naturaleza");
+        assertEquals(id, registry.idOf("Naturaleza"));
+        assertSame(naturaleza, registry.get(id));
+        assertTrue(registry.isPredefined("Naturaleza"));
+
+        // Un personalizado antiguo cargado antes que los predefinidos les cede el id
+        CategoryRegistry loadedFirst = new CategoryRegistry();
+        int old = loadedFirst.register(new Categoria("Naturaleza", new WordStore()));
+        assertEquals(old, loadedFirst.registerPredefined(naturaleza));
+        assertSame(naturaleza, loadedFirst.get(old));
+    }
+
+    @Test
+    public void resolvesSelectionSkippingRemovedPacks() {
+        CategoryRegistry registry = new CategoryRegistry();
+        SelectionModel selection = new SelectionModel();
+        selection.set(registry.register(new Categoria("A", new WordStore())), true);
+        selection.set(registry.register(new Categoria("B", new WordStore())), true);
+        registry.register(new Categoria("C", new WordStore()));
+        registry.unregister("A");
+
+        List<Categoria> resolved = registry.resolve(selection);
+        assertEquals(1, resolved.size());
+        assertEquals("B", resolved.get(0).getName());
+    }
+
+    @Test
+    public void savedSelectionIsMappedByNameToCurrentIds() throws IOException {
+        CategoryRegistry before = new CategoryRegistry();
+        SelectionModel selection = new SelectionModel();
+        before.register(new Categoria("Semana Santa", new WordStore()));
+        selection.set(before.register(new Categoria("Naturaleza", new WordStore())), true);
+        selection.set(before.register(new Categoria("Borrado", new WordStore())), true);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        before.writeSelection(selection, new DataOutputStream(bytes));
+
+        // Otra sesión: los paquetes se registran en otro orden y uno ya no existe.
+        CategoryRegistry after = new CategoryRegistry();
+        after.register(new Categoria("Naturaleza", new WordStore()));
+        after.register(new Categoria("Semana Santa", new WordStore()));
+        SelectionModel restored = after.readSelection(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(1, restored.count());
+        assertTrue(restored.isSelected(after.idOf("Naturaleza")));
+    }
+}
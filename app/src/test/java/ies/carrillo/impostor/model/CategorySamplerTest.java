@@ -0,0 +1,39 @@
+package ies.carrillo.impostor.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class CategorySamplerTest {
+
+    @Test
+    public void frequenciesFollowTheWeights() {
+        double[] weights = {10, 0, 5000, 90};
+        CategorySampler sampler = CategorySampler.build(weights);
+        Random random = new Random(11);
+
+        int draws = 510_000;
+        int[] counts = new int[weights.length];
+        for (int i = 0; i < draws; i++) {
+            counts[sampler.sample(random)]++;
+        }
+
+        assertEquals("Un peso 0 no debe salir nunca", 0, counts[1]);
+        double total = 5100;
+        for (int i = 0; i < weights.length; i++) {
+            double expected = draws * weights[i] / total;
+            // Margen holgado: ~6 desviaciones típicas del binomial.
+            double tolerance = 6 * Math.sqrt(expected) + 1;
+            assertTrue("Frecuencias " + Arrays.toString(counts), Math.abs(counts[i] - expected) <= tolerance);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void allZeroWeightsAreRejected() {
+        CategorySampler.build(new double[]{0, 0});
+    }
+}
@@ -0,0 +1,36 @@
+package ies.carrillo.impostor.model;
+
+import org.junit.Test;
+
+import ies.carrillo.impostor.roles.Roles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class JugadorTest {
+
+    @Test
+    public void colorIsParsedOnceWhenSet() {
+        Jugador jugador = new Jugador("Ana");
+        assertEquals(0xFFFF4081, jugador.getColorInt());
+
+        jugador.setColorHex("#90EE90");
+        assertEquals(0xFF90EE90, jugador.getColorInt());
+
+        jugador.setColorHex("#8090EE90");
+        assertEquals(0x8090EE90, jugador.getColorInt());
+    }
+
+    @Test
+    public void invalidColorsFallBackToGray() {
+        assertEquals(Jugador.COLOR_DESCONOCIDO, new Jugador("Ana", Roles.CIVIL, null).getColorInt());
+        assertEquals(Jugador.COLOR_DESCONOCIDO, Jugador.parseColor("90EE90"));
+        assertEquals(Jugador.COLOR_DESCONOCIDO, Jugador.parseColor("#90EE9"));
+        assertEquals(Jugador.COLOR_DESCONOCIDO, Jugador.parseColor("#ZZEE90"));
+    }
+
+    @Test
+    public void idsAreUniquePerInstance() {
+        assertNotEquals(new Jugador("Ana").getId(), new Jugador("Ana").getId());
+    }
+}
@@ -0,0 +1,78 @@
+package ies.carrillo.impostor.model;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PackSearchIndexTest {
+
+    @Test
+    public void findsPacksByAccentInsensitiveWordPrefix() {
+        PackSearchIndex index = new PackSearchIndex();
+        index.putPack("Naturaleza", new String[]{"Árbol", "Volcán", "Río"});
+        index.putPack("Geografía", new String[]{"Volcán activo", "Volga"});
+        index.putPack("Comida", new String[]{"Paella"});
+
+        List<PackSearchIndex.Hit> hits = index.search("volcan", 10);
+        assertEquals(2, hits.size());
+        // Misma puntuación: por nombre
+        assertEquals("Volcán activo", hits.get(0).matchedWord);
+        assertEquals("Naturaleza", hits.get(1).pack);
+        assertEquals("Volcán", hits.get(1).matchedWord);
+
+        hits = index.search("VOL", 10);
+        assertEquals(2, hits.size());
+        // Dos palabras que empiezan por "vol" puntúan más que una
+        assertEquals("Geografía", hits.get(0).pack);
+        assertEquals(2, hits.get(0).matches);
+        assertTrue(index.search("xyz", 10).isEmpty());
+    }
+
+    @Test
+    public void packNameRanksAboveWordsAndAllTermsMustMatch() {
+        PackSearchIndex index = new PackSearchIndex();
+        index.putPack("Cine y TV", new String[]{"Titanic"});
+        index.putPack("Historia", new String[]{"Cine mudo", "Torre Eiffel"});
+
+        List<PackSearchIndex.Hit> hits = index.search("cine", 10);
+        assertEquals("Cine y TV", hits.get(0).pack);
+        assertTrue(hits.get(0).nameMatch);
+        assertNull(hits.get(0).matchedWord);
+        assertEquals("Historia", hits.get(1).pack);
+        assertFalse(hits.get(1).nameMatch);
+
+        hits = index.search("torre eif", 10);
+        assertEquals(1, hits.size());
+        assertEquals("Torre Eiffel", hits.get(0).matchedWord);
+        assertTrue(index.search("torre titanic", 10).isEmpty());
+        assertEquals(1, index.search("cine", 1).size());
+    }
+
+    @Test
+    public void updatesIncrementallyWhenPacksChange() {
+        PackSearchIndex index = new PackSearchIndex();
+        index.putPack("Mío", new String[]{"Volcán"});
+        assertEquals(1, index.search("volcan", 10).size());
+
+        index.putPack("Mío", new String[]{"Montaña"});
+        assertTrue(index.search("volcan", 10).isEmpty());
+        assertEquals(1, index.search("MONTAÑA", 10).size());
+        assertEquals(1, index.packCount());
+
+        index.removePack("Mío");
+        assertTrue(index.search("MONTAÑA", 10).isEmpty());
+        assertEquals(0, index.termCount());
+    }
+
+    @Test
+    public void tokenizesOnNonLetters() {
+        assertArrayEquals(new String[]{"torre", "eiffel", "2"}, PackSearchIndex.tokens("torre-eiffel (2)"));
+        assertEquals(0, PackSearchIndex.tokens("  ").length);
+    }
+}
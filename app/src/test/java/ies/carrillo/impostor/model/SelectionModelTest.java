@@ -0,0 +1,53 @@
+package ies.carrillo.impostor.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SelectionModelTest {
+
+    @Test
+    public void keepsCountInSyncWithBits() {
+        SelectionModel selection = new SelectionModel();
+        assertTrue(selection.set(3, true));
+        assertFalse(selection.set(3, true));
+        assertTrue(selection.set(130, true));
+        assertFalse(selection.set(-1, true));
+        assertEquals(2, selection.count());
+        assertTrue(selection.isSelected(130));
+        assertFalse(selection.isSelected(129));
+
+        assertTrue(selection.set(3, false));
+        assertEquals(1, selection.count());
+        selection.clear();
+        assertTrue(selection.isEmpty());
+    }
+
+    @Test
+    public void iteratesAndRoundTripsThroughLongArray() {
+        SelectionModel selection = new SelectionModel();
+        selection.set(0, true);
+        selection.set(63, true);
+        selection.set(64, true);
+        selection.set(200, true);
+
+        assertEquals(0, selection.nextSelected(0));
+        assertEquals(63, selection.nextSelected(1));
+        assertEquals(64, selection.nextSelected(64));
+        assertEquals(200, selection.nextSelected(65));
+        assertEquals(-1, selection.nextSelected(201));
+
+        long[] bits = selection.toLongArray();
+        assertEquals(4, bits.length);
+        SelectionModel copy = SelectionModel.fromLongArray(bits);
+        assertEquals(4, copy.count());
+        assertArrayEquals(bits, copy.toLongArray());
+
+        selection.set(200, false);
+        assertEquals(2, selection.toLongArray().length);
+        assertTrue(SelectionModel.fromLongArray(null).isEmpty());
+    }
+}
@@ -0,0 +1,74 @@
+package ies.carrillo.impostor.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SortedWordListTest {
+
+    @Test
+    public void keepsAlphabeticalOrderIgnoringAccentsAndCase() {
+        SortedWordList list = new SortedWordList(new String[]{"Volcán", "árbol", "Montaña", "Río", "Abeja"});
+
+        assertEquals(Arrays.asList("Abeja", "árbol", "Montaña", "Río", "Volcán"), contenido(list));
+        assertEquals(3, list.indexOf("Río"));
+        assertEquals(-1, list.indexOf("rio"));
+    }
+
+    @Test
+    public void insertAndRemoveReportExactPositions() {
+        SortedWordList list = new SortedWordList(new String[]{"Abeja", "Montaña", "Volcán"});
+
+        assertEquals(1, list.insert("Árbol"));
+        assertEquals(-1, list.insert("Árbol"));
+        assertEquals(4, list.insert("Zorro"));
+        assertEquals(2, list.remove("Montaña"));
+        assertEquals(-1, list.remove("Montaña"));
+        assertEquals(Arrays.asList("Abeja", "Árbol", "Volcán", "Zorro"), contenido(list));
+    }
+
+    @Test
+    public void prefixRangeCoversOnlyMatchingWords() {
+        SortedWordList list = new SortedWordList(new String[]{"Mar", "Marea", "Mármol", "Mesa", "Mapa", "Luna"});
+
+        int desde = list.prefixStart("mar");
+        int hasta = list.prefixEnd("MAR");
+        assertEquals(Arrays.asList("Mar", "Marea", "Mármol"), contenido(list).subList(desde, hasta));
+
+        assertEquals(0, list.prefixStart(""));
+        assertEquals(list.size(), list.prefixEnd(""));
+        assertEquals(list.prefixStart("x"), list.prefixEnd("x"));
+        assertTrue(SortedWordList.matchesPrefix("Mármol", "marm"));
+    }
+
+    @Test
+    public void matchesSortingFromScratchAfterRandomEdits() {
+        Random random = new Random(7);
+        SortedWordList list = new SortedWordList(new String[0]);
+        List<String> esperado = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            String word = "p" + random.nextInt(500);
+            if (random.nextBoolean()) {
+                int index = list.insert(word);
+                if (index >= 0) esperado.add(index, word);
+            } else {
+                int index = list.remove(word);
+                if (index >= 0) assertEquals(word, esperado.remove(index));
+            }
+        }
+        assertEquals(esperado, contenido(list));
+        assertEquals(esperado, contenido(new SortedWordList(esperado.toArray(new String[0]))));
+    }
+
+    private static List<String> contenido(SortedWordList list) {
+        List<String> words = new ArrayList<>();
+        for (int i = 0; i < list.size(); i++) words.add(list.wordAt(i));
+        return words;
+    }
+}
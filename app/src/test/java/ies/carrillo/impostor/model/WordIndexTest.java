@@ -0,0 +1,79 @@
+package ies.carrillo.impostor.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WordIndexTest {
+
+    @Test
+    public void normalizationFoldsAccentsAndCaseButKeepsEnye() {
+        assertEquals("arbol", WordIndex.normalize("  Árbol "));
+        assertEquals("pinguino", WordIndex.normalize("PINGÜINO"));
+        // Forma ya descompuesta (A + acento combinado) y forma compuesta dan lo mismo.
+        assertEquals(WordIndex.normalize("A\u0301lbum"), WordIndex.normalize("\u00C1lbum"));
+        assertEquals("año", WordIndex.normalize("Año"));
+        assertFalse(WordIndex.sameText("año", "ano"));
+        assertTrue(WordIndex.sameText("Volcán", "volcan"));
+    }
+
+    @Test
+    public void findsDuplicatesInOtherPacks() {
+        WordIndex index = new WordIndex();
+        index.putPack("Naturaleza", new String[]{"Árbol", "Río", "Volcán"});
+        index.putPack("Mapa", new String[]{"rio", "Montaña"});
+
+        assertEquals("Naturaleza", index.findPack("arbol", "Mapa"));
+        assertNull(index.findPack("ÁRBOL", "Naturaleza"));
+        assertEquals("Mapa", index.findPack("Río", "Naturaleza"));
+        assertEquals("Naturaleza", index.findPack("Río", "Mapa"));
+        assertNull(index.findPack("Desierto", null));
+        assertEquals(4, index.size());
+    }
+
+    @Test
+    public void replacingAndRemovingPacksKeepsCountsRight() {
+        WordIndex index = new WordIndex();
+        index.putPack("A", new String[]{"Sol", "Luna", "sol"});
+        index.putPack("B", new String[]{"Sol"});
+
+        // Editar A: "Sol" sale del paquete pero sigue en B.
+        index.putPack("A", new String[]{"Luna", "Estrella"});
+        assertEquals("B", index.findPack("sol", "A"));
+        assertNull(index.findPack("sol", "B"));
+
+        index.removePack("B");
+        assertFalse(index.contains("Sol"));
+        assertTrue(index.contains("estrella"));
+        assertFalse(index.containsPack("B"));
+
+        index.removePack("A");
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void importRejectsAccentVariantsOfExistingWords() throws IOException {
+        WordStore store = new WordStore();
+        store.put("Árbol", "Hoja");
+        HashSet<String> keys = new HashSet<>();
+        keys.add(WordIndex.normalize("Árbol"));
+
+        String csv = "arbol,Tronco\nCamión,Rueda\ncamion,Carga\nÉl,el\n";
+        WordPackCodec.Result result = WordPackCodec.importPairs(
+                new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)), -1,
+                WordPackCodec.Format.CSV, store, keys, null);
+
+        assertEquals(1, result.imported);
+        assertEquals(2, result.duplicates);
+        assertEquals(1, result.sameAsClue);
+        assertTrue(keys.contains("camion"));
+    }
+}
@@ -0,0 +1,141 @@
+package ies.carrillo.impostor.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WordPackCodecTest {
+
+    @Test
+    public void csvWithQuotesHeaderAndSemicolonsAcrossChunks() throws IOException {
+        String csv = "\uFEFFpalabra;pista\r\n"
+                + "Árbol;Hoja\r\n"
+                + "\"Coma, punto\";\"Dice \"\"hola\"\"\"\r\n"
+                + "\"Dos\nlíneas\";Salto\r\n"
+                + "\r\n"
+                + "Volcán;Lava";
+        WordStore store = new WordStore();
+        // Bloques de 3 caracteres: las comillas y los CRLF quedan partidos entre bloques.
+        WordPackCodec.Result result = WordPackCodec.importPairs(bytes(csv), -1,
+                WordPackCodec.Format.CSV, store, null, null, 3);
+
+        assertEquals(4, result.imported);
+        assertEquals(0, result.rejected());
+        assertEquals("Hoja", store.getClue("Árbol"));
+        assertEquals("Dice \"hola\"", store.getClue("Coma, punto"));
+        assertEquals("Salto", store.getClue("Dos\nlíneas"));
+        assertEquals("Lava", store.getClue("Volcán"));
+    }
+
+    @Test
+    public void invalidPairsAreCountedAndSkipped() throws IOException {
+        WordStore store = new WordStore();
+        store.put("Sol", "Luz");
+        String csv = "Sol,Calor\n"      // ya en el paquete
+                + "Mar,Agua\n"
+                + "Mar,Sal\n"           // repetido en el fichero
+                + "Gato, \n"            // pista vacía
+                + "Perro,perro\n"       // palabra igual a la pista
+                + "Solo una columna\n"
+                + "\"sin cerrar,x\n";
+
+        WordPackCodec.Result result = WordPackCodec.importPairs(bytes(csv), -1,
+                WordPackCodec.Format.CSV, store, null);
+
+        assertEquals(1, result.imported);
+        assertEquals(2, result.duplicates);
+        assertEquals(1, result.empty);
+        assertEquals(1, result.sameAsClue);
+        assertEquals(2, result.malformed);
+        assertEquals(1, result.firstRejectedLine);
+        assertEquals("Luz", store.getClue("Sol"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void fieldsLongerThanTheScreenLimitAreRejected() throws IOException {
+        StringBuilder larga = new StringBuilder();
+        for (int i = 0; i < 70_000; i++) larga.append('a');
+        String limite = "Veinte caracteres!!!";
+        String csv = "Sol," + larga + "\n"
+                + larga + ",Luz\n"
+                + limite + ",Pista\n";
+
+        WordStore store = new WordStore();
+        WordPackCodec.Result result = WordPackCodec.importPairs(bytes(csv), -1,
+                WordPackCodec.Format.CSV, store, null);
+
+        assertEquals(1, result.imported);
+        assertEquals(2, result.tooLong);
+        assertEquals(1, result.firstRejectedLine);
+        assertEquals("Pista", store.getClue(limite));
+    }
+
+    @Test
+    public void jsonLinesWithEscapesAndExtraKeys() throws IOException {
+        String jsonl = "{\"palabra\": \"Caf\\u00e9\", \"pista\": \"Taza\", \"nivel\": 2}\n"
+                + "\n"
+                + "{\"word\":\"Tab\\tulado\",\"clue\":\"Dice \\\"hola\\\"\"}\n"
+                + "{\"palabra\":\"Roto\"\n"
+                + "[1,2]\n";
+        WordStore store = new WordStore();
+        WordPackCodec.Result result = WordPackCodec.importPairs(bytes(jsonl), -1,
+                WordPackCodec.Format.JSONL, store, null, null, 5);
+
+        assertEquals(2, result.imported);
+        assertEquals(2, result.malformed);
+        assertEquals(4, result.firstRejectedLine);
+        assertEquals("Taza", store.getClue("Café"));
+        assertEquals("Dice \"hola\"", store.getClue("Tab\tulado"));
+    }
+
+    @Test
+    public void exportRoundTripsInBothFormats() throws IOException {
+        WordStore original = new WordStore();
+        original.put("Árbol", "Hoja");
+        original.put("Coma, \"comillas\"", "Línea\nnueva");
+        original.put("Punto;coma", "Tab\tulado");
+
+        for (WordPackCodec.Format format : WordPackCodec.Format.values()) {
+            StringWriter out = new StringWriter();
+            WordPackCodec.exportPairs(original, format, out);
+
+            WordStore copia = new WordStore();
+            WordPackCodec.Result result = WordPackCodec.importPairs(bytes(out.toString()), -1,
+                    format, copia, null);
+            assertEquals(format.name(), 3, result.imported);
+            assertEquals(format.name(), original.asMap(), copia.asMap());
+        }
+    }
+
+    @Test
+    public void progressIsReportedWithByteCounts() throws IOException {
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 20_000; i++) csv.append("Palabra ").append(i).append(",Pista ").append(i).append('\n');
+        byte[] data = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        long[] last = new long[2];
+        int[] calls = new int[1];
+        WordPackCodec.Result result = WordPackCodec.importPairs(new ByteArrayInputStream(data), data.length,
+                WordPackCodec.Format.CSV, new WordStore(), (read, total, imported) -> {
+                    calls[0]++;
+                    last[0] = read;
+                    last[1] = imported;
+                });
+
+        assertEquals(20_000, result.imported);
+        assertEquals(data.length, last[0]);
+        assertEquals(20_000, last[1]);
+        assertTrue(calls[0] > 1);
+    }
+
+    private static ByteArrayInputStream bytes(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
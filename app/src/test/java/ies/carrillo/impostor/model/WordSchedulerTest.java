@@ -0,0 +1,144 @@
+package ies.carrillo.impostor.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WordSchedulerTest {
+
+    @Test
+    public void noPairRepeatsUntilTheBagIsEmpty() {
+        WordScheduler scheduler = new WordScheduler(new Random(1));
+        scheduler.setSelection(Arrays.asList(pack("A", 5), pack("B", 30), pack("C", 1)));
+
+        HashSet<String> vistas = new HashSet<>();
+        for (int i = 0; i < 36; i++) {
+            Categoria categoria = scheduler.draw();
+            assertTrue("Repetida: " + categoria.getWord(), vistas.add(categoria.getWord()));
+        }
+        assertEquals(0, scheduler.getRemaining());
+
+        // Bolsa vacía: se rellena y vuelve a salir todo.
+        scheduler.draw();
+        assertEquals(35, scheduler.getRemaining());
+    }
+
+    @Test
+    public void deselectedPacksKeepTheirProgress() {
+        WordScheduler scheduler = new WordScheduler(new Random(2));
+        Categoria a = pack("A", 10);
+        Categoria b = pack("B", 10);
+        scheduler.setSelection(Arrays.asList(a, b));
+        for (int i = 0; i < 8; i++) scheduler.draw();
+        int restantesA = scheduler.getRemaining("A");
+
+        scheduler.setSelection(Arrays.asList(b));
+        assertEquals(scheduler.getRemaining("B"), scheduler.getRemaining());
+
+        scheduler.setSelection(Arrays.asList(a, b));
+        assertEquals(restantesA, scheduler.getRemaining("A"));
+        assertEquals(12, scheduler.getRemaining());
+    }
+
+    @Test
+    public void progressSurvivesSerialization() throws IOException {
+        WordScheduler scheduler = new WordScheduler(new Random(3));
+        Categoria a = pack("A", 20);
+        scheduler.setSelection(Arrays.asList(a));
+        HashSet<String> vistas = new HashSet<>();
+        for (int i = 0; i < 12; i++) vistas.add(scheduler.draw().getWord());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        scheduler.writeTo(new DataOutputStream(bytes));
+
+        WordScheduler restaurado = new WordScheduler(new Random(4));
+        restaurado.readFrom(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        restaurado.setSelection(Arrays.asList(a));
+        assertEquals(8, restaurado.getRemaining());
+        for (int i = 0; i < 8; i++) {
+            String palabra = restaurado.draw().getWord();
+            assertTrue("Repetida tras reiniciar: " + palabra, vistas.add(palabra));
+        }
+    }
+
+    @Test
+    public void editedPackStartsAFreshBag() {
+        WordScheduler scheduler = new WordScheduler(new Random(5));
+        Categoria a = pack("A", 4);
+        scheduler.setSelection(Arrays.asList(a));
+        scheduler.draw();
+        a.addPalabra("nueva", "pista");
+
+        scheduler.draw();
+        assertEquals(4, scheduler.getRemaining());
+    }
+
+    @Test
+    public void sameSizeEditStartsAFreshBag() {
+        WordScheduler scheduler = new WordScheduler(new Random(6));
+        Categoria a = pack("A", 4);
+        scheduler.setSelection(Arrays.asList(a));
+        HashSet<String> vistas = new HashSet<>();
+        for (int i = 0; i < 3; i++) vistas.add(scheduler.draw().getWord());
+
+        // Mismo tamaño, otras posiciones: quitar un par mueve el último a su hueco.
+        String quitada = vistas.iterator().next();
+        a.removePalabra(quitada);
+        a.addPalabra("nueva", "pista");
+
+        scheduler.draw();
+        assertEquals(3, scheduler.getRemaining());
+        HashSet<String> ronda = new HashSet<>();
+        while (scheduler.getRemaining() > 0) ronda.add(scheduler.draw().getWord());
+        assertEquals(3, ronda.size());
+    }
+
+    @Test
+    public void userWeightsOverrideSizeWeighting() {
+        WordScheduler scheduler = new WordScheduler(new Random(7));
+        Categoria grande = pack("Grande", 900);
+        Categoria pequeno = pack("Pequeño", 10);
+        scheduler.setSelection(Arrays.asList(grande, pequeno));
+        // El pequeño pesa como el paquete medio (455), el grande por tamaño (900).
+        scheduler.setWeight("Pequeño", 100);
+
+        int pequenas = 0;
+        int rondas = 13_550;
+        for (int i = 0; i < rondas; i++) {
+            if (scheduler.draw() == pequeno) pequenas++;
+        }
+        double esperado = rondas * 455.0 / 1355.0;
+        assertTrue("Salidas del pequeño: " + pequenas, Math.abs(pequenas - esperado) < 350);
+
+        // Volver a automático recupera la bolsa global proporcional al tamaño.
+        scheduler.setWeight("Pequeño", 0);
+        assertEquals(0, scheduler.getWeight("Pequeño"));
+        scheduler.draw();
+    }
+
+    @Test
+    public void emptySelectionDrawsNothing() {
+        WordScheduler scheduler = new WordScheduler(new Random(6));
+        scheduler.setSelection(Arrays.asList(pack("Vacío", 0)));
+        assertNull(scheduler.draw());
+    }
+
+    private static Categoria pack(String name, int pairs) {
+        WordStore store = new WordStore(pairs);
+        for (int i = 0; i < pairs; i++) {
+            store.put(name + " " + i, "pista " + i);
+        }
+        return new Categoria(name, store);
+    }
+}
@@ -0,0 +1,118 @@
+package ies.carrillo.impostor.model;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class WordStoreTest {
+
+    @Test
+    public void putAddsAndOverwritesInPlace() {
+        WordStore store = new WordStore(1);
+        assertNull(store.put("Sol", "Estrella"));
+        assertNull(store.put("Luna", "Satélite"));
+        assertNull(store.put("Marte", "Planeta"));
+
+        // Misma palabra: cambia la pista y no se mueve ni crece
+        int modCount = store.getModCount();
+        assertEquals("Satélite", store.put("Luna", "Noche"));
+        assertEquals(3, store.size());
+        assertEquals(1, store.indexOf("Luna"));
+        assertEquals("Noche", store.clueAt(1));
+        // Las posiciones no cambian: tampoco la versión de la categoría
+        assertEquals(modCount, store.getModCount());
+    }
+
+    @Test
+    public void removeLastAndMiddlePairKeepsIndexConsistent() {
+        WordStore store = store("A", "B", "C", "D");
+
+        assertEquals("pista D", store.remove("D"));
+        assertArrayEquals(new String[]{"A", "B", "C"}, words(store));
+
+        // El último ocupa el hueco del borrado
+        assertEquals("pista A", store.remove("A"));
+        assertArrayEquals(new String[]{"C", "B"}, words(store));
+        assertArrayEquals(new String[]{"pista C", "pista B"}, clues(store));
+        assertEquals(0, store.indexOf("C"));
+        assertEquals(1, store.indexOf("B"));
+        assertEquals(-1, store.indexOf("A"));
+        assertNull(store.remove("A"));
+
+        store.put("E", "pista E");
+        assertEquals(2, store.indexOf("E"));
+        assertEquals("pista E", store.getClue("E"));
+    }
+
+    @Test
+    public void mapViewIsReadOnlyAndFollowsTheStore() {
+        WordStore store = store("A", "B");
+        Map<String, String> view = store.asMap();
+        assertEquals(2, view.size());
+        assertEquals("pista A", view.get("A"));
+
+        store.remove("A");
+        store.put("C", "pista C");
+        assertFalse(view.containsKey("A"));
+        assertTrue(view.containsKey("C"));
+        assertEquals(2, view.entrySet().size());
+
+        try {
+            view.put("D", "pista D");
+            throw new AssertionError("La vista no debería admitir cambios");
+        } catch (UnsupportedOperationException expected) {
+            // Vista de solo lectura
+        }
+    }
+
+    @Test
+    public void serializationKeepsOrderAndRebuildsIndex() throws IOException, ClassNotFoundException {
+        WordStore store = store("Árbol", "Río", "Volcán");
+        store.remove("Árbol");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(store);
+        }
+        WordStore read;
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (WordStore) in.readObject();
+        }
+
+        assertArrayEquals(words(store), words(read));
+        assertArrayEquals(clues(store), clues(read));
+        assertEquals(1, read.indexOf("Río"));
+        assertEquals("pista Volcán", read.getClue("Volcán"));
+        read.put("Mar", "pista Mar");
+        assertEquals(3, read.size());
+    }
+
+    private static WordStore store(String... words) {
+        WordStore store = new WordStore();
+        for (String word : words) store.put(word, "pista " + word);
+        return store;
+    }
+
+    private static String[] words(WordStore store) {
+        String[] words = new String[store.size()];
+        for (int i = 0; i < words.length; i++) words[i] = store.wordAt(i);
+        return words;
+    }
+
+    private static String[] clues(WordStore store) {
+        String[] clues = new String[store.size()];
+        for (int i = 0; i < clues.length; i++) clues[i] = store.clueAt(i);
+        return clues;
+    }
+}
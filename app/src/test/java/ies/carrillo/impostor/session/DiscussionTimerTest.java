@@ -0,0 +1,49 @@
+package ies.carrillo.impostor.session;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class DiscussionTimerTest {
+
+    @Test
+    public void shownSecondsRoundUpUntilTheEnd() {
+        assertEquals(60, DiscussionTimer.secondsShown(60_000));
+        assertEquals(60, DiscussionTimer.secondsShown(59_001));
+        assertEquals(59, DiscussionTimer.secondsShown(59_000));
+        assertEquals(1, DiscussionTimer.secondsShown(1));
+        assertEquals(0, DiscussionTimer.secondsShown(0));
+        assertEquals(0, DiscussionTimer.secondsShown(-250));
+    }
+
+    @Test
+    public void ticksLandOnSecondBoundaries() {
+        // Desde cualquier instante, el siguiente tick cae justo cuando cambia el segundo
+        for (long remaining = 1; remaining <= 5_000; remaining += 7) {
+            long delay = DiscussionTimer.delayToNextSecond(remaining);
+            assertEquals(0, (remaining - delay) % 1000);
+            assertEquals(DiscussionTimer.secondsShown(remaining) - 1, DiscussionTimer.secondsShown(remaining - delay));
+        }
+        assertEquals(1000, DiscussionTimer.delayToNextSecond(60_000));
+        assertEquals(1, DiscussionTimer.delayToNextSecond(59_001));
+    }
+
+    @Test
+    public void textComesFromTheSharedTable() {
+        String[] texts = DiscussionTimer.table(15 * 60);
+        assertEquals("15:00", DiscussionTimer.format(texts, 900_000));
+        assertEquals("01:05", DiscussionTimer.format(texts, 64_500));
+        assertEquals("00:01", DiscussionTimer.format(texts, 1));
+        assertEquals("00:00", DiscussionTimer.format(texts, 0));
+        // Mismas instancias en cada tick: nada que reservar
+        assertSame(DiscussionTimer.format(texts, 30_000), DiscussionTimer.format(texts, 29_500));
+
+        // Ampliar la tabla conserva las cadenas ya hechas
+        String[] bigger = DiscussionTimer.table(20 * 60);
+        assertSame(texts[42], bigger[42]);
+        assertEquals("20:00", DiscussionTimer.format(bigger, 1_200_000));
+        assertEquals("99:59", DiscussionTimer.table(200 * 60)[99 * 60 + 59]);
+        assertEquals("120:00", DiscussionTimer.format(texts, 7_200_000));
+    }
+}
@@ -0,0 +1,143 @@
+package ies.carrillo.impostor.session;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import ies.carrillo.impostor.engine.GameEngine;
+import ies.carrillo.impostor.model.Jugador;
+import ies.carrillo.impostor.roles.Roles;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class GameSessionStoreTest {
+
+    private static final long BOOT = 12;
+    private File dir;
+
+    @Before
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("session").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void roundMidDebateSurvivesProcessDeath() throws Exception {
+        GameSession session = newSession(6);
+        GameEngine engine = session.getEngine();
+        engine.finishReveal();
+        engine.eliminateAt(1);
+        session.startTimer(10_000);
+
+        GameSessionStore store = new GameSessionStore(dir, BOOT);
+        store.save(7, session, 40_000);
+        store.flush();
+
+        // Proceso nuevo, 5 s más tarde en el reloj monotónico
+        long start = System.nanoTime();
+        GameSessionStore.Restored restored = new GameSessionStore(dir, BOOT).load(45_000);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        assertTrue("Restaurar tardó " + elapsedMs + " ms", elapsedMs < 50);
+
+        assertEquals(7, restored.id);
+        GameSession copy = restored.session;
+        assertEquals("Paella", copy.getWord());
+        assertEquals("Comida", copy.getClue());
+        assertEquals(GameEngine.Phase.DISCUSSION, copy.getEngine().getPhase());
+        assertEquals(5, copy.getEngine().getAliveCount());
+        for (int row = 0; row < 5; row++) {
+            assertEquals(engine.aliveSeatAt(row), copy.getEngine().aliveSeatAt(row));
+        }
+        // La cuenta atrás acaba en el mismo instante que la original
+        assertTrue(copy.isTimerRunning());
+        assertEquals(session.getTimerRemaining(45_000), copy.getTimerRemaining(45_000));
+        assertEquals(60_000 - 35_000, copy.getTimerRemaining(45_000));
+    }
+
+    @Test
+    public void revealTurnAndStoppedTimerAreKept() throws Exception {
+        GameSession session = newSession(4);
+        session.getEngine().revealCurrent();
+        session.getEngine().nextReveal();
+        session.getEngine().revealCurrent();
+
+        GameSessionStore.Restored restored = GameSessionStore.decode(GameSessionStore.encode(3, session, 1_000, BOOT), 2_000, BOOT);
+        GameEngine engine = restored.session.getEngine();
+        assertEquals(GameEngine.Phase.REVEAL, engine.getPhase());
+        assertEquals(1, engine.getRevealSeat());
+        assertTrue(engine.isRevealed());
+        assertFalse(restored.session.isTimerStarted());
+        assertEquals(60_000, restored.session.getTimerRemaining(2_000));
+
+        session.startTimer(1_000);
+        session.stopTimer(21_000);
+        restored = GameSessionStore.decode(GameSessionStore.encode(3, session, 30_000, BOOT), 90_000, BOOT);
+        assertFalse(restored.session.isTimerRunning());
+        assertEquals(40_000, restored.session.getTimerRemaining(90_000));
+    }
+
+    @Test
+    public void rebootResumesTheCountdownWithWhatWasLeft() throws Exception {
+        GameSession session = newSession(4);
+        session.getEngine().finishReveal();
+        session.startTimer(10_000);
+        byte[] bytes = GameSessionStore.encode(3, session, 30_000, BOOT);
+
+        // Tras reiniciar, el reloj ya pasó el instante guardado: no es comparable
+        GameSession copy = GameSessionStore.decode(bytes, 200_000, BOOT + 1).session;
+        assertTrue(copy.isTimerRunning());
+        assertEquals(40_000, copy.getTimerRemaining(200_000));
+
+        // Sin número de arranque tampoco se fía del reloj
+        copy = GameSessionStore.decode(GameSessionStore.encode(3, session, 30_000, -1), 35_000, -1).session;
+        assertEquals(40_000, copy.getTimerRemaining(35_000));
+
+        // Mismo arranque: acaba a la misma hora que la original
+        copy = GameSessionStore.decode(bytes, 35_000, BOOT).session;
+        assertEquals(35_000, copy.getTimerRemaining(35_000));
+    }
+
+    @Test
+    public void clearedOrCorruptCopiesAreIgnored() throws Exception {
+        GameSessionStore store = new GameSessionStore(dir, BOOT);
+        store.save(2, newSession(3), 1_000);
+        store.clear(1);
+        store.flush();
+        assertEquals(2, store.load(1_000).id);
+
+        store.clear(2);
+        store.flush();
+        assertNull(store.load(1_000));
+
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "session.bin"))) {
+            out.write(new byte[]{0x53, 0x45, 0x53, 0x32, 0, 0});
+        }
+        assertNull(store.load(1_000));
+    }
+
+    private static GameSession newSession(int players) {
+        List<Jugador> jugadores = new ArrayList<>();
+        for (int i = 0; i < players; i++) {
+            jugadores.add(new Jugador("Jugador " + i, i == 2 ? Roles.IMPOSTOR : Roles.CIVIL, "#FF4081"));
+        }
+        return new GameSession(jugadores, "Comida", "Paella", "Comida", 60, true);
+    }
+}
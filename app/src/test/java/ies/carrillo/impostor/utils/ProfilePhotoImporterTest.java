@@ -0,0 +1,22 @@
+package ies.carrillo.impostor.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ProfilePhotoImporterTest {
+
+    @Test
+    public void sampleSizeKeepsTheShortSideAboveTheTarget() {
+        // Foto de 12 MP (4000x3000) para un avatar de 120 px: 3000/16 = 187 ≥ 120, 3000/32 = 93 < 120.
+        assertEquals(16, ProfilePhotoImporter.calculateInSampleSize(4000, 3000, 120));
+        assertEquals(16, ProfilePhotoImporter.calculateInSampleSize(3000, 4000, 120));
+    }
+
+    @Test
+    public void smallImagesAreNotSubsampled() {
+        assertEquals(1, ProfilePhotoImporter.calculateInSampleSize(100, 80, 120));
+        assertEquals(1, ProfilePhotoImporter.calculateInSampleSize(239, 239, 120));
+        assertEquals(2, ProfilePhotoImporter.calculateInSampleSize(240, 240, 120));
+    }
+}
@@ -0,0 +1,40 @@
+// Benchmarks JMH del núcleo del juego (módulo JVM, sin Android).
+// Ejecutar con: ./gradlew :benchmarks:jmh  -> build/reports/jmh/results.json
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// Se compilan directamente las clases de :app que no dependen del SDK de Android,
+// para medir exactamente el mismo código que se publica.
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "ies/carrillo/impostor/model/**",
+                "ies/carrillo/impostor/utils/GameLogic.java"
+            )
+        }
+    }
+}
+
+dependencies {
+    implementation(project(":engine"))
+    compileOnly(libs.jetbrains.annotations)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    resultsFile.set(layout.buildDirectory.file("reports/jmh/results.json"))
+}
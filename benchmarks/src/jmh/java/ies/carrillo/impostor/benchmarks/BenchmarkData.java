@@ -0,0 +1,50 @@
+package ies.carrillo.impostor.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import ies.carrillo.impostor.model.Categoria;
+import ies.carrillo.impostor.model.Jugador;
+import ies.carrillo.impostor.model.WordStore;
+
+/**
+ * Datos sintéticos compartidos por los benchmarks.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static ArrayList<Jugador> roster(int size) {
+        ArrayList<Jugador> jugadores = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Jugador jugador = new Jugador("Jugador " + i);
+            jugador.setProfileImageUri("android.resource://ies.carrillo.impostor/" + (2131165300 + i % 6));
+            jugadores.add(jugador);
+        }
+        return jugadores;
+    }
+
+    static Categoria pack(String name, int pairs) {
+        WordStore store = new WordStore(pairs);
+        for (int i = 0; i < pairs; i++) {
+            store.put(name + " palabra " + i, "pista " + (i % 997));
+        }
+        return new Categoria(name, store);
+    }
+
+    static List<Categoria> packs(int count, int pairsPerPack) {
+        List<Categoria> categorias = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            categorias.add(pack("Paquete " + i, pairsPerPack));
+        }
+        return categorias;
+    }
+
+    /**
+     * Número de impostores que MainActivity permitiría para ese tamaño de plantilla.
+     */
+    static int impostorsFor(int rosterSize) {
+        return Math.max(1, Math.min(2, rosterSize - 1));
+    }
+}
@@ -0,0 +1,39 @@
+package ies.carrillo.impostor.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import ies.carrillo.impostor.model.Categoria;
+
+/**
+ * Coste de {@link Categoria#seleccionarPalabraAleatoria()} según el tamaño del paquete.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CategoriaBenchmark {
+
+    @Param({"10", "1000", "100000", "1000000"})
+    public int packSize;
+
+    private Categoria categoria;
+
+    @Setup
+    public void setUp() {
+        categoria = BenchmarkData.pack("Paquete", packSize);
+    }
+
+    @Benchmark
+    public String seleccionarPalabraAleatoria() {
+        categoria.seleccionarPalabraAleatoria();
+        return categoria.getWord();
+    }
+}
@@ -0,0 +1,49 @@
+package ies.carrillo.impostor.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ies.carrillo.impostor.model.Categoria;
+
+/**
+ * Búsqueda de una categoría por nombre tal y como la hace
+ * {@code SelectPackagesActivity.onGroupCheckboxToggled} al marcar un grupo,
+ * seguida de la comprobación {@code selectedCategories.contains(...)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CategoryLookupBenchmark {
+
+    @Param({"5", "50", "500"})
+    public int categoryCount;
+
+    private List<Categoria> categorias;
+    private List<Categoria> selectedCategories;
+    private String groupName;
+
+    @Setup
+    public void setUp() {
+        categorias = BenchmarkData.packs(categoryCount, 10);
+        selectedCategories = BenchmarkData.packs(categoryCount / 2 + 1, 10);
+        // Peor caso: el grupo buscado es el último de la lista.
+        groupName = categorias.get(categoryCount - 1).getName();
+    }
+
+    @Benchmark
+    public boolean onGroupCheckboxToggled() {
+        Categoria category = categorias.stream()
+                .filter(cat -> cat.getName().equals(groupName))
+                .findFirst().orElse(null);
+        return category != null && selectedCategories.contains(category);
+    }
+}
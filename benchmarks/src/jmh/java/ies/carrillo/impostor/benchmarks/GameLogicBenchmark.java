@@ -0,0 +1,42 @@
+package ies.carrillo.impostor.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import ies.carrillo.impostor.model.Jugador;
+import ies.carrillo.impostor.utils.GameLogic;
+
+/**
+ * Coste de {@link GameLogic#assignRoles(List, int)} según el tamaño de la plantilla.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class GameLogicBenchmark {
+
+    @Param({"3", "10", "20", "100", "500"})
+    public int rosterSize;
+
+    private List<Jugador> jugadores;
+    private int numImpostores;
+
+    @Setup
+    public void setUp() {
+        jugadores = BenchmarkData.roster(rosterSize);
+        numImpostores = BenchmarkData.impostorsFor(rosterSize);
+    }
+
+    @Benchmark
+    public List<Jugador> assignRoles() {
+        return GameLogic.assignRoles(jugadores, numImpostores);
+    }
+}
@@ -0,0 +1,75 @@
+package ies.carrillo.impostor.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import ies.carrillo.impostor.model.Categoria;
+import ies.carrillo.impostor.model.Jugador;
+
+/**
+ * Coste de serializar jugadores y categorías como {@link Serializable},
+ * que es lo que pagan los extras de Intent que aún los transportan.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @State(Scope.Thread)
+    public static class RosterState {
+        @Param({"3", "20", "500"})
+        public int rosterSize;
+
+        ArrayList<Jugador> jugadores;
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+
+        @Setup
+        public void setUp() {
+            jugadores = BenchmarkData.roster(rosterSize);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class PackState {
+        @Param({"10", "1000", "100000", "1000000"})
+        public int packSize;
+
+        Categoria categoria;
+        final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 16);
+
+        @Setup
+        public void setUp() {
+            categoria = BenchmarkData.pack("Paquete", packSize);
+        }
+    }
+
+    @Benchmark
+    public int serializeJugadores(RosterState state) throws IOException {
+        return serialize(state.buffer, state.jugadores);
+    }
+
+    @Benchmark
+    public int serializeCategoria(PackState state) throws IOException {
+        return serialize(state.buffer, state.categoria);
+    }
+
+    private static int serialize(ByteArrayOutputStream buffer, Serializable value) throws IOException {
+        buffer.reset();
+        try (ObjectOutputStream out = new ObjectOutputStream(buffer)) {
+            out.writeObject(value);
+        }
+        return buffer.size();
+    }
+}
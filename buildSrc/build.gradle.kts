@@ -0,0 +1,18 @@
+plugins {
+    `java-library`
+}
+
+repositories {
+    mavenCentral()
+}
+
+sourceSets {
+    main {
+        // Código sin dependencias de Gradle que también compilan las pruebas de :app
+        java.srcDir("src/shared/java")
+    }
+}
+
+dependencies {
+    implementation(gradleApi())
+}
@@ -0,0 +1,70 @@
+package ies.carrillo.impostor.build;
+
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.tasks.InputDirectory;
+import org.gradle.api.tasks.OutputDirectory;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Compila cada {@code *.csv} del directorio de entrada a un {@code *.pack}
+ * binario dentro de {@code <outputDir>/packs/}, listo para empaquetarse como
+ * asset sin comprimir.
+ */
+public abstract class CompileWordPacksTask extends DefaultTask {
+
+    public static final String ASSET_DIR = "packs";
+    public static final String EXTENSION = ".pack";
+
+    @InputDirectory
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract DirectoryProperty getSourceDir();
+
+    @OutputDirectory
+    public abstract DirectoryProperty getOutputDir();
+
+    @TaskAction
+    public void compile() throws IOException {
+        File packsDir = new File(getOutputDir().get().getAsFile(), ASSET_DIR);
+        deleteContents(packsDir);
+        if (!packsDir.mkdirs() && !packsDir.isDirectory()) {
+            throw new GradleException("No se pudo crear " + packsDir);
+        }
+
+        File[] sources = getSourceDir().get().getAsFile().listFiles((dir, name) -> name.endsWith(".csv"));
+        if (sources == null) return;
+
+        for (File csv : sources) {
+            String baseName = csv.getName().substring(0, csv.getName().length() - ".csv".length());
+            File target = new File(packsDir, baseName + EXTENSION);
+            try (Reader in = new InputStreamReader(Files.newInputStream(csv.toPath()), StandardCharsets.UTF_8);
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(target.toPath()))) {
+                int pairs = WordPackCompiler.compile(in, baseName, out);
+                getLogger().info("Paquete {} compilado: {} parejas", csv.getName(), pairs);
+            } catch (IOException e) {
+                throw new GradleException("Error compilando " + csv.getName() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private static void deleteContents(File dir) {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            //noinspection ResultOfMethodCallIgnored
+            file.delete();
+        }
+    }
+}
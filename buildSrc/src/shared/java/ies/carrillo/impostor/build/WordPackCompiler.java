@@ -0,0 +1,189 @@
+package ies.carrillo.impostor.build;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compila un paquete de palabras en CSV al formato binario ".pack" que la app
+ * mapea en memoria (ver {@code ies.carrillo.impostor.dataBase.MappedWordPack}).
+ *
+ * <pre>
+ * Cabecera (28 bytes, big-endian)
+ *   0  int   magic           'IMPK'
+ *   4  short version         1
+ *   6  short flags           0
+ *   8  int   pairCount
+ *  12  int   nameRef         offset del nombre dentro de la tabla de cadenas
+ *  16  int   indexOffset     offset absoluto del índice
+ *  20  int   stringsOffset   offset absoluto de la tabla de cadenas
+ *  24  int   stringsLength
+ * Índice: pairCount x (int wordRef, int clueRef)
+ * Tabla de cadenas: [u16 longitud][bytes UTF-8] por cadena (sin duplicados)
+ * </pre>
+ *
+ * Formato CSV de entrada: una pareja {@code palabra,pista} por línea, campos
+ * entre comillas dobles si contienen comas. Las líneas que empiezan por '#'
+ * son comentarios salvo {@code # name: Nombre del paquete}.
+ */
+public final class WordPackCompiler {
+
+    public static final int MAGIC = 0x494D504B; // "IMPK"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 28;
+
+    private static final String NAME_DIRECTIVE = "name:";
+
+    private WordPackCompiler() {
+    }
+
+    /**
+     * Lee el CSV y escribe el paquete binario.
+     *
+     * @param fallbackName nombre a usar si el CSV no declara {@code # name:}.
+     * @return número de parejas escritas.
+     */
+    public static int compile(Reader csv, String fallbackName, OutputStream out) throws IOException {
+        String name = fallbackName;
+        // LinkedHashMap: conserva el orden del CSV y, como el antiguo HashMap, la última pista gana.
+        Map<String, String> pairs = new LinkedHashMap<>();
+
+        BufferedReader reader = new BufferedReader(csv);
+        String line;
+        int lineNumber = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty()) continue;
+            if (trimmed.startsWith("#")) {
+                String comment = trimmed.substring(1).trim();
+                if (comment.startsWith(NAME_DIRECTIVE)) {
+                    name = comment.substring(NAME_DIRECTIVE.length()).trim();
+                }
+                continue;
+            }
+
+            List<String> fields = parseCsvLine(trimmed, lineNumber);
+            if (fields.size() != 2) {
+                throw new IOException("Línea " + lineNumber + ": se esperaban 2 campos y hay " + fields.size());
+            }
+            String word = fields.get(0).trim();
+            String clue = fields.get(1).trim();
+            if (word.isEmpty() || clue.isEmpty()) {
+                throw new IOException("Línea " + lineNumber + ": palabra o pista vacía");
+            }
+            pairs.put(word, clue);
+        }
+
+        if (name == null || name.isEmpty()) {
+            throw new IOException("El paquete no tiene nombre");
+        }
+        if (pairs.isEmpty()) {
+            throw new IOException("El paquete '" + name + "' no contiene parejas");
+        }
+
+        write(name, pairs, out);
+        return pairs.size();
+    }
+
+    private static void write(String name, Map<String, String> pairs, OutputStream out) throws IOException {
+        StringTable strings = new StringTable();
+        int nameRef = strings.add(name);
+        int[] refs = new int[pairs.size() * 2];
+        int i = 0;
+        for (Map.Entry<String, String> pair : pairs.entrySet()) {
+            refs[i++] = strings.add(pair.getKey());
+            refs[i++] = strings.add(pair.getValue());
+        }
+
+        int indexOffset = HEADER_SIZE;
+        int stringsOffset = indexOffset + refs.length * 4;
+        byte[] stringBytes = strings.toByteArray();
+
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeShort(0);
+        data.writeInt(pairs.size());
+        data.writeInt(nameRef);
+        data.writeInt(indexOffset);
+        data.writeInt(stringsOffset);
+        data.writeInt(stringBytes.length);
+        for (int ref : refs) {
+            data.writeInt(ref);
+        }
+        data.write(stringBytes);
+        data.flush();
+    }
+
+    /**
+     * Divide una línea CSV respetando comillas dobles ("" escapa una comilla).
+     */
+    static List<String> parseCsvLine(String line, int lineNumber) throws IOException {
+        List<String> fields = new ArrayList<>(2);
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IOException("Línea " + lineNumber + ": comillas sin cerrar");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+
+    // Tabla de cadenas con deduplicación (muchas pistas se repiten entre parejas).
+    private static final class StringTable {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Integer> offsets = new HashMap<>();
+
+        int add(String value) throws IOException {
+            Integer existing = offsets.get(value);
+            if (existing != null) return existing;
+
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            if (utf8.length > 0xFFFF) {
+                throw new IOException("Cadena demasiado larga: " + value.substring(0, 32) + "...");
+            }
+            int offset = bytes.size();
+            bytes.write((utf8.length >>> 8) & 0xFF);
+            bytes.write(utf8.length & 0xFF);
+            bytes.write(utf8);
+            offsets.put(value, offset);
+            return offset;
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
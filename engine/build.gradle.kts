@@ -0,0 +1,13 @@
+// Motor del juego en Java puro: reglas y máquina de estados, sin dependencias de Android.
+plugins {
+    `java-library`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
@@ -0,0 +1,389 @@
+package ies.carrillo.impostor.engine;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Máquina de estados de una partida de Impostor, independiente de Android.
+ *
+ * <pre>
+ * SETUP -> REVEAL -> DISCUSSION <-> VOTE
+ *                         |          |
+ *                         +-> RESULT <+
+ * </pre>
+ *
+ * Los jugadores se identifican por su asiento (índice en la plantilla
+ * original). Los vivos se guardan en {@code alive} en orden de pantalla, de
+ * modo que la fila de una lista y su posición aquí coinciden.
+ * Los contadores de impostores y civiles vivos se mantienen en cada
+ * eliminación, así que comprobar la victoria es O(1).
+ * <p>
+ * Todos los arrays se reservan en el constructor: ninguna transición reserva
+ * memoria. El estado completo cabe en unos pocos bytes por jugador
+ * ({@link #writeState}) para poder retomar la partida si muere el proceso.
+ * La clase no es segura entre hilos.
+ */
+public final class GameEngine {
+
+    public enum Phase {
+        SETUP, REVEAL, DISCUSSION, VOTE, RESULT
+    }
+
+    public enum Winner {
+        NONE, CIVILES, IMPOSTORES
+    }
+
+    /**
+     * Recibe las transiciones del motor (todas en el hilo que las provoca).
+     */
+    public interface Listener {
+        void onPhaseChanged(Phase phase);
+
+        void onRevealTurn(int seat);
+
+        void onPlayerEliminated(int seat, boolean wasImpostor);
+
+        void onGameOver(Winner winner);
+    }
+
+    private final boolean[] impostor;
+    private final int[] alive;
+
+    private int playerCount;
+    private int aliveCount;
+    private int aliveImpostors;
+    private int aliveCivils;
+
+    private Phase phase = Phase.SETUP;
+    private Winner winner = Winner.NONE;
+    private int revealSeat;
+    private boolean revealed;
+    private int lastEliminatedSeat = -1;
+
+    private Listener listener;
+
+    /**
+     * @param capacity número máximo de jugadores que admitirá {@link #setup(int)}.
+     */
+    public GameEngine(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("Capacidad inválida: " + capacity);
+        this.impostor = new boolean[capacity];
+        this.alive = new int[capacity];
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    // ******************************************************
+    // SETUP
+    // ******************************************************
+
+    /**
+     * Prepara una partida nueva con {@code playerCount} civiles.
+     * Se puede llamar en SETUP o en RESULT (revancha).
+     */
+    public void setup(int playerCount) {
+        if (phase != Phase.SETUP && phase != Phase.RESULT) {
+            throw new IllegalStateException("No se puede preparar una partida en fase " + phase);
+        }
+        if (playerCount <= 0 || playerCount > impostor.length) {
+            throw new IllegalArgumentException("Número de jugadores inválido: " + playerCount);
+        }
+        this.playerCount = playerCount;
+        this.aliveCount = playerCount;
+        this.aliveImpostors = 0;
+        this.aliveCivils = playerCount;
+        for (int seat = 0; seat < playerCount; seat++) {
+            impostor[seat] = false;
+            alive[seat] = seat;
+        }
+        this.winner = Winner.NONE;
+        this.revealSeat = 0;
+        this.revealed = false;
+        this.lastEliminatedSeat = -1;
+        changePhase(Phase.SETUP);
+    }
+
+    /**
+     * Marca el rol de un asiento. Solo en SETUP.
+     */
+    public void setImpostor(int seat, boolean isImpostor) {
+        requirePhase(Phase.SETUP);
+        checkSeat(seat);
+        if (impostor[seat] == isImpostor) return;
+        impostor[seat] = isImpostor;
+        if (isImpostor) {
+            aliveImpostors++;
+            aliveCivils--;
+        } else {
+            aliveImpostors--;
+            aliveCivils++;
+        }
+    }
+
+    // ******************************************************
+    // REVEAL
+    // ******************************************************
+
+    /**
+     * Comienza la ronda de revelación por el asiento 0.
+     */
+    public void startReveal() {
+        requirePhase(Phase.SETUP);
+        if (playerCount == 0) throw new IllegalStateException("La partida no tiene jugadores");
+        revealSeat = 0;
+        revealed = false;
+        changePhase(Phase.REVEAL);
+        if (listener != null) listener.onRevealTurn(revealSeat);
+    }
+
+    /**
+     * El jugador del turno actual ve su rol.
+     *
+     * @return true si es impostor.
+     */
+    public boolean revealCurrent() {
+        requirePhase(Phase.REVEAL);
+        revealed = true;
+        return impostor[revealSeat];
+    }
+
+    /**
+     * Pasa al siguiente jugador; tras el último, empieza el debate.
+     */
+    public void nextReveal() {
+        requirePhase(Phase.REVEAL);
+        if (!revealed) throw new IllegalStateException("El jugador " + revealSeat + " aún no ha visto su rol");
+        revealed = false;
+        revealSeat++;
+        if (revealSeat < playerCount) {
+            if (listener != null) listener.onRevealTurn(revealSeat);
+        } else {
+            changePhase(Phase.DISCUSSION);
+        }
+    }
+
+    /**
+     * Da por terminada la revelación sin recorrer los turnos restantes
+     * (p. ej. al restaurar una partida cuyos jugadores ya vieron su rol).
+     */
+    public void finishReveal() {
+        requirePhase(Phase.REVEAL);
+        revealed = false;
+        revealSeat = playerCount;
+        changePhase(Phase.DISCUSSION);
+    }
+
+    // ******************************************************
+    // DISCUSSION / VOTE
+    // ******************************************************
+
+    /**
+     * Termina el debate (p. ej. al agotarse el tiempo) y abre la votación.
+     */
+    public void startVote() {
+        requirePhase(Phase.DISCUSSION);
+        changePhase(Phase.VOTE);
+    }
+
+    /**
+     * Elimina al jugador que ocupa la fila {@code row} de la lista de vivos.
+     * Se admite durante el debate (votación anticipada) o la votación.
+     *
+     * @return el asiento del jugador eliminado.
+     */
+    public int eliminateAt(int row) {
+        if (phase != Phase.DISCUSSION && phase != Phase.VOTE) {
+            throw new IllegalStateException("No se puede eliminar en fase " + phase);
+        }
+        if (row < 0 || row >= aliveCount) {
+            throw new IndexOutOfBoundsException("Fila " + row + ", vivos " + aliveCount);
+        }
+        int seat = alive[row];
+        System.arraycopy(alive, row + 1, alive, row, aliveCount - row - 1);
+        aliveCount--;
+        lastEliminatedSeat = seat;
+
+        boolean wasImpostor = impostor[seat];
+        if (wasImpostor) {
+            aliveImpostors--;
+        } else {
+            aliveCivils--;
+        }
+        if (listener != null) listener.onPlayerEliminated(seat, wasImpostor);
+
+        Winner result = checkWinner();
+        if (result != Winner.NONE) {
+            winner = result;
+            changePhase(Phase.RESULT);
+            if (listener != null) listener.onGameOver(result);
+        } else if (phase == Phase.VOTE) {
+            // Nueva ronda de debate.
+            changePhase(Phase.DISCUSSION);
+        }
+        return seat;
+    }
+
+    // Regla de victoria: sin impostores ganan los civiles; con tantos impostores como civiles, los impostores.
+    private Winner checkWinner() {
+        if (aliveImpostors == 0) return Winner.CIVILES;
+        if (aliveImpostors >= aliveCivils) return Winner.IMPOSTORES;
+        return Winner.NONE;
+    }
+
+    // ******************************************************
+    // CONSULTAS
+    // ******************************************************
+
+    public Phase getPhase() {
+        return phase;
+    }
+
+    public Winner getWinner() {
+        return winner;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    public int getAliveCount() {
+        return aliveCount;
+    }
+
+    public int getAliveImpostors() {
+        return aliveImpostors;
+    }
+
+    public int getAliveCivils() {
+        return aliveCivils;
+    }
+
+    /**
+     * Asiento del jugador que ocupa la fila {@code row} de la lista de vivos.
+     */
+    public int aliveSeatAt(int row) {
+        if (row < 0 || row >= aliveCount) {
+            throw new IndexOutOfBoundsException("Fila " + row + ", vivos " + aliveCount);
+        }
+        return alive[row];
+    }
+
+    public boolean isImpostor(int seat) {
+        checkSeat(seat);
+        return impostor[seat];
+    }
+
+    public int getRevealSeat() {
+        return revealSeat;
+    }
+
+    public boolean isRevealed() {
+        return revealed;
+    }
+
+    public int getLastEliminatedSeat() {
+        return lastEliminatedSeat;
+    }
+
+    // ******************************************************
+    // PERSISTENCIA
+    // ******************************************************
+
+    private static final int STATE_VERSION = 1;
+
+    /**
+     * Escribe el estado de la partida: roles, vivos en orden, fase y turno.
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeByte(STATE_VERSION);
+        out.writeShort(playerCount);
+        for (int seat = 0; seat < playerCount; seat++) out.writeBoolean(impostor[seat]);
+        out.writeShort(aliveCount);
+        for (int row = 0; row < aliveCount; row++) out.writeShort(alive[row]);
+        out.writeByte(phase.ordinal());
+        out.writeByte(winner.ordinal());
+        out.writeShort(revealSeat);
+        out.writeBoolean(revealed);
+        out.writeShort(lastEliminatedSeat);
+    }
+
+    /**
+     * Restaura un estado escrito con {@link #writeState}, sin avisar al listener.
+     * Los contadores de vivos se recalculan.
+     *
+     * @throws IOException si los datos no son válidos; el motor queda como estaba.
+     */
+    public void readState(DataInput in) throws IOException {
+        if (in.readUnsignedByte() != STATE_VERSION) throw new IOException("Versión de estado desconocida");
+        int players = in.readUnsignedShort();
+        if (players == 0 || players > impostor.length) throw new IOException("Jugadores: " + players);
+        boolean[] roles = new boolean[players];
+        for (int seat = 0; seat < players; seat++) roles[seat] = in.readBoolean();
+        int aliveRows = in.readUnsignedShort();
+        if (aliveRows > players) throw new IOException("Vivos: " + aliveRows);
+        int[] aliveSeats = new int[aliveRows];
+        boolean[] seen = new boolean[players];
+        for (int row = 0; row < aliveRows; row++) {
+            int seat = in.readUnsignedShort();
+            if (seat >= players || seen[seat]) throw new IOException("Asiento vivo inválido: " + seat);
+            seen[seat] = true;
+            aliveSeats[row] = seat;
+        }
+        int phaseOrdinal = in.readUnsignedByte();
+        int winnerOrdinal = in.readUnsignedByte();
+        if (phaseOrdinal >= Phase.values().length || winnerOrdinal >= Winner.values().length) {
+            throw new IOException("Fase inválida");
+        }
+        int seatOfReveal = in.readUnsignedShort();
+        boolean wasRevealed = in.readBoolean();
+        int lastEliminated = in.readShort();
+        if (seatOfReveal > players || lastEliminated < -1 || lastEliminated >= players) {
+            throw new IOException("Turno inválido");
+        }
+
+        // Todo leído y validado: ahora se aplica
+        playerCount = players;
+        System.arraycopy(roles, 0, impostor, 0, players);
+        aliveCount = aliveRows;
+        System.arraycopy(aliveSeats, 0, alive, 0, aliveRows);
+        aliveImpostors = 0;
+        aliveCivils = 0;
+        for (int row = 0; row < aliveRows; row++) {
+            if (impostor[alive[row]]) {
+                aliveImpostors++;
+            } else {
+                aliveCivils++;
+            }
+        }
+        phase = Phase.values()[phaseOrdinal];
+        winner = Winner.values()[winnerOrdinal];
+        revealSeat = seatOfReveal;
+        revealed = wasRevealed;
+        lastEliminatedSeat = lastEliminated;
+    }
+
+    // ******************************************************
+    // INTERNOS
+    // ******************************************************
+
+    private void changePhase(Phase next) {
+        if (phase == next) return;
+        phase = next;
+        if (listener != null) listener.onPhaseChanged(next);
+    }
+
+    private void requirePhase(Phase expected) {
+        if (phase != expected) {
+            throw new IllegalStateException("Se esperaba la fase " + expected + " y la actual es " + phase);
+        }
+    }
+
+    private void checkSeat(int seat) {
+        if (seat < 0 || seat >= playerCount) {
+            throw new IndexOutOfBoundsException("Asiento " + seat + ", jugadores " + playerCount);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package ies.carrillo.impostor.engine;
+
+import java.util.SplittableRandom;
+
+/**
+ * Elige los asientos de los impostores con un Fisher–Yates parcial.
+ * <p>
+ * Solo se hacen {@code k} intercambios sobre un {@code int[]} reutilizado, y
+ * el generador vive tanto como el asignador (nada de un {@code Random} nuevo
+ * por partida, que repetía resultado en el mismo milisegundo). Como Fisher–Yates
+ * parcial da un subconjunto uniforme partiendo de cualquier permutación, el
+ * array no se reinicia entre llamadas con el mismo número de jugadores.
+ * <p>
+ * Con semilla ({@link #RoleAssigner(long)}) la secuencia de repartos es
+ * reproducible. No es segura entre hilos: para trabajar en paralelo, cada
+ * hilo usa su propio asignador obtenido con {@link #split()}.
+ */
+public final class RoleAssigner {
+
+    private SplittableRandom random;
+    private int[] seats = new int[0];
+    private int seatCount;
+
+    public RoleAssigner() {
+        this(new SplittableRandom());
+    }
+
+    public RoleAssigner(long seed) {
+        this(new SplittableRandom(seed));
+    }
+
+    private RoleAssigner(SplittableRandom random) {
+        this.random = random;
+    }
+
+    /**
+     * Reinicia la secuencia con una semilla (p. ej. para repetir una ronda).
+     */
+    public void reseed(long seed) {
+        random = new SplittableRandom(seed);
+        seatCount = 0;
+    }
+
+    /**
+     * Asignador independiente para otro hilo, derivado de este generador.
+     */
+    public RoleAssigner split() {
+        return new RoleAssigner(random.split());
+    }
+
+    /**
+     * Sortea {@code impostorCount} asientos distintos entre {@code playerCount}.
+     *
+     * @return array interno cuyas primeras {@code impostorCount} posiciones son
+     * los asientos elegidos. Se sobrescribe en la siguiente llamada.
+     */
+    public int[] pick(int playerCount, int impostorCount) {
+        if (impostorCount < 0 || impostorCount > playerCount) {
+            throw new IllegalArgumentException(impostorCount + " impostores para " + playerCount + " jugadores");
+        }
+        if (playerCount != seatCount) {
+            if (seats.length < playerCount) seats = new int[playerCount];
+            for (int i = 0; i < playerCount; i++) seats[i] = i;
+            seatCount = playerCount;
+        }
+        for (int i = 0; i < impostorCount; i++) {
+            int j = i + random.nextInt(playerCount - i);
+            int seat = seats[j];
+            seats[j] = seats[i];
+            seats[i] = seat;
+        }
+        return seats;
+    }
+
+    /**
+     * Reparte los roles directamente en un motor en fase SETUP.
+     */
+    public void assign(GameEngine engine, int impostorCount) {
+        int[] chosen = pick(engine.getPlayerCount(), impostorCount);
+        for (int i = 0; i < impostorCount; i++) {
+            engine.setImpostor(chosen[i], true);
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package ies.carrillo.impostor.net;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+
+/**
+ * Lado del jugador en la revelación en varios móviles.
+ * <p>
+ * Usa un socket bloqueante normal: cada móvil tiene una sola conexión y la
+ * atiende desde un hilo de fondo, así que no necesita selector. Los métodos
+ * bloquean y no son seguros entre hilos.
+ */
+public final class RevealClient implements Closeable {
+
+    /**
+     * Rol recibido del anfitrión.
+     */
+    public static final class Reveal {
+        public final int seat;
+        public final boolean impostor;
+        // Palabra (civil) o pista (impostor); vacío si el impostor no tiene pista
+        public final String text;
+
+        Reveal(int seat, boolean impostor, String text) {
+            this.seat = seat;
+            this.impostor = impostor;
+            this.text = text;
+        }
+    }
+
+    /**
+     * El anfitrión no ha aceptado al jugador.
+     */
+    public static final class RejectedException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        public final int reason;
+
+        RejectedException(int reason) {
+            super("Rechazado por el anfitrión (" + reason + ")");
+            this.reason = reason;
+        }
+    }
+
+    private final Socket socket;
+    private final DataInputStream in;
+    private final OutputStream out;
+    private final byte[] frame = new byte[RevealProtocol.MAX_FRAME];
+    private int seat;
+    private int playerCount;
+
+    private RevealClient(Socket socket) throws IOException {
+        this.socket = socket;
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        this.out = socket.getOutputStream();
+    }
+
+    /**
+     * Conecta con el anfitrión y se presenta con el nombre de la plantilla.
+     *
+     * @param timeoutMs espera máxima para conectar y para recibir el asiento.
+     * @throws RejectedException si el nombre no está o su asiento está ocupado.
+     */
+    public static RevealClient connect(InetSocketAddress host, String name, int timeoutMs) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(host, timeoutMs);
+            socket.setSoTimeout(timeoutMs);
+            RevealClient client = new RevealClient(socket);
+            client.write(RevealProtocol.hello(name));
+
+            ByteBuffer welcome = client.readFrame();
+            byte type = welcome.get();
+            if (type == RevealProtocol.REJECT) throw new RejectedException(welcome.get() & 0xFF);
+            if (type != RevealProtocol.WELCOME) throw new IOException("Se esperaba WELCOME: " + type);
+            client.seat = welcome.getShort() & 0xFFFF;
+            client.playerCount = welcome.getShort() & 0xFFFF;
+            // Hasta la revelación puede pasar lo que tarde el anfitrión
+            socket.setSoTimeout(0);
+            return client;
+        } catch (IOException | RuntimeException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    public int getSeat() {
+        return seat;
+    }
+
+    public int getPlayerCount() {
+        return playerCount;
+    }
+
+    /**
+     * Espera a que el anfitrión revele los roles.
+     */
+    public Reveal awaitReveal() throws IOException {
+        ByteBuffer reveal = readFrame();
+        byte type = reveal.get();
+        if (type != RevealProtocol.REVEAL) throw new IOException("Se esperaba REVEAL: " + type);
+        int revealSeat = reveal.getShort() & 0xFFFF;
+        if (revealSeat != seat) throw new IOException("REVEAL de otro asiento: " + revealSeat);
+        boolean impostor = reveal.get() != 0;
+        return new Reveal(revealSeat, impostor, RevealProtocol.getText(reveal));
+    }
+
+    /**
+     * Confirma que el jugador ya ha visto su rol.
+     */
+    public void acknowledge() throws IOException {
+        write(RevealProtocol.ack(seat));
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    // ******************************************************
+    // INTERNOS
+    // ******************************************************
+
+    private ByteBuffer readFrame() throws IOException {
+        int body = in.readUnsignedShort();
+        if (body < 1 || RevealProtocol.HEADER + body > RevealProtocol.MAX_FRAME) {
+            throw new IOException("Trama de " + body + " bytes");
+        }
+        in.readFully(frame, 0, body);
+        return ByteBuffer.wrap(frame, 0, body);
+    }
+
+    private void write(ByteBuffer frame) throws IOException {
+        out.write(frame.array(), frame.arrayOffset() + frame.position(), frame.remaining());
+        out.flush();
+    }
+}
@@ -0,0 +1,390 @@
+package ies.carrillo.impostor.net;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Anfitrión de la revelación en varios móviles.
+ * <p>
+ * Un único hilo atiende todas las conexiones con un {@link Selector} y
+ * canales no bloqueantes. Cada jugador se presenta con su nombre (HELLO) y
+ * recibe el asiento que tiene en la plantilla; cuando se llama a
+ * {@link #revealAll} se encola a la vez la trama REVEAL de cada asiento y
+ * se escriben todas en la misma vuelta del selector, de modo que nadie ve
+ * su rol antes que el resto. Quien se conecta (o reconecta) después de
+ * revelar recibe la suya al entrar.
+ * <p>
+ * El jugador que tiene el móvil del anfitrión ocupa el asiento local: nadie
+ * puede conectarse a él y lo confirma el propio anfitrión con
+ * {@link #acknowledgeLocal} después de enseñarle su rol en pantalla.
+ * <p>
+ * Los avisos del {@link Listener} llegan en el hilo del selector.
+ * {@link #revealAll}, {@link #acknowledgeLocal} y {@link #close()} se pueden
+ * llamar desde cualquier hilo.
+ */
+public final class RevealHost implements Closeable {
+
+    /**
+     * Avisos del anfitrión (en el hilo del selector).
+     */
+    public interface Listener {
+        void onPlayerJoined(int seat, String name);
+
+        void onPlayerLeft(int seat);
+
+        void onPlayerAcknowledged(int seat);
+
+        void onAllAcknowledged();
+    }
+
+    private static final class Connection {
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(RevealProtocol.MAX_FRAME);
+        final ArrayDeque<ByteBuffer> out = new ArrayDeque<>();
+        int seat = -1;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final String[] roster;
+    private final int localSeat;
+    private final Listener listener;
+    private final Connection[] seats;
+    private final boolean[] acknowledged;
+    private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    // Solo se toca en el hilo del selector
+    private ByteBuffer[] reveals;
+
+    private volatile int joinedCount;
+    private volatile int acknowledgedCount;
+    private volatile boolean closed;
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread thread;
+
+    /**
+     * Anfitrión sin asiento local: todos los jugadores se conectan.
+     */
+    public RevealHost(String[] roster, Listener listener) {
+        this(roster, -1, listener);
+    }
+
+    /**
+     * @param roster    nombres de los jugadores en orden de asiento.
+     * @param localSeat asiento del jugador que tiene este móvil, o -1 si no hay.
+     * @param listener  avisos del anfitrión; puede ser null.
+     */
+    public RevealHost(String[] roster, int localSeat, Listener listener) {
+        if (roster.length == 0 || roster.length > 0xFFFF) {
+            throw new IllegalArgumentException("Número de jugadores inválido: " + roster.length);
+        }
+        if (localSeat < -1 || localSeat >= roster.length) {
+            throw new IllegalArgumentException("Asiento local inválido: " + localSeat);
+        }
+        this.roster = roster.clone();
+        this.localSeat = localSeat;
+        this.listener = listener;
+        this.seats = new Connection[roster.length];
+        this.acknowledged = new boolean[roster.length];
+    }
+
+    /**
+     * Abre el puerto y arranca el hilo del selector.
+     *
+     * @param bind dirección de escucha; puerto 0 para uno libre.
+     * @return el puerto en el que escucha.
+     */
+    public synchronized int start(InetSocketAddress bind) throws IOException {
+        if (thread != null) throw new IllegalStateException("El anfitrión ya está en marcha");
+        selector = Selector.open();
+        try {
+            server = ServerSocketChannel.open();
+            server.configureBlocking(false);
+            server.socket().setReuseAddress(true);
+            server.socket().bind(bind);
+            server.register(selector, SelectionKey.OP_ACCEPT);
+        } catch (IOException e) {
+            if (server != null) server.close();
+            selector.close();
+            throw e;
+        }
+        thread = new Thread(this::loop, "reveal-host");
+        thread.setDaemon(true);
+        thread.start();
+        return server.socket().getLocalPort();
+    }
+
+    public int getPlayerCount() {
+        return roster.length;
+    }
+
+    /**
+     * Jugadores que tienen que conectarse: todos menos el del asiento local.
+     */
+    public int getRemoteCount() {
+        return localSeat >= 0 ? roster.length - 1 : roster.length;
+    }
+
+    /**
+     * Jugadores con asiento ahora mismo.
+     */
+    public int getJoinedCount() {
+        return joinedCount;
+    }
+
+    /**
+     * Jugadores que ya han confirmado que vieron su rol.
+     */
+    public int getAcknowledgedCount() {
+        return acknowledgedCount;
+    }
+
+    /**
+     * Envía a cada jugador su rol: la palabra a los civiles y la pista (si
+     * hay) a los impostores.
+     *
+     * @param impostor rol de cada asiento.
+     * @param clue     pista de los impostores, o null si no tienen.
+     */
+    public void revealAll(boolean[] impostor, String word, String clue) {
+        if (impostor.length != roster.length) {
+            throw new IllegalArgumentException("Se esperaban " + roster.length + " roles");
+        }
+        // Las tramas se preparan fuera del selector: su hilo solo las encola
+        final ByteBuffer[] frames = new ByteBuffer[roster.length];
+        for (int seat = 0; seat < frames.length; seat++) {
+            frames[seat] = RevealProtocol.reveal(seat, impostor[seat], impostor[seat] ? clue : word);
+        }
+        tasks.add(() -> {
+            reveals = frames;
+            for (int seat = 0; seat < seats.length; seat++) {
+                if (seats[seat] != null) send(seats[seat], frames[seat].duplicate());
+            }
+        });
+        Selector s = selector;
+        if (s != null) s.wakeup();
+    }
+
+    /**
+     * El jugador del asiento local ya vio su rol en el móvil del anfitrión.
+     * Cuenta como su ACK; solo vale después de {@link #revealAll}.
+     */
+    public void acknowledgeLocal() {
+        if (localSeat < 0) throw new IllegalStateException("Este anfitrión no tiene asiento local");
+        tasks.add(() -> {
+            if (reveals != null) acknowledge(localSeat);
+        });
+        Selector s = selector;
+        if (s != null) s.wakeup();
+    }
+
+    @Override
+    public synchronized void close() {
+        if (thread == null) return;
+        closed = true;
+        selector.wakeup();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        thread = null;
+    }
+
+    // ******************************************************
+    // HILO DEL SELECTOR
+    // ******************************************************
+
+    private void loop() {
+        try {
+            while (!closed) {
+                selector.select();
+                Runnable task;
+                while ((task = tasks.poll()) != null) task.run();
+
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    try {
+                        if (key.isReadable()) read(connection);
+                        if (key.isValid() && key.isWritable()) flush(connection);
+                    } catch (IOException | BufferUnderflowException e) {
+                        // Trama mal formada o conexión rota: fuera
+                        drop(connection);
+                    }
+                }
+            }
+        } catch (IOException | ClosedSelectorException ignored) {
+            // El selector ya no sirve: se cierra todo igual que en close()
+        } finally {
+            shutdown();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            channel.register(selector, SelectionKey.OP_READ, new Connection(channel));
+        }
+    }
+
+    private void read(Connection connection) throws IOException {
+        if (connection.channel.read(connection.in) < 0) throw new IOException("Conexión cerrada");
+        ByteBuffer in = connection.in;
+        in.flip();
+        int length;
+        while ((length = RevealProtocol.frameLength(in)) > 0) {
+            int end = in.position() + length;
+            ByteBuffer frame = in.duplicate();
+            frame.limit(end);
+            frame.position(in.position() + RevealProtocol.HEADER);
+            in.position(end);
+            handle(connection, frame);
+            if (!connection.channel.isOpen()) return;
+        }
+        in.compact();
+    }
+
+    private void handle(Connection connection, ByteBuffer frame) throws IOException {
+        byte type = frame.get();
+        switch (type) {
+            case RevealProtocol.HELLO:
+                if (connection.seat >= 0) throw new IOException("HELLO repetido");
+                int version = frame.get() & 0xFF;
+                if (version != RevealProtocol.VERSION) {
+                    reject(connection, RevealProtocol.REJECT_VERSION);
+                    return;
+                }
+                join(connection, RevealProtocol.getText(frame));
+                break;
+            case RevealProtocol.ACK:
+                int seat = frame.getShort() & 0xFFFF;
+                if (seat != connection.seat || reveals == null) throw new IOException("ACK inesperado");
+                acknowledge(seat);
+                break;
+            default:
+                throw new IOException("Trama desconocida: " + type);
+        }
+    }
+
+    private void acknowledge(int seat) {
+        if (acknowledged[seat]) return;
+        acknowledged[seat] = true;
+        acknowledgedCount++;
+        if (listener != null) {
+            listener.onPlayerAcknowledged(seat);
+            if (acknowledgedCount == roster.length) listener.onAllAcknowledged();
+        }
+    }
+
+    private void join(Connection connection, String name) throws IOException {
+        // El primer asiento libre con ese nombre (puede haber nombres repetidos)
+        String key = normalize(name);
+        boolean known = false;
+        int seat = -1;
+        for (int i = 0; i < roster.length && seat < 0; i++) {
+            if (!normalize(roster[i]).equals(key)) continue;
+            known = true;
+            // El asiento local está siempre ocupado: ese jugador tiene el móvil del anfitrión
+            if (seats[i] == null && i != localSeat) seat = i;
+        }
+        if (seat < 0) {
+            reject(connection, known ? RevealProtocol.REJECT_SEAT_TAKEN : RevealProtocol.REJECT_UNKNOWN_NAME);
+            return;
+        }
+        connection.seat = seat;
+        seats[seat] = connection;
+        joinedCount++;
+        send(connection, RevealProtocol.welcome(seat, roster.length));
+        if (reveals != null) send(connection, reveals[seat].duplicate());
+        if (listener != null) listener.onPlayerJoined(seat, roster[seat]);
+    }
+
+    private void reject(Connection connection, int reason) throws IOException {
+        // La trama es diminuta y el búfer del socket está vacío: cabe en una escritura
+        connection.channel.write(RevealProtocol.reject(reason));
+        drop(connection);
+    }
+
+    private void send(Connection connection, ByteBuffer frame) {
+        connection.out.add(frame);
+        try {
+            flush(connection);
+        } catch (IOException e) {
+            drop(connection);
+        }
+    }
+
+    private void flush(Connection connection) throws IOException {
+        ByteBuffer head;
+        while ((head = connection.out.peek()) != null) {
+            connection.channel.write(head);
+            if (head.hasRemaining()) break;
+            connection.out.poll();
+        }
+        SelectionKey key = connection.channel.keyFor(selector);
+        if (key != null && key.isValid()) {
+            key.interestOps(connection.out.isEmpty()
+                    ? SelectionKey.OP_READ
+                    : SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        }
+    }
+
+    private void drop(Connection connection) {
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+        }
+        int seat = connection.seat;
+        if (seat >= 0 && seats[seat] == connection) {
+            seats[seat] = null;
+            joinedCount--;
+            if (listener != null) listener.onPlayerLeft(seat);
+        }
+    }
+
+    private void shutdown() {
+        // Cierra el servidor y todas las conexiones, tengan asiento o no
+        try {
+            for (SelectionKey key : selector.keys()) {
+                try {
+                    key.channel().close();
+                } catch (IOException ignored) {
+                }
+            }
+        } catch (ClosedSelectorException ignored) {
+        }
+        try {
+            selector.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static String normalize(String name) {
+        return name == null ? "" : name.trim().toLowerCase(Locale.ROOT);
+    }
+}
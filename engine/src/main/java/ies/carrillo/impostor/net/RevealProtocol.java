@@ -0,0 +1,160 @@
+package ies.carrillo.impostor.net;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Protocolo binario de la revelación en varios móviles.
+ * <p>
+ * Cada trama es {@code u16 longitud | u8 tipo | datos}, donde la longitud
+ * cuenta el tipo y los datos (big-endian, como {@link java.io.DataOutputStream}).
+ * Los textos van como {@code u16 bytes | UTF-8}.
+ *
+ * <pre>
+ * HELLO   jugador -> anfitrión  u8 versión, texto nombre
+ * WELCOME anfitrión -> jugador  u16 asiento, u16 jugadores
+ * REJECT  anfitrión -> jugador  u8 motivo
+ * REVEAL  anfitrión -> jugador  u16 asiento, u8 rol (0 civil, 1 impostor), texto
+ * ACK     jugador -> anfitrión  u16 asiento
+ * </pre>
+ *
+ * El texto de REVEAL es la palabra para los civiles y la pista (o vacío) para
+ * los impostores: la palabra secreta nunca llega al móvil de un impostor.
+ */
+public final class RevealProtocol {
+
+    public static final int VERSION = 1;
+    public static final int DEFAULT_PORT = 47474;
+    // Tamaño máximo de una trama completa, cabecera incluida.
+    public static final int MAX_FRAME = 512;
+    static final int HEADER = 2;
+    // Bytes UTF-8 que caben en el texto de REVEAL: trama menos cabecera, tipo, asiento, rol y longitud
+    public static final int MAX_REVEAL_TEXT = MAX_FRAME - HEADER - 1 - 2 - 1 - 2;
+
+    public static final byte HELLO = 1;
+    public static final byte WELCOME = 2;
+    public static final byte REJECT = 3;
+    public static final byte REVEAL = 4;
+    public static final byte ACK = 5;
+
+    // Motivos de REJECT
+    public static final int REJECT_VERSION = 1;
+    public static final int REJECT_UNKNOWN_NAME = 2;
+    public static final int REJECT_SEAT_TAKEN = 3;
+    public static final int REJECT_MALFORMED = 4;
+
+    private RevealProtocol() {
+    }
+
+    // ******************************************************
+    // CODIFICACIÓN
+    // ******************************************************
+
+    public static ByteBuffer hello(String name) {
+        byte[] text = utf8(name);
+        ByteBuffer frame = begin(HELLO, 1 + 2 + text.length);
+        frame.put((byte) VERSION);
+        putText(frame, text);
+        return end(frame);
+    }
+
+    public static ByteBuffer welcome(int seat, int players) {
+        ByteBuffer frame = begin(WELCOME, 4);
+        frame.putShort((short) seat);
+        frame.putShort((short) players);
+        return end(frame);
+    }
+
+    public static ByteBuffer reject(int reason) {
+        ByteBuffer frame = begin(REJECT, 1);
+        frame.put((byte) reason);
+        return end(frame);
+    }
+
+    /**
+     * Si {@code text} cabe en una trama REVEAL; si no, {@link #reveal} lanza
+     * {@link IllegalArgumentException}.
+     */
+    public static boolean fitsReveal(String text) {
+        return utf8(text).length <= MAX_REVEAL_TEXT;
+    }
+
+    public static ByteBuffer reveal(int seat, boolean impostor, String text) {
+        byte[] bytes = utf8(text);
+        ByteBuffer frame = begin(REVEAL, 2 + 1 + 2 + bytes.length);
+        frame.putShort((short) seat);
+        frame.put((byte) (impostor ? 1 : 0));
+        putText(frame, bytes);
+        return end(frame);
+    }
+
+    public static ByteBuffer ack(int seat) {
+        ByteBuffer frame = begin(ACK, 2);
+        frame.putShort((short) seat);
+        return end(frame);
+    }
+
+    // ******************************************************
+    // DECODIFICACIÓN
+    // ******************************************************
+
+    /**
+     * Longitud de la trama completa que empieza en la posición de {@code in}
+     * (en modo lectura), o -1 si aún no han llegado todos sus bytes.
+     *
+     * @throws IOException si la longitud anunciada no es válida.
+     */
+    public static int frameLength(ByteBuffer in) throws IOException {
+        if (in.remaining() < HEADER) return -1;
+        int body = in.getShort(in.position()) & 0xFFFF;
+        if (body < 1 || HEADER + body > MAX_FRAME) throw new IOException("Trama de " + body + " bytes");
+        return in.remaining() >= HEADER + body ? HEADER + body : -1;
+    }
+
+    /**
+     * Lee un texto {@code u16 bytes | UTF-8}.
+     *
+     * @throws IOException si la trama se acaba antes.
+     */
+    public static String getText(ByteBuffer in) throws IOException {
+        try {
+            int length = in.getShort() & 0xFFFF;
+            if (length > in.remaining()) throw new IOException("Texto truncado");
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Texto truncado", e);
+        }
+    }
+
+    // ******************************************************
+    // INTERNOS
+    // ******************************************************
+
+    private static ByteBuffer begin(byte type, int payload) {
+        if (HEADER + 1 + payload > MAX_FRAME) {
+            throw new IllegalArgumentException("Trama demasiado larga: " + payload + " bytes");
+        }
+        ByteBuffer frame = ByteBuffer.allocate(HEADER + 1 + payload);
+        frame.putShort((short) (1 + payload));
+        frame.put(type);
+        return frame;
+    }
+
+    private static ByteBuffer end(ByteBuffer frame) {
+        frame.flip();
+        return frame;
+    }
+
+    private static void putText(ByteBuffer frame, byte[] text) {
+        frame.putShort((short) text.length);
+        frame.put(text);
+    }
+
+    private static byte[] utf8(String text) {
+        return (text != null ? text : "").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,18 @@
+package ies.carrillo.impostor.roles;
+
+public enum Roles {
+    CIVIL,IMPOSTOR;
+
+    /**
+     * Rol a partir de su nombre guardado. Los valores antiguos escritos a mano
+     * ("Civil") o desconocidos se tratan como CIVIL.
+     */
+    public static Roles fromName(String name) {
+        if (name != null) {
+            for (Roles rol : values()) {
+                if (rol.name().equalsIgnoreCase(name)) return rol;
+            }
+        }
+        return CIVIL;
+    }
+}
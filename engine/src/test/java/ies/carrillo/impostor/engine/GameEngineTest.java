@@ -0,0 +1,168 @@
+package ies.carrillo.impostor.engine;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class GameEngineTest {
+
+    private GameEngine engine;
+
+    @Before
+    public void setUp() {
+        engine = new GameEngine(8);
+    }
+
+    @Test
+    public void revealVisitsEverySeatInOrder() {
+        prepare(3, 1);
+        engine.startReveal();
+        for (int seat = 0; seat < 3; seat++) {
+            assertEquals(GameEngine.Phase.REVEAL, engine.getPhase());
+            assertEquals(seat, engine.getRevealSeat());
+            assertEquals(seat == 1, engine.revealCurrent());
+            engine.nextReveal();
+        }
+        assertEquals(GameEngine.Phase.DISCUSSION, engine.getPhase());
+    }
+
+    @Test
+    public void nextRevealRequiresTheRoleToBeSeen() {
+        prepare(3, 0);
+        engine.startReveal();
+        try {
+            engine.nextReveal();
+            fail("Debe exigir que el jugador vea su rol");
+        } catch (IllegalStateException expected) {
+            // ok
+        }
+    }
+
+    @Test
+    public void eliminatingTheImpostorGivesCiviliansTheWin() {
+        prepare(4, 2);
+        toDiscussion();
+
+        int seat = engine.eliminateAt(2);
+        assertEquals(2, seat);
+        assertEquals(GameEngine.Phase.RESULT, engine.getPhase());
+        assertEquals(GameEngine.Winner.CIVILES, engine.getWinner());
+    }
+
+    @Test
+    public void impostorsWinWhenTheyMatchCivilians() {
+        prepare(4, 0);
+        toDiscussion();
+        engine.startVote();
+
+        assertEquals(1, engine.eliminateAt(1));
+        assertEquals(GameEngine.Phase.DISCUSSION, engine.getPhase());
+        assertEquals(GameEngine.Winner.NONE, engine.getWinner());
+
+        // Vivos: 0, 2, 3. La fila 1 es ahora el asiento 2.
+        assertEquals(2, engine.aliveSeatAt(1));
+        assertEquals(2, engine.eliminateAt(1));
+        assertEquals(GameEngine.Winner.IMPOSTORES, engine.getWinner());
+        assertEquals(1, engine.getAliveImpostors());
+        assertEquals(1, engine.getAliveCivils());
+    }
+
+    @Test
+    public void invalidTransitionsAreRejected() {
+        prepare(3, 0);
+        try {
+            engine.eliminateAt(0);
+            fail("No se puede eliminar antes del debate");
+        } catch (IllegalStateException expected) {
+            // ok
+        }
+        try {
+            engine.startVote();
+            fail("No se puede votar antes del debate");
+        } catch (IllegalStateException expected) {
+            // ok
+        }
+    }
+
+    @Test
+    public void setupAfterResultStartsAFreshGame() {
+        prepare(3, 0);
+        toDiscussion();
+        engine.eliminateAt(0);
+        assertEquals(GameEngine.Phase.RESULT, engine.getPhase());
+
+        prepare(5, 4);
+        assertEquals(GameEngine.Phase.SETUP, engine.getPhase());
+        assertEquals(5, engine.getAliveCount());
+        assertEquals(1, engine.getAliveImpostors());
+        assertTrue(engine.isImpostor(4));
+        assertFalse(engine.isImpostor(0));
+        assertEquals(GameEngine.Winner.NONE, engine.getWinner());
+    }
+
+    @Test
+    public void stateRestoresTheGameMidRound() throws Exception {
+        prepare(6, 2);
+        engine.setImpostor(5, true);
+        toDiscussion();
+        engine.eliminateAt(1);
+        engine.startVote();
+        engine.eliminateAt(1);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        engine.writeState(new DataOutputStream(bytes));
+
+        GameEngine restored = new GameEngine(8);
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(engine.getPhase(), restored.getPhase());
+        assertEquals(4, restored.getAliveCount());
+        assertEquals(engine.getAliveImpostors(), restored.getAliveImpostors());
+        assertEquals(engine.getAliveCivils(), restored.getAliveCivils());
+        assertEquals(engine.getLastEliminatedSeat(), restored.getLastEliminatedSeat());
+        for (int row = 0; row < 4; row++) assertEquals(engine.aliveSeatAt(row), restored.aliveSeatAt(row));
+
+        // Y la partida sigue igual que la original
+        assertEquals(engine.eliminateAt(0), restored.eliminateAt(0));
+        assertEquals(engine.getPhase(), restored.getPhase());
+    }
+
+    @Test
+    public void corruptStateLeavesTheEngineUntouched() throws Exception {
+        prepare(3, 0);
+        engine.startReveal();
+        engine.revealCurrent();
+
+        byte[] state = {1, 0, 3, 0, 0, 0, 0, 9};
+        try {
+            engine.readState(new DataInputStream(new ByteArrayInputStream(state)));
+            fail("Debe rechazar un estado truncado");
+        } catch (IOException expected) {
+        }
+        assertEquals(GameEngine.Phase.REVEAL, engine.getPhase());
+        assertTrue(engine.isRevealed());
+        assertEquals(3, engine.getAliveCount());
+    }
+
+    private void prepare(int players, int impostorSeat) {
+        engine.setup(players);
+        engine.setImpostor(impostorSeat, true);
+    }
+
+    private void toDiscussion() {
+        engine.startReveal();
+        while (engine.getPhase() == GameEngine.Phase.REVEAL) {
+            engine.revealCurrent();
+            engine.nextReveal();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package ies.carrillo.impostor.engine;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class RoleAssignerTest {
+
+    @Test
+    public void picksDistinctSeatsInRange() {
+        RoleAssigner assigner = new RoleAssigner(7);
+        for (int round = 0; round < 1000; round++) {
+            int[] chosen = assigner.pick(6, 3);
+            boolean[] seen = new boolean[6];
+            for (int i = 0; i < 3; i++) {
+                assertTrue(chosen[i] >= 0 && chosen[i] < 6);
+                assertTrue("Asiento repetido", !seen[chosen[i]]);
+                seen[chosen[i]] = true;
+            }
+        }
+    }
+
+    @Test
+    public void sameSeedGivesSameRounds() {
+        RoleAssigner a = new RoleAssigner(42);
+        RoleAssigner b = new RoleAssigner(42);
+        for (int round = 0; round < 50; round++) {
+            assertArrayEquals(Arrays.copyOf(a.pick(10, 2), 2), Arrays.copyOf(b.pick(10, 2), 2));
+        }
+
+        a.reseed(42);
+        RoleAssigner c = new RoleAssigner(42);
+        assertArrayEquals(Arrays.copyOf(a.pick(10, 2), 2), Arrays.copyOf(c.pick(10, 2), 2));
+    }
+
+    @Test
+    public void everySeatIsEquallyLikely() {
+        RoleAssigner assigner = new RoleAssigner(3);
+        int players = 5;
+        int rounds = 50_000;
+        int[] counts = new int[players];
+        for (int round = 0; round < rounds; round++) {
+            counts[assigner.pick(players, 1)[0]]++;
+        }
+        for (int count : counts) {
+            // Esperado 10.000 por asiento; margen de unas 10 desviaciones típicas.
+            assertTrue("Reparto sesgado: " + Arrays.toString(counts), Math.abs(count - rounds / players) < 900);
+        }
+    }
+
+    @Test
+    public void assignMarksImpostorsInTheEngine() {
+        GameEngine engine = new GameEngine(8);
+        engine.setup(8);
+        new RoleAssigner(1).assign(engine, 2);
+        assertEquals(2, engine.getAliveImpostors());
+        assertEquals(6, engine.getAliveCivils());
+    }
+}
@@ -0,0 +1,264 @@
+package ies.carrillo.impostor.net;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class RevealHostTest {
+
+    private static final int TIMEOUT = 5000;
+
+    private final CountDownLatch acknowledged = new CountDownLatch(1);
+    private CountDownLatch joined;
+    private RevealHost host;
+    private InetSocketAddress address;
+    private ExecutorService players;
+
+    private void startHost(String... roster) throws IOException {
+        startHost(-1, roster);
+    }
+
+    private void startHost(int localSeat, String... roster) throws IOException {
+        joined = new CountDownLatch(localSeat >= 0 ? roster.length - 1 : roster.length);
+        host = new RevealHost(roster, localSeat, new RevealHost.Listener() {
+            @Override
+            public void onPlayerJoined(int seat, String name) {
+                joined.countDown();
+            }
+
+            @Override
+            public void onPlayerLeft(int seat) {
+            }
+
+            @Override
+            public void onPlayerAcknowledged(int seat) {
+            }
+
+            @Override
+            public void onAllAcknowledged() {
+                acknowledged.countDown();
+            }
+        });
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        int port = host.start(new InetSocketAddress(loopback, 0));
+        address = new InetSocketAddress(loopback, port);
+    }
+
+    @Before
+    public void setUp() {
+        players = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        if (host != null) host.close();
+        players.shutdownNow();
+    }
+
+    @Test(timeout = 20_000)
+    public void revealsEveryRoleAtOnceOverLoopback() throws Exception {
+        int count = 12;
+        String[] roster = new String[count];
+        for (int seat = 0; seat < count; seat++) roster[seat] = "Jugador " + seat;
+        startHost(roster);
+
+        List<RevealClient> clients = new ArrayList<>();
+        for (int seat = count - 1; seat >= 0; seat--) {
+            // Cada móvil escribe el nombre a su manera
+            clients.add(RevealClient.connect(address, " JUGADOR " + seat + " ", TIMEOUT));
+        }
+        assertTrue(joined.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(count, host.getJoinedCount());
+
+        List<Future<RevealClient.Reveal>> reveals = new ArrayList<>();
+        for (final RevealClient client : clients) {
+            assertEquals(count, client.getPlayerCount());
+            reveals.add(players.submit(new Callable<RevealClient.Reveal>() {
+                @Override
+                public RevealClient.Reveal call() throws Exception {
+                    RevealClient.Reveal reveal = client.awaitReveal();
+                    client.acknowledge();
+                    return reveal;
+                }
+            }));
+        }
+
+        boolean[] impostor = new boolean[count];
+        impostor[3] = true;
+        impostor[8] = true;
+        host.revealAll(impostor, "Paella", "Comida");
+
+        for (int i = 0; i < clients.size(); i++) {
+            RevealClient.Reveal reveal = reveals.get(i).get(TIMEOUT, TimeUnit.MILLISECONDS);
+            int seat = clients.get(i).getSeat();
+            assertEquals(count - 1 - i, seat);
+            assertEquals(seat, reveal.seat);
+            assertEquals(impostor[seat], reveal.impostor);
+            // La palabra nunca llega a un impostor
+            assertEquals(impostor[seat] ? "Comida" : "Paella", reveal.text);
+        }
+        assertTrue(acknowledged.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        for (RevealClient client : clients) client.close();
+    }
+
+    @Test(timeout = 20_000)
+    public void rejectsUnknownNamesAndTakenSeats() throws Exception {
+        startHost("Ana", "Luis");
+        RevealClient ana = RevealClient.connect(address, "ana", TIMEOUT);
+        assertEquals(0, ana.getSeat());
+
+        expectRejected("Ana", RevealProtocol.REJECT_SEAT_TAKEN);
+        expectRejected("Pepe", RevealProtocol.REJECT_UNKNOWN_NAME);
+
+        // Si Ana se cae, su asiento vuelve a quedar libre
+        ana.close();
+        RevealClient again = null;
+        for (int attempt = 0; attempt < 50 && again == null; attempt++) {
+            try {
+                again = RevealClient.connect(address, "Ana", TIMEOUT);
+            } catch (RevealClient.RejectedException e) {
+                assertEquals(RevealProtocol.REJECT_SEAT_TAKEN, e.reason);
+                Thread.sleep(20);
+            }
+        }
+        assertEquals(0, again.getSeat());
+        again.close();
+    }
+
+    @Test(timeout = 20_000)
+    public void lateJoinerGetsRevealOnConnect() throws Exception {
+        startHost("Ana", "Luis", "Marta");
+        RevealClient ana = RevealClient.connect(address, "Ana", TIMEOUT);
+        RevealClient marta = RevealClient.connect(address, "Marta", TIMEOUT);
+
+        host.revealAll(new boolean[]{false, true, false}, "Faro", null);
+        assertEquals("Faro", ana.awaitReveal().text);
+        assertEquals("Faro", marta.awaitReveal().text);
+
+        RevealClient luis = RevealClient.connect(address, "Luis", TIMEOUT);
+        RevealClient.Reveal reveal = luis.awaitReveal();
+        assertTrue(reveal.impostor);
+        assertEquals("", reveal.text);
+
+        ana.acknowledge();
+        luis.acknowledge();
+        assertFalse(acknowledged.await(100, TimeUnit.MILLISECONDS));
+        marta.acknowledge();
+        assertTrue(acknowledged.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(3, host.getAcknowledgedCount());
+
+        ana.close();
+        luis.close();
+        marta.close();
+    }
+
+    @Test(timeout = 20_000)
+    public void localSeatIsNeverJoinedAndIsAcknowledgedByTheHost() throws Exception {
+        startHost(0, "Ana", "Luis");
+        assertEquals(1, host.getRemoteCount());
+        expectRejected("Ana", RevealProtocol.REJECT_SEAT_TAKEN);
+        RevealClient luis = RevealClient.connect(address, "Luis", TIMEOUT);
+        assertTrue(joined.await(TIMEOUT, TimeUnit.MILLISECONDS));
+
+        host.revealAll(new boolean[]{true, false}, "Faro", "Luz");
+        assertEquals("Faro", luis.awaitReveal().text);
+        luis.acknowledge();
+        assertFalse(acknowledged.await(100, TimeUnit.MILLISECONDS));
+
+        // Ana vio su rol en el móvil del anfitrión
+        host.acknowledgeLocal();
+        assertTrue(acknowledged.await(TIMEOUT, TimeUnit.MILLISECONDS));
+        assertEquals(2, host.getAcknowledgedCount());
+        luis.close();
+    }
+
+    @Test(timeout = 20_000)
+    public void decodesFramesSplitAcrossReads() throws Exception {
+        startHost("Año");
+        try (Socket socket = new Socket()) {
+            socket.connect(address, TIMEOUT);
+            socket.setSoTimeout(TIMEOUT);
+            socket.setTcpNoDelay(true);
+            OutputStream out = socket.getOutputStream();
+            ByteBuffer hello = RevealProtocol.hello("Año");
+            while (hello.hasRemaining()) {
+                out.write(hello.get());
+                out.flush();
+                Thread.sleep(2);
+            }
+
+            DataInputStream in = new DataInputStream(socket.getInputStream());
+            assertEquals(5, in.readUnsignedShort());
+            assertEquals(RevealProtocol.WELCOME, in.readByte());
+            assertEquals(0, in.readUnsignedShort());
+            assertEquals(1, in.readUnsignedShort());
+        }
+    }
+
+    @Test(timeout = 20_000)
+    public void dropsMalformedFrames() throws Exception {
+        startHost("Ana");
+        try (Socket socket = new Socket()) {
+            socket.connect(address, TIMEOUT);
+            socket.setSoTimeout(TIMEOUT);
+            // Longitud mayor que cualquier trama válida
+            socket.getOutputStream().write(new byte[]{(byte) 0xFF, (byte) 0xFF, 1});
+            try {
+                assertEquals(-1, socket.getInputStream().read());
+            } catch (IOException expected) {
+                // Reset por parte del anfitrión
+            }
+        }
+        // El anfitrión sigue atendiendo
+        RevealClient ana = RevealClient.connect(address, "Ana", TIMEOUT);
+        assertEquals(0, ana.getSeat());
+        ana.close();
+    }
+
+    @Test
+    public void fitsRevealMatchesTheFrameLimit() {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < RevealProtocol.MAX_REVEAL_TEXT / 2; i++) text.append('ñ');
+        assertTrue(RevealProtocol.fitsReveal(text.toString()));
+        assertEquals(RevealProtocol.MAX_FRAME, RevealProtocol.reveal(0, false, text.toString()).remaining());
+
+        text.append('a');
+        assertFalse(RevealProtocol.fitsReveal(text.toString()));
+        try {
+            RevealProtocol.reveal(0, false, text.toString());
+            fail("No cabe en una trama");
+        } catch (IllegalArgumentException expected) {
+            // fitsReveal lo avisa antes
+        }
+    }
+
+    private void expectRejected(String name, int reason) throws IOException {
+        try {
+            RevealClient.connect(address, name, TIMEOUT).close();
+            fail("Debería haber sido rechazado: " + name);
+        } catch (RevealClient.RejectedException e) {
+            assertEquals(reason, e.reason);
+        }
+    }
+}
@@ -21,4 +21,7 @@ dependencyResolutionManagement {
 
 rootProject.name = "Impostor"
 include(":app")
+include(":engine")
+include(":benchmarks")
+include(":simulator")
  
\ No newline at end of file
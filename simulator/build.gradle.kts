@@ -0,0 +1,36 @@
+// Simulador Monte Carlo del equilibrio entre impostores y jugadores (módulo JVM, sin Android).
+// Ejecutar con: ./gradlew :simulator:run --args="--games 1000000 --model plurality:0.15 --seed 42"
+plugins {
+    java
+    application
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// Igual que en :benchmarks, el reparto de roles se compila desde :app para simular
+// exactamente el código que se publica (GameLogic + Jugador).
+sourceSets {
+    main {
+        java {
+            srcDir("../app/src/main/java")
+            include(
+                "ies/carrillo/impostor/model/**",
+                "ies/carrillo/impostor/utils/GameLogic.java",
+                "ies/carrillo/impostor/simulator/**"
+            )
+        }
+    }
+}
+
+dependencies {
+    implementation(project(":engine"))
+    compileOnly(libs.jetbrains.annotations)
+    testImplementation(libs.junit)
+}
+
+application {
+    mainClass.set("ies.carrillo.impostor.simulator.BalanceSimulator")
+}
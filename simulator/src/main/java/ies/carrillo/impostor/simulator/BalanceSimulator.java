@@ -0,0 +1,275 @@
+package ies.carrillo.impostor.simulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import ies.carrillo.impostor.engine.GameEngine;
+import ies.carrillo.impostor.engine.RoleAssigner;
+import ies.carrillo.impostor.model.Jugador;
+import ies.carrillo.impostor.roles.Roles;
+import ies.carrillo.impostor.utils.GameLogic;
+
+/**
+ * Simulador Monte Carlo del equilibrio entre impostores y jugadores.
+ * <p>
+ * Cada partida recorre el mismo camino que en la app: {@link GameLogic}
+ * reparte los roles sobre los {@link Jugador}, se copian al
+ * {@link GameEngine} como hace {@code GameSession}, y el motor elimina y
+ * decide quién gana. Solo la votación la pone un {@link VotingModel}.
+ * <p>
+ * Las partidas se reparten en bloques fijos de {@link #CHUNK} con fork/join.
+ * La semilla de cada bloque se deriva de la semilla global y de su número,
+ * no del hilo que lo ejecuta: el resultado es el mismo con 1 o con 64 hilos.
+ * Cada bloque reserva su motor y su plantilla una sola vez.
+ */
+public final class BalanceSimulator {
+
+    static final int CHUNK = 1 << 13;
+    // z de un intervalo al 95 %
+    public static final double Z_95 = 1.959963984540054;
+
+    /**
+     * Resultado de una configuración (jugadores, impostores).
+     */
+    public static final class Result {
+        public final int players;
+        public final int impostors;
+        public final long games;
+        public final long impostorWins;
+        public final long eliminations;
+
+        Result(int players, int impostors, long games, long impostorWins, long eliminations) {
+            this.players = players;
+            this.impostors = impostors;
+            this.games = games;
+            this.impostorWins = impostorWins;
+            this.eliminations = eliminations;
+        }
+
+        public double impostorWinRate() {
+            return games == 0 ? 0 : (double) impostorWins / games;
+        }
+
+        /**
+         * Intervalo de Wilson de la tasa de victoria de los impostores.
+         */
+        public double[] impostorWinInterval(double z) {
+            return wilson(impostorWins, games, z);
+        }
+
+        public double roundsPerGame() {
+            return games == 0 ? 0 : (double) eliminations / games;
+        }
+    }
+
+    private final VotingModel model;
+    private final long seed;
+    private final ForkJoinPool pool;
+
+    public BalanceSimulator(VotingModel model, long seed, ForkJoinPool pool) {
+        this.model = model;
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    /**
+     * Juega {@code games} partidas con esa configuración.
+     */
+    public Result run(int players, int impostors, long games) {
+        if (impostors < 1 || impostors >= players) {
+            throw new IllegalArgumentException(impostors + " impostores para " + players + " jugadores");
+        }
+        if (games < 0) throw new IllegalArgumentException("Partidas: " + games);
+        // Cada configuración tiene su propia corriente: añadir una no cambia las demás
+        long configSeed = mix(seed ^ mix(((long) players << 32) | impostors));
+        long chunks = (games + CHUNK - 1) / CHUNK;
+        long[] totals = pool.invoke(new Games(model, configSeed, players, impostors, games, 0, chunks));
+        return new Result(players, impostors, games, totals[0], totals[1]);
+    }
+
+    /**
+     * Intervalo de confianza de Wilson para {@code successes} de {@code trials}.
+     * A diferencia del de Wald, no se sale de [0, 1] ni se anula con tasas extremas.
+     */
+    public static double[] wilson(long successes, long trials, double z) {
+        if (trials == 0) return new double[]{0, 1};
+        double n = trials;
+        double p = successes / n;
+        double z2 = z * z;
+        double center = (p + z2 / (2 * n)) / (1 + z2 / n);
+        double half = z / (1 + z2 / n) * Math.sqrt(p * (1 - p) / n + z2 / (4 * n * n));
+        return new double[]{Math.max(0, center - half), Math.min(1, center + half)};
+    }
+
+    // Finalizador de SplittableRandom (variante 13 de Stafford)
+    static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ******************************************************
+    // FORK/JOIN
+    // ******************************************************
+
+    private static final class Games extends RecursiveTask<long[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final VotingModel model;
+        private final long seed;
+        private final int players;
+        private final int impostors;
+        private final long games;
+        private final long fromChunk;
+        private final long toChunk;
+
+        Games(VotingModel model, long seed, int players, int impostors, long games, long fromChunk, long toChunk) {
+            this.model = model;
+            this.seed = seed;
+            this.players = players;
+            this.impostors = impostors;
+            this.games = games;
+            this.fromChunk = fromChunk;
+            this.toChunk = toChunk;
+        }
+
+        @Override
+        protected long[] compute() {
+            if (toChunk - fromChunk > 1) {
+                long middle = (fromChunk + toChunk) >>> 1;
+                Games left = new Games(model, seed, players, impostors, games, fromChunk, middle);
+                left.fork();
+                long[] right = new Games(model, seed, players, impostors, games, middle, toChunk).compute();
+                long[] total = left.join();
+                total[0] += right[0];
+                total[1] += right[1];
+                return total;
+            }
+            return toChunk > fromChunk ? playChunk(fromChunk) : new long[2];
+        }
+
+        private long[] playChunk(long chunk) {
+            long count = Math.min(CHUNK, games - chunk * CHUNK);
+            SplittableRandom random = new SplittableRandom(mix(seed + chunk * 0x9E3779B97F4A7C15L));
+            RoleAssigner assigner = new RoleAssigner(random.nextLong());
+            GameEngine engine = new GameEngine(players);
+            int[] scratch = new int[VotingModel.scratchSize(players)];
+            List<Jugador> jugadores = new ArrayList<>(players);
+            for (int seat = 0; seat < players; seat++) jugadores.add(new Jugador("J" + seat));
+
+            long impostorWins = 0;
+            long eliminations = 0;
+            for (long game = 0; game < count; game++) {
+                GameLogic.assignRoles(jugadores, impostors, assigner);
+                engine.setup(players);
+                for (int seat = 0; seat < players; seat++) {
+                    if (jugadores.get(seat).getRole() == Roles.IMPOSTOR) engine.setImpostor(seat, true);
+                }
+                engine.startReveal();
+                engine.finishReveal();
+                while (engine.getPhase() != GameEngine.Phase.RESULT) {
+                    engine.eliminateAt(model.pickRow(engine, random, scratch));
+                    eliminations++;
+                }
+                if (engine.getWinner() == GameEngine.Winner.IMPOSTORES) impostorWins++;
+            }
+            return new long[]{impostorWins, eliminations};
+        }
+    }
+
+    // ******************************************************
+    // LÍNEA DE COMANDOS
+    // ******************************************************
+
+    /**
+     * Tabla de victorias de los impostores por número de jugadores e impostores.
+     * <pre>
+     * --games N           partidas por casilla (1.000.000)
+     * --model M           random | detective:P | plurality:P (plurality:0.15)
+     * --seed S            semilla (42)
+     * --players A-B       jugadores (3-20)
+     * --impostors A-B     impostores (1-3)
+     * --threads T         hilos (todos los núcleos)
+     * </pre>
+     */
+    public static void main(String[] args) {
+        long games = 1_000_000;
+        VotingModel model = VotingModels.plurality(0.15);
+        long seed = 42;
+        int[] players = {3, 20};
+        int[] impostors = {1, 3};
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--games":
+                    games = Long.parseLong(value);
+                    break;
+                case "--model":
+                    model = VotingModels.parse(value);
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--players":
+                    players = range(value);
+                    break;
+                case "--impostors":
+                    impostors = range(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                default:
+                    throw new IllegalArgumentException("Opción desconocida: " + args[i]);
+            }
+        }
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        BalanceSimulator simulator = new BalanceSimulator(model, seed, pool);
+        System.out.printf(Locale.ROOT, "Victorias de los impostores, IC 95%% (Wilson). Modelo %s, semilla %d, %,d partidas por casilla, %d hilos%n",
+                model, seed, games, threads);
+        StringBuilder header = new StringBuilder("jugadores");
+        for (int k = impostors[0]; k <= impostors[1]; k++) {
+            header.append(String.format(Locale.ROOT, " | %-26s", k + " impostor" + (k == 1 ? "" : "es")));
+        }
+        System.out.println(header);
+
+        long total = 0;
+        long start = System.nanoTime();
+        for (int n = players[0]; n <= players[1]; n++) {
+            StringBuilder line = new StringBuilder(String.format(Locale.ROOT, "%9d", n));
+            for (int k = impostors[0]; k <= impostors[1]; k++) {
+                // La misma regla que MainActivity: como mucho n - 1 impostores. El motor
+                // solo mira quién gana tras una eliminación, así que empatar en número no
+                // basta: si el primero en caer es un impostor, la partida sigue.
+                if (k > n - 1) {
+                    line.append(String.format(Locale.ROOT, " | %-26s", "-"));
+                    continue;
+                }
+                Result result = simulator.run(n, k, games);
+                double[] interval = result.impostorWinInterval(Z_95);
+                line.append(String.format(Locale.ROOT, " | %5.1f%% [%5.1f, %5.1f] %4.1fr",
+                        100 * result.impostorWinRate(), 100 * interval[0], 100 * interval[1], result.roundsPerGame()));
+                total += games;
+            }
+            System.out.println(line);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf(Locale.ROOT, "%,d partidas en %.2f s (%,.0f partidas/s)%n", total, seconds, total / seconds);
+        pool.shutdown();
+    }
+
+    private static int[] range(String value) {
+        int dash = value.indexOf('-');
+        if (dash < 0) {
+            int single = Integer.parseInt(value);
+            return new int[]{single, single};
+        }
+        return new int[]{Integer.parseInt(value.substring(0, dash)), Integer.parseInt(value.substring(dash + 1))};
+    }
+}
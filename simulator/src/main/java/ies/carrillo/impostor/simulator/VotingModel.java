@@ -0,0 +1,28 @@
+package ies.carrillo.impostor.simulator;
+
+import java.util.SplittableRandom;
+
+import ies.carrillo.impostor.engine.GameEngine;
+
+/**
+ * Cómo decide el grupo a quién eliminar en cada ronda.
+ * <p>
+ * Las implementaciones no guardan estado: todo lo que necesitan por ronda
+ * va en {@code scratch}, un array del hilo que las llama, de modo que la
+ * misma instancia sirve a todos los hilos del simulador. Los modelos
+ * disponibles están en {@link VotingModels}.
+ */
+public interface VotingModel {
+
+    /**
+     * Tamaño mínimo de {@code scratch} para partidas de hasta {@code capacity} jugadores.
+     */
+    static int scratchSize(int capacity) {
+        return 2 * capacity;
+    }
+
+    /**
+     * @return la fila (en la lista de vivos del motor) del jugador eliminado.
+     */
+    int pickRow(GameEngine engine, SplittableRandom random, int[] scratch);
+}
@@ -0,0 +1,161 @@
+package ies.carrillo.impostor.simulator;
+
+import java.util.SplittableRandom;
+
+import ies.carrillo.impostor.engine.GameEngine;
+
+/**
+ * Modelos de votación del simulador.
+ */
+public final class VotingModels {
+
+    private VotingModels() {
+    }
+
+    // ******************************************************
+    // MODELOS
+    // ******************************************************
+
+    /**
+     * Nadie sabe nada: se elimina a un vivo cualquiera.
+     */
+    public static VotingModel random() {
+        return new VotingModel() {
+            @Override
+            public int pickRow(GameEngine engine, SplittableRandom random, int[] scratch) {
+                return random.nextInt(engine.getAliveCount());
+            }
+
+            @Override
+            public String toString() {
+                return "random";
+            }
+        };
+    }
+
+    /**
+     * El grupo acierta con probabilidad {@code accuracy} y elimina a un
+     * impostor; si no, a un vivo cualquiera (que también puede serlo).
+     */
+    public static VotingModel detective(final double accuracy) {
+        checkProbability(accuracy);
+        return new VotingModel() {
+            @Override
+            public int pickRow(GameEngine engine, SplittableRandom random, int[] scratch) {
+                if (random.nextDouble() < accuracy) {
+                    int impostors = impostorRows(engine, scratch, 0);
+                    return scratch[random.nextInt(impostors)];
+                }
+                return random.nextInt(engine.getAliveCount());
+            }
+
+            @Override
+            public String toString() {
+                return "detective:" + accuracy;
+            }
+        };
+    }
+
+    /**
+     * Votación por mayoría: cada civil vota a un impostor con probabilidad
+     * {@code suspicion} y, si no, a otro vivo cualquiera; los impostores
+     * votan siempre a un civil. Los empates se sortean.
+     */
+    public static VotingModel plurality(final double suspicion) {
+        checkProbability(suspicion);
+        return new VotingModel() {
+            @Override
+            public int pickRow(GameEngine engine, SplittableRandom random, int[] scratch) {
+                int alive = engine.getAliveCount();
+                // scratch[0, alive): votos por fila; scratch[alive, ...): filas de impostores
+                int impostors = impostorRows(engine, scratch, alive);
+                int civils = alive - impostors;
+                for (int row = 0; row < alive; row++) scratch[row] = 0;
+
+                for (int voter = 0, next = alive; voter < alive; voter++) {
+                    boolean isImpostor = next < alive + impostors && scratch[next] == voter;
+                    int target;
+                    if (isImpostor) {
+                        next++;
+                        target = civilRow(scratch, alive, impostors, random.nextInt(civils));
+                    } else if (random.nextDouble() < suspicion) {
+                        target = scratch[alive + random.nextInt(impostors)];
+                    } else {
+                        // Cualquier otro vivo: se salta a sí mismo
+                        target = random.nextInt(alive - 1);
+                        if (target >= voter) target++;
+                    }
+                    scratch[target]++;
+                }
+
+                int best = 0;
+                int ties = 1;
+                for (int row = 1; row < alive; row++) {
+                    if (scratch[row] > scratch[best]) {
+                        best = row;
+                        ties = 1;
+                    } else if (scratch[row] == scratch[best] && random.nextInt(++ties) == 0) {
+                        best = row;
+                    }
+                }
+                return best;
+            }
+
+            @Override
+            public String toString() {
+                return "plurality:" + suspicion;
+            }
+        };
+    }
+
+    /**
+     * "random", "detective:0.3" o "plurality:0.4".
+     */
+    public static VotingModel parse(String spec) {
+        int colon = spec.indexOf(':');
+        String name = colon < 0 ? spec : spec.substring(0, colon);
+        double value = colon < 0 ? 0.5 : Double.parseDouble(spec.substring(colon + 1));
+        switch (name) {
+            case "random":
+                return random();
+            case "detective":
+                return detective(value);
+            case "plurality":
+                return plurality(value);
+            default:
+                throw new IllegalArgumentException("Modelo de votación desconocido: " + spec);
+        }
+    }
+
+    // ******************************************************
+    // AUXILIARES
+    // ******************************************************
+
+    /**
+     * Escribe en {@code out[from, ...)} las filas de los impostores vivos, en orden.
+     *
+     * @return cuántos hay.
+     */
+    private static int impostorRows(GameEngine engine, int[] out, int from) {
+        int alive = engine.getAliveCount();
+        int count = 0;
+        for (int row = 0; row < alive; row++) {
+            if (engine.isImpostor(engine.aliveSeatAt(row))) out[from + count++] = row;
+        }
+        return count;
+    }
+
+    /**
+     * La {@code index}-ésima fila de civil, saltando las filas de impostores
+     * guardadas (en orden) en {@code scratch[alive, alive + impostors)}.
+     */
+    private static int civilRow(int[] scratch, int alive, int impostors, int index) {
+        int row = index;
+        for (int i = alive; i < alive + impostors && scratch[i] <= row; i++) row++;
+        return row;
+    }
+
+    private static void checkProbability(double p) {
+        if (!(p >= 0 && p <= 1)) throw new IllegalArgumentException("Probabilidad inválida: " + p);
+    }
+}
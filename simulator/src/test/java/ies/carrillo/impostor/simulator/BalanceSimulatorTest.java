@@ -0,0 +1,78 @@
+package ies.carrillo.impostor.simulator;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class BalanceSimulatorTest {
+
+    private ForkJoinPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void sameSeedGivesSameResultWithAnyThreadCount() {
+        ForkJoinPool single = new ForkJoinPool(1);
+        try {
+            // Un número de partidas que no es múltiplo del bloque
+            long games = 5 * BalanceSimulator.CHUNK + 123;
+            BalanceSimulator.Result a = new BalanceSimulator(VotingModels.plurality(0.2), 7, pool).run(8, 2, games);
+            BalanceSimulator.Result b = new BalanceSimulator(VotingModels.plurality(0.2), 7, single).run(8, 2, games);
+            assertEquals(games, a.games);
+            assertEquals(a.impostorWins, b.impostorWins);
+            assertEquals(a.eliminations, b.eliminations);
+
+            BalanceSimulator.Result other = new BalanceSimulator(VotingModels.plurality(0.2), 8, pool).run(8, 2, games);
+            assertTrue(other.impostorWins != a.impostorWins || other.eliminations != a.eliminations);
+        } finally {
+            single.shutdown();
+        }
+    }
+
+    @Test
+    public void randomVotingMatchesTheExactOdds() {
+        BalanceSimulator simulator = new BalanceSimulator(VotingModels.random(), 1, pool);
+        // 3 jugadores, 1 impostor: los civiles solo ganan si aciertan a la primera (1/3)
+        assertContains(2.0 / 3, simulator.run(3, 1, 200_000));
+        // 4 jugadores: 1/4 + 3/4 · 1/3 = 1/2
+        assertContains(0.5, simulator.run(4, 1, 200_000));
+    }
+
+    @Test
+    public void certainSuspicionAlwaysCatchesALoneImpostor() {
+        BalanceSimulator.Result result = new BalanceSimulator(VotingModels.plurality(1), 3, pool).run(6, 1, 50_000);
+        assertEquals(0, result.impostorWins);
+        assertEquals(result.games, result.eliminations);
+    }
+
+    @Test
+    public void wilsonIntervalMatchesKnownValues() {
+        double[] half = BalanceSimulator.wilson(50, 100, BalanceSimulator.Z_95);
+        assertEquals(0.4038, half[0], 1e-4);
+        assertEquals(0.5962, half[1], 1e-4);
+
+        // Sin éxitos el intervalo sigue teniendo anchura (el de Wald daría [0, 0])
+        double[] none = BalanceSimulator.wilson(0, 20, BalanceSimulator.Z_95);
+        assertEquals(0, none[0], 1e-12);
+        assertEquals(0.1611, none[1], 1e-4);
+    }
+
+    private static void assertContains(double expected, BalanceSimulator.Result result) {
+        double[] interval = BalanceSimulator.wilson(result.impostorWins, result.games, 4);
+        assertTrue(expected + " fuera de [" + interval[0] + ", " + interval[1] + "]",
+                interval[0] <= expected && expected <= interval[1]);
+    }
+}